@@ -0,0 +1,94 @@
+package com.example.springboot.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * AsyncConfig - Enables @Async and provides the executor it runs on
+ *
+ * Without @EnableAsync the @Async methods on EmailService ran on the HTTP thread.
+ * They now run on a small bounded pool that builds messages and queues them on
+ * MailDispatcher. When its queue is full the calling thread runs the task itself
+ * (CallerRunsPolicy), so a mail backlog slows producers instead of growing without bound.
+ * Under the virtual-threads profile each task gets its own virtual thread instead, with
+ * the same limit on tasks in flight (see VirtualThreads).
+ *
+ * The pool is handed to Spring through AsyncConfigurer rather than declared as an
+ * Executor bean, which would make Spring Boot drop its applicationTaskExecutor (used
+ * by the StreamingResponseBody downloads).
+ */
+@Slf4j
+@Configuration
+@EnableAsync
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final AsyncTaskExecutor executor;
+
+    public AsyncConfig(
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.executor.threads:2}") int threads,
+            @Value("${app.mail.executor.queue-capacity:200}") int queueCapacity,
+            @Value("${" + VirtualThreads.PROPERTY + ":false}") boolean virtualThreads) {
+        if (virtualThreads && VirtualThreads.supported()) {
+            // One virtual thread per email, with as many in flight as the pool and its queue allowed
+            executor = VirtualThreads.executor("async-mail-", Math.max(1, threads) + Math.max(1, queueCapacity));
+            return;
+        }
+        if (virtualThreads) {
+            log.warn("Virtual threads need Java 21+, running @Async on platform threads (Java {})",
+                    Runtime.version().feature());
+        }
+
+        ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+        pool.setCorePoolSize(Math.max(1, threads));
+        pool.setMaxPoolSize(Math.max(1, threads));
+        pool.setQueueCapacity(Math.max(1, queueCapacity));
+        pool.setThreadNamePrefix("async-mail-");
+        pool.setDaemon(true);
+        pool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.setWaitForTasksToCompleteOnShutdown(true);
+        pool.setAwaitTerminationSeconds(10);
+        pool.initialize();
+        executor = pool;
+
+        Gauge.builder("mail.executor.queue_depth", pool, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Email tasks waiting for an async thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return executor;
+    }
+
+    /**
+     * Failures in void @Async methods are otherwise swallowed silently
+     */
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) ->
+                log.error("Async method {} failed: {}", method.getName(), ex.getMessage());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
+        }
+    }
+}
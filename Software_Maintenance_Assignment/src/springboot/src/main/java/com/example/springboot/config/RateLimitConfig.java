@@ -0,0 +1,68 @@
+package com.example.springboot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RateLimitConfig - Per-endpoint rate limit policies (app.rate-limit.*)
+ *
+ * Each policy matches request paths (Ant patterns) and limits requests per window by
+ * client IP, by authenticated account and across the whole route. A limit of 0 turns
+ * that dimension off. Configuring a policy name replaces its default entirely, e.g.
+ * app.rate-limit.policies.login.paths=/api/auth/login
+ * app.rate-limit.policies.login.ip-limit=10
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Data
+public class RateLimitConfig {
+
+    private boolean enabled;
+    private boolean trustForwardedFor;    // only behind a proxy that sets X-Forwarded-For
+    private Map<String, Policy> policies;
+
+    // Default values
+    public RateLimitConfig() {
+        this.enabled = true;
+        this.trustForwardedFor = false;
+        this.policies = new LinkedHashMap<>();
+        policies.put("login", Policy.of("POST", Duration.ofMinutes(1), 20, 0, 600,
+                "/api/auth/login", "/api/auth/login/**"));
+        policies.put("register", Policy.of("POST", Duration.ofMinutes(10), 5, 0, 300,
+                "/api/register/user", "/api/register/admin"));
+        policies.put("forgot-password", Policy.of("POST", Duration.ofMinutes(15), 5, 0, 200,
+                "/api/auth/forgot-password", "/api/auth/reset-password"));
+        policies.put("booking-confirm", Policy.of("POST", Duration.ofMinutes(1), 30, 10, 1000,
+                "/api/booking/confirm"));
+    }
+
+    @Data
+    public static class Policy {
+
+        private List<String> paths = new ArrayList<>();
+        private String method;                // null matches any method
+        private Duration window = Duration.ofMinutes(1);
+        private int ipLimit;
+        private int accountLimit;
+        private int routeLimit;
+
+        static Policy of(String method, Duration window, int ipLimit, int accountLimit,
+                         int routeLimit, String... paths) {
+            Policy policy = new Policy();
+            policy.setMethod(method);
+            policy.setWindow(window);
+            policy.setIpLimit(ipLimit);
+            policy.setAccountLimit(accountLimit);
+            policy.setRouteLimit(routeLimit);
+            policy.setPaths(new ArrayList<>(List.of(paths)));
+            return policy;
+        }
+    }
+}
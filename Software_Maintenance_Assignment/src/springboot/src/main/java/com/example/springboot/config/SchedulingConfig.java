@@ -0,0 +1,15 @@
+package com.example.springboot.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * SchedulingConfig - Enables @Scheduled background jobs (index preloading, batched flushes)
+ *
+ * The jobs run on Spring Boot's scheduler pool, sized by spring.task.scheduling.pool.size
+ * in application.properties.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,7 +1,10 @@
 package com.example.springboot.config;
 
 import com.example.springboot.security.jwt.JwtAuthenticationFilter;
+import com.example.springboot.security.password.PasswordHashingAdmissionFilter;
+import com.example.springboot.security.ratelimit.RateLimitFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -12,6 +15,7 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 
@@ -22,6 +26,8 @@ import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWrite
 public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final PasswordHashingAdmissionFilter passwordHashingAdmissionFilter;
     
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -77,6 +83,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/register/admin").hasRole("SUPERADMIN")
                 .requestMatchers("/api/dashboard/superadmin/**").hasRole("SUPERADMIN")
                 .requestMatchers("/api/mfa/**").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/flights/notifications").hasAnyRole("ADMIN", "SUPERADMIN")
                 .anyRequest().authenticated()
             )
             .exceptionHandling(exceptions -> exceptions
@@ -101,11 +108,34 @@ public class SecurityConfig {
                     }
                 })
             )
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+            // After JWT authentication so per-account limits see the caller
+            .addFilterAfter(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
+            // Shed password work with 503 while the hashing pool is saturated
+            .addFilterBefore(passwordHashingAdmissionFilter, AnonymousAuthenticationFilter.class);
         
         return http.build();
     }
     
+    /**
+     * The rate limit and hashing admission filters run inside the security chain only,
+     * not as servlet filters too
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+    
+    @Bean
+    public FilterRegistrationBean<PasswordHashingAdmissionFilter> passwordHashingAdmissionFilterRegistration() {
+        FilterRegistrationBean<PasswordHashingAdmissionFilter> registration =
+            new FilterRegistrationBean<>(passwordHashingAdmissionFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+    
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authConfig) throws Exception {
         return authConfig.getAuthenticationManager();
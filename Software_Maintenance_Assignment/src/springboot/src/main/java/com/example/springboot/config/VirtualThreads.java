@@ -0,0 +1,52 @@
+package com.example.springboot.config;
+
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * VirtualThreads - Support for the "virtual-threads" profile
+ *
+ * The profile sets spring.threads.virtual.enabled, which makes Spring Boot run Tomcat
+ * requests, @Scheduled jobs and its applicationTaskExecutor on virtual threads; the
+ * executors this app builds itself (AsyncConfig, TicketEnrichmentExecutor) switch over
+ * through executor() below. Virtual threads need a Java 21+ runtime; the code still
+ * compiles for Java 17, and on an older JVM everything stays on platform threads.
+ *
+ * Pinning review (a virtual thread that blocks while holding a monitor keeps its carrier
+ * thread blocked too; run with -Djdk.tracePinnedThreads=short to report it):
+ * - MappedFileNotificationOutbox forces its log to disk under its lock on every booking;
+ *   it uses a ReentrantLock for that reason.
+ * - ThrottledMailSender sleeps for tokens outside its monitor.
+ * - TokenRevocationRegistry, TokenFamilyTable, JwtTokenProvider and
+ *   FlightChangeNotificationService hold monitors only for in-memory updates.
+ * - TOTPVerifier (its Mac and buffers) and EmailTemplateRenderer (its output buffer)
+ *   keep scratch objects in a ScratchPool, not a ThreadLocal: a virtual thread runs one
+ *   request and exits, so a per-thread copy would be created for every login or email
+ *   and never reused. RequestReadMemo's ThreadLocal is fine, since it only lives for
+ *   one request anyway.
+ * - The Guava caches (JwtTokenProvider, MFAService, PrincipalEmailIndexRepository) are
+ *   only used through getIfPresent/put. Guava runs cache loaders while holding a
+ *   monitor on the entry, so do not add a loader that calls Firestore.
+ */
+public final class VirtualThreads {
+
+    public static final String PROPERTY = "spring.threads.virtual.enabled";
+
+    private VirtualThreads() {
+    }
+
+    public static boolean supported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Executor that starts one virtual thread per task. Once concurrencyLimit tasks are
+     * running, further submitters wait, as they would for a full bounded pool.
+     */
+    public static SimpleAsyncTaskExecutor executor(String threadNamePrefix, int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(Math.max(1, concurrencyLimit));
+        executor.setTaskTerminationTimeout(10_000);
+        return executor;
+    }
+}
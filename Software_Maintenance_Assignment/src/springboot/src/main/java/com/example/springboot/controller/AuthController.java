@@ -5,6 +5,7 @@ import com.example.springboot.dto.request.LoginRequestDTO;
 import com.example.springboot.dto.request.MFARequestDTO;
 import com.example.springboot.dto.request.PasswordResetConfirmRequestDTO;
 import com.example.springboot.dto.request.PasswordResetRequestDTO;
+import com.example.springboot.dto.request.RefreshTokenRequestDTO;
 import com.example.springboot.dto.request.SocialLoginRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
 import com.example.springboot.dto.response.ErrorResponseDTO;
@@ -120,6 +121,24 @@ public class AuthController {
         }
     }
     
+    /**
+     * Refresh - Rotates the refresh token and issues a new access token
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDTO> refresh(@Valid @RequestBody RefreshTokenRequestDTO request) {
+        try {
+            AuthResponseDTO response = authExecutionService.refreshTokens(request);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Token refresh failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(AuthResponseDTO.builder()
+                    .success(false)
+                    .message(e.getMessage())
+                    .build());
+        }
+    }
+    
     /**
      * Logout
      */
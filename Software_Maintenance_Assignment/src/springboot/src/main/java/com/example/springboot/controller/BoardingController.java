@@ -0,0 +1,74 @@
+package com.example.springboot.controller;
+
+import com.example.springboot.dto.request.BoardingScanRequestDTO;
+import com.example.springboot.dto.response.BoardingScanResponseDTO;
+import com.example.springboot.service.BoardingScanService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * BoardingController - Gate boarding scan endpoints
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/boarding")
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+public class BoardingController {
+
+    private final BoardingScanService boardingScanService;
+
+    /**
+     * Scan a boarding pass QR code
+     * POST /api/boarding/scan
+     */
+    @PostMapping("/scan")
+    public ResponseEntity<BoardingScanResponseDTO> scan(@Valid @RequestBody BoardingScanRequestDTO request) {
+        BoardingScanResponseDTO response = boardingScanService.scan(request.getBookingReference(), request.getGate());
+        if (BoardingScanService.STATUS_NOT_FOUND.equals(response.getStatus())) {
+            return ResponseEntity.status(404).body(response);
+        }
+        if (BoardingScanService.STATUS_LOOKUP_FAILED.equals(response.getStatus())) {
+            return ResponseEntity.status(503).body(response);
+        }
+        // Already boarded, flight not active or not boarding now
+        if (!Boolean.TRUE.equals(response.getSuccess())) {
+            return ResponseEntity.status(409).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Load a flight into the scan index ahead of boarding
+     * POST /api/boarding/flights/{flightId}/preload
+     */
+    @PostMapping("/flights/{flightId}/preload")
+    public ResponseEntity<?> preloadFlight(@PathVariable String flightId) {
+        try {
+            int count = boardingScanService.preloadFlight(flightId);
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "flightId", flightId,
+                "ticketsIndexed", count
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        } catch (Exception e) {
+            log.error("Failed to preload flight {}: {}", flightId, e.getMessage());
+            return ResponseEntity.status(500).body(Map.of(
+                "success", false,
+                "message", "Failed to preload flight: " + e.getMessage()
+            ));
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.springboot.controller;
 
 import com.example.springboot.model.Flight;
+import com.example.springboot.service.FlightChangeNotificationService;
 import com.example.springboot.service.FlightService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -31,6 +32,9 @@ public class FlightRestController {
     @Autowired
     private Firestore firestore;
 
+    @Autowired
+    private FlightChangeNotificationService flightChangeNotificationService;
+
     /**
      * Get all active flights
      * GET /api/flights
@@ -51,6 +55,18 @@ public class FlightRestController {
         }
     }
 
+    /**
+     * Progress of recent passenger notification runs (schedule changes and cancellations)
+     * GET /api/flights/notifications
+     */
+    @GetMapping("/notifications")
+    public ResponseEntity<?> getNotificationProgress() {
+        return ResponseEntity.ok(Map.of(
+            "success", true,
+            "jobs", flightChangeNotificationService.getRecentJobs()
+        ));
+    }
+
     /**
      * Get flight by document ID
      * GET /api/flights/{documentId}
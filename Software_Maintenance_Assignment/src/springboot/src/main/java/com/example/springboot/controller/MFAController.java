@@ -5,13 +5,16 @@ import com.example.springboot.model.User;
 import com.example.springboot.model.Admin;
 import com.example.springboot.model.Superadmin;
 import com.example.springboot.dto.response.MFAStatusDTO;
+import com.example.springboot.exception.UserNotFoundException;
 import com.example.springboot.repository.UserRepository;
 import com.example.springboot.repository.AdminRepository;
 import com.example.springboot.repository.SuperadminRepository;
 import com.example.springboot.service.MFAService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -81,6 +84,35 @@ public class MFAController {
         }
     }
 
+    /**
+     * Setup QR code as PNG, only while a setup is pending verification
+     * GET /api/mfa/setup/qr
+     */
+    @GetMapping(value = "/setup/qr", produces = MediaType.IMAGE_PNG_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<byte[]> getSetupQRCode() {
+        try {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            String userId = auth.getName();
+
+            String roleStr = auth.getAuthorities().iterator().next().getAuthority();
+            Role userRole = parseRoleFromAuthority(roleStr);
+
+            byte[] png = mfaService.getSetupQRCode(userId, userRole);
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .cacheControl(CacheControl.noStore())
+                    .body(png);
+
+        } catch (UserNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (Exception e) {
+            log.error("Failed to render MFA setup QR code: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/status")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> getMFAStatus() {
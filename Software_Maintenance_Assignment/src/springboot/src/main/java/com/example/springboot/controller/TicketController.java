@@ -2,11 +2,17 @@ package com.example.springboot.controller;
 
 import com.example.springboot.model.Ticket;
 import com.example.springboot.service.BookingService;
+import com.example.springboot.service.FlightExportService;
 import com.example.springboot.service.TicketDocumentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -21,6 +27,9 @@ public class TicketController {
     @Autowired
     private TicketDocumentService ticketDocumentService;
 
+    @Autowired
+    private FlightExportService flightExportService;
+
     /**
      * Get all tickets for a customer
      * GET /api/tickets/customer/{customerId}
@@ -86,4 +95,57 @@ public class TicketController {
             return ResponseEntity.status(500).build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Download every boarding pass of a flight plus its manifest as one ZIP
+     * GET /api/tickets/flight/{flightId}/boarding-passes
+     */
+    @GetMapping("/flight/{flightId}/boarding-passes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadFlightBoardingPasses(@PathVariable String flightId) {
+        List<Ticket> tickets;
+        try {
+            tickets = flightExportService.loadFlightTickets(flightId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+
+        StreamingResponseBody body = out -> flightExportService.writeBoardingPassZip(tickets, out);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("application/zip"));
+        headers.setContentDispositionFormData("attachment", "boarding-passes-" + flightId + ".zip");
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Download the passenger manifest of a flight as CSV
+     * GET /api/tickets/flight/{flightId}/manifest
+     */
+    @GetMapping("/flight/{flightId}/manifest")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadFlightManifest(@PathVariable String flightId) {
+        List<Ticket> tickets;
+        try {
+            tickets = flightExportService.loadFlightTickets(flightId);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(404).build();
+        } catch (Exception e) {
+            return ResponseEntity.status(500).build();
+        }
+
+        StreamingResponseBody body = out -> {
+            Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            flightExportService.writeManifestCsv(tickets, writer);
+        };
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+        headers.setContentDispositionFormData("attachment", "manifest-" + flightId + ".csv");
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+}
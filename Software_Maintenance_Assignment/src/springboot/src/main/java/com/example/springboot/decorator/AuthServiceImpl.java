@@ -6,10 +6,8 @@ import com.example.springboot.dto.request.LoginRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
 import com.example.springboot.dto.response.JWTResponseDTO;
 import com.example.springboot.exception.InvalidCredentialsException;
-import com.example.springboot.exception.RateLimitExceededException;
 import com.example.springboot.repository.*;
 import com.example.springboot.security.jwt.JwtTokenProvider;
-import com.example.springboot.security.ratelimit.RateLimiter;
 import com.example.springboot.service.MFAService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,9 +15,11 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 /**
- * AuthServiceImpl - Core authentication with rate limiting integration
+ * AuthServiceImpl - Core authentication
+ * Failed attempts are rate limited by the RateLimitedAuthService decorator around it
  */
 @Slf4j
 @Service("baseAuthService")
@@ -32,69 +32,99 @@ public class AuthServiceImpl implements AuthServiceComponent {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final MFAService mfaService;
-    private final RateLimiter rateLimiter;
+    private final PrincipalEmailIndexRepository principalEmailIndexRepository;
     
     @Override
     public AuthResponseDTO performAuthentication(LoginRequestDTO loginRequest) {
         String email = loginRequest.getEmail();
         log.info("Performing authentication for: {}", email);
         
-        // Check rate limit BEFORE authentication
-        if (rateLimiter.isBlocked(email)) {
-            long remainingTime = rateLimiter.getBlockTimeRemaining(email);
-            throw new RateLimitExceededException(
-                String.format("Too many failed attempts. Please try again in %d seconds.", remainingTime)
-            );
-        }
-        
         // Try to find user in all three tables
         Object userEntity = findUserByEmail(email);
         
         if (userEntity == null) {
-            rateLimiter.recordFailedAttempt(email);
             log.warn("User not found: {}", email);
             throw new InvalidCredentialsException("Invalid email or password");
         }
         
         // Validate password and generate response based on user type
-        try {
-            AuthResponseDTO response;
-            
-            if (userEntity instanceof User) {
-                response = authenticateUser((User) userEntity, loginRequest);
-            } else if (userEntity instanceof Admin) {
-                response = authenticateAdmin((Admin) userEntity, loginRequest);
-            } else if (userEntity instanceof Superadmin) {
-                response = authenticateSuperadmin((Superadmin) userEntity, loginRequest);
-            } else {
-                rateLimiter.recordFailedAttempt(email);
-                throw new InvalidCredentialsException("Invalid email or password");
-            }
-            
-            // Clear rate limit on successful authentication
-            if (response.getSuccess() && response.getTokens() != null) {
-                rateLimiter.clearAttempts(email);
-            }
-            
-            return response;
-            
-        } catch (InvalidCredentialsException e) {
-            rateLimiter.recordFailedAttempt(email);
-            throw e;
+        if (userEntity instanceof User) {
+            return authenticateUser((User) userEntity, loginRequest);
+        } else if (userEntity instanceof Admin) {
+            return authenticateAdmin((Admin) userEntity, loginRequest);
+        } else if (userEntity instanceof Superadmin) {
+            return authenticateSuperadmin((Superadmin) userEntity, loginRequest);
         }
+        throw new InvalidCredentialsException("Invalid email or password");
     }
     
     private Object findUserByEmail(String email) {
-        // Check User table
+        // One index get instead of querying all three collections
+        Optional<PrincipalRef> ref;
+        try {
+            ref = principalEmailIndexRepository.findByEmail(email);
+        } catch (RuntimeException e) {
+            log.warn("Principal index lookup failed, scanning the account collections: {}", e.getMessage());
+            return findUserInCollections(email);
+        }
+        if (ref.isEmpty() && principalEmailIndexRepository.isBackfilled()) {
+            // Users and staff are indexed in the same commit that creates them, but
+            // superadmins are seeded straight into Firestore and may have no entry yet
+            return findSuperadminInCollection(email);
+        }
+        Object indexed = ref.map(this::loadPrincipal).orElse(null);
+        if (indexed != null && email.trim().equalsIgnoreCase(emailOf(indexed))) {
+            return indexed;
+        }
+        principalEmailIndexRepository.evict(email);
+        return findUserInCollections(email);
+    }
+    
+    /**
+     * Not indexed yet (or stale): scan the collections and repair the entry
+     */
+    private Object findUserInCollections(String email) {
         User user = userRepository.findByEmail(email).orElse(null);
-        if (user != null) return user;
+        if (user != null) {
+            principalEmailIndexRepository.save(user.getEmail(), Role.USER, user.getCustId());
+            return user;
+        }
         
-        // Check Admin table
         Admin admin = adminRepository.findByEmail(email).orElse(null);
-        if (admin != null) return admin;
+        if (admin != null) {
+            principalEmailIndexRepository.save(admin.getEmail(), Role.ADMIN, admin.getStaffId());
+            return admin;
+        }
         
-        // Check Superadmin table
-        return superadminRepository.findByEmail(email).orElse(null);
+        return findSuperadminInCollection(email);
+    }
+    
+    private Superadmin findSuperadminInCollection(String email) {
+        Superadmin superadmin = superadminRepository.findByEmail(email).orElse(null);
+        if (superadmin != null) {
+            principalEmailIndexRepository.save(superadmin.getEmail(), Role.SUPERADMIN, superadmin.getId());
+        }
+        return superadmin;
+    }
+    
+    private Object loadPrincipal(PrincipalRef ref) {
+        switch (ref.getRole()) {
+            case USER:
+                return userRepository.findById(ref.getPrincipalId()).orElse(null);
+            case ADMIN:
+                return adminRepository.findById(ref.getPrincipalId()).orElse(null);
+            case SUPERADMIN:
+                return superadminRepository.findById(ref.getPrincipalId()).orElse(null);
+            default:
+                return null;
+        }
+    }
+    
+    private String emailOf(Object principal) {
+        if (principal instanceof User) return ((User) principal).getEmail();
+        if (principal instanceof Admin) return ((Admin) principal).getEmail();
+        if (principal instanceof Superadmin) return ((Superadmin) principal).getEmail();
+        return null;
     }
     
     private AuthResponseDTO authenticateUser(User user, LoginRequestDTO request) {
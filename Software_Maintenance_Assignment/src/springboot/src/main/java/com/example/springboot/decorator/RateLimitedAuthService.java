@@ -2,8 +2,9 @@ package com.example.springboot.decorator;
 
 import com.example.springboot.dto.request.LoginRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
+import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.exception.RateLimitExceededException;
-import com.example.springboot.security.ratelimit.LoginAttemptService;
+import com.example.springboot.security.ratelimit.RateLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -12,20 +13,23 @@ import org.springframework.stereotype.Service;
  * RateLimitedAuthService - DECORATOR PATTERN
  * Wraps AuthServiceImpl with rate limiting functionality
  * This is the primary AuthServiceComponent bean used throughout the application
+ *
+ * The only place failed logins are counted: RateLimiter blocks an email after too many
+ * wrong credentials. Per-IP limits on the login route are RateLimitFilter's "login" policy.
  */
 @Slf4j
 @Service("authService")
 public class RateLimitedAuthService implements AuthServiceComponent {
     
     private final AuthServiceComponent baseAuthService;
-    private final LoginAttemptService loginAttemptService;
+    private final RateLimiter rateLimiter;
     
     public RateLimitedAuthService(
         @Qualifier("baseAuthService") AuthServiceComponent baseAuthService,
-        LoginAttemptService loginAttemptService
+        RateLimiter rateLimiter
     ) {
         this.baseAuthService = baseAuthService;
-        this.loginAttemptService = loginAttemptService;
+        this.rateLimiter = rateLimiter;
     }
     
     @Override
@@ -33,10 +37,11 @@ public class RateLimitedAuthService implements AuthServiceComponent {
         String email = loginRequest.getEmail();
         
         // DECORATOR: Add rate limiting before calling base service
-        if (loginAttemptService.isBlocked(email)) {
+        if (rateLimiter.isBlocked(email)) {
             log.warn("Rate limit exceeded for: {}", email);
+            long remainingTime = rateLimiter.getBlockTimeRemaining(email);
             throw new RateLimitExceededException(
-                "Too many login attempts. Please try again later."
+                String.format("Too many failed attempts. Please try again in %d seconds.", remainingTime)
             );
         }
         
@@ -44,16 +49,16 @@ public class RateLimitedAuthService implements AuthServiceComponent {
             // Call the base authentication service
             AuthResponseDTO response = baseAuthService.performAuthentication(loginRequest);
             
-            // On successful auth, clear rate limit
-            if (response.getSuccess()) {
-                loginAttemptService.loginSucceeded(email);
+            // On successful auth, clear rate limit (an MFA challenge has no tokens yet)
+            if (response.getSuccess() && response.getTokens() != null) {
+                rateLimiter.clearAttempts(email);
             }
             
             return response;
             
-        } catch (Exception e) {
-            // On failed auth, record attempt for rate limiting
-            loginAttemptService.loginFailed(email);
+        } catch (InvalidCredentialsException e) {
+            // On failed auth, record attempt for rate limiting; outages do not count
+            rateLimiter.recordFailedAttempt(email);
             throw e;
         }
     }
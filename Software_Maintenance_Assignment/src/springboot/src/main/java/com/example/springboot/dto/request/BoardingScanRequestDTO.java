@@ -0,0 +1,19 @@
+package com.example.springboot.dto.request;
+
+import lombok.*;
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Boarding Scan Request DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardingScanRequestDTO {
+
+    @NotBlank(message = "Booking reference is required")
+    private String bookingReference;
+
+    private String gate;
+}
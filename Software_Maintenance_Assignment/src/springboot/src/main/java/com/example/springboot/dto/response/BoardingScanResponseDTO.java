@@ -0,0 +1,25 @@
+package com.example.springboot.dto.response;
+
+import lombok.*;
+
+/**
+ * Boarding Scan Response DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BoardingScanResponseDTO {
+
+    private Boolean success;
+    private String status;          // BOARDED, ALREADY_BOARDED, NOT_FOUND, LOOKUP_FAILED
+    private String message;
+    private String bookingReference;
+    private String ticketId;
+    private String flightId;
+    private String passengerName;
+    private String passportNo;
+    private String seatNumber;
+    private String seatClass;
+    private String boardedAt;
+}
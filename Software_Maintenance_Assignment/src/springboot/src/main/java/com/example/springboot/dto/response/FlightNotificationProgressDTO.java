@@ -0,0 +1,26 @@
+package com.example.springboot.dto.response;
+
+import lombok.*;
+
+/**
+ * Progress of one flight change/cancellation notification run, shown on the staff dashboard
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlightNotificationProgressDTO {
+
+    private String jobId;
+    private String flightId;
+    private String kind;              // CHANGED or CANCELLED
+    private String status;            // RUNNING, COMPLETED, FAILED or HANDED_OVER (continued by another node)
+    private int ticketsScanned;
+    private int recipients;           // unique email addresses found so far
+    private int duplicatesSkipped;    // tickets whose passenger email was already notified
+    private int sent;
+    private int failed;
+    private long startedAt;           // epoch millis
+    private Long finishedAt;          // epoch millis, null while running
+    private String error;
+}
@@ -6,11 +6,22 @@ package com.example.springboot.exception;
  */
 public class DuplicateResourceException extends RuntimeException {
 
+    private final String fieldName;
+
     public DuplicateResourceException(String message) {
         super(message);
+        this.fieldName = null;
     }
 
     public DuplicateResourceException(String resourceName, String fieldName, Object fieldValue) {
         super(String.format("%s already exists with %s: '%s'", resourceName, fieldName, fieldValue));
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * The unique field that collided, if known
+     */
+    public String getFieldName() {
+        return fieldName;
     }
 }
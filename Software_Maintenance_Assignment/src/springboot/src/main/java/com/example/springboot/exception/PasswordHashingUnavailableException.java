@@ -0,0 +1,18 @@
+package com.example.springboot.exception;
+
+/**
+ * Exception thrown when the password hashing pool is saturated
+ */
+public class PasswordHashingUnavailableException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public PasswordHashingUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
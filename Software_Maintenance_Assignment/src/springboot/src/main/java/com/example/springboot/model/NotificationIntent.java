@@ -0,0 +1,37 @@
+package com.example.springboot.model;
+
+import lombok.*;
+
+/**
+ * NotificationIntent - A notification recorded in the outbox, waiting to be delivered
+ *
+ * PREPARED intents belong to an operation that has not finished yet; they are only
+ * delivered once committed (PENDING). Intents that used up their retries are kept as DEAD
+ * until the dead-letter retention expires.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class NotificationIntent {
+
+    public static final String PREPARED = "PREPARED";
+    public static final String PENDING = "PENDING";
+    public static final String DEAD = "DEAD";
+
+    public static final String BOOKING_CONFIRMATION = "BOOKING_CONFIRMATION";
+
+    private String id;
+    private String type;
+    private String recipient;
+    private String reference;   // e.g. the booking reference
+    private String status;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    private long nextAttemptAt;  // epoch millis
+    private long createdAt;      // epoch millis
+    private String lastError;
+    private long deadLetteredAt; // epoch millis, set when the intent becomes DEAD
+}
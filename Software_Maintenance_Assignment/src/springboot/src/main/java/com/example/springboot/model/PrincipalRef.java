@@ -0,0 +1,19 @@
+package com.example.springboot.model;
+
+import com.example.springboot.enums.Role;
+import lombok.*;
+
+/**
+ * PrincipalRef - Entry of the principals_by_email index: which collection and document
+ * hold the account registered under an email
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PrincipalRef {
+
+    private String email;
+    private Role role;
+    private String principalId;
+}
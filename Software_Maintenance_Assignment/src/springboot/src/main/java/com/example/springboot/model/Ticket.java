@@ -12,6 +12,10 @@ public class Ticket {
     private String passengerId;
     private String seatId;
     private String flightId;  // NEW
+
+    // Boarding
+    private String boardingStatus;  // null until scanned, then "BOARDED"
+    private String boardedAt;
     
     // Display fields
     private String seatNumberDisplay;
@@ -16,6 +16,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -27,7 +28,7 @@ import java.util.stream.Collectors;
 public class AdminRepository {
 
     private final Firestore firestore;
-    private static final String COLLECTION_NAME = "staff"; // Changed from "admins"
+    public static final String COLLECTION_NAME = "staff"; // Changed from "admins"
 
     public Admin save(Admin admin) {
         try {
@@ -55,6 +56,37 @@ public class AdminRepository {
         }
     }
 
+    /**
+     * Insert a new staff account, committing the extra writes (email index entry) in the
+     * same transaction so the account never exists without them
+     *
+     * @param alsoWrite adds writes only; it may be repeated if Firestore retries the transaction
+     */
+    public Admin create(Admin admin, Consumer<Transaction> alsoWrite) {
+        try {
+            if (admin.getStaffId() == null) {
+                admin.setStaffId(firestore.collection(COLLECTION_NAME).document().getId());
+            }
+            admin.setUpdatedAt(LocalDateTime.now());
+
+            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(admin.getStaffId());
+            Map<String, Object> adminMap = convertToMap(admin);
+
+            firestore.runTransaction(transaction -> {
+                transaction.create(docRef, adminMap);
+                alsoWrite.accept(transaction);
+                return null;
+            }).get();
+
+            log.info("Staff created successfully: {}", admin.getStaffId());
+            return admin;
+
+        } catch (Exception e) {
+            log.error("Failed to create staff: {}", e.getMessage());
+            throw new RuntimeException("Failed to create staff", e);
+        }
+    }
+
     public Optional<Admin> findById(String staffId) {
         try {
             DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(staffId);
@@ -1,5 +1,6 @@
 package com.example.springboot.repository;
 
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.generator.CustomerIdGenerator;
 import com.example.springboot.model.Customer;
 import com.google.api.core.ApiFuture;
@@ -8,8 +9,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -27,31 +32,69 @@ public class CustomerRepository {
     @Autowired
     private CustomerIdGenerator idGenerator;
 
+    @Autowired
+    private UniqueConstraintRepository uniqueConstraintRepository;
+
+    @Autowired
+    private UniqueValueFilter uniqueValueFilter;
+
+    /**
+     * Insert or update a customer. Its email, phone number and IC number are reserved,
+     * and values it no longer uses released, in the same transaction as the write.
+     *
+     * @throws DuplicateResourceException if one of the values belongs to another customer
+     */
     public Customer save(Customer customer) throws ExecutionException, InterruptedException {
         // Auto-generate custId using CustomerIdGenerator
         if (customer.getCustId() == null || customer.getCustId().isEmpty()) {
             customer.setCustId(idGenerator.generateId());
         }
-        ApiFuture<WriteResult> writeResult = firestore.collection(COLLECTION_NAME)
-                .document(customer.getCustId())
-                .set(customer, SetOptions.merge());
-        writeResult.get();
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(customer.getCustId());
+        Map<String, String> newValues = UserRepository.uniqueValues(
+                customer.getEmail(), customer.getPhoneNumber(), customer.getCustIcNo());
+
+        ApiFuture<Void> writeResult = firestore.runTransaction(transaction -> {
+            DocumentSnapshot current = transaction.get(docRef).get();
+            uniqueConstraintRepository.reserve(transaction, "Customer",
+                    UserRepository.ownerOf(customer.getCustId()), newValues);
+
+            if (current.exists()) {
+                Map<String, String> released = new HashMap<>();
+                UserRepository.uniqueValues(current.getString("email"), current.getString("phoneNumber"),
+                        current.getString("custIcNo")).forEach((field, value) -> {
+                    if (!Objects.equals(UniqueConstraintRepository.normalize(value),
+                            UniqueConstraintRepository.normalize(newValues.get(field)))) {
+                        released.put(field, value);
+                    }
+                });
+                uniqueConstraintRepository.release(transaction, released);
+            }
+            transaction.set(docRef, customer, SetOptions.merge());
+            return null;
+        });
+        try {
+            writeResult.get();
+        } catch (ExecutionException e) {
+            DuplicateResourceException duplicate = UniqueConstraintRepository.findDuplicate(e);
+            if (duplicate != null) {
+                throw duplicate;
+            }
+            throw e;
+        }
+        uniqueValueFilter.putAll(customer.getEmail(), customer.getPhoneNumber(), customer.getCustIcNo());
         return customer;
     }
 
     public Optional<Customer> findById(String custId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(custId);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
+        return findByIdAsync(custId).get();
+    }
 
-        if (document.exists()) {
-            Customer customer = document.toObject(Customer.class);
-            if (customer != null) {
-                customer.setCustId(document.getId());
-            }
-            return Optional.ofNullable(customer);
-        }
-        return Optional.empty();
+    /**
+     * Find customer by ID without blocking
+     */
+    public CompletableFuture<Optional<Customer>> findByIdAsync(String custId) {
+        return FirestoreFutures.call(() -> firestore.collection(COLLECTION_NAME).document(custId).get())
+                .thenApply(document -> document.exists() ? toCustomer(document) : Optional.<Customer>empty());
     }
 
     public List<Customer> findAll() throws ExecutionException, InterruptedException {
@@ -87,18 +130,17 @@ public class CustomerRepository {
     }
 
     public Optional<Customer> findByEmail(String email) throws ExecutionException, InterruptedException {
-        Query query = firestore.collection(COLLECTION_NAME).whereEqualTo("email", email);
-        ApiFuture<QuerySnapshot> querySnapshot = query.get();
-        List<QueryDocumentSnapshot> documents = querySnapshot.get().getDocuments();
+        return findByEmailAsync(email).get();
+    }
 
-        if (!documents.isEmpty()) {
-            Customer customer = documents.get(0).toObject(Customer.class);
-            if (customer != null) {
-                customer.setCustId(documents.get(0).getId());
-            }
-            return Optional.ofNullable(customer);
-        }
-        return Optional.empty();
+    /**
+     * Find customer by email without blocking
+     */
+    public CompletableFuture<Optional<Customer>> findByEmailAsync(String email) {
+        return FirestoreFutures.call(() -> firestore.collection(COLLECTION_NAME).whereEqualTo("email", email).get())
+                .thenApply(querySnapshot -> querySnapshot.getDocuments().isEmpty()
+                        ? Optional.<Customer>empty()
+                        : toCustomer(querySnapshot.getDocuments().get(0)));
     }
 
     public Optional<Customer> findByPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
@@ -117,14 +159,32 @@ public class CustomerRepository {
     }
 
     public boolean existsByCustIcNo(String custIcNo) throws ExecutionException, InterruptedException {
+        if (!uniqueValueFilter.mightContain("custIcNo", custIcNo)) {
+            return false;
+        }
+        if (!uniqueConstraintRepository.isLegacyCheckEnabled()) {
+            return uniqueConstraintRepository.isReserved("custIcNo", custIcNo);
+        }
         return findByCustIcNo(custIcNo).isPresent();
     }
 
     public boolean existsByEmail(String email) throws ExecutionException, InterruptedException {
+        if (!uniqueValueFilter.mightContain("email", email)) {
+            return false;
+        }
+        if (!uniqueConstraintRepository.isLegacyCheckEnabled()) {
+            return uniqueConstraintRepository.isReserved("email", email);
+        }
         return findByEmail(email).isPresent();
     }
 
     public boolean existsByPhoneNumber(String phoneNumber) throws ExecutionException, InterruptedException {
+        if (!uniqueValueFilter.mightContain("phoneNumber", phoneNumber)) {
+            return false;
+        }
+        if (!uniqueConstraintRepository.isLegacyCheckEnabled()) {
+            return uniqueConstraintRepository.isReserved("phoneNumber", phoneNumber);
+        }
         return findByPhoneNumber(phoneNumber).isPresent();
     }
 
@@ -135,7 +195,16 @@ public class CustomerRepository {
     }
 
     public void deleteById(String custId) throws ExecutionException, InterruptedException {
-        ApiFuture<WriteResult> writeResult = firestore.collection(COLLECTION_NAME).document(custId).delete();
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(custId);
+        ApiFuture<Void> writeResult = firestore.runTransaction(transaction -> {
+            DocumentSnapshot current = transaction.get(docRef).get();
+            if (current.exists()) {
+                uniqueConstraintRepository.release(transaction, UserRepository.uniqueValues(
+                        current.getString("email"), current.getString("phoneNumber"), current.getString("custIcNo")));
+            }
+            transaction.delete(docRef);
+            return null;
+        });
         writeResult.get();
     }
 
@@ -147,4 +216,12 @@ public class CustomerRepository {
     public boolean existsById(String custId) throws ExecutionException, InterruptedException {
         return findById(custId).isPresent();
     }
+
+    private Optional<Customer> toCustomer(DocumentSnapshot document) {
+        Customer customer = document.toObject(Customer.class);
+        if (customer != null) {
+            customer.setCustId(document.getId());
+        }
+        return Optional.ofNullable(customer);
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.springboot.repository;
 
 import com.example.springboot.model.EmailVerificationToken;
+import com.example.springboot.utils.TokenHashUtil;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import lombok.RequiredArgsConstructor;
@@ -15,6 +16,10 @@ import java.util.Optional;
 
 /**
  * EmailVerificationTokenRepository - Firestore repository for verification tokens
+ *
+ * Documents are keyed by SHA-256(token) so findByToken is a single document get and
+ * the raw token is never stored. Documents written before that change are still found
+ * by a field query until TokenHashMigrationService has moved them.
  */
 @Slf4j
 @Repository
@@ -22,14 +27,17 @@ import java.util.Optional;
 public class EmailVerificationTokenRepository {
     
     private final Firestore firestore;
-    private static final String COLLECTION_NAME = "email_verification_tokens";
+    public static final String COLLECTION_NAME = "email_verification_tokens";
+
+    // Cleared once every legacy (random-ID) document has been migrated
+    private volatile boolean legacyLookupEnabled = true;
     
     public EmailVerificationToken save(EmailVerificationToken token) {
         try {
-            if (token.getId() == null) {
-                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-                token.setId(docRef.getId());
-            }
+            // Legacy documents (random IDs) move to their hash ID on first write
+            String docId = TokenHashUtil.sha256Hex(token.getToken());
+            String legacyId = token.getId() != null && !token.getId().equals(docId) ? token.getId() : null;
+            token.setId(docId);
             
             Map<String, Object> tokenMap = convertToMap(token);
             
@@ -38,6 +46,10 @@ public class EmailVerificationTokenRepository {
                 .set(tokenMap);
             
             result.get();
+
+            if (legacyId != null) {
+                firestore.collection(COLLECTION_NAME).document(legacyId).delete().get();
+            }
             
             log.info("Email verification token saved");
             return token;
@@ -48,30 +60,57 @@ public class EmailVerificationTokenRepository {
         }
     }
     
+    /**
+     * Write a new token as part of the caller's transaction
+     */
+    public void save(Transaction transaction, EmailVerificationToken token) {
+        token.setId(TokenHashUtil.sha256Hex(token.getToken()));
+        transaction.set(firestore.collection(COLLECTION_NAME).document(token.getId()), convertToMap(token));
+    }
+
     public Optional<EmailVerificationToken> findByToken(String token) {
         try {
-            ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                .whereEqualTo("token", token)
-                .limit(1)
-                .get();
-            
-            List<QueryDocumentSnapshot> documents = query.get().getDocuments();
-            
-            if (!documents.isEmpty()) {
-                return Optional.of(convertToToken(documents.get(0)));
+            DocumentSnapshot document = firestore.collection(COLLECTION_NAME)
+                    .document(TokenHashUtil.sha256Hex(token))
+                    .get()
+                    .get();
+
+            if (document.exists()) {
+                return Optional.of(convertToToken(document, token));
             }
-            return Optional.empty();
-            
+            return legacyLookupEnabled ? findLegacyByToken(token) : Optional.empty();
+
         } catch (Exception e) {
             log.error("Failed to find verification token: {}", e.getMessage());
             return Optional.empty();
         }
     }
+
+    /**
+     * Stop falling back to the field query (all documents are keyed by hash)
+     */
+    public void disableLegacyLookup() {
+        legacyLookupEnabled = false;
+    }
+
+    private Optional<EmailVerificationToken> findLegacyByToken(String token) throws Exception {
+        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("token", token)
+                .limit(1)
+                .get();
+
+        List<QueryDocumentSnapshot> documents = query.get().getDocuments();
+
+        if (!documents.isEmpty()) {
+            return Optional.of(convertToToken(documents.get(0), token));
+        }
+        return Optional.empty();
+    }
     
     private Map<String, Object> convertToMap(EmailVerificationToken token) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", token.getId());
-        map.put("token", token.getToken());
+        map.put("tokenHash", TokenHashUtil.sha256Hex(token.getToken()));
         map.put("userId", token.getUserId());
         map.put("email", token.getEmail());
         map.put("expiryDate", token.getExpiryDate().toString());
@@ -80,10 +119,10 @@ public class EmailVerificationTokenRepository {
         return map;
     }
     
-    private EmailVerificationToken convertToToken(DocumentSnapshot document) {
+    private EmailVerificationToken convertToToken(DocumentSnapshot document, String rawToken) {
         EmailVerificationToken token = new EmailVerificationToken();
         token.setId(document.getId());
-        token.setToken(document.getString("token"));
+        token.setToken(rawToken);
         token.setUserId(document.getString("userId"));
         token.setEmail(document.getString("email"));
         token.setExpiryDate(LocalDateTime.parse(document.getString("expiryDate")));
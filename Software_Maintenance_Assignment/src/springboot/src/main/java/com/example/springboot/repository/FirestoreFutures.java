@@ -0,0 +1,56 @@
+package com.example.springboot.repository;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * FirestoreFutures - Adapts Firestore's ApiFuture to CompletableFuture without blocking
+ *
+ * The returned future completes on the Firestore client thread that finished the call,
+ * so dependent stages (thenApply, thenCombine, ...) run there too. Keep them to cheap
+ * mapping; use the *Async variants with an executor for anything slower. Cancelling the
+ * returned future cancels the underlying Firestore call.
+ */
+public final class FirestoreFutures {
+
+    private FirestoreFutures() {
+    }
+
+    public static <T> CompletableFuture<T> toCompletable(ApiFuture<T> apiFuture) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }, MoreExecutors.directExecutor());
+        future.whenComplete((result, t) -> {
+            if (future.isCancelled()) {
+                apiFuture.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Start a Firestore call and adapt its result; an exception thrown while starting the
+     * call (e.g. an invalid document path) fails the returned future instead of escaping
+     */
+    public static <T> CompletableFuture<T> call(Callable<ApiFuture<T>> call) {
+        try {
+            return toCompletable(call.call());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
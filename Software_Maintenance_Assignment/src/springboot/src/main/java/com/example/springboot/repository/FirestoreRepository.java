@@ -4,9 +4,19 @@ import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 @Repository
 public class FirestoreRepository {
 
+    private static final int BATCH_GET_SIZE = 100;
+
     @Autowired
     private Firestore firestore; // Inject the Bean managed by Spring
 
@@ -15,47 +25,118 @@ public class FirestoreRepository {
         return this.firestore;
     }
 
+    // Each operation also has an *Async variant that returns without blocking a thread;
+    // the blocking methods simply wait on it. Reads go through the current request's
+    // RequestReadMemo, and writes invalidate what it holds for the collection.
+    
     // Generic Save
     public String save(String collectionName, Object data) {
         try {
-            DocumentReference docRef = getFirestore().collection(collectionName).document();
-            docRef.set(data).get(); // Wait for completion
-            return docRef.getId();
+            return saveAsync(collectionName, data).get(); // Wait for completion
         } catch (Exception e) {
             throw new RuntimeException("Failed to save to Firestore: " + e.getMessage());
         }
     }
+
+    public CompletableFuture<String> saveAsync(String collectionName, Object data) {
+        RequestReadMemo.invalidate(collectionName);
+        try {
+            DocumentReference docRef = getFirestore().collection(collectionName).document();
+            return FirestoreFutures.toCompletable(docRef.set(data)).thenApply(result -> docRef.getId());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
     
     // Save with specific ID
     public void saveWithId(String collectionName, String docId, Object data) {
         try {
-            getFirestore().collection(collectionName).document(docId).set(data).get();
+            saveWithIdAsync(collectionName, docId, data).get();
         } catch (Exception e) {
             throw new RuntimeException("Failed to save with ID: " + e.getMessage());
         }
     }
 
+    public CompletableFuture<Void> saveWithIdAsync(String collectionName, String docId, Object data) {
+        RequestReadMemo.invalidate(collectionName);
+        return FirestoreFutures.call(() -> getFirestore().collection(collectionName).document(docId).set(data))
+                .thenApply(result -> null);
+    }
+
     // Generic Find By ID
     public <T> T findById(String collectionName, String docId, Class<T> type) throws Exception {
-        DocumentSnapshot doc = getFirestore().collection(collectionName).document(docId).get().get();
-        if (doc.exists()) {
-            T object = doc.toObject(type);
-            return object;
+        return findByIdAsync(collectionName, docId, type).get();
+    }
+
+    // Completes with null when the document does not exist
+    public <T> CompletableFuture<T> findByIdAsync(String collectionName, String docId, Class<T> type) {
+        return RequestReadMemo.document(collectionName, docId,
+                () -> FirestoreFutures.call(() -> getFirestore().collection(collectionName).document(docId).get()))
+                .thenApply(doc -> doc.exists() ? doc.toObject(type) : null);
+    }
+
+    // Batch Find By IDs - one getAll round-trip per chunk instead of one get per document
+    public <T> Map<String, T> findAllByIds(String collectionName, Collection<String> docIds, Class<T> type) throws Exception {
+        return findAllByIdsAsync(collectionName, docIds, type).get();
+    }
+
+    // Chunks are requested together rather than one after another
+    public <T> CompletableFuture<Map<String, T>> findAllByIdsAsync(String collectionName, Collection<String> docIds, Class<T> type) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(docIds));
+        ids.removeIf(id -> id == null || id.isEmpty());
+
+        List<CompletableFuture<List<DocumentSnapshot>>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += BATCH_GET_SIZE) {
+            List<String> chunk = ids.subList(start, Math.min(start + BATCH_GET_SIZE, ids.size()));
+            chunks.add(FirestoreFutures.call(() -> {
+                DocumentReference[] refs = new DocumentReference[chunk.size()];
+                for (int i = 0; i < chunk.size(); i++) {
+                    refs[i] = getFirestore().collection(collectionName).document(chunk.get(i));
+                }
+                return getFirestore().getAll(refs);
+            }));
         }
-        return null;
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(done -> {
+            Map<String, T> results = new LinkedHashMap<>();
+            for (CompletableFuture<List<DocumentSnapshot>> chunk : chunks) {
+                for (DocumentSnapshot doc : chunk.join()) {
+                    if (doc.exists()) {
+                        results.put(doc.getId(), doc.toObject(type));
+                    }
+                }
+            }
+            return results;
+        });
     }
 
     // Generic Update Field
     public void updateField(String collectionName, String docId, String fieldName, Object value) {
         try {
-            getFirestore().collection(collectionName).document(docId).update(fieldName, value).get();
+            updateFieldAsync(collectionName, docId, fieldName, value).get();
         } catch (Exception e) {
             throw new RuntimeException("Failed to update field: " + e.getMessage());
         }
     }
+
+    public CompletableFuture<Void> updateFieldAsync(String collectionName, String docId, String fieldName, Object value) {
+        RequestReadMemo.invalidate(collectionName);
+        return FirestoreFutures.call(() -> getFirestore().collection(collectionName).document(docId).update(fieldName, value))
+                .thenApply(result -> null);
+    }
     
     // Query by Field
     public Query getCollectionByField(String collectionName, String field, String value) {
         return getFirestore().collection(collectionName).whereEqualTo(field, value);
     }
+
+    public CompletableFuture<QuerySnapshot> getCollectionByFieldAsync(String collectionName, String field, String value) {
+        return RequestReadMemo.query(collectionName, field, value,
+                () -> FirestoreFutures.call(() -> getCollectionByField(collectionName, field, value).get()));
+    }
+
+    // Query by Field and wait for the result
+    public QuerySnapshot findByField(String collectionName, String field, String value) throws Exception {
+        return getCollectionByFieldAsync(collectionName, field, value).get();
+    }
 }
\ No newline at end of file
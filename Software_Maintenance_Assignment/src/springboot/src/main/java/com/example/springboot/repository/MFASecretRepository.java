@@ -91,6 +91,30 @@ public class MFASecretRepository {
         }
     }
 
+    /**
+     * Atomically replace the stored backup codes, but only if they still equal
+     * expectedBackupCodes. Used to consume a backup code exactly once even when
+     * two logins race with the same code.
+     */
+    public boolean compareAndSetBackupCodes(String id, String expectedBackupCodes, String newBackupCodes) {
+        try {
+            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(id);
+            ApiFuture<Boolean> result = firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(docRef).get();
+                if (!snapshot.exists() || !expectedBackupCodes.equals(snapshot.getString("backupCodes"))) {
+                    return false;
+                }
+                transaction.update(docRef, "backupCodes", newBackupCodes);
+                return true;
+            });
+            return result.get();
+
+        } catch (Exception e) {
+            log.error("Failed to update MFA backup codes: {}", e.getMessage());
+            throw new RuntimeException("Failed to update MFA backup codes", e);
+        }
+    }
+
     private Map<String, Object> convertToMap(MFASecret mfaSecret) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", mfaSecret.getId());
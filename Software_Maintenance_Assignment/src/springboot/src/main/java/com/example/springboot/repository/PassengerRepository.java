@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -32,6 +33,7 @@ public class PassengerRepository {
         if (passenger.getPassengerId() == null || passenger.getPassengerId().isEmpty()) {
             passenger.setPassengerId(idGenerator.generateId());
         }
+        RequestReadMemo.invalidate(COLLECTION_NAME);
         ApiFuture<WriteResult> writeResult = firestore.collection(COLLECTION_NAME)
                 .document(passenger.getPassengerId())
                 .set(passenger);
@@ -40,15 +42,15 @@ public class PassengerRepository {
     }
 
     public Optional<Passenger> findById(String passengerId) throws ExecutionException, InterruptedException {
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(passengerId);
-        ApiFuture<DocumentSnapshot> future = docRef.get();
-        DocumentSnapshot document = future.get();
+        return findByIdAsync(passengerId).get();
+    }
 
-        if (document.exists()) {
-            Passenger passenger = document.toObject(Passenger.class);
-            return Optional.ofNullable(passenger);
-        }
-        return Optional.empty();
+    public CompletableFuture<Optional<Passenger>> findByIdAsync(String passengerId) {
+        return RequestReadMemo.document(COLLECTION_NAME, passengerId,
+                () -> FirestoreFutures.call(() -> firestore.collection(COLLECTION_NAME).document(passengerId).get()))
+                .thenApply(document -> document.exists()
+                        ? Optional.ofNullable(document.toObject(Passenger.class))
+                        : Optional.<Passenger>empty());
     }
 
     public List<Passenger> findAll() throws ExecutionException, InterruptedException {
@@ -89,6 +91,7 @@ public class PassengerRepository {
     }
 
     public void deleteById(String passengerId) throws ExecutionException, InterruptedException {
+        RequestReadMemo.invalidate(COLLECTION_NAME);
         ApiFuture<WriteResult> writeResult = firestore.collection(COLLECTION_NAME).document(passengerId).delete();
         writeResult.get();
     }
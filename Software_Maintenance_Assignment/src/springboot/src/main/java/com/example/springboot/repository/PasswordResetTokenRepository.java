@@ -2,6 +2,7 @@ package com.example.springboot.repository;
 
 import com.example.springboot.model.PasswordResetToken;
 import com.example.springboot.enums.Role;
+import com.example.springboot.utils.TokenHashUtil;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,10 @@ import java.util.Optional;
 
 /**
  * PasswordResetTokenRepository - Firestore implementation
+ *
+ * Documents are keyed by SHA-256(token) so findByToken is a single document get and
+ * the raw token is never stored. Documents written before that change are still found
+ * by a field query until TokenHashMigrationService has moved them.
  */
 @Slf4j
 @Repository
@@ -23,14 +28,17 @@ import java.util.Optional;
 public class PasswordResetTokenRepository {
 
     private final Firestore firestore;
-    private static final String COLLECTION_NAME = "password_reset_tokens";
+    public static final String COLLECTION_NAME = "password_reset_tokens";
+
+    // Cleared once every legacy (random-ID) document has been migrated
+    private volatile boolean legacyLookupEnabled = true;
 
     public PasswordResetToken save(PasswordResetToken token) {
         try {
-            if (token.getId() == null) {
-                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-                token.setId(docRef.getId());
-            }
+            // Legacy documents (random IDs) move to their hash ID on first write
+            String docId = TokenHashUtil.sha256Hex(token.getToken());
+            String legacyId = token.getId() != null && !token.getId().equals(docId) ? token.getId() : null;
+            token.setId(docId);
 
             Map<String, Object> map = convertToMap(token);
 
@@ -39,6 +47,10 @@ public class PasswordResetTokenRepository {
                     .set(map);
 
             result.get();
+
+            if (legacyId != null) {
+                firestore.collection(COLLECTION_NAME).document(legacyId).delete().get();
+            }
             return token;
 
         } catch (Exception e) {
@@ -49,17 +61,15 @@ public class PasswordResetTokenRepository {
 
     public Optional<PasswordResetToken> findByToken(String token) {
         try {
-            ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                    .whereEqualTo("token", token)
-                    .limit(1)
+            DocumentSnapshot document = firestore.collection(COLLECTION_NAME)
+                    .document(TokenHashUtil.sha256Hex(token))
+                    .get()
                     .get();
 
-            List<QueryDocumentSnapshot> documents = query.get().getDocuments();
-
-            if (!documents.isEmpty()) {
-                return Optional.of(convertToToken(documents.get(0)));
+            if (document.exists()) {
+                return Optional.of(convertToToken(document, token));
             }
-            return Optional.empty();
+            return legacyLookupEnabled ? findLegacyByToken(token) : Optional.empty();
 
         } catch (Exception e) {
             log.error("Failed to find password reset token: {}", e.getMessage());
@@ -67,10 +77,31 @@ public class PasswordResetTokenRepository {
         }
     }
 
+    /**
+     * Stop falling back to the field query (all documents are keyed by hash)
+     */
+    public void disableLegacyLookup() {
+        legacyLookupEnabled = false;
+    }
+
+    private Optional<PasswordResetToken> findLegacyByToken(String token) throws Exception {
+        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("token", token)
+                .limit(1)
+                .get();
+
+        List<QueryDocumentSnapshot> documents = query.get().getDocuments();
+
+        if (!documents.isEmpty()) {
+            return Optional.of(convertToToken(documents.get(0), token));
+        }
+        return Optional.empty();
+    }
+
     private Map<String, Object> convertToMap(PasswordResetToken token) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", token.getId());
-        map.put("token", token.getToken());
+        map.put("tokenHash", TokenHashUtil.sha256Hex(token.getToken()));
         map.put("userId", token.getUserId());
         map.put("userRole", token.getUserRole().name());
         map.put("email", token.getEmail());
@@ -80,10 +111,10 @@ public class PasswordResetTokenRepository {
         return map;
     }
 
-    private PasswordResetToken convertToToken(DocumentSnapshot document) {
+    private PasswordResetToken convertToToken(DocumentSnapshot document, String rawToken) {
         PasswordResetToken token = new PasswordResetToken();
         token.setId(document.getId());
-        token.setToken(document.getString("token"));
+        token.setToken(rawToken);
         token.setUserId(document.getString("userId"));
 
         // Parse role with fallback for legacy/invalid data
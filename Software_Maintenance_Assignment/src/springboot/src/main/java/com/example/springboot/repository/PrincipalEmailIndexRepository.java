@@ -0,0 +1,215 @@
+package com.example.springboot.repository;
+
+import com.example.springboot.enums.Role;
+import com.example.springboot.model.PrincipalRef;
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Transaction;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PrincipalEmailIndexRepository - Firestore index from email to the account that owns it
+ *
+ * Users, staff and superadmins live in separate collections; one document per
+ * normalized email (keyed by its SHA-256, so the raw address is not the document ID)
+ * records the role and document ID, which turns a login lookup into a single get.
+ * Hits are optionally kept in a small in-memory cache.
+ *
+ * Users and staff get their entry in the transaction that creates the account, so
+ * once the backfill has run a miss means they have no account; superadmins are seeded
+ * straight into Firestore, so the login path still checks that collection on a miss.
+ * The backfill marker is cached once seen, since it is never removed.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class PrincipalEmailIndexRepository {
+
+    public static final String COLLECTION_NAME = "principals_by_email";
+    // Not a SHA-256 hex string, so it cannot collide with an entry
+    private static final String BACKFILL_MARKER_ID = "_backfill";
+    private static final int CACHE_TTL_MINUTES = 10;
+
+    private final Firestore firestore;
+
+    @Value("${app.principal-index.cache-enabled:true}")
+    private boolean cacheEnabled = true;
+
+    // Only found entries are cached; a miss always goes back to Firestore
+    private final Cache<String, PrincipalRef> cache = CacheBuilder.newBuilder()
+            .expireAfterWrite(CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .maximumSize(10_000)
+            .build();
+
+    private volatile boolean backfilled;
+
+    /**
+     * Look the email up; a failed read throws rather than passing for a miss
+     */
+    public Optional<PrincipalRef> findByEmail(String email) {
+        String normalized = normalize(email);
+        if (normalized == null) {
+            return Optional.empty();
+        }
+        if (cacheEnabled) {
+            PrincipalRef cached = cache.getIfPresent(normalized);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+
+        try {
+            DocumentSnapshot document = firestore.collection(COLLECTION_NAME)
+                    .document(documentId(normalized))
+                    .get()
+                    .get();
+
+            if (!document.exists()) {
+                return Optional.empty();
+            }
+            PrincipalRef ref = convertToPrincipalRef(document);
+            if (cacheEnabled) {
+                cache.put(normalized, ref);
+            }
+            return Optional.of(ref);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the principal index", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to read the principal index", e);
+        }
+    }
+
+    /**
+     * Repair an entry found missing or stale at login. Failures are logged only, since
+     * the login path finds the account in its collection again next time.
+     */
+    public void save(String email, Role role, String principalId) {
+        String normalized = normalize(email);
+        if (normalized == null || role == null || principalId == null) {
+            return;
+        }
+        try {
+            Map<String, Object> map = new HashMap<>();
+            map.put("email", normalized);
+            map.put("role", role.name());
+            map.put("principalId", principalId);
+            map.put("updatedAt", LocalDateTime.now().toString());
+
+            firestore.collection(COLLECTION_NAME)
+                    .document(documentId(normalized))
+                    .set(map)
+                    .get();
+
+            if (cacheEnabled) {
+                cache.put(normalized, new PrincipalRef(normalized, role, principalId));
+            }
+
+        } catch (Exception e) {
+            cache.invalidate(normalized);
+            log.error("Failed to save principal index entry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Point the email at an account as part of the caller's transaction. The cache is
+     * left alone and fills on the first lookup after the commit.
+     */
+    public void save(Transaction transaction, String email, Role role, String principalId) {
+        String normalized = normalize(email);
+        if (normalized == null || role == null || principalId == null) {
+            return;
+        }
+        Map<String, Object> map = new HashMap<>();
+        map.put("email", normalized);
+        map.put("role", role.name());
+        map.put("principalId", principalId);
+        map.put("updatedAt", LocalDateTime.now().toString());
+        transaction.set(firestore.collection(COLLECTION_NAME).document(documentId(normalized)), map);
+    }
+
+    public void deleteByEmail(String email) {
+        String normalized = normalize(email);
+        if (normalized == null) {
+            return;
+        }
+        cache.invalidate(normalized);
+        try {
+            firestore.collection(COLLECTION_NAME).document(documentId(normalized)).delete().get();
+        } catch (Exception e) {
+            log.error("Failed to delete principal index entry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop a cached entry that turned out to be stale
+     */
+    public void evict(String email) {
+        String normalized = normalize(email);
+        if (normalized != null) {
+            cache.invalidate(normalized);
+        }
+    }
+
+    /**
+     * True once PrincipalIndexBackfillService has indexed every pre-existing account
+     */
+    public boolean isBackfilled() {
+        if (backfilled) {
+            return true;
+        }
+        try {
+            backfilled = firestore.collection(COLLECTION_NAME).document(BACKFILL_MARKER_ID).get().get().exists();
+            return backfilled;
+        } catch (Exception e) {
+            log.error("Failed to read principal index backfill marker: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public void markBackfilled() {
+        try {
+            firestore.collection(COLLECTION_NAME)
+                    .document(BACKFILL_MARKER_ID)
+                    .set(Map.of("completedAt", LocalDateTime.now().toString()))
+                    .get();
+            backfilled = true;
+        } catch (Exception e) {
+            log.error("Failed to write principal index backfill marker: {}", e.getMessage());
+        }
+    }
+
+    public static String normalize(String email) {
+        if (email == null || email.isBlank()) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public static String documentId(String normalizedEmail) {
+        return TokenHashUtil.sha256Hex(normalizedEmail);
+    }
+
+    private PrincipalRef convertToPrincipalRef(DocumentSnapshot document) {
+        PrincipalRef ref = new PrincipalRef();
+        ref.setEmail(document.getString("email"));
+        ref.setRole(Role.valueOf(document.getString("role")));
+        ref.setPrincipalId(document.getString("principalId"));
+        return ref;
+    }
+}
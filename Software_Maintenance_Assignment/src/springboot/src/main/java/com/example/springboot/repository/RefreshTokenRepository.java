@@ -2,6 +2,7 @@ package com.example.springboot.repository;
 
 import com.example.springboot.model.RefreshToken;
 import com.example.springboot.enums.Role;
+import com.example.springboot.utils.TokenHashUtil;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +17,10 @@ import java.util.Optional;
 
 /**
  * RefreshTokenRepository - Firestore implementation
+ *
+ * Documents are keyed by SHA-256(token) so findByToken is a single document get and
+ * the raw token is never stored. Documents written before that change are still found
+ * by a field query until TokenHashMigrationService has moved them.
  */
 @Slf4j
 @Repository
@@ -23,14 +28,17 @@ import java.util.Optional;
 public class RefreshTokenRepository {
 
     private final Firestore firestore;
-    private static final String COLLECTION_NAME = "refresh_tokens";
+    public static final String COLLECTION_NAME = "refresh_tokens";
+
+    // Cleared once every legacy (random-ID) document has been migrated
+    private volatile boolean legacyLookupEnabled = true;
 
     public RefreshToken save(RefreshToken token) {
         try {
-            if (token.getId() == null) {
-                DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
-                token.setId(docRef.getId());
-            }
+            // Legacy documents (random IDs) move to their hash ID on first write
+            String docId = TokenHashUtil.sha256Hex(token.getToken());
+            String legacyId = token.getId() != null && !token.getId().equals(docId) ? token.getId() : null;
+            token.setId(docId);
 
             Map<String, Object> map = convertToMap(token);
 
@@ -40,6 +48,10 @@ public class RefreshTokenRepository {
 
             result.get();
 
+            if (legacyId != null) {
+                firestore.collection(COLLECTION_NAME).document(legacyId).delete().get();
+            }
+
             log.info("Refresh token saved successfully");
             return token;
 
@@ -51,17 +63,15 @@ public class RefreshTokenRepository {
 
     public Optional<RefreshToken> findByToken(String token) {
         try {
-            ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
-                    .whereEqualTo("token", token)
-                    .limit(1)
+            DocumentSnapshot document = firestore.collection(COLLECTION_NAME)
+                    .document(TokenHashUtil.sha256Hex(token))
+                    .get()
                     .get();
 
-            List<QueryDocumentSnapshot> documents = query.get().getDocuments();
-
-            if (!documents.isEmpty()) {
-                return Optional.of(convertToRefreshToken(documents.get(0)));
+            if (document.exists()) {
+                return Optional.of(convertToRefreshToken(document, token));
             }
-            return Optional.empty();
+            return legacyLookupEnabled ? findLegacyByToken(token) : Optional.empty();
 
         } catch (Exception e) {
             log.error("Failed to find refresh token: {}", e.getMessage());
@@ -69,6 +79,27 @@ public class RefreshTokenRepository {
         }
     }
 
+    /**
+     * Stop falling back to the field query (all documents are keyed by hash)
+     */
+    public void disableLegacyLookup() {
+        legacyLookupEnabled = false;
+    }
+
+    private Optional<RefreshToken> findLegacyByToken(String token) throws Exception {
+        ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
+                .whereEqualTo("token", token)
+                .limit(1)
+                .get();
+
+        List<QueryDocumentSnapshot> documents = query.get().getDocuments();
+
+        if (!documents.isEmpty()) {
+            return Optional.of(convertToRefreshToken(documents.get(0), token));
+        }
+        return Optional.empty();
+    }
+
     public void revokeToken(String token) {
         try {
             Optional<RefreshToken> refreshToken = findByToken(token);
@@ -87,7 +118,7 @@ public class RefreshTokenRepository {
     private Map<String, Object> convertToMap(RefreshToken token) {
         Map<String, Object> map = new HashMap<>();
         map.put("id", token.getId());
-        map.put("token", token.getToken());
+        map.put("tokenHash", TokenHashUtil.sha256Hex(token.getToken()));
         map.put("userId", token.getUserId());
         map.put("userRole", token.getUserRole().name());
         map.put("expiryDate", token.getExpiryDate().toString());
@@ -96,10 +127,10 @@ public class RefreshTokenRepository {
         return map;
     }
 
-    private RefreshToken convertToRefreshToken(DocumentSnapshot document) {
+    private RefreshToken convertToRefreshToken(DocumentSnapshot document, String rawToken) {
         RefreshToken token = new RefreshToken();
         token.setId(document.getId());
-        token.setToken(document.getString("token"));
+        token.setToken(rawToken);
         token.setUserId(document.getString("userId"));
 
         // Parse role with fallback for legacy/invalid data
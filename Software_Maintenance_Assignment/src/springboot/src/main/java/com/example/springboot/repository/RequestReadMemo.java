@@ -0,0 +1,134 @@
+package com.example.springboot.repository;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * RequestReadMemo - Read-through memo of Firestore reads for the current HTTP request
+ *
+ * Repositories look documents up by collection and ID, and equality queries by
+ * collection, field and value. The first read in a request goes to Firestore; repeats
+ * (including ones started while the first is still in flight) share its result, so a
+ * request that looks the same seat or flight up several times pays for one round trip.
+ * The memo holds snapshots, so every caller still maps its own copy of the entity.
+ * A write through a repository drops everything memoized for that collection, and
+ * failed reads are not kept. Code that writes to Firestore directly during a request
+ * must call invalidate() for the collection itself once the write is done, as
+ * FlightService, SeatService and StaffRepository do; writers that only run outside
+ * requests (scheduled jobs, listeners) have no memo to invalidate.
+ *
+ * RequestReadMemoFilter opens a memo per request and binds it to the request thread;
+ * propagate() carries it onto worker threads. Outside a request (scheduled jobs,
+ * startup) there is no memo and every read goes to Firestore.
+ */
+public final class RequestReadMemo {
+
+    private static final ThreadLocal<RequestReadMemo> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, CompletableFuture<?>> reads = new ConcurrentHashMap<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger hits = new AtomicInteger();
+
+    /**
+     * Start a memo on the calling thread; close it when the request is done
+     */
+    public static RequestReadMemo open() {
+        RequestReadMemo memo = new RequestReadMemo();
+        CURRENT.set(memo);
+        return memo;
+    }
+
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    public static RequestReadMemo current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wrap a task so it uses the calling thread's memo, if any, wherever it runs
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestReadMemo memo = CURRENT.get();
+        if (memo == null) {
+            return task;
+        }
+        return () -> {
+            RequestReadMemo previous = CURRENT.get();
+            CURRENT.set(memo);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    public static <T> CompletableFuture<T> document(String collection, String id, Supplier<CompletableFuture<T>> read) {
+        return through(collection + "/" + id, read);
+    }
+
+    public static <T> CompletableFuture<T> query(String collection, String field, Object value,
+                                                 Supplier<CompletableFuture<T>> read) {
+        return through(collection + "?" + field + "=" + value, read);
+    }
+
+    /**
+     * Forget every document and query of a collection after writing to it
+     */
+    public static void invalidate(String collection) {
+        RequestReadMemo memo = CURRENT.get();
+        if (memo != null) {
+            memo.reads.keySet().removeIf(key -> key.startsWith(collection + "/") || key.startsWith(collection + "?"));
+        }
+    }
+
+    public int lookups() {
+        return lookups.get();
+    }
+
+    public int hits() {
+        return hits.get();
+    }
+
+    private static <T> CompletableFuture<T> through(String key, Supplier<CompletableFuture<T>> read) {
+        RequestReadMemo memo = CURRENT.get();
+        return memo == null ? read.get() : memo.read(key, read);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> read(String key, Supplier<CompletableFuture<T>> read) {
+        lookups.incrementAndGet();
+        CompletableFuture<T> entry = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) reads.putIfAbsent(key, entry);
+        if (existing != null) {
+            hits.incrementAndGet();
+            // A copy, so a caller cancelling its future does not cancel it for the others
+            return existing.copy();
+        }
+        try {
+            read.get().whenComplete((result, error) -> {
+                if (error != null) {
+                    reads.remove(key, entry);
+                    entry.completeExceptionally(error);
+                } else {
+                    entry.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            reads.remove(key, entry);
+            entry.completeExceptionally(e);
+        }
+        return entry.copy();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.springboot.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * RequestReadMemoFilter - Gives every API request its own RequestReadMemo and logs,
+ * at debug level, how many of its reads were served from the memo
+ */
+@Slf4j
+@Component
+public class RequestReadMemoFilter extends OncePerRequestFilter {
+
+    @Value("${app.read-memo.enabled:true}")
+    private boolean enabled = true;
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        RequestReadMemo memo = RequestReadMemo.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            memo.close();
+            if (memo.lookups() > 0) {
+                log.debug("{} {}: {} reads, {} served from the request memo",
+                    request.getMethod(), request.getRequestURI(), memo.lookups(), memo.hits());
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+}
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -42,6 +43,27 @@ public class StaffRepository {
         }
     }
 
+    /**
+     * Find staff by Staff ID without blocking
+     * 
+     * @param staffId The staff ID to search for
+     * @return Future of the staff, or of null if not found
+     */
+    public CompletableFuture<Staff> findByStaffIdAsync(String staffId) {
+        return firestoreRepository.findByIdAsync(COLLECTION_NAME, staffId, Staff.class);
+    }
+
+    /**
+     * Find staff members by position without blocking
+     * 
+     * @param position The position to filter by
+     * @return Future of the staff with the given position
+     */
+    public CompletableFuture<List<Staff>> findByPositionAsync(String position) {
+        return firestoreRepository.getCollectionByFieldAsync(COLLECTION_NAME, "position", position)
+                .thenApply(this::toStaffList);
+    }
+
     /**
      * Get all staff members
      * 
@@ -130,6 +152,7 @@ public class StaffRepository {
             // Always set updatedAt timestamp
             updateData.put("updatedAt", java.time.Instant.now().toString());
 
+            RequestReadMemo.invalidate(COLLECTION_NAME);
             firestore.collection(COLLECTION_NAME)
                     .document(staffId)
                     .set(updateData, SetOptions.merge())
@@ -149,6 +172,7 @@ public class StaffRepository {
     public void delete(String staffId) throws ExecutionException, InterruptedException {
         try {
             Firestore firestore = firestoreRepository.getFirestore();
+            RequestReadMemo.invalidate(COLLECTION_NAME);
             firestore.collection(COLLECTION_NAME)
                     .document(staffId)
                     .delete()
@@ -182,18 +206,18 @@ public class StaffRepository {
      * @throws InterruptedException
      */
     public List<Staff> findByPosition(String position) throws ExecutionException, InterruptedException {
-        List<Staff> staffList = new ArrayList<>();
-
         Query query = firestoreRepository.getCollectionByField(COLLECTION_NAME, "position", position);
-        QuerySnapshot querySnapshot = query.get().get();
+        return toStaffList(query.get().get());
+    }
 
+    private List<Staff> toStaffList(QuerySnapshot querySnapshot) {
+        List<Staff> staffList = new ArrayList<>();
         for (DocumentSnapshot document : querySnapshot.getDocuments()) {
             Staff staff = documentToStaff(document);
             if (staff != null) {
                 staffList.add(staff);
             }
         }
-
         return staffList;
     }
 
@@ -23,7 +23,7 @@ import java.util.Optional;
 public class SuperadminRepository {
 
     private final Firestore firestore;
-    private static final String COLLECTION_NAME = "superadmins";
+    public static final String COLLECTION_NAME = "superadmins";
 
     public Superadmin save(Superadmin superadmin) {
         try {
@@ -0,0 +1,200 @@
+package com.example.springboot.repository;
+
+import com.example.springboot.exception.DuplicateResourceException;
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Transaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * UniqueConstraintRepository - Reservation documents that make field values unique
+ *
+ * Each taken value owns one document unique/{field}:{SHA-256 of the normalized value}
+ * naming the entity that holds it. Reservations are created in the same transaction as
+ * the entity write, so two concurrent inserts of the same value cannot both commit and
+ * no field query is needed beforehand. Until UniqueConstraintBackfillService has
+ * reserved the values of older records, callers keep their legacy exists-queries.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class UniqueConstraintRepository {
+
+    public static final String COLLECTION_NAME = "unique";
+    // Contains no ':', so it cannot collide with a reservation
+    private static final String BACKFILL_MARKER_ID = "_backfill";
+
+    private final Firestore firestore;
+
+    // Cleared once every pre-existing value has a reservation
+    private volatile boolean legacyCheckEnabled = true;
+
+    /**
+     * Reserve every value for owner inside the transaction. Performs reads, so it must run
+     * before the caller's first write in the transaction; values the owner already holds
+     * are kept as they are.
+     *
+     * @param values field name to value; null or blank values are skipped
+     * @throws DuplicateResourceException naming the first field whose value is taken
+     */
+    public void reserve(Transaction transaction, String resourceName, String owner,
+                        Map<String, String> values) throws Exception {
+        List<String> taken = reserveFree(transaction, owner, values, true);
+        if (!taken.isEmpty()) {
+            throw new DuplicateResourceException(resourceName, taken.get(0), values.get(taken.get(0)));
+        }
+    }
+
+    /**
+     * Create reservations for the values that are free or already the owner's
+     *
+     * @param allOrNothing create nothing when any value is taken
+     * @return fields whose value another owner holds
+     */
+    private List<String> reserveFree(Transaction transaction, String owner, Map<String, String> values,
+                                     boolean allOrNothing) throws Exception {
+        List<String> fields = new ArrayList<>();
+        List<DocumentReference> refs = new ArrayList<>();
+        values.forEach((field, value) -> {
+            String normalized = normalize(value);
+            if (normalized != null) {
+                fields.add(field);
+                refs.add(document(field, normalized));
+            }
+        });
+        if (refs.isEmpty()) {
+            return List.of();
+        }
+
+        List<DocumentSnapshot> snapshots = transaction.getAll(refs.toArray(new DocumentReference[0])).get();
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            DocumentSnapshot snapshot = snapshots.get(i);
+            if (snapshot.exists() && !owner.equals(snapshot.getString("owner"))) {
+                taken.add(fields.get(i));
+            }
+        }
+        if (allOrNothing && !taken.isEmpty()) {
+            return taken;
+        }
+        for (int i = 0; i < snapshots.size(); i++) {
+            if (!snapshots.get(i).exists()) {
+                Map<String, Object> reservation = new HashMap<>();
+                reservation.put("field", fields.get(i));
+                reservation.put("owner", owner);
+                reservation.put("createdAt", LocalDateTime.now().toString());
+                // create() fails the commit if another transaction took the value meanwhile
+                transaction.create(refs.get(i), reservation);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * True if some entity holds the value (one document get). A failed read is thrown,
+     * not reported as a free value.
+     */
+    public boolean isReserved(String field, String value) throws ExecutionException, InterruptedException {
+        String normalized = normalize(value);
+        if (normalized == null) {
+            return false;
+        }
+        return document(field, normalized).get().get().exists();
+    }
+
+    /**
+     * Free the values inside the transaction (entity deleted or value changed)
+     */
+    public void release(Transaction transaction, Map<String, String> values) {
+        values.forEach((field, value) -> {
+            String normalized = normalize(value);
+            if (normalized != null) {
+                transaction.delete(document(field, normalized));
+            }
+        });
+    }
+
+    /**
+     * Record reservations for an existing record outside any transaction (backfill).
+     * Each field is reserved on its own: a value another record already holds is left
+     * with it, and the record's other values are still reserved.
+     */
+    public void reserveExisting(String owner, Map<String, String> values) throws Exception {
+        List<String> taken = firestore.runTransaction(transaction -> reserveFree(transaction, owner, values, false)).get();
+        for (String field : taken) {
+            // Duplicates that predate the constraint stay with their first owner
+            log.warn("Existing duplicate {} value for {}", field, owner);
+        }
+    }
+
+    /**
+     * True while older records may exist without reservations
+     */
+    public boolean isLegacyCheckEnabled() {
+        return legacyCheckEnabled;
+    }
+
+    public boolean isBackfilled() {
+        try {
+            boolean backfilled = firestore.collection(COLLECTION_NAME).document(BACKFILL_MARKER_ID).get().get().exists();
+            if (backfilled) {
+                legacyCheckEnabled = false;
+            }
+            return backfilled;
+        } catch (Exception e) {
+            log.error("Failed to read unique constraint backfill marker: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public void markBackfilled() {
+        try {
+            firestore.collection(COLLECTION_NAME)
+                    .document(BACKFILL_MARKER_ID)
+                    .set(Map.of("completedAt", LocalDateTime.now().toString()))
+                    .get();
+            legacyCheckEnabled = false;
+        } catch (Exception e) {
+            log.error("Failed to write unique constraint backfill marker: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The DuplicateResourceException behind a failed transaction, if that is what failed it
+     */
+    public static DuplicateResourceException findDuplicate(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateResourceException duplicate) {
+                return duplicate;
+            }
+        }
+        return null;
+    }
+
+    public static String documentId(String field, String normalizedValue) {
+        return field + ":" + TokenHashUtil.sha256Hex(normalizedValue);
+    }
+
+    public static String normalize(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private DocumentReference document(String field, String normalizedValue) {
+        return firestore.collection(COLLECTION_NAME).document(documentId(field, normalizedValue));
+    }
+}
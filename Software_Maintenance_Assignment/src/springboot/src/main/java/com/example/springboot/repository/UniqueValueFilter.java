@@ -0,0 +1,176 @@
+package com.example.springboot.repository;
+
+import com.google.api.gax.rpc.ApiStreamObserver;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * UniqueValueFilter - In-memory Bloom filters over customer email, phone number and IC number
+ *
+ * Most existence checks (registration, the "is this email taken" check on the register
+ * page) answer "no". A filter miss proves the value was never stored, so the repositories
+ * return false without querying Firestore; a hit falls through to the usual lookup.
+ * The filters are filled at startup by streaming a projection of the customers collection
+ * and are added to on every customer write. Until that stream completes every lookup
+ * falls through. Entries are never removed, so deleted or changed values only cost a query.
+ *
+ * Writes made by other instances are not seen here; the reservation taken in the insert
+ * transaction (UniqueConstraintRepository) still rejects those duplicates.
+ */
+@Slf4j
+@Component
+public class UniqueValueFilter {
+
+    public static final List<String> FIELDS = List.of("email", "phoneNumber", "custIcNo");
+
+    private final Firestore firestore;
+    private final Map<String, BloomFilter<CharSequence>> filters = new LinkedHashMap<>();
+    private final Map<String, Counter> negatives = new LinkedHashMap<>();
+    private final Map<String, Counter> fallThroughs = new LinkedHashMap<>();
+    private final double falsePositiveRate;
+
+    @Value("${app.unique-filter.enabled:true}")
+    private boolean enabled = true;
+
+    // Set once the startup stream has added every stored value
+    private volatile boolean ready = false;
+
+    public UniqueValueFilter(
+            Firestore firestore,
+            MeterRegistry meterRegistry,
+            @Value("${app.unique-filter.expected-insertions:100000}") long expectedInsertions,
+            @Value("${app.unique-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.firestore = firestore;
+        this.falsePositiveRate = falsePositiveRate;
+
+        Gauge.builder("unique_filter.configured_fpp", () -> this.falsePositiveRate)
+                .description("False-positive rate the filters were sized for")
+                .register(meterRegistry);
+        for (String field : FIELDS) {
+            // Guava's BloomFilter is lock-free and safe for concurrent put/mightContain
+            BloomFilter<CharSequence> filter = BloomFilter.create(
+                    Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(1, expectedInsertions), falsePositiveRate);
+            filters.put(field, filter);
+
+            Gauge.builder("unique_filter.expected_fpp", filter, BloomFilter::expectedFpp)
+                    .description("Current false-positive probability; rises past the configured rate once "
+                            + "more values than expected-insertions are stored")
+                    .tag("field", field)
+                    .register(meterRegistry);
+            Gauge.builder("unique_filter.approximate_count", filter, BloomFilter::approximateElementCount)
+                    .tag("field", field)
+                    .register(meterRegistry);
+            negatives.put(field, Counter.builder("unique_filter.lookups")
+                    .description("Existence checks answered by the filter alone (negative) or passed on to Firestore")
+                    .tag("field", field).tag("result", "negative")
+                    .register(meterRegistry));
+            fallThroughs.put(field, Counter.builder("unique_filter.lookups")
+                    .tag("field", field).tag("result", "fall_through")
+                    .register(meterRegistry));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (!enabled) {
+            log.info("Unique value filter disabled");
+            return;
+        }
+        Thread worker = new Thread(this::build, "unique-value-filter");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stream the unique fields of every customer into the filters, then start answering
+     */
+    public void build() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicInteger streamed = new AtomicInteger();
+        try {
+            firestore.collection(UserRepository.COLLECTION_NAME)
+                    .select(FIELDS.toArray(new String[0]))
+                    .stream(new ApiStreamObserver<DocumentSnapshot>() {
+                        @Override
+                        public void onNext(DocumentSnapshot document) {
+                            for (String field : FIELDS) {
+                                put(field, document.getString(field));
+                            }
+                            streamed.incrementAndGet();
+                        }
+
+                        @Override
+                        public void onError(Throwable error) {
+                            done.completeExceptionally(error);
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            done.complete(null);
+                        }
+                    });
+            done.get();
+            ready = true;
+            log.info("Unique value filter built from {} customers", streamed.get());
+        } catch (Exception e) {
+            // Lookups keep going to Firestore; rebuilt on next start
+            log.error("Unique value filter build failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record a stored value. Must be called for every customer write, including before the
+     * filter is ready, so values written during the startup stream are not missed.
+     */
+    public void put(String field, String value) {
+        String normalized = UniqueConstraintRepository.normalize(value);
+        BloomFilter<CharSequence> filter = filters.get(field);
+        if (normalized != null && filter != null) {
+            filter.put(normalized);
+        }
+    }
+
+    public void putAll(String email, String phoneNumber, String custIcNo) {
+        put("email", email);
+        put("phoneNumber", phoneNumber);
+        put("custIcNo", custIcNo);
+    }
+
+    /**
+     * False only if the value is certainly not stored; true means "ask Firestore"
+     */
+    public boolean mightContain(String field, String value) {
+        String normalized = UniqueConstraintRepository.normalize(value);
+        BloomFilter<CharSequence> filter = filters.get(field);
+        if (!ready || normalized == null || filter == null) {
+            return true;
+        }
+        if (filter.mightContain(normalized)) {
+            fallThroughs.get(field).increment();
+            return true;
+        }
+        negatives.get(field).increment();
+        return false;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.springboot.repository;
 
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.model.User;
 import com.example.springboot.enums.Gender;
 import com.example.springboot.enums.AuthProvider;
@@ -11,9 +12,14 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -26,7 +32,11 @@ import java.util.stream.Collectors;
 public class UserRepository {
 
     private final Firestore firestore;
-    private static final String COLLECTION_NAME = "customers";
+    private final UniqueConstraintRepository uniqueConstraintRepository;
+    private final UniqueValueFilter uniqueValueFilter;
+    public static final String COLLECTION_NAME = "customers";
+    // Placeholder stored for social sign-ups; not a real value, so never reserved
+    private static final String NOT_PROVIDED = "Not Provided";
 
     /**
      * Save user to Firestore
@@ -47,6 +57,7 @@ public class UserRepository {
                     .set(userMap);
 
             result.get();
+            uniqueValueFilter.putAll(user.getEmail(), user.getPhoneNumber(), user.getCustIcNo());
 
             log.info("User saved successfully: {}", user.getCustId());
             return user;
@@ -58,25 +69,119 @@ public class UserRepository {
     }
 
     /**
-     * Find user by ID
+     * Insert a new user, reserving its email, phone number and IC number in the same
+     * transaction so a concurrent registration with any of them cannot also commit
+     *
+     * @throws DuplicateResourceException if one of the values is already registered
      */
-    public Optional<User> findById(String userId) {
+    public User create(User user) {
+        return create(user, transaction -> { });
+    }
+
+    /**
+     * Insert a new user as above, committing the extra writes (verification token,
+     * email index entry) in the same transaction so registration is a single commit
+     *
+     * @param alsoWrite adds writes only; it runs after the reservation reads and may be
+     *                  repeated if Firestore retries the transaction
+     */
+    public User create(User user, Consumer<Transaction> alsoWrite) {
         try {
-            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
-            ApiFuture<DocumentSnapshot> future = docRef.get();
-            DocumentSnapshot document = future.get();
+            if (user.getCustId() == null) {
+                user.setCustId(firestore.collection(COLLECTION_NAME).document().getId());
+            }
+            user.setUpdatedAt(LocalDateTime.now());
+
+            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(user.getCustId());
+            Map<String, Object> userMap = convertToMap(user);
+
+            firestore.runTransaction(transaction -> {
+                uniqueConstraintRepository.reserve(transaction, "User", ownerOf(user.getCustId()),
+                        uniqueValues(user.getEmail(), user.getPhoneNumber(), user.getCustIcNo()));
+                transaction.create(docRef, userMap);
+                alsoWrite.accept(transaction);
+                return null;
+            }).get();
+            uniqueValueFilter.putAll(user.getEmail(), user.getPhoneNumber(), user.getCustIcNo());
+
+            log.info("User created successfully: {}", user.getCustId());
+            return user;
+
+        } catch (Exception e) {
+            DuplicateResourceException duplicate = UniqueConstraintRepository.findDuplicate(e);
+            if (duplicate != null) {
+                throw duplicate;
+            }
+            log.error("Failed to create user: {}", e.getMessage());
+            throw new RuntimeException("Failed to create user: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Save a user whose email, phone number or IC number may have changed: the new values
+     * are reserved and the old ones released in the same transaction as the write
+     *
+     * @throws DuplicateResourceException if a new value belongs to someone else
+     */
+    public User update(User user) {
+        try {
+            user.setUpdatedAt(LocalDateTime.now());
+            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(user.getCustId());
+            Map<String, Object> userMap = convertToMap(user);
+            Map<String, String> newValues = uniqueValues(user.getEmail(), user.getPhoneNumber(), user.getCustIcNo());
+
+            firestore.runTransaction(transaction -> {
+                DocumentSnapshot current = transaction.get(docRef).get();
+                Map<String, String> oldValues = uniqueValues(current.getString("email"),
+                        current.getString("phoneNumber"), current.getString("custIcNo"));
+                uniqueConstraintRepository.reserve(transaction, "User", ownerOf(user.getCustId()), newValues);
+
+                Map<String, String> released = new HashMap<>();
+                oldValues.forEach((field, value) -> {
+                    if (!Objects.equals(UniqueConstraintRepository.normalize(value),
+                            UniqueConstraintRepository.normalize(newValues.get(field)))) {
+                        released.put(field, value);
+                    }
+                });
+                uniqueConstraintRepository.release(transaction, released);
+                transaction.set(docRef, userMap);
+                return null;
+            }).get();
+            uniqueValueFilter.putAll(user.getEmail(), user.getPhoneNumber(), user.getCustIcNo());
+
+            log.info("User updated successfully: {}", user.getCustId());
+            return user;
 
-            if (document.exists()) {
-                return Optional.of(convertToUser(document));
+        } catch (Exception e) {
+            DuplicateResourceException duplicate = UniqueConstraintRepository.findDuplicate(e);
+            if (duplicate != null) {
+                throw duplicate;
             }
-            return Optional.empty();
+            log.error("Failed to update user: {}", e.getMessage());
+            throw new RuntimeException("Failed to update user: " + e.getMessage(), e);
+        }
+    }
 
+    /**
+     * Find user by ID
+     */
+    public Optional<User> findById(String userId) {
+        try {
+            return findByIdAsync(userId).get();
         } catch (Exception e) {
             log.error("Failed to find user by ID: {}", e.getMessage());
             return Optional.empty();
         }
     }
 
+    /**
+     * Find user by ID without blocking
+     */
+    public CompletableFuture<Optional<User>> findByIdAsync(String userId) {
+        return FirestoreFutures.call(() -> firestore.collection(COLLECTION_NAME).document(userId).get())
+                .thenApply(document -> document.exists() ? Optional.of(convertToUser(document)) : Optional.<User>empty());
+    }
+
     /**
      * Find user by email
      */
@@ -152,6 +257,12 @@ public class UserRepository {
      * Check if email exists
      */
     public boolean existsByEmail(String email) {
+        if (!uniqueValueFilter.mightContain("email", email)) {
+            return false;
+        }
+        if (!uniqueConstraintRepository.isLegacyCheckEnabled()) {
+            return isReserved("email", email);
+        }
         return findByEmail(email).isPresent();
     }
 
@@ -159,6 +270,12 @@ public class UserRepository {
      * Check if phone number exists
      */
     public boolean existsByPhoneNumber(String phoneNumber) {
+        if (!uniqueValueFilter.mightContain("phoneNumber", phoneNumber)) {
+            return false;
+        }
+        if (!uniqueConstraintRepository.isLegacyCheckEnabled()) {
+            return isReserved("phoneNumber", phoneNumber);
+        }
         try {
             ApiFuture<QuerySnapshot> query = firestore.collection(COLLECTION_NAME)
                     .whereEqualTo("phoneNumber", phoneNumber)
@@ -173,15 +290,35 @@ public class UserRepository {
         }
     }
 
+    /**
+     * Reservation lookup; a failed read is thrown so it is not taken for a free value
+     */
+    private boolean isReserved(String field, String value) {
+        try {
+            return uniqueConstraintRepository.isReserved(field, value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Failed to check " + field + " reservation: interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to check " + field + " reservation: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Delete user by ID
      */
     public void deleteById(String userId) {
         try {
-            ApiFuture<WriteResult> result = firestore.collection(COLLECTION_NAME)
-                    .document(userId)
-                    .delete();
-            result.get();
+            DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(userId);
+            firestore.runTransaction(transaction -> {
+                DocumentSnapshot current = transaction.get(docRef).get();
+                if (current.exists()) {
+                    uniqueConstraintRepository.release(transaction, uniqueValues(current.getString("email"),
+                            current.getString("phoneNumber"), current.getString("custIcNo")));
+                }
+                transaction.delete(docRef);
+                return null;
+            }).get();
             log.info("User deleted: {}", userId);
 
         } catch (Exception e) {
@@ -208,6 +345,27 @@ public class UserRepository {
         }
     }
 
+    /**
+     * Unique fields of a customer document, skipping blanks and the social sign-up placeholder
+     */
+    public static Map<String, String> uniqueValues(String email, String phoneNumber, String custIcNo) {
+        Map<String, String> values = new LinkedHashMap<>();
+        putIfReal(values, "email", email);
+        putIfReal(values, "phoneNumber", phoneNumber);
+        putIfReal(values, "custIcNo", custIcNo);
+        return values;
+    }
+
+    public static String ownerOf(String custId) {
+        return COLLECTION_NAME + "/" + custId;
+    }
+
+    private static void putIfReal(Map<String, String> values, String field, String value) {
+        if (value != null && !value.isBlank() && !NOT_PROVIDED.equalsIgnoreCase(value.trim())) {
+            values.put(field, value);
+        }
+    }
+
     /**
      * Convert User entity to Firestore Map
      */
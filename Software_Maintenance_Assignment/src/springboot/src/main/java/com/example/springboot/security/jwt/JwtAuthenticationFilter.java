@@ -17,6 +17,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 /**
  * JwtAuthenticationFilter - Intercepts requests and validates JWT tokens
@@ -26,6 +27,8 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
+    private static final String[] STATIC_PATH_PREFIXES = {"/css/", "/js/", "/images/", "/webjars/"};
+    
     private final JwtTokenProvider jwtTokenProvider;
     
     @Override
@@ -37,14 +40,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         try {
             String jwt = extractJwtFromRequest(request);
+            Optional<JwtPrincipal> principal = jwt != null ? jwtTokenProvider.parseToken(jwt) : Optional.empty();
             
-            if (jwt != null && jwtTokenProvider.validateToken(jwt)) {
-                String userId = jwtTokenProvider.getUserIdFromToken(jwt);
-                Role role = jwtTokenProvider.getRoleFromToken(jwt);
+            if (principal.isPresent()) {
+                String userId = principal.get().getUserId();
+                Role role = principal.get().getRole();
                 
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(
-                        userId.toString(),
+                        userId,
                         null,
                         Collections.singletonList(
                             new SimpleGrantedAuthority("ROLE_" + role.name())
@@ -66,6 +70,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    /**
+     * Static resources never carry meaningful credentials, so skip token parsing for them
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path == null) {
+            return false;
+        }
+        String contextPath = request.getContextPath();
+        if (contextPath != null && !contextPath.isEmpty() && path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        for (String prefix : STATIC_PATH_PREFIXES) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return path.equals("/favicon.ico");
+    }
+    
     /**
      * Extract JWT token from Authorization header OR Cookie
      */
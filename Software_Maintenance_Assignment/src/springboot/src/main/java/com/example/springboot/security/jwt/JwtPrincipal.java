@@ -0,0 +1,23 @@
+package com.example.springboot.security.jwt;
+
+import com.example.springboot.enums.Role;
+import lombok.Value;
+
+/**
+ * JwtPrincipal - Immutable result of verifying a JWT once: who it is for and until when
+ */
+@Value
+public class JwtPrincipal {
+    
+    String userId;
+    String email;
+    Role role;
+    String tokenType;       // null for access tokens, "refresh" or "mfa_session" otherwise
+    long expiresAtMillis;   // Long.MAX_VALUE if the token has no expiry
+    long familyId;          // refresh-token family the session belongs to, 0 if none
+    int generation;         // family generation the token was issued at
+    
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
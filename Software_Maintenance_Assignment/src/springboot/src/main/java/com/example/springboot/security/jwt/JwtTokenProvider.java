@@ -3,6 +3,9 @@ package com.example.springboot.security.jwt;
 import com.example.springboot.enums.Role;
 import com.example.springboot.dto.response.JWTResponseDTO;
 import com.example.springboot.repository.RefreshTokenRepository;
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
@@ -13,9 +16,18 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JwtTokenProvider - Updated to work with String IDs from Firestore
+ *
+ * The signing key and parser are built once. parseToken verifies a token a single time
+ * and caches the resulting principal (keyed by the token's SHA-256) until it expires.
+ * Revocation is checked against the in-memory TokenRevocationRegistry with the same hash.
+ *
+ * Tokens issued together carry the session's refresh-token family ("fam") and generation
+ * ("gen"), so revoking a family in TokenFamilyRegistry also rejects its access tokens.
  */
 @Slf4j
 @Component
@@ -32,13 +44,37 @@ public class JwtTokenProvider {
     private Long refreshTokenExpiration;
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final TokenFamilyRegistry tokenFamilyRegistry;
+
+    private static final int VERIFIED_CACHE_MAX_SIZE = 10_000;
+    private static final int VERIFIED_CACHE_TTL_MINUTES = 15;
+
+    // Built lazily because @Value fields are injected after construction
+    private volatile SecretKey signingKey;
+    private volatile JwtParser jwtParser;
+
+    // Verified tokens only; entries are also checked against the token's own expiry on every hit
+    private final Cache<String, JwtPrincipal> verifiedTokens = CacheBuilder.newBuilder()
+            .maximumSize(VERIFIED_CACHE_MAX_SIZE)
+            .expireAfterWrite(VERIFIED_CACHE_TTL_MINUTES, TimeUnit.MINUTES)
+            .build();
 
     /**
-     * Generate access and refresh tokens
+     * Generate access and refresh tokens for a new session (starts a new token family)
      */
     public JWTResponseDTO generateTokens(String userId, String email, Role role) {
-        String accessToken = generateAccessToken(userId, email, role);
-        String refreshToken = generateRefreshToken(userId, email, role);
+        long familyId = tokenFamilyRegistry.startFamily(
+                userId, System.currentTimeMillis() + refreshTokenExpiration);
+        return generateTokens(userId, email, role, familyId, 0);
+    }
+
+    /**
+     * Generate access and refresh tokens for a given family generation (used on rotation)
+     */
+    public JWTResponseDTO generateTokens(String userId, String email, Role role, long familyId, int generation) {
+        String accessToken = generateAccessToken(userId, email, role, familyId, generation);
+        String refreshToken = generateRefreshToken(userId, email, role, familyId, generation);
 
         return JWTResponseDTO.builder()
                 .accessToken(accessToken)
@@ -51,13 +87,20 @@ public class JwtTokenProvider {
                 .build();
     }
 
-    private String generateAccessToken(String userId, String email, Role role) {
+    /**
+     * Expiry a refresh token issued now would get
+     */
+    public long nextRefreshExpiryMillis() {
+        return System.currentTimeMillis() + refreshTokenExpiration;
+    }
+
+    private String generateAccessToken(String userId, String email, Role role, long familyId, int generation) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        SecretKey key = getSigningKey();
 
-        return Jwts.builder()
+        return withFamily(Jwts.builder(), familyId, generation)
                 .setSubject(userId) // String ID
                 .claim("email", email)
                 .claim("role", role.name())
@@ -67,13 +110,13 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    private String generateRefreshToken(String userId, String email, Role role) {
+    private String generateRefreshToken(String userId, String email, Role role, long familyId, int generation) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshTokenExpiration);
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        SecretKey key = getSigningKey();
 
-        return Jwts.builder()
+        return withFamily(Jwts.builder(), familyId, generation)
                 .setSubject(userId) // String ID
                 .claim("email", email)
                 .claim("role", role.name())
@@ -84,11 +127,18 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    private JwtBuilder withFamily(JwtBuilder builder, long familyId, int generation) {
+        if (familyId != 0) {
+            builder.claim("fam", familyId).claim("gen", generation);
+        }
+        return builder;
+    }
+
     public String generateMFASessionToken(String userId, String email, Role role) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + 300000); // 5 minutes
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        SecretKey key = getSigningKey();
 
         return Jwts.builder()
                 .setSubject(userId)
@@ -101,44 +151,122 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public boolean validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-            return false;
+    /**
+     * Verify a token once and return its principal, or empty if it is invalid, expired or revoked.
+     * Repeat calls with the same token are served from the verified-token cache.
+     */
+    public Optional<JwtPrincipal> parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String tokenHash = TokenHashUtil.sha256Hex(token);
+        if (revocationRegistry.isRevoked(tokenHash)) {
+            log.debug("Rejected revoked JWT token");
+            return Optional.empty();
+        }
+
+        JwtPrincipal principal = verifiedTokens.getIfPresent(tokenHash);
+        if (principal != null && principal.isExpired(System.currentTimeMillis())) {
+            verifiedTokens.invalidate(tokenHash);
+            principal = null;
         }
+
+        if (principal == null) {
+            try {
+                principal = verify(token);
+                verifiedTokens.put(tokenHash, principal);
+            } catch (JwtException | IllegalArgumentException e) {
+                log.error("Invalid JWT token: {}", e.getMessage());
+                return Optional.empty();
+            }
+        }
+
+        if (tokenFamilyRegistry.isRevoked(principal.getFamilyId())) {
+            log.debug("Rejected JWT token of a revoked token family");
+            return Optional.empty();
+        }
+        return Optional.of(principal);
+    }
+
+    /**
+     * Drop a token from the verified-token cache (e.g. on logout)
+     */
+    public void evictToken(String token) {
+        if (token != null) {
+            verifiedTokens.invalidate(TokenHashUtil.sha256Hex(token));
+        }
+    }
+
+    public boolean validateToken(String token) {
+        return parseToken(token).isPresent();
     }
 
     public String getUserIdFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject(); // Returns String ID
+        return parseToken(token)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"))
+                .getUserId(); // Returns String ID
     }
 
     public Role getRoleFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parseToken(token)
+                .orElseThrow(() -> new JwtException("Invalid JWT token"))
+                .getRole();
+    }
+
+    /**
+     * Full signature and expiry check, bypassing the cache
+     */
+    JwtPrincipal verify(String token) {
+        Claims claims = getParser().parseClaimsJws(token).getBody();
 
         String roleStr = claims.get("role", String.class);
+        Role role;
         try {
-            return Role.valueOf(roleStr);
+            role = Role.valueOf(roleStr);
         } catch (IllegalArgumentException | NullPointerException e) {
             log.warn("Invalid role value '{}' in JWT token, defaulting to USER", roleStr);
-            return Role.USER;
+            role = Role.USER;
+        }
+
+        Date expiration = claims.getExpiration();
+        Long familyId = claims.get("fam", Long.class);
+        Integer generation = claims.get("gen", Integer.class);
+        return new JwtPrincipal(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                role,
+                claims.get("type", String.class),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE,
+                familyId != null ? familyId : 0L,
+                generation != null ? generation : 0);
+    }
+
+    private SecretKey getSigningKey() {
+        SecretKey key = signingKey;
+        if (key == null) {
+            synchronized (this) {
+                key = signingKey;
+                if (key == null) {
+                    key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+                    signingKey = key;
+                }
+            }
+        }
+        return key;
+    }
+
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            synchronized (this) {
+                parser = jwtParser;
+                if (parser == null) {
+                    parser = Jwts.parserBuilder().setSigningKey(getSigningKey()).build();
+                    jwtParser = parser;
+                }
+            }
         }
+        return parser;
     }
-}
\ No newline at end of file
+}
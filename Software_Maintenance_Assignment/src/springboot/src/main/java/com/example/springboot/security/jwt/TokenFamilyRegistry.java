@@ -0,0 +1,234 @@
+package com.example.springboot.security.jwt;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TokenFamilyRegistry - Tracks refresh-token families for rotation and reuse detection.
+ *
+ * Every login starts a family; each refresh presents the family's current generation
+ * and receives the next one. Presenting an older generation means a refresh token was
+ * replayed, so the whole family is revoked. Families live in a TokenFamilyTable (O(1)
+ * lookups and revocation) and in the token_families collection, which is the source of
+ * truth across nodes and restarts; rotation is a Firestore transaction.
+ *
+ * A snapshot listener on revoked families marks them revoked in the local table, so a
+ * family revoked on one instance stops authenticating on every other one within the
+ * listener's latency rather than only once it tries to rotate there.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenFamilyRegistry {
+
+    public enum Outcome { ROTATED, REUSED, REVOKED, UNKNOWN }
+
+    public static final String COLLECTION_NAME = "token_families";
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Firestore firestore;
+    private final TokenFamilyTable table = new TokenFamilyTable();
+    private volatile ListenerRegistration listener;
+
+    /**
+     * Subscribe to revocations made by any instance; the first snapshot brings in the
+     * ones made before this instance started
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            listener = firestore.collection(COLLECTION_NAME)
+                    .whereEqualTo("revoked", true)
+                    .addSnapshotListener((snapshots, error) -> {
+                        if (error != null) {
+                            log.error("Token family listener failed: {}", error.getMessage());
+                            return;
+                        }
+                        if (snapshots != null) {
+                            onSnapshot(snapshots);
+                        }
+                    });
+        } catch (Exception e) {
+            log.error("Failed to subscribe to token family revocations: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ListenerRegistration registration = listener;
+        if (registration != null) {
+            registration.remove();
+            listener = null;
+        }
+    }
+
+    /**
+     * Start a new family at generation 0 and return its id
+     */
+    public long startFamily(String userId, long expiresAtMillis) {
+        long familyId;
+        do {
+            familyId = RANDOM.nextLong() & Long.MAX_VALUE;
+        } while (familyId == 0);
+
+        table.put(familyId, 0, expiresAtMillis);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("userId", userId);
+        map.put("generation", 0L);
+        map.put("revoked", false);
+        map.put("expiresAt", expiresAtMillis);
+        map.put("createdAt", LocalDateTime.now().toString());
+        // Login does not wait for this write; rotation falls back to UNKNOWN if it failed
+        persistAsync(document(familyId).set(map), "start", familyId);
+        return familyId;
+    }
+
+    /**
+     * Move the family from presentedGeneration to presentedGeneration + 1.
+     * A stale generation revokes the family and reports REUSED.
+     */
+    public Outcome rotate(long familyId, int presentedGeneration, long newExpiresAtMillis) {
+        if (familyId == 0) {
+            return Outcome.UNKNOWN;
+        }
+
+        // Local fast path: known revoked or already-rotated past this token
+        int local = table.generation(familyId);
+        if (local == TokenFamilyTable.REVOKED) {
+            return Outcome.REVOKED;
+        }
+        if (local != TokenFamilyTable.ABSENT && presentedGeneration < local) {
+            revokeFamily(familyId, newExpiresAtMillis);
+            return Outcome.REUSED;
+        }
+
+        DocumentReference docRef = document(familyId);
+        Outcome outcome;
+        try {
+            ApiFuture<Outcome> result = firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(docRef).get();
+                if (!snapshot.exists()) {
+                    return Outcome.UNKNOWN;
+                }
+                if (Boolean.TRUE.equals(snapshot.getBoolean("revoked"))) {
+                    return Outcome.REVOKED;
+                }
+                Long stored = snapshot.getLong("generation");
+                if (stored == null || stored != presentedGeneration) {
+                    transaction.update(docRef, "revoked", true);
+                    return Outcome.REUSED;
+                }
+                transaction.update(docRef,
+                        "generation", (long) presentedGeneration + 1,
+                        "expiresAt", newExpiresAtMillis);
+                return Outcome.ROTATED;
+            });
+            outcome = result.get();
+        } catch (Exception e) {
+            log.error("Failed to rotate token family: {}", e.getMessage());
+            throw new RuntimeException("Failed to rotate token family", e);
+        }
+
+        switch (outcome) {
+            case ROTATED -> table.put(familyId, presentedGeneration + 1, newExpiresAtMillis);
+            case REUSED, REVOKED -> table.revoke(familyId, newExpiresAtMillis);
+            default -> { }
+        }
+        if (outcome == Outcome.REUSED) {
+            log.warn("Refresh token reuse detected, token family revoked");
+        }
+        return outcome;
+    }
+
+    /**
+     * Revoke every token of the family: O(1) locally, persisted in the background
+     */
+    public void revokeFamily(long familyId, long expiresAtMillis) {
+        if (familyId == 0) {
+            return;
+        }
+        table.revoke(familyId, expiresAtMillis);
+        persistAsync(document(familyId).update("revoked", true), "revoke", familyId);
+    }
+
+    /**
+     * Local check only, used on every authenticated request
+     */
+    public boolean isRevoked(long familyId) {
+        return familyId != 0 && table.generation(familyId) == TokenFamilyTable.REVOKED;
+    }
+
+    @Scheduled(fixedDelayString = "${app.token-families.prune-interval-ms:300000}")
+    public void pruneExpired() {
+        int removed = table.removeExpired(System.currentTimeMillis());
+        if (removed > 0) {
+            log.debug("Pruned {} expired token families, {} remaining", removed, table.size());
+        }
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    void onSnapshot(QuerySnapshot snapshots) {
+        long now = System.currentTimeMillis();
+        for (DocumentChange change : snapshots.getDocumentChanges()) {
+            // A family leaving the query was deleted once expired; pruneExpired drops it locally
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                continue;
+            }
+            DocumentSnapshot document = change.getDocument();
+            Long expiresAt = document.getLong("expiresAt");
+            if (expiresAt == null || expiresAt <= now) {
+                continue;
+            }
+            try {
+                long familyId = Long.parseLong(document.getId());
+                if (familyId != 0) {
+                    table.revoke(familyId, expiresAt);
+                }
+            } catch (NumberFormatException e) {
+                log.warn("Ignoring token family document with a non-numeric id");
+            }
+        }
+    }
+
+    private DocumentReference document(long familyId) {
+        return firestore.collection(COLLECTION_NAME).document(Long.toString(familyId));
+    }
+
+    private void persistAsync(ApiFuture<WriteResult> write, String action, long familyId) {
+        ApiFutures.addCallback(write, new ApiFutureCallback<>() {
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("Failed to {} token family {}: {}", action, familyId, t.getMessage());
+            }
+
+            @Override
+            public void onSuccess(WriteResult result) {
+                // nothing to do
+            }
+        }, MoreExecutors.directExecutor());
+    }
+}
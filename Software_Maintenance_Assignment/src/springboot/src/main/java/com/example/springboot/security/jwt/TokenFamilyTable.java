@@ -0,0 +1,232 @@
+package com.example.springboot.security.jwt;
+
+/**
+ * TokenFamilyTable - Compact long-keyed table of refresh-token families.
+ *
+ * Each family is a (generation, expiresAt) pair stored in parallel primitive arrays with
+ * open addressing, about 20 bytes per slot instead of a boxed map entry per session.
+ * The table is split into lock-striped segments so concurrent refreshes rarely contend.
+ * Family ids must be non-zero (0 marks an empty slot).
+ */
+public final class TokenFamilyTable {
+
+    public static final int ABSENT = Integer.MIN_VALUE;
+    public static final int REVOKED = -1;
+
+    private static final int SEGMENT_COUNT = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    public TokenFamilyTable() {
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(INITIAL_SEGMENT_CAPACITY);
+        }
+    }
+
+    /**
+     * Current generation, REVOKED, or ABSENT if the family is not held locally
+     */
+    public int generation(long familyId) {
+        return segmentFor(familyId).get(familyId);
+    }
+
+    public void put(long familyId, int generation, long expiresAtMillis) {
+        checkId(familyId);
+        segmentFor(familyId).put(familyId, generation, expiresAtMillis);
+    }
+
+    /**
+     * Advance the generation only if it still equals expected
+     */
+    public boolean compareAndSet(long familyId, int expected, int generation, long expiresAtMillis) {
+        checkId(familyId);
+        return segmentFor(familyId).compareAndSet(familyId, expected, generation, expiresAtMillis);
+    }
+
+    /**
+     * Mark the family revoked (kept until it expires so reuse keeps being rejected)
+     */
+    public void revoke(long familyId, long expiresAtMillis) {
+        checkId(familyId);
+        segmentFor(familyId).revoke(familyId, expiresAtMillis);
+    }
+
+    public int removeExpired(long nowMillis) {
+        int removed = 0;
+        for (Segment segment : segments) {
+            removed += segment.removeExpired(nowMillis);
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(long familyId) {
+        return segments[(int) (mix(familyId) >>> 58)];   // top 6 bits -> 64 segments
+    }
+
+    private static void checkId(long familyId) {
+        if (familyId == 0) {
+            throw new IllegalArgumentException("Family id must be non-zero");
+        }
+    }
+
+    static long mix(long key) {
+        // Murmur3 finalizer; ids are random already but this keeps probing robust to any id scheme
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * Linear-probing table guarded by its own monitor
+     */
+    private static final class Segment {
+        private long[] keys;
+        private int[] generations;
+        private long[] expiries;
+        private int size;
+
+        private Segment(int capacity) {
+            allocate(capacity);
+        }
+
+        private void allocate(int capacity) {
+            keys = new long[capacity];
+            generations = new int[capacity];
+            expiries = new long[capacity];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int get(long key) {
+            int slot = find(key);
+            return slot >= 0 ? generations[slot] : ABSENT;
+        }
+
+        synchronized void put(long key, int generation, long expiresAt) {
+            int slot = find(key);
+            if (slot < 0) {
+                slot = insertSlot(key);
+            }
+            generations[slot] = generation;
+            expiries[slot] = expiresAt;
+        }
+
+        synchronized boolean compareAndSet(long key, int expected, int generation, long expiresAt) {
+            int slot = find(key);
+            if (slot < 0 || generations[slot] != expected) {
+                return false;
+            }
+            generations[slot] = generation;
+            expiries[slot] = expiresAt;
+            return true;
+        }
+
+        synchronized void revoke(long key, long expiresAt) {
+            int slot = find(key);
+            if (slot < 0) {
+                slot = insertSlot(key);
+                expiries[slot] = expiresAt;
+            } else {
+                expiries[slot] = Math.max(expiries[slot], expiresAt);
+            }
+            generations[slot] = REVOKED;
+        }
+
+        synchronized int removeExpired(long now) {
+            int removed = 0;
+            int slot = 0;
+            while (slot < keys.length) {
+                if (keys[slot] != 0 && expiries[slot] <= now) {
+                    deleteSlot(slot);
+                    removed++;
+                    // deleteSlot may have shifted a later entry into this slot; re-check it
+                } else {
+                    slot++;
+                }
+            }
+            return removed;
+        }
+
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int insertSlot(long key) {
+            if ((size + 1) * 4 > keys.length * 3) {     // keep load factor <= 0.75
+                resize(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int slot = (int) mix(key) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            size++;
+            return slot;
+        }
+
+        /**
+         * Backward-shift deletion, so lookups never need tombstones
+         */
+        private void deleteSlot(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            int next = (hole + 1) & mask;
+            while (keys[next] != 0) {
+                int home = (int) mix(keys[next]) & mask;
+                // Move next into the hole unless its home lies cyclically in (hole, next]
+                boolean homeBetween = hole <= next
+                        ? home > hole && home <= next
+                        : home > hole || home <= next;
+                if (!homeBetween) {
+                    keys[hole] = keys[next];
+                    generations[hole] = generations[next];
+                    expiries[hole] = expiries[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+            keys[hole] = 0;
+            generations[hole] = 0;
+            expiries[hole] = 0;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldGenerations = generations;
+            long[] oldExpiries = expiries;
+            allocate(capacity);
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = insertSlot(oldKeys[i]);
+                    generations[slot] = oldGenerations[i];
+                    expiries[slot] = oldExpiries[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.springboot.security.jwt;
+
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TokenRevocationRegistry - In-memory set of revoked tokens, keyed by SHA-256 hex.
+ *
+ * A Bloom filter answers the common "not revoked" case without touching the exact set;
+ * only filter positives are confirmed against it. The set is loaded from the
+ * revoked_tokens collection at startup, kept current by a snapshot listener (so
+ * revocations made by other instances are picked up) and pruned once tokens expire.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationRegistry {
+
+    private static final String COLLECTION_NAME = "revoked_tokens";
+
+    @Value("${app.token-revocation.expected-insertions:100000}")
+    private int expectedInsertions = 100_000;
+
+    @Value("${app.token-revocation.fpp:0.001}")
+    private double falsePositiveProbability = 0.001;
+
+    private final Firestore firestore;
+
+    // tokenHash -> token expiry (epoch millis); authoritative for positives
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    // Serialises writers with filter rebuilds; readers never lock
+    private final Object writeLock = new Object();
+    private volatile int filterCapacity = expectedInsertions;
+    private volatile BloomFilter<CharSequence> filter = newFilter(filterCapacity);
+    private volatile ListenerRegistration listener;
+
+    /**
+     * Load active revocations and subscribe to changes made by any instance
+     */
+    @PostConstruct
+    public void start() {
+        long now = System.currentTimeMillis();
+        try {
+            QuerySnapshot snapshot = firestore.collection(COLLECTION_NAME)
+                    .whereGreaterThan("expiresAt", now)
+                    .get()
+                    .get();
+            synchronized (writeLock) {
+                for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                    apply(document);
+                }
+                rebuildFilter();
+            }
+            log.info("Loaded {} active token revocations", revoked.size());
+        } catch (Exception e) {
+            log.error("Failed to load token revocations: {}", e.getMessage());
+        }
+
+        try {
+            listener = firestore.collection(COLLECTION_NAME)
+                    .whereGreaterThan("expiresAt", now)
+                    .addSnapshotListener((snapshots, error) -> {
+                        if (error != null) {
+                            log.error("Token revocation listener failed: {}", error.getMessage());
+                            return;
+                        }
+                        if (snapshots != null) {
+                            onSnapshot(snapshots);
+                        }
+                    });
+        } catch (Exception e) {
+            log.error("Failed to subscribe to token revocations: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        ListenerRegistration registration = listener;
+        if (registration != null) {
+            registration.remove();
+            listener = null;
+        }
+    }
+
+    /**
+     * O(1) check, no remote call. tokenHash is TokenHashUtil.sha256Hex(token).
+     */
+    public boolean isRevoked(String tokenHash) {
+        if (tokenHash == null || !filter.mightContain(tokenHash)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenHash);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Revoke a token until it expires. Takes effect locally at once and is persisted
+     * so other instances (and this one after a restart) see it too.
+     */
+    public void revoke(String tokenHash, long expiresAtMillis) {
+        if (tokenHash == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;     // already unusable, nothing to remember
+        }
+        add(tokenHash, expiresAtMillis);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("tokenHash", tokenHash);
+        map.put("expiresAt", expiresAtMillis);
+        map.put("revokedAt", LocalDateTime.now().toString());
+        try {
+            firestore.collection(COLLECTION_NAME).document(tokenHash).set(map).get();
+        } catch (Exception e) {
+            log.error("Failed to persist token revocation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drop revocations whose tokens have expired and rebuild the filter so its
+     * false-positive rate stays at the configured level
+     */
+    @Scheduled(fixedDelayString = "${app.token-revocation.prune-interval-ms:60000}")
+    public void pruneExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (writeLock) {
+            int before = revoked.size();
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+            int removed = before - revoked.size();
+            if (removed > 0) {
+                rebuildFilter();
+                log.debug("Pruned {} expired token revocations, {} remaining", removed, revoked.size());
+            }
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    void onSnapshot(QuerySnapshot snapshots) {
+        synchronized (writeLock) {
+            for (DocumentChange change : snapshots.getDocumentChanges()) {
+                QueryDocumentSnapshot document = change.getDocument();
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    // Filter bit stays set until the next rebuild; the exact set decides
+                    revoked.remove(document.getId());
+                } else {
+                    apply(document);
+                }
+            }
+        }
+    }
+
+    private void apply(DocumentSnapshot document) {
+        Long expiresAt = document.getLong("expiresAt");
+        if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+            add(document.getId(), expiresAt);
+        }
+    }
+
+    private void add(String tokenHash, long expiresAtMillis) {
+        synchronized (writeLock) {
+            revoked.merge(tokenHash, expiresAtMillis, Math::max);
+            filter.put(tokenHash);
+            if (revoked.size() > filterCapacity) {
+                rebuildFilter();
+            }
+        }
+    }
+
+    // Caller holds writeLock
+    private void rebuildFilter() {
+        int capacity = capacity();
+        BloomFilter<CharSequence> rebuilt = newFilter(capacity);
+        revoked.keySet().forEach(rebuilt::put);
+        filterCapacity = capacity;
+        filter = rebuilt;
+    }
+
+    private int capacity() {
+        // Grow in doublings so a burst of revocations does not rebuild on every insert
+        int capacity = Math.max(expectedInsertions, 1);
+        while (capacity < revoked.size() && capacity < Integer.MAX_VALUE / 2) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private BloomFilter<CharSequence> newFilter(int capacity) {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacity, falsePositiveProbability);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.springboot.security.mfa;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * HashedBackupCodes - Immutable salted SHA-256 set of MFA backup codes.
+ *
+ * Stored as "sha256:&lt;salt&gt;:&lt;digest&gt;,&lt;digest&gt;,..." (Base64). Lookups hash the
+ * candidate once and probe a HashSet, so a check is O(1); only salted digests are
+ * ever compared, so comparison timing reveals nothing about the stored codes.
+ */
+public final class HashedBackupCodes {
+
+    private static final String PREFIX = "sha256:";
+    private static final int SALT_BYTES = 16;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getDecoder();
+
+    private final byte[] salt;
+    private final Set<String> digests;
+
+    private HashedBackupCodes(byte[] salt, Set<String> digests) {
+        this.salt = salt;
+        this.digests = Collections.unmodifiableSet(digests);
+    }
+
+    /**
+     * Hash freshly generated plaintext codes with a new random salt
+     */
+    public static HashedBackupCodes create(String[] codes) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        Set<String> digests = new HashSet<>();
+        for (String code : codes) {
+            digests.add(digest(salt, code));
+        }
+        return new HashedBackupCodes(salt, digests);
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    public static HashedBackupCodes parse(String stored) {
+        if (!isHashed(stored)) {
+            throw new IllegalArgumentException("Not a hashed backup code set");
+        }
+        int saltEnd = stored.indexOf(':', PREFIX.length());
+        if (saltEnd < 0) {
+            throw new IllegalArgumentException("Malformed hashed backup code set");
+        }
+
+        byte[] salt = DECODER.decode(stored.substring(PREFIX.length(), saltEnd));
+        Set<String> digests = new HashSet<>();
+        String body = stored.substring(saltEnd + 1);
+        if (!body.isEmpty()) {
+            Collections.addAll(digests, body.split(","));
+        }
+        return new HashedBackupCodes(salt, digests);
+    }
+
+    public boolean contains(String code) {
+        return code != null && digests.contains(digest(salt, code));
+    }
+
+    /**
+     * Copy of this set with the given code removed (same salt)
+     */
+    public HashedBackupCodes without(String code) {
+        Set<String> remaining = new HashSet<>(digests);
+        remaining.remove(digest(salt, code));
+        return new HashedBackupCodes(salt, remaining);
+    }
+
+    public int size() {
+        return digests.size();
+    }
+
+    public String serialize() {
+        return PREFIX + ENCODER.encodeToString(salt) + ":" + String.join(",", digests);
+    }
+
+    private static String digest(byte[] salt, String code) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(salt);
+            return ENCODER.encodeToString(sha256.digest(code.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -3,14 +3,8 @@ package com.example.springboot.security.mfa;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
 /**
@@ -22,11 +16,10 @@ public class TOTPGenerator {
     
     // Google Authenticator uses 20 bytes (160 bits) -> 32 characters in Base32
     private static final int SECRET_SIZE = 20; 
-    private static final String HMAC_ALGORITHM = "HmacSHA1";
-    private static final int CODE_DIGITS = 6;
-    private static final long TIME_STEP = 30; // seconds
     private static final int WINDOW = 1; // Allow 1 time step before/after
     
+    private final TOTPVerifier verifier = new TOTPVerifier(WINDOW);
+    
     public String generateSecret() {
         SecureRandom random = new SecureRandom();
         byte[] bytes = new byte[SECRET_SIZE];
@@ -35,49 +28,30 @@ public class TOTPGenerator {
     }
     
     /**
-     * Generate QR code URL using api.qrserver.com
+     * Build the otpauth:// URI that authenticator apps read from the setup QR code.
+     * Rendered locally by QRCodeRenderer so the secret never leaves this server.
      */
-    public String generateQRCodeUrl(String secret, String accountName) {
+    public String generateOtpAuthUri(String secret, String accountName) {
         String issuer = "AirlineTicketing";
         
-        try {
-            // URL Encode the label components
-            String label = URLEncoder.encode(issuer + ":" + accountName, StandardCharsets.UTF_8.toString());
-            String issuerParam = URLEncoder.encode(issuer, StandardCharsets.UTF_8.toString());
-            
-            // Format: otpauth://totp/Label?secret=SECRET&issuer=ISSUER
-            String otpauthUrl = String.format(
-                "otpauth://totp/%s?secret=%s&issuer=%s",
-                label,
-                secret,
-                issuerParam
-            );
-            
-            // URL Encode the ENTIRE otpauth URL for the API parameter
-            String encodedOtpUrl = URLEncoder.encode(otpauthUrl, StandardCharsets.UTF_8.toString());
-            
-            // [FIX] Switched to api.qrserver.com as Google Charts is deprecated
-            return String.format(
-                "https://api.qrserver.com/v1/create-qr-code/?size=200x200&data=%s",
-                encodedOtpUrl
-            );
-        } catch (UnsupportedEncodingException e) {
-            log.error("Error generating QR code URL: {}", e.getMessage());
-            return "";
-        }
+        // Label and issuer are path/query components, so spaces must be %20 rather than +
+        String label = URLEncoder.encode(issuer + ":" + accountName, StandardCharsets.UTF_8).replace("+", "%20");
+        String issuerParam = URLEncoder.encode(issuer, StandardCharsets.UTF_8).replace("+", "%20");
+        
+        // Format: otpauth://totp/Label?secret=SECRET&issuer=ISSUER
+        return String.format(
+            "otpauth://totp/%s?secret=%s&issuer=%s",
+            label,
+            secret,
+            issuerParam
+        );
     }
     
     public boolean validateCode(String secret, String code) {
         try {
-            long currentTime = System.currentTimeMillis() / 1000L;
-            long currentTimeStep = currentTime / TIME_STEP;
-            
-            for (int i = -WINDOW; i <= WINDOW; i++) {
-                String generatedCode = generateCode(secret, currentTimeStep + i);
-                if (generatedCode.equals(code)) {
-                    log.info("TOTP code validated successfully");
-                    return true;
-                }
+            if (verifier.verify(secret, code)) {
+                log.info("TOTP code validated successfully");
+                return true;
             }
             
             log.warn("TOTP code validation failed");
@@ -89,27 +63,11 @@ public class TOTPGenerator {
         }
     }
     
-    private String generateCode(String secret, long timeStep) throws NoSuchAlgorithmException, InvalidKeyException {
-        byte[] decodedSecret = Base32.decode(secret);
-        
-        ByteBuffer buffer = ByteBuffer.allocate(8);
-        buffer.putLong(timeStep);
-        byte[] timeBytes = buffer.array();
-        
-        Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
-        SecretKeySpec keySpec = new SecretKeySpec(decodedSecret, HMAC_ALGORITHM);
-        hmac.init(keySpec);
-        byte[] hash = hmac.doFinal(timeBytes);
-        
-        int offset = hash[hash.length - 1] & 0x0F;
-        int binary = ((hash[offset] & 0x7F) << 24) |
-                     ((hash[offset + 1] & 0xFF) << 16) |
-                     ((hash[offset + 2] & 0xFF) << 8) |
-                     (hash[offset + 3] & 0xFF);
-        
-        int otp = binary % (int) Math.pow(10, CODE_DIGITS);
-        
-        return String.format("%0" + CODE_DIGITS + "d", otp);
+    /**
+     * Drop cached key material for a secret that is no longer in use
+     */
+    public void evictSecret(String secret) {
+        verifier.evict(secret);
     }
     
     /**
@@ -117,15 +75,6 @@ public class TOTPGenerator {
      */
     private static class Base32 {
         private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
-        private static final int[] DECODE_TABLE;
-
-        static {
-            DECODE_TABLE = new int[128];
-            java.util.Arrays.fill(DECODE_TABLE, -1);
-            for (int i = 0; i < ALPHABET.length(); i++) {
-                DECODE_TABLE[ALPHABET.charAt(i)] = i;
-            }
-        }
 
         public static String encode(byte[] data) {
             StringBuilder sb = new StringBuilder();
@@ -146,22 +95,5 @@ public class TOTPGenerator {
             }
             return sb.toString();
         }
-
-        public static byte[] decode(String data) {
-            data = data.trim().replaceAll("=", "").toUpperCase();
-            java.io.ByteArrayOutputStream bos = new java.io.ByteArrayOutputStream();
-            int val = 0;
-            int bits = 0;
-            for (char c : data.toCharArray()) {
-                if (c >= DECODE_TABLE.length || DECODE_TABLE[c] < 0) continue;
-                val = (val << 5) | DECODE_TABLE[c];
-                bits += 5;
-                if (bits >= 8) {
-                    bos.write((val >> (bits - 8)) & 0xFF);
-                    bits -= 8;
-                }
-            }
-            return bos.toByteArray();
-        }
     }
 }
\ No newline at end of file
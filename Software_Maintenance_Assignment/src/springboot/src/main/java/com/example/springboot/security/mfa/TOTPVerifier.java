@@ -0,0 +1,199 @@
+package com.example.springboot.security.mfa;
+
+import com.example.springboot.utils.ScratchPool;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TOTPVerifier - Allocation-free TOTP (RFC 6238, HMAC-SHA1, 6 digits) verification.
+ *
+ * Decoded keys are cached per Base32 secret, each check borrows a pooled Mac plus its
+ * counter/hash buffers (a pool rather than a ThreadLocal, so virtual threads reuse
+ * them too), and codes are compared as ints over the whole window so timing does
+ * not reveal which step (if any) matched.
+ */
+public class TOTPVerifier {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA1";
+    private static final int HASH_LENGTH = 20;
+    private static final int CODE_DIGITS = 6;
+    private static final int CODE_MODULUS = 1_000_000;
+    private static final long TIME_STEP_SECONDS = 30;
+    private static final int MAX_CACHED_KEYS = 10_000;
+
+    private static final String BASE32_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+    private static final byte[] BASE32_DECODE = new byte[128];
+
+    static {
+        java.util.Arrays.fill(BASE32_DECODE, (byte) -1);
+        for (int i = 0; i < BASE32_ALPHABET.length(); i++) {
+            BASE32_DECODE[BASE32_ALPHABET.charAt(i)] = (byte) i;
+            BASE32_DECODE[Character.toLowerCase(BASE32_ALPHABET.charAt(i))] = (byte) i;
+        }
+    }
+
+    private final int window;
+    private final Map<String, SecretKeySpec> keyCache = new ConcurrentHashMap<>();
+    private final ScratchPool<HmacContext> contexts = new ScratchPool<>(ScratchPool.defaultCapacity(), HmacContext::new);
+
+    public TOTPVerifier(int window) {
+        this.window = window;
+    }
+
+    /**
+     * Check a user supplied code against the current time step +/- window
+     */
+    public boolean verify(String secret, String code) {
+        return verify(secret, code, System.currentTimeMillis() / 1000L);
+    }
+
+    public boolean verify(String secret, String code, long epochSeconds) {
+        int expected = parseCode(code);
+        if (expected < 0 || secret == null) {
+            return false;
+        }
+
+        SecretKeySpec key = keyFor(secret);
+        HmacContext context = contexts.borrow();
+        long currentStep = epochSeconds / TIME_STEP_SECONDS;
+
+        int matched = 0;
+        try {
+            for (int i = -window; i <= window; i++) {
+                int diff = context.compute(key, currentStep + i) ^ expected;
+                // diff is non-negative; (diff - 1) >>> 31 is 1 only when diff == 0
+                matched |= (diff - 1) >>> 31;
+            }
+        } finally {
+            contexts.release(context);
+        }
+        return matched == 1;
+    }
+
+    /**
+     * Code for a given time step (used for enrollment checks and tests)
+     */
+    public int generate(String secret, long timeStep) {
+        HmacContext context = contexts.borrow();
+        try {
+            return context.compute(keyFor(secret), timeStep);
+        } finally {
+            contexts.release(context);
+        }
+    }
+
+    /**
+     * Drop the cached key for a secret (e.g. when MFA is disabled or re-setup)
+     */
+    public void evict(String secret) {
+        if (secret != null) {
+            keyCache.remove(secret);
+        }
+    }
+
+    private SecretKeySpec keyFor(String secret) {
+        SecretKeySpec key = keyCache.get(secret);
+        if (key == null) {
+            if (keyCache.size() >= MAX_CACHED_KEYS) {
+                keyCache.clear();
+            }
+            key = new SecretKeySpec(decodeBase32(secret), HMAC_ALGORITHM);
+            keyCache.put(secret, key);
+        }
+        return key;
+    }
+
+    /**
+     * Parse exactly CODE_DIGITS ASCII digits without allocating; -1 if malformed
+     */
+    static int parseCode(String code) {
+        if (code == null || code.length() != CODE_DIGITS) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < CODE_DIGITS; i++) {
+            int digit = code.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    static byte[] decodeBase32(String data) {
+        int symbols = 0;
+        for (int i = 0; i < data.length(); i++) {
+            char c = data.charAt(i);
+            if (c < BASE32_DECODE.length && BASE32_DECODE[c] >= 0) {
+                symbols++;
+            }
+        }
+
+        byte[] out = new byte[symbols * 5 / 8];
+        int buffer = 0;
+        int bits = 0;
+        int index = 0;
+        for (int i = 0; i < data.length() && index < out.length; i++) {
+            char c = data.charAt(i);
+            if (c >= BASE32_DECODE.length || BASE32_DECODE[c] < 0) {
+                continue;   // skips padding and whitespace
+            }
+            buffer = (buffer << 5) | BASE32_DECODE[c];
+            bits += 5;
+            if (bits >= 8) {
+                out[index++] = (byte) (buffer >> (bits - 8));
+                bits -= 8;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Pooled Mac and scratch buffers, used by one check at a time. The Mac is only
+     * re-initialised when the key changes, since doFinal leaves it ready for the same key.
+     */
+    private static final class HmacContext {
+        private final Mac mac;
+        private final byte[] counter = new byte[8];
+        private final byte[] hash = new byte[HASH_LENGTH];
+        private SecretKeySpec currentKey;
+
+        private HmacContext() {
+            try {
+                mac = Mac.getInstance(HMAC_ALGORITHM);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(HMAC_ALGORITHM + " not available", e);
+            }
+        }
+
+        private int compute(SecretKeySpec key, long timeStep) {
+            try {
+                if (key != currentKey) {
+                    mac.init(key);
+                    currentKey = key;
+                }
+                for (int i = 7; i >= 0; i--) {
+                    counter[i] = (byte) timeStep;
+                    timeStep >>>= 8;
+                }
+                mac.update(counter);
+                mac.doFinal(hash, 0);
+            } catch (GeneralSecurityException e) {
+                currentKey = null;
+                throw new IllegalStateException("Failed to compute TOTP", e);
+            }
+
+            int offset = hash[HASH_LENGTH - 1] & 0x0F;
+            int binary = ((hash[offset] & 0x7F) << 24)
+                | ((hash[offset + 1] & 0xFF) << 16)
+                | ((hash[offset + 2] & 0xFF) << 8)
+                | (hash[offset + 3] & 0xFF);
+            return binary % CODE_MODULUS;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.springboot.security.password;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BoundedPasswordEncoder - Runs a delegate encoder on the PasswordHashingExecutor
+ * so expensive hashes never execute on request threads
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+    
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute("encode", () -> delegate.encode(rawPassword));
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+    
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+}
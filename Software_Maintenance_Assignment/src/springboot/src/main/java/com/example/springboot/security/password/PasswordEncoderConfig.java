@@ -13,10 +13,11 @@ public class PasswordEncoderConfig {
     
     /**
      * BCrypt password encoder with strength 12
-     * Higher strength = more secure but slower
+     * Higher strength = more secure but slower, so hashing runs on the bounded
+     * PasswordHashingExecutor instead of request threads
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(12), passwordHashingExecutor);
     }
 }
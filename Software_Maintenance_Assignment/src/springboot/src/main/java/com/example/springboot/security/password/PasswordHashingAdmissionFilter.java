@@ -0,0 +1,76 @@
+package com.example.springboot.security.password;
+
+import com.example.springboot.exception.PasswordHashingUnavailableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * PasswordHashingAdmissionFilter - Fast-fails password endpoints with 503 while the
+ * hashing pool is saturated, before any body parsing or database work is done.
+ * Also maps a rejection that happens further in (a race past the check) to 503.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PasswordHashingAdmissionFilter extends OncePerRequestFilter {
+    
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    
+    @Value("${app.password-hashing.paths:/api/auth/login,/api/auth/reset-password,/api/register/user,/api/register/admin,/api/dashboard/change-password}")
+    private List<String> paths = List.of(
+        "/api/auth/login",
+        "/api/auth/reset-password",
+        "/api/register/user",
+        "/api/register/admin",
+        "/api/dashboard/change-password"
+    );
+    
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
+    ) throws ServletException, IOException {
+        
+        if (passwordHashingExecutor.isSaturated()) {
+            log.warn("Password hashing saturated, shedding request to {}", request.getRequestURI());
+            reject(response, passwordHashingExecutor.retryAfterSeconds());
+            return;
+        }
+        
+        try {
+            filterChain.doFilter(request, response);
+        } catch (PasswordHashingUnavailableException e) {
+            if (response.isCommitted()) {
+                throw e;
+            }
+            reject(response, e.getRetryAfterSeconds());
+        }
+    }
+    
+    /**
+     * Only POSTs to the configured password endpoints are subject to admission
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equalsIgnoreCase(request.getMethod()) || !paths.contains(request.getRequestURI());
+    }
+    
+    private void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(503);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Service Unavailable\",\"message\":\"Service is busy, please try again in "
+            + retryAfterSeconds + " seconds\"}");
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.springboot.security.password;
+
+import com.example.springboot.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * PasswordHashingExecutor - Dedicated bounded pool for BCrypt work
+ *
+ * Hashing and verification run on a fixed number of threads (half the cores by default)
+ * so a login burst cannot take every core from booking traffic. The queue is bounded;
+ * work beyond it is rejected, and PasswordHashingAdmissionFilter turns requests away
+ * with 503 once the queue reaches max-queue-depth. Queue wait, hash time and rejections
+ * are exported as password_hashing.* metrics.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final Counter rejected;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.password-hashing.max-queue-depth:32}")
+    private int maxQueueDepth = 32;
+
+    @Value("${app.password-hashing.timeout-ms:10000}")
+    private long timeoutMs = 10_000;
+
+    public PasswordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.password-hashing.threads:0}") int configuredThreads,
+            @Value("${app.password-hashing.queue-capacity:64}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.threads = configuredThreads > 0
+                ? configuredThreads
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("password_hashing.rejected")
+                .description("Password hashing requests rejected because the pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("password_hashing.queue_depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("password_hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the hashing task on the pool and wait for its result
+     *
+     * @param operation metric tag, e.g. "encode" or "matches"
+     * @throws PasswordHashingUnavailableException if the pool is saturated or the task times out
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        Timer queueWaitTimer = meterRegistry.timer("password_hashing.queue_wait", "operation", operation);
+        Timer hashTimer = meterRegistry.timer("password_hashing.duration", "operation", operation);
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                queueWaitTimer.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    hashTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing pool saturated, rejecting {} request", operation);
+            throw new PasswordHashingUnavailableException(
+                    "Service is busy, please try again shortly", retryAfterSeconds());
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("Password hashing {} timed out after {} ms", operation, timeoutMs);
+            throw new PasswordHashingUnavailableException(
+                    "Service is busy, please try again shortly", retryAfterSeconds());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    /**
+     * True once enough work is queued that new hashing requests should be turned away
+     */
+    public boolean isSaturated() {
+        return executor.getQueue().size() >= maxQueueDepth;
+    }
+
+    /**
+     * Rough time for the current queue to drain, from the mean hash time so far
+     */
+    public long retryAfterSeconds() {
+        double totalMs = 0;
+        long count = 0;
+        for (Timer timer : meterRegistry.find("password_hashing.duration").timers()) {
+            totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+            count += timer.count();
+        }
+        double meanMs = count > 0 ? totalMs / count : 250.0;
+        double drainMs = (executor.getQueue().size() + executor.getActiveCount()) * meanMs / threads;
+        return Math.max(1L, (long) Math.ceil(drainMs / 1000.0));
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
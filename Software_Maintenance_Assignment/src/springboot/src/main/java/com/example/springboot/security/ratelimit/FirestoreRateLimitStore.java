@@ -0,0 +1,269 @@
+package com.example.springboot.security.ratelimit;
+
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FirestoreRateLimitStore - Rate limit counters shared by every node (app.rate-limit.store=firestore)
+ *
+ * Each key has one document per fixed window in rate_limits holding the cluster-wide
+ * count. Requests never call Firestore: they are decided against the last known shared
+ * totals plus this node's unflushed increments. A scheduled flush pushes the local
+ * increments as atomic FieldValue.increment writes and re-reads the totals of every
+ * active key, so limits converge across nodes within one flush interval.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "firestore")
+@RequiredArgsConstructor
+public class FirestoreRateLimitStore implements RateLimitStore {
+
+    public static final String COLLECTION_NAME = "rate_limits";
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private final Firestore firestore;
+
+    // Keys used recently, with their hashed document prefix and window length
+    private final ConcurrentMap<String, ActiveKey> activeKeys = new ConcurrentHashMap<>();
+    // Increments not yet written, per window document
+    private final ConcurrentMap<String, PendingCount> pending = new ConcurrentHashMap<>();
+    // Last known cluster-wide totals per window document
+    private final ConcurrentMap<String, Long> shared = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(String key, int limit, long windowMillis, long nowMillis) {
+        ActiveKey activeKey = touch(key, windowMillis, nowMillis);
+        long window = nowMillis / windowMillis;
+        String currentDoc = activeKey.documentId(window);
+        long previous = total(activeKey.documentId(window - 1));
+
+        long[] retryAfter = {0L};
+        // Check and increment under the document's bin lock so local callers cannot overshoot
+        pending.compute(currentDoc, (doc, count) -> {
+            long current = shared.getOrDefault(doc, 0L) + (count != null ? count.value.get() : 0);
+            retryAfter[0] = SlidingWindowCounter.retryAfterMillis(previous, current, limit, windowMillis, nowMillis);
+            if (retryAfter[0] > 0) {
+                return count;
+            }
+            PendingCount next = count != null ? count : new PendingCount((window + 2) * windowMillis);
+            next.value.incrementAndGet();
+            return next;
+        });
+        return retryAfter[0];
+    }
+
+    @Override
+    public int record(String key, long windowMillis, long nowMillis) {
+        ActiveKey activeKey = touch(key, windowMillis, nowMillis);
+        long window = nowMillis / windowMillis;
+        pending.compute(activeKey.documentId(window), (doc, count) -> {
+            PendingCount next = count != null ? count : new PendingCount((window + 2) * windowMillis);
+            next.value.incrementAndGet();
+            return next;
+        });
+        return count(activeKey, window, windowMillis, nowMillis);
+    }
+
+    @Override
+    public int count(String key, long windowMillis, long nowMillis) {
+        ActiveKey activeKey = touch(key, windowMillis, nowMillis);
+        return count(activeKey, nowMillis / windowMillis, windowMillis, nowMillis);
+    }
+
+    @Override
+    public void reset(String key, long windowMillis) {
+        ActiveKey activeKey = activeKeys.remove(key);
+        String hash = activeKey != null ? activeKey.hash : TokenHashUtil.sha256Hex(key);
+        String prefix = hash + "-";
+        pending.keySet().removeIf(doc -> doc.startsWith(prefix));
+        shared.keySet().removeIf(doc -> doc.startsWith(prefix));
+
+        // Other nodes pick the reset up on their next flush
+        long window = System.currentTimeMillis() / windowMillis;
+        WriteBatch batch = firestore.batch();
+        batch.delete(document(prefix + window));
+        batch.delete(document(prefix + (window - 1)));
+        ApiFutures.addCallback(batch.commit(), new ApiFutureCallback<>() {
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("Failed to reset rate limit counter: {}", t.getMessage());
+            }
+
+            @Override
+            public void onSuccess(List<WriteResult> result) {
+                // nothing to do
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.flush-interval-ms:1000}")
+    public void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        pushPending();
+    }
+
+    void flush(long nowMillis) {
+        pushPending();
+        refreshShared(nowMillis);
+    }
+
+    /**
+     * Write local increments; once written they count as shared until the next refresh
+     */
+    private void pushPending() {
+        Map<String, Integer> deltas = new HashMap<>();
+        Map<String, Long> expiries = new HashMap<>();
+        pending.forEach((doc, count) -> {
+            int delta = count.value.get();
+            if (delta > 0) {
+                deltas.put(doc, delta);
+                expiries.put(doc, count.expiresAt);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<String> docs = new ArrayList<>(deltas.keySet());
+        for (int from = 0; from < docs.size(); from += MAX_BATCH_SIZE) {
+            List<String> chunk = docs.subList(from, Math.min(docs.size(), from + MAX_BATCH_SIZE));
+            try {
+                WriteBatch batch = firestore.batch();
+                for (String doc : chunk) {
+                    Map<String, Object> map = new HashMap<>();
+                    map.put("count", FieldValue.increment(deltas.get(doc)));
+                    map.put("expiresAt", expiries.get(doc));
+                    batch.set(document(doc), map, SetOptions.merge());
+                }
+                batch.commit().get();
+            } catch (Exception e) {
+                // Keep the increments pending and retry on the next flush
+                log.error("Failed to flush rate limit counters: {}", e.getMessage());
+                return;
+            }
+
+            for (String doc : chunk) {
+                int delta = deltas.get(doc);
+                shared.merge(doc, (long) delta, Long::sum);
+                pending.computeIfPresent(doc, (k, count) -> count.value.addAndGet(-delta) == 0 ? null : count);
+            }
+        }
+    }
+
+    /**
+     * Re-read the current and previous window totals of every active key
+     */
+    private void refreshShared(long nowMillis) {
+        List<DocumentReference> refs = new ArrayList<>();
+        Set<String> relevant = new HashSet<>();
+        activeKeys.values().removeIf(activeKey -> activeKey.isIdle(nowMillis));
+        for (ActiveKey activeKey : activeKeys.values()) {
+            long window = nowMillis / activeKey.windowMillis;
+            for (String doc : List.of(activeKey.documentId(window), activeKey.documentId(window - 1))) {
+                relevant.add(doc);
+                refs.add(document(doc));
+            }
+        }
+        shared.keySet().retainAll(relevant);
+        pending.entrySet().removeIf(entry -> entry.getValue().expiresAt <= nowMillis);
+        if (refs.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (int from = 0; from < refs.size(); from += MAX_BATCH_SIZE) {
+                List<DocumentReference> chunk = refs.subList(from, Math.min(refs.size(), from + MAX_BATCH_SIZE));
+                for (DocumentSnapshot snapshot : firestore.getAll(chunk.toArray(new DocumentReference[0])).get()) {
+                    Long count = snapshot.exists() ? snapshot.getLong("count") : null;
+                    shared.put(snapshot.getId(), count != null ? count : 0L);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh rate limit counters: {}", e.getMessage());
+        }
+    }
+
+    private int count(ActiveKey activeKey, long window, long windowMillis, long nowMillis) {
+        double elapsed = (double) Math.floorMod(nowMillis, windowMillis) / windowMillis;
+        double estimate = total(activeKey.documentId(window - 1)) * (1.0 - elapsed)
+                + total(activeKey.documentId(window));
+        return (int) Math.ceil(estimate);
+    }
+
+    private long total(String doc) {
+        PendingCount count = pending.get(doc);
+        return shared.getOrDefault(doc, 0L) + (count != null ? count.value.get() : 0);
+    }
+
+    private ActiveKey touch(String key, long windowMillis, long nowMillis) {
+        ActiveKey activeKey = activeKeys.computeIfAbsent(key,
+                k -> new ActiveKey(TokenHashUtil.sha256Hex(k), windowMillis));
+        activeKey.lastUsedMillis = nowMillis;
+        return activeKey;
+    }
+
+    private DocumentReference document(String doc) {
+        return firestore.collection(COLLECTION_NAME).document(doc);
+    }
+
+    int activeKeyCount() {
+        return activeKeys.size();
+    }
+
+    private static final class ActiveKey {
+        private final String hash;          // keys may hold emails, so documents use a hash
+        private final long windowMillis;
+        private volatile long lastUsedMillis;
+
+        private ActiveKey(String hash, long windowMillis) {
+            this.hash = hash;
+            this.windowMillis = windowMillis;
+        }
+
+        private String documentId(long window) {
+            return hash + "-" + window;
+        }
+
+        private boolean isIdle(long nowMillis) {
+            return nowMillis - lastUsedMillis >= 2 * windowMillis;
+        }
+    }
+
+    private static final class PendingCount {
+        private final long expiresAt;
+        private final AtomicInteger value = new AtomicInteger();
+
+        private PendingCount(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.springboot.security.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * InMemoryRateLimitStore - Per-JVM sliding-window counters (the default store)
+ *
+ * Counters are created on first use and dropped once they have been idle for two
+ * windows. Limits are per node, so N nodes allow up to N times the configured limit.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final ConcurrentMap<String, SlidingWindowCounter> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public long tryAcquire(String key, int limit, long windowMillis, long nowMillis) {
+        SlidingWindowCounter counter = counter(key, windowMillis);
+        if (counter.tryAcquire(limit, nowMillis)) {
+            return 0L;
+        }
+        return counter.retryAfterMillis(limit, nowMillis);
+    }
+
+    @Override
+    public int record(String key, long windowMillis, long nowMillis) {
+        return counter(key, windowMillis).record(nowMillis);
+    }
+
+    @Override
+    public int count(String key, long windowMillis, long nowMillis) {
+        SlidingWindowCounter counter = counters.get(key);
+        return counter != null ? counter.count(nowMillis) : 0;
+    }
+
+    @Override
+    public void reset(String key, long windowMillis) {
+        counters.remove(key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        evictIdle(System.currentTimeMillis());
+    }
+
+    int evictIdle(long nowMillis) {
+        int before = counters.size();
+        counters.values().removeIf(counter -> counter.isIdle(nowMillis));
+        int removed = before - counters.size();
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate limit counters, {} remaining", removed, counters.size());
+        }
+        return removed;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    private SlidingWindowCounter counter(String key, long windowMillis) {
+        return counters.computeIfAbsent(key, k -> new SlidingWindowCounter(windowMillis));
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.springboot.security.ratelimit;
+
+import com.example.springboot.config.RateLimitConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * RateLimitFilter - Applies the configured per-endpoint policies to incoming requests
+ *
+ * A matching request is counted against its client IP, its authenticated account and
+ * the route as a whole; the first exhausted dimension rejects it with 429 and a
+ * Retry-After header. Rejections are counted in the rate_limit.throttled metric.
+ * Runs inside the security chain after JWT authentication so the account is known.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitConfig rateLimitConfig;
+    private final RateLimitStore rateLimitStore;
+    private final MeterRegistry meterRegistry;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        Map.Entry<String, RateLimitConfig.Policy> match = findPolicy(request);
+        if (match != null) {
+            String name = match.getKey();
+            RateLimitConfig.Policy policy = match.getValue();
+            long windowMillis = policy.getWindow().toMillis();
+
+            String account = currentAccount();
+            if (!check(response, name, "ip", clientIp(request), policy.getIpLimit(), windowMillis)
+                    || (account != null
+                        && !check(response, name, "account", account, policy.getAccountLimit(), windowMillis))
+                    || !check(response, name, "route", "all", policy.getRouteLimit(), windowMillis)) {
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimitConfig.isEnabled();
+    }
+
+    /**
+     * Count the request in one dimension; writes the 429 response when it is over the limit
+     */
+    private boolean check(HttpServletResponse response, String policyName, String dimension,
+                          String value, int limit, long windowMillis) throws IOException {
+        if (limit <= 0) {
+            return true;
+        }
+        long retryAfterMillis = rateLimitStore.tryAcquire(
+                policyName + ":" + dimension + ":" + value, limit, windowMillis);
+        if (retryAfterMillis == 0L) {
+            return true;
+        }
+
+        Counter.builder("rate_limit.throttled")
+                .description("Requests rejected by the rate limiter")
+                .tag("policy", policyName)
+                .tag("dimension", dimension)
+                .register(meterRegistry)
+                .increment();
+
+        long retryAfterSeconds = Math.max(1L, (retryAfterMillis + 999) / 1000);
+        log.warn("Rate limit exceeded: policy={}, dimension={}, retryAfter={}s", policyName, dimension, retryAfterSeconds);
+
+        response.setStatus(429);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"Too Many Requests\",\"message\":\"Rate limit exceeded, retry in "
+                + retryAfterSeconds + " seconds\"}");
+        return false;
+    }
+
+    private Map.Entry<String, RateLimitConfig.Policy> findPolicy(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path == null) {
+            return null;
+        }
+        for (Map.Entry<String, RateLimitConfig.Policy> entry : rateLimitConfig.getPolicies().entrySet()) {
+            RateLimitConfig.Policy policy = entry.getValue();
+            if (policy.getMethod() != null && !policy.getMethod().equalsIgnoreCase(request.getMethod())) {
+                continue;
+            }
+            for (String pattern : policy.getPaths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (rateLimitConfig.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                return forwarded.split(",")[0].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private String currentAccount() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
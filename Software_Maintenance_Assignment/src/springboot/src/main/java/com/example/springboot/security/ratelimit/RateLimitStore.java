@@ -0,0 +1,38 @@
+package com.example.springboot.security.ratelimit;
+
+/**
+ * RateLimitStore - Where sliding-window rate limit counters live
+ *
+ * InMemoryRateLimitStore counts per JVM; FirestoreRateLimitStore shares counts across
+ * nodes (app.rate-limit.store=firestore). Keys are opaque, e.g. "login:ip:203.0.113.7".
+ */
+public interface RateLimitStore {
+
+    /**
+     * Count one request against the key if it stays within limit
+     *
+     * @return 0 if allowed, otherwise milliseconds until the key has room again
+     */
+    long tryAcquire(String key, int limit, long windowMillis, long nowMillis);
+
+    /**
+     * Count one event unconditionally
+     *
+     * @return the sliding count including this event
+     */
+    int record(String key, long windowMillis, long nowMillis);
+
+    /**
+     * Sliding count of events in the last window
+     */
+    int count(String key, long windowMillis, long nowMillis);
+
+    /**
+     * Forget every event counted for the key
+     */
+    void reset(String key, long windowMillis);
+
+    default long tryAcquire(String key, int limit, long windowMillis) {
+        return tryAcquire(key, limit, windowMillis, System.currentTimeMillis());
+    }
+}
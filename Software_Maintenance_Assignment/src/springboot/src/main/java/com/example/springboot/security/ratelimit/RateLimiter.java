@@ -1,87 +1,79 @@
 package com.example.springboot.security.ratelimit;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * RateLimiter - Prevents brute force attacks
- * Uses Guava cache to track login attempts by IP/email
+ * Counts failed logins per email in the RateLimitStore (shared across nodes when
+ * configured) and blocks an identifier for the block duration once it reaches the limit.
+ * RateLimitedAuthService is its only caller; per-IP limits are RateLimitFilter policies.
  */
 @Slf4j
 @Component
 public class RateLimiter {
     
-    private static final int MAX_ATTEMPTS = 5;
-    private static final int BLOCK_DURATION_MINUTES = 15;
+    private static final String KEY_PREFIX = "login-failures:";
     
-    private final LoadingCache<String, Integer> attemptsCache;
-    private final LoadingCache<String, Long> blockCache;
+    @Value("${app.rate-limit.login.max-failures:5}")
+    private int maxAttempts = 5;
+    
+    @Value("${app.rate-limit.login.block-duration-minutes:15}")
+    private int blockDurationMinutes = 15;
+    
+    private final RateLimitStore store;
+    private final ConcurrentMap<String, Long> blockedUntil = new ConcurrentHashMap<>();
     
     public RateLimiter() {
-        // Cache for tracking attempts
-        attemptsCache = CacheBuilder.newBuilder()
-            .expireAfterWrite(BLOCK_DURATION_MINUTES, TimeUnit.MINUTES)
-            .build(new CacheLoader<String, Integer>() {
-                @Override
-                public Integer load(String key) {
-                    return 0;
-                }
-            });
-        
-        // Cache for tracking blocked users
-        blockCache = CacheBuilder.newBuilder()
-            .expireAfterWrite(BLOCK_DURATION_MINUTES, TimeUnit.MINUTES)
-            .build(new CacheLoader<String, Long>() {
-                @Override
-                public Long load(String key) {
-                    return 0L;
-                }
-            });
+        this(new InMemoryRateLimitStore());
+    }
+    
+    @Autowired
+    public RateLimiter(RateLimitStore store) {
+        this.store = store;
     }
     
     /**
      * Check if identifier is currently blocked
      */
     public boolean isBlocked(String identifier) {
-        try {
-            int attempts = attemptsCache.get(identifier);
-            if (attempts >= MAX_ATTEMPTS) {
-                Long blockTime = blockCache.get(identifier);
-                if (blockTime == 0L) {
-                    blockCache.put(identifier, System.currentTimeMillis());
-                    log.warn("Identifier blocked due to {} failed attempts: {}", attempts, identifier);
-                }
+        long now = System.currentTimeMillis();
+        Long until = blockedUntil.get(identifier);
+        if (until != null) {
+            if (until > now) {
                 return true;
             }
+            // Block served: start over with a clean count
+            if (blockedUntil.remove(identifier, until)) {
+                store.reset(KEY_PREFIX + identifier, blockDurationMillis());
+            }
             return false;
-        } catch (ExecutionException e) {
-            log.error("Error checking rate limit: {}", e.getMessage());
-            return false;
         }
+        
+        int count = getAttemptCount(identifier);
+        if (count >= maxAttempts) {
+            block(identifier, now, count);
+            return true;
+        }
+        return false;
     }
     
     /**
      * Record a failed attempt
      */
     public void recordFailedAttempt(String identifier) {
-        try {
-            int attempts = attemptsCache.get(identifier);
-            attempts++;
-            attemptsCache.put(identifier, attempts);
-            log.warn("Failed attempt #{} for: {}", attempts, identifier);
-            
-            if (attempts >= MAX_ATTEMPTS) {
-                blockCache.put(identifier, System.currentTimeMillis());
-                log.error("Identifier blocked after {} attempts: {}", attempts, identifier);
-            }
-        } catch (ExecutionException e) {
-            log.error("Error recording failed attempt: {}", e.getMessage());
+        long now = System.currentTimeMillis();
+        int count = store.record(KEY_PREFIX + identifier, blockDurationMillis(), now);
+        log.warn("Failed attempt #{} for: {}", count, identifier);
+        
+        if (count >= maxAttempts) {
+            block(identifier, now, count);
         }
     }
     
@@ -89,8 +81,8 @@ public class RateLimiter {
      * Clear attempts for identifier (after successful login)
      */
     public void clearAttempts(String identifier) {
-        attemptsCache.invalidate(identifier);
-        blockCache.invalidate(identifier);
+        store.reset(KEY_PREFIX + identifier, blockDurationMillis());
+        blockedUntil.remove(identifier);
         log.info("Rate limit cleared for: {}", identifier);
     }
     
@@ -98,47 +90,33 @@ public class RateLimiter {
      * Get remaining attempts
      */
     public int getRemainingAttempts(String identifier) {
-        try {
-            int attempts = attemptsCache.get(identifier);
-            return Math.max(0, MAX_ATTEMPTS - attempts);
-        } catch (ExecutionException e) {
-            return MAX_ATTEMPTS;
-        }
+        return Math.max(0, maxAttempts - getAttemptCount(identifier));
     }
     
     /**
      * Get block duration in minutes
      */
     public int getBlockDurationMinutes() {
-        return BLOCK_DURATION_MINUTES;
+        return blockDurationMinutes;
     }
     
     /**
      * Get time remaining in block (in seconds)
      */
     public long getBlockTimeRemaining(String identifier) {
-        try {
-            Long blockTime = blockCache.get(identifier);
-            if (blockTime == 0L) {
-                return 0L;
-            }
-            
-            long elapsed = System.currentTimeMillis() - blockTime;
-            long blockDurationMs = BLOCK_DURATION_MINUTES * 60 * 1000;
-            long remaining = blockDurationMs - elapsed;
-            
-            return Math.max(0, remaining / 1000); // Return seconds
-        } catch (ExecutionException e) {
+        Long until = blockedUntil.get(identifier);
+        if (until == null) {
             return 0L;
         }
+        return Math.max(0, (until - System.currentTimeMillis()) / 1000); // Return seconds
     }
     
     /**
      * Manually unblock an identifier (for admin purposes)
      */
     public void unblock(String identifier) {
-        attemptsCache.invalidate(identifier);
-        blockCache.invalidate(identifier);
+        store.reset(KEY_PREFIX + identifier, blockDurationMillis());
+        blockedUntil.remove(identifier);
         log.info("Identifier manually unblocked: {}", identifier);
     }
     
@@ -146,10 +124,25 @@ public class RateLimiter {
      * Get current attempt count
      */
     public int getAttemptCount(String identifier) {
-        try {
-            return attemptsCache.get(identifier);
-        } catch (ExecutionException e) {
-            return 0;
+        return store.count(KEY_PREFIX + identifier, blockDurationMillis(), System.currentTimeMillis());
+    }
+    
+    /**
+     * Drop blocks that have been served
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        blockedUntil.values().removeIf(until -> until <= now);
+    }
+    
+    private void block(String identifier, long now, int count) {
+        if (blockedUntil.putIfAbsent(identifier, now + blockDurationMillis()) == null) {
+            log.error("Identifier blocked after {} attempts: {}", count, identifier);
         }
     }
+    
+    private long blockDurationMillis() {
+        return blockDurationMinutes * 60_000L;
+    }
 }
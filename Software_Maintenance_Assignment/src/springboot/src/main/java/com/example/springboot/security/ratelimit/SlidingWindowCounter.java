@@ -0,0 +1,159 @@
+package com.example.springboot.security.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SlidingWindowCounter - Lock-free sliding-window request counter.
+ *
+ * Keeps the count of the current and previous fixed window and estimates the sliding
+ * window as previous * (unelapsed fraction of the current window) + current. The window
+ * index and both counts are packed into one AtomicLong, so every update is a single
+ * compare-and-set and concurrent callers can never lose an increment.
+ *
+ * Layout: bits 63..32 window index (mod 2^32), bits 31..16 previous count, bits 15..0
+ * current count. Counts saturate at 65535, far above any configured limit.
+ */
+public final class SlidingWindowCounter {
+
+    private static final long COUNT_MASK = 0xFFFFL;
+    private static final long WINDOW_MASK = 0xFFFFFFFFL;
+
+    private final long windowMillis;
+    private final AtomicLong state = new AtomicLong();
+
+    public SlidingWindowCounter(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Count one request if the sliding estimate stays within limit
+     *
+     * @return true if the request was counted (allowed)
+     */
+    public boolean tryAcquire(int limit, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        while (true) {
+            long current = state.get();
+            long rolled = roll(current, window);
+            if (estimate(rolled, nowMillis) + 1 > limit) {
+                return false;
+            }
+            if (state.compareAndSet(current, increment(rolled))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Count one event unconditionally (e.g. a failed login)
+     *
+     * @return the sliding estimate including this event
+     */
+    public int record(long nowMillis) {
+        long window = nowMillis / windowMillis;
+        while (true) {
+            long current = state.get();
+            long next = increment(roll(current, window));
+            if (state.compareAndSet(current, next)) {
+                return (int) Math.ceil(estimate(next, nowMillis));
+            }
+        }
+    }
+
+    /**
+     * Sliding estimate of events in the last window, rounded up
+     */
+    public int count(long nowMillis) {
+        return (int) Math.ceil(estimate(roll(state.get(), nowMillis / windowMillis), nowMillis));
+    }
+
+    /**
+     * Milliseconds until one more request would fit under limit (0 if it fits now)
+     */
+    public long retryAfterMillis(int limit, long nowMillis) {
+        long rolled = roll(state.get(), nowMillis / windowMillis);
+        return retryAfterMillis(previousCount(rolled), currentCount(rolled), limit, windowMillis, nowMillis);
+    }
+
+    /**
+     * Milliseconds until one more request fits, given the previous and current window counts
+     */
+    public static long retryAfterMillis(long previous, long current, int limit, long windowMillis, long nowMillis) {
+        long window = nowMillis / windowMillis;
+        double elapsed = (double) Math.floorMod(nowMillis, windowMillis) / windowMillis;
+        if (previous * (1.0 - elapsed) + current + 1 <= limit) {
+            return 0L;
+        }
+
+        long windowEnd = (window + 1) * windowMillis;
+        double allowed = Math.max(0, limit - 1);
+
+        if (current <= allowed && previous > 0) {
+            // Wait for the previous window's weight to decay far enough within this window
+            double fraction = 1.0 - (allowed - current) / previous;
+            long at = window * windowMillis + (long) Math.ceil(fraction * windowMillis);
+            return Math.max(1L, at - nowMillis);
+        }
+        if (current == 0) {
+            return Math.max(1L, windowEnd - nowMillis);
+        }
+        // The current window becomes the previous one; wait for it to decay in the next window
+        double fraction = Math.max(0.0, 1.0 - allowed / current);
+        long at = windowEnd + (long) Math.ceil(fraction * windowMillis);
+        return Math.max(1L, at - nowMillis);
+    }
+
+    /**
+     * True once no event has been counted for two full windows
+     */
+    public boolean isIdle(long nowMillis) {
+        long lastWindow = state.get() >>> 32;
+        long window = (nowMillis / windowMillis) & WINDOW_MASK;
+        return ((window - lastWindow) & WINDOW_MASK) >= 2;
+    }
+
+    public void reset() {
+        state.set(0L);
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * Move the packed state forward to the given window
+     */
+    private static long roll(long state, long window) {
+        long maskedWindow = window & WINDOW_MASK;
+        long stateWindow = state >>> 32;
+        if (stateWindow == maskedWindow) {
+            return state;
+        }
+        long previous = ((stateWindow + 1) & WINDOW_MASK) == maskedWindow ? currentCount(state) : 0L;
+        return (maskedWindow << 32) | (previous << 16);
+    }
+
+    private static long increment(long state) {
+        long current = currentCount(state);
+        if (current == COUNT_MASK) {
+            return state;
+        }
+        return state + 1;
+    }
+
+    private double estimate(long state, long nowMillis) {
+        double elapsed = (double) Math.floorMod(nowMillis, windowMillis) / windowMillis;
+        return previousCount(state) * (1.0 - elapsed) + currentCount(state);
+    }
+
+    private static long previousCount(long state) {
+        return (state >>> 16) & COUNT_MASK;
+    }
+
+    private static long currentCount(long state) {
+        return state & COUNT_MASK;
+    }
+}
@@ -78,6 +78,19 @@ public class AuthExecutionService {
         }
     }
     
+    /**
+     * Rotate a refresh token into a new access/refresh pair
+     */
+    public AuthResponseDTO refreshTokens(RefreshTokenRequestDTO request) {
+        JWTResponseDTO tokens = tokenService.refreshTokens(request.getRefreshToken());
+        return AuthResponseDTO.builder()
+            .success(true)
+            .message("Token refreshed")
+            .tokens(tokens)
+            .requiresMfa(false)
+            .build();
+    }
+    
     public void logout(String jwt) {
         try {
             tokenService.revokeToken(jwt);
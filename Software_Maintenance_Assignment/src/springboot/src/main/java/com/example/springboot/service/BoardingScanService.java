@@ -0,0 +1,437 @@
+package com.example.springboot.service;
+
+import com.example.springboot.dto.response.BoardingScanResponseDTO;
+import com.example.springboot.model.Flight;
+import com.example.springboot.model.Passenger;
+import com.example.springboot.model.Seat;
+import com.example.springboot.model.Ticket;
+import com.example.springboot.repository.FirestoreRepository;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * BoardingScanService - Gate scan lookups by booking reference.
+ *
+ * Tickets of flights departing within the next 24 hours are preloaded into an
+ * in-memory index keyed by booking reference, so a scan is a single map lookup.
+ * Scans are queued and persisted to Firestore in batches by a background flush.
+ *
+ * A pass only boards while its flight is active and within the 24 hours before
+ * departure. Every entry carries its flight's departure and is evicted a while after
+ * it, whether it came from a preload or a single lookup; FlightService evicts a
+ * flight's entries when the flight is changed or cancelled.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BoardingScanService {
+
+    public static final String STATUS_BOARDED = "BOARDED";
+    public static final String STATUS_ALREADY_BOARDED = "ALREADY_BOARDED";
+    public static final String STATUS_NOT_FOUND = "NOT_FOUND";
+    // Firestore could not be read, so whether the pass exists is unknown; the gate should retry
+    public static final String STATUS_LOOKUP_FAILED = "LOOKUP_FAILED";
+    public static final String STATUS_FLIGHT_NOT_ACTIVE = "FLIGHT_NOT_ACTIVE";
+    public static final String STATUS_OUTSIDE_BOARDING_WINDOW = "OUTSIDE_BOARDING_WINDOW";
+
+    private static final String SCANS_COLLECTION = "boarding_scans";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("d/M/yyyy");
+    private static final DateTimeFormatter PADDED_DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    // Also how long before departure a pass can board
+    private static final long PRELOAD_WINDOW_HOURS = 24;
+    // Keep a departed flight indexed a little longer for late scans / reprints
+    private static final long RETENTION_AFTER_DEPARTURE_HOURS = 2;
+    // Each scan costs two writes (scan record + ticket status); Firestore batches cap at 500
+    private static final int MAX_SCANS_PER_BATCH = 250;
+
+    private final FirestoreRepository repository;
+
+    private final Map<String, BoardingEntry> index = new ConcurrentHashMap<>();
+    private final Map<String, LocalDateTime> indexedFlights = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<ScanRecord> pendingScans = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Resolve a scanned booking reference and mark the passenger as boarded.
+     * Only touches Firestore when the reference is not in the preloaded index.
+     */
+    public BoardingScanResponseDTO scan(String bookingReference, String gate) {
+        return scan(bookingReference, gate, LocalDateTime.now());
+    }
+
+    BoardingScanResponseDTO scan(String bookingReference, String gate, LocalDateTime now) {
+        if (bookingReference == null || bookingReference.isBlank()) {
+            throw new IllegalArgumentException("Booking reference is required");
+        }
+
+        String reference = bookingReference.trim();
+        BoardingEntry entry = index.get(reference);
+        if (entry == null) {
+            try {
+                entry = loadSingleEntry(reference);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return lookupFailed(reference);
+            } catch (Exception e) {
+                log.error("Boarding lookup failed for {}: {}", reference, e.getMessage());
+                return lookupFailed(reference);
+            }
+        }
+        if (entry == null) {
+            return BoardingScanResponseDTO.builder()
+                .success(false)
+                .status(STATUS_NOT_FOUND)
+                .message("No ticket found for booking reference")
+                .bookingReference(reference)
+                .build();
+        }
+
+        if (entry.boardedAt.get() != null) {
+            return toResponse(entry, false, STATUS_ALREADY_BOARDED, "Passenger has already boarded");
+        }
+        if (!entry.flightActive) {
+            return toResponse(entry, false, STATUS_FLIGHT_NOT_ACTIVE, "Flight is not active");
+        }
+        if (entry.departure == null
+                || now.isBefore(entry.departure.minusHours(PRELOAD_WINDOW_HOURS))
+                || now.isAfter(entry.departure)) {
+            return toResponse(entry, false, STATUS_OUTSIDE_BOARDING_WINDOW, "Flight is not boarding");
+        }
+
+        String boardedAt = now.toString();
+        // Only the first scan wins, even if two gates scan the same pass concurrently
+        if (!entry.boardedAt.compareAndSet(null, boardedAt)) {
+            return toResponse(entry, false, STATUS_ALREADY_BOARDED, "Passenger has already boarded");
+        }
+
+        pendingScans.add(new ScanRecord(entry.ticketId, reference, entry.flightId, gate, boardedAt));
+        return toResponse(entry, true, STATUS_BOARDED, "Boarding confirmed");
+    }
+
+    /**
+     * Index every active flight departing within the next 24 hours.
+     * Runs at startup and periodically so flights enter the index ahead of boarding.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.boarding.preload-interval-ms:600000}",
+               initialDelayString = "${app.boarding.preload-interval-ms:600000}")
+    public void preloadUpcomingFlights() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            for (Flight flight : findFlightsDepartingBetween(now, now.plusHours(PRELOAD_WINDOW_HOURS))) {
+                if (!indexedFlights.containsKey(flight.getFlightId())) {
+                    indexFlight(flight);
+                }
+            }
+            evictDepartedFlights(now);
+            log.info("Boarding index holds {} tickets across {} flights", index.size(), indexedFlights.size());
+        } catch (Exception e) {
+            log.error("Failed to preload boarding index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Load (or reload) a single flight into the index, e.g. right before boarding opens.
+     * @return number of tickets indexed
+     */
+    public int preloadFlight(String flightId) throws Exception {
+        var querySnapshot = repository.getCollectionByField("flights", "flightId", flightId).get().get();
+        if (querySnapshot.isEmpty()) {
+            throw new IllegalArgumentException("Flight not found: " + flightId);
+        }
+        QueryDocumentSnapshot doc = querySnapshot.getDocuments().get(0);
+        Flight flight = doc.toObject(Flight.class);
+        flight.setDocumentId(doc.getId());
+        return indexFlight(flight);
+    }
+
+    /**
+     * Persist queued scans: one WriteBatch per MAX_SCANS_PER_BATCH scans.
+     * Failed batches are put back on the queue and retried on the next run.
+     */
+    @Scheduled(fixedDelayString = "${app.boarding.flush-interval-ms:1000}")
+    public void flushScans() {
+        while (!pendingScans.isEmpty()) {
+            List<ScanRecord> batchScans = new ArrayList<>(MAX_SCANS_PER_BATCH);
+            ScanRecord scan;
+            while (batchScans.size() < MAX_SCANS_PER_BATCH && (scan = pendingScans.poll()) != null) {
+                batchScans.add(scan);
+            }
+            if (batchScans.isEmpty()) {
+                return;
+            }
+
+            try {
+                Firestore firestore = repository.getFirestore();
+                WriteBatch batch = firestore.batch();
+                for (ScanRecord record : batchScans) {
+                    Map<String, Object> scanData = new HashMap<>();
+                    scanData.put("ticketId", record.ticketId);
+                    scanData.put("bookingReference", record.bookingReference);
+                    scanData.put("flightId", record.flightId);
+                    scanData.put("gate", record.gate);
+                    scanData.put("scannedAt", record.scannedAt);
+                    batch.set(firestore.collection(SCANS_COLLECTION).document(), scanData);
+
+                    Map<String, Object> ticketUpdate = new HashMap<>();
+                    ticketUpdate.put("boardingStatus", STATUS_BOARDED);
+                    ticketUpdate.put("boardedAt", record.scannedAt);
+                    batch.update(firestore.collection("tickets").document(record.ticketId), ticketUpdate);
+                }
+                batch.commit().get();
+                log.debug("Flushed {} boarding scans", batchScans.size());
+            } catch (Exception e) {
+                log.error("Failed to flush {} boarding scans, will retry: {}", batchScans.size(), e.getMessage());
+                pendingScans.addAll(batchScans);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Drop a flight's entries after it was changed or cancelled; its next scans look the
+     * flight up again
+     */
+    public void evictFlight(String flightId) {
+        if (flightId == null) {
+            return;
+        }
+        indexedFlights.remove(flightId);
+        index.values().removeIf(entry -> flightId.equals(entry.flightId));
+    }
+
+    public int getIndexedTicketCount() {
+        return index.size();
+    }
+
+    public int getPendingScanCount() {
+        return pendingScans.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushScans();
+    }
+
+    // ==================== Index loading ====================
+
+    private int indexFlight(Flight flight) throws Exception {
+        LocalDateTime departure = departureOf(flight);
+        if (departure == null) {
+            throw new IllegalArgumentException("Flight " + flight.getFlightId() + " has no valid departure");
+        }
+        List<Ticket> tickets = new ArrayList<>();
+        var querySnapshot = repository.getCollectionByField("tickets", "flightId", flight.getFlightId()).get().get();
+        for (QueryDocumentSnapshot doc : querySnapshot.getDocuments()) {
+            Ticket ticket = doc.toObject(Ticket.class);
+            ticket.setDocumentId(doc.getId());
+            if (ticket.getBookingReference() != null) {
+                tickets.add(ticket);
+            }
+        }
+
+        Map<String, Passenger> passengers = repository.findAllByIds("passengers",
+            tickets.stream().map(Ticket::getPassengerId).collect(Collectors.toList()), Passenger.class);
+        Map<String, Seat> seats = repository.findAllByIds("seats",
+            tickets.stream().map(Ticket::getSeatId).collect(Collectors.toList()), Seat.class);
+
+        for (Ticket ticket : tickets) {
+            BoardingEntry fresh = new BoardingEntry(ticket, passengers.get(ticket.getPassengerId()),
+                seats.get(ticket.getSeatId()), flight.isActive(), departure);
+            // Never lose a scan that happened in memory but hasn't been flushed yet
+            index.merge(ticket.getBookingReference(), fresh, (existing, loaded) -> {
+                if (existing.boardedAt.get() != null) {
+                    loaded.boardedAt.compareAndSet(null, existing.boardedAt.get());
+                }
+                return loaded;
+            });
+        }
+
+        indexedFlights.put(flight.getFlightId(), departure);
+        log.info("Indexed {} tickets for flight {}", tickets.size(), flight.getFlightId());
+        return tickets.size();
+    }
+
+    private BoardingEntry loadSingleEntry(String bookingReference) throws Exception {
+        QuerySnapshot querySnapshot = repository.getFirestore().collection("tickets")
+            .whereEqualTo("bookingReference", bookingReference)
+            .limit(1)
+            .get()
+            .get();
+        if (querySnapshot.isEmpty()) {
+            return null;
+        }
+
+        QueryDocumentSnapshot doc = querySnapshot.getDocuments().get(0);
+        Ticket ticket = doc.toObject(Ticket.class);
+        ticket.setDocumentId(doc.getId());
+        Passenger passenger = ticket.getPassengerId() != null
+            ? repository.findById("passengers", ticket.getPassengerId(), Passenger.class) : null;
+        Seat seat = ticket.getSeatId() != null
+            ? repository.findById("seats", ticket.getSeatId(), Seat.class) : null;
+        Flight flight = findFlight(ticket.getFlightId());
+
+        BoardingEntry entry = new BoardingEntry(ticket, passenger, seat,
+            flight != null && flight.isActive(), flight != null ? departureOf(flight) : null);
+        if (entry.departure == null) {
+            // Cannot board and could never be evicted, so it is not cached
+            return entry;
+        }
+        BoardingEntry existing = index.putIfAbsent(bookingReference, entry);
+        return existing != null ? existing : entry;
+    }
+
+    private BoardingScanResponseDTO lookupFailed(String bookingReference) {
+        return BoardingScanResponseDTO.builder()
+            .success(false)
+            .status(STATUS_LOOKUP_FAILED)
+            .message("Boarding lookup is unavailable, please scan again")
+            .bookingReference(bookingReference)
+            .build();
+    }
+
+    private Flight findFlight(String flightId) throws Exception {
+        if (flightId == null) {
+            return null;
+        }
+        var querySnapshot = repository.getCollectionByField("flights", "flightId", flightId).get().get();
+        if (querySnapshot.isEmpty()) {
+            return null;
+        }
+        return querySnapshot.getDocuments().get(0).toObject(Flight.class);
+    }
+
+    private List<Flight> findFlightsDepartingBetween(LocalDateTime from, LocalDateTime to) throws Exception {
+        // Departure dates are stored as strings, so match every spelling of the dates in the window
+        Set<String> dates = new LinkedHashSet<>();
+        for (LocalDate date = from.toLocalDate(); !date.isAfter(to.toLocalDate()); date = date.plusDays(1)) {
+            dates.add(date.format(DATE_FORMAT));
+            dates.add(date.format(PADDED_DATE_FORMAT));
+        }
+
+        QuerySnapshot querySnapshot = repository.getFirestore().collection("flights")
+            .whereIn("departureDate", new ArrayList<>(dates))
+            .get()
+            .get();
+
+        List<Flight> flights = new ArrayList<>();
+        for (QueryDocumentSnapshot doc : querySnapshot.getDocuments()) {
+            Flight flight = doc.toObject(Flight.class);
+            if (!"ACTIVE".equals(flight.getStatus())) {
+                continue;
+            }
+            flight.setDocumentId(doc.getId());
+            LocalDateTime departure = departureOf(flight);
+            if (departure != null && !departure.isBefore(from) && !departure.isAfter(to)) {
+                flights.add(flight);
+            }
+        }
+        return flights;
+    }
+
+    void evictDepartedFlights(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusHours(RETENTION_AFTER_DEPARTURE_HOURS);
+        indexedFlights.values().removeIf(departure -> departure.isBefore(cutoff));
+        // Entries from single lookups belong to flights that were never indexed, so go by entry
+        index.values().removeIf(entry -> entry.departure.isBefore(cutoff));
+    }
+
+    private LocalDateTime departureOf(Flight flight) {
+        try {
+            LocalDate date = LocalDate.parse(flight.getDepartureDate(), DATE_FORMAT);
+            int time = flight.getDepartureTime();
+            return date.atTime(time / 100, time % 100);
+        } catch (DateTimeException | NullPointerException e) {
+            log.warn("Unparseable departure for flight {}: {}", flight.getFlightId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private BoardingScanResponseDTO toResponse(BoardingEntry entry, boolean success, String status, String message) {
+        return BoardingScanResponseDTO.builder()
+            .success(success)
+            .status(status)
+            .message(message)
+            .bookingReference(entry.bookingReference)
+            .ticketId(entry.ticketId)
+            .flightId(entry.flightId)
+            .passengerName(entry.passengerName)
+            .passportNo(entry.passportNo)
+            .seatNumber(entry.seatNumber)
+            .seatClass(entry.seatClass)
+            .boardedAt(entry.boardedAt.get())
+            .build();
+    }
+
+    /**
+     * Everything the gate needs for one booking reference, flattened so a scan never
+     * has to follow references. boardedAt is the only mutable part.
+     */
+    private static final class BoardingEntry {
+        private final String ticketId;
+        private final String bookingReference;
+        private final String flightId;
+        private final String passengerName;
+        private final String passportNo;
+        private final String seatNumber;
+        private final String seatClass;
+        private final boolean flightActive;
+        private final LocalDateTime departure;
+        private final AtomicReference<String> boardedAt;
+
+        private BoardingEntry(Ticket ticket, Passenger passenger, Seat seat, boolean flightActive,
+                              LocalDateTime departure) {
+            this.ticketId = ticket.getDocumentId();
+            this.bookingReference = ticket.getBookingReference();
+            this.flightId = ticket.getFlightId();
+            this.passengerName = passenger != null ? passenger.getFullName() : null;
+            this.passportNo = passenger != null ? passenger.getPassportNo() : null;
+            this.seatNumber = seat != null ? String.valueOf(seat.getSeatNumber()) : ticket.getSeatNumberDisplay();
+            this.seatClass = seat != null ? seat.getTypeOfSeat() : ticket.getSeatClassDisplay();
+            this.flightActive = flightActive;
+            this.departure = departure;
+            this.boardedAt = new AtomicReference<>(
+                STATUS_BOARDED.equals(ticket.getBoardingStatus())
+                    ? (ticket.getBoardedAt() != null ? ticket.getBoardedAt() : "") : null);
+        }
+    }
+
+    private static final class ScanRecord {
+        private final String ticketId;
+        private final String bookingReference;
+        private final String flightId;
+        private final String gate;
+        private final String scannedAt;
+
+        private ScanRecord(String ticketId, String bookingReference, String flightId, String gate, String scannedAt) {
+            this.ticketId = ticketId;
+            this.bookingReference = bookingReference;
+            this.flightId = flightId;
+            this.gate = gate;
+            this.scannedAt = scannedAt;
+        }
+    }
+}
@@ -7,15 +7,26 @@ import com.example.springboot.strategy.PricingContext;
 import com.example.springboot.factory.PassengerFactory;
 import com.example.springboot.factory.TicketFactory;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 //import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+@Slf4j
 @Service
     public class BookingService {
 
@@ -24,6 +35,12 @@ import java.util.concurrent.ExecutionException;
         @Autowired private PricingContext pricingContext;
         @Autowired private TicketFactory ticketFactory;
         @Autowired private PassengerFactory passengerFactory;
+        @Autowired private TicketEnrichmentExecutor enrichmentExecutor;
+        @Autowired private FlightDetailsCache flightDetailsCache;
+        @Autowired private MeterRegistry meterRegistry;
+
+        @Value("${app.booking.ticket-details.timeout-ms:2000}")
+        private long ticketDetailsTimeoutMs = 2000;
 
         public double calculateSeatPrice(Seat seat, Flight flight) throws Exception {
         if (flight == null) {
@@ -101,71 +118,176 @@ import java.util.concurrent.ExecutionException;
         flight
     );
         
-        String ticketId = repository.save("tickets", ticket);
-        ticket.setDocumentId(ticketId);
-
-        // 3. Save Payment
-        Payment payment = new Payment();
-        payment.setAmount(expectedPrice);
-        payment.setPaymentDate(LocalDateTime.now().toString());
-        payment.setPaymentStatus(true);
-        payment.setStripePaymentIntentId(request.getStripePaymentIntentId());
-        payment.setTicketId(ticketId);
-        repository.save("payments", payment);
-
-        // 4. Update Seat Status
-        repository.updateField("seats", request.getSeatId(), "statusSeat", "Booked");
-
-        // 5. Send Notification
-        notificationService.sendBookingSuccessEmail(
+        // Record the confirmation email in the outbox first; it is only sent once committed.
+        // Null when the outbox is unavailable: the booking goes ahead and the email is sent directly
+        String notificationId = notificationService.prepareBookingSuccessEmail(
             passenger.getEmail(),
             ticket.getBookingReference()
         );
 
+        try {
+            String ticketId = repository.save("tickets", ticket);
+            ticket.setDocumentId(ticketId);
+
+            // 3. Save Payment
+            Payment payment = new Payment();
+            payment.setAmount(expectedPrice);
+            payment.setPaymentDate(LocalDateTime.now().toString());
+            payment.setPaymentStatus(true);
+            payment.setStripePaymentIntentId(request.getStripePaymentIntentId());
+            payment.setTicketId(ticketId);
+            repository.save("payments", payment);
+
+            // 4. Update Seat Status
+            repository.updateField("seats", request.getSeatId(), "statusSeat", "Booked");
+        } catch (Exception e) {
+            if (notificationId != null) {
+                notificationService.abortNotification(notificationId);
+            }
+            throw e;
+        }
+
+        // 5. Send Notification (delivered by NotificationOutboxDispatcher)
+        if (notificationId != null) {
+            notificationService.commitNotification(notificationId);
+        } else {
+            notificationService.sendBookingSuccessEmail(passenger.getEmail(), ticket.getBookingReference());
+        }
+
         return ticket;
     }
 
     // Module 4: Get Ticket Metadata (Mocking a SQL Join)
+    // Two round trips: the ticket, then its passenger, seat and flight together. The flight
+    // comes by the Flight ID stored on the ticket, usually straight from FlightDetailsCache.
+    // A lookup that fails or misses the deadline is left out of the result.
     public Ticket getTicketDetails(String ticketId) throws Exception {
-        Ticket ticket = repository.findById("tickets", ticketId, Ticket.class);
-        if (ticket == null) {
-            throw new RuntimeException("Ticket not found");
-        }
-        
-        ticket.setDocumentId(ticketId);
-        
-        // ✅ Enrich with Passenger Details
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(ticketDetailsTimeoutMs);
+        String outcome = "error";
         try {
-            Passenger passenger = repository.findById("passengers", ticket.getPassengerId(), Passenger.class);
+            Ticket ticket = await(repository.findByIdAsync("tickets", ticketId, Ticket.class), deadline);
+            if (ticket == null) {
+                outcome = "not_found";
+                throw new RuntimeException("Ticket not found");
+            }
+
+            ticket.setDocumentId(ticketId);
+
+            CompletableFuture<Passenger> passengerLookup = timed("passenger",
+                repository.findByIdAsync("passengers", ticket.getPassengerId(), Passenger.class));
+            CompletableFuture<Seat> seatLookup = timed("seat",
+                repository.findByIdAsync("seats", ticket.getSeatId(), Seat.class));
+            CompletableFuture<Flight> flightLookup = hasText(ticket.getFlightId())
+                ? timed("flight", flightDetailsCache.getAsync(ticket.getFlightId()))
+                : null;
+            awaitAll(deadline, passengerLookup, seatLookup, flightLookup);
+            boolean partial = !completed(passengerLookup) || !completed(seatLookup)
+                || (flightLookup != null && !completed(flightLookup));
+
+            // ✅ Enrich with Passenger Details
+            Passenger passenger = resultOf(passengerLookup, "passenger");
             if (passenger != null) {
                 passenger.setDocumentId(ticket.getPassengerId());
                 ticket.setPassengerDetails(passenger);
             }
-        } catch (Exception e) {
-            System.err.println("⚠️ Failed to load passenger: " + e.getMessage());
-        }
-        
-        // ✅ Enrich with Seat Details
-        try {
-            Seat seat = repository.findById("seats", ticket.getSeatId(), Seat.class);
+
+            // ✅ Enrich with Seat Details
+            Seat seat = resultOf(seatLookup, "seat");
             if (seat != null) {
                 seat.setDocumentId(ticket.getSeatId());
                 ticket.setSeatNumberDisplay(String.valueOf(seat.getSeatNumber()));
                 ticket.setSeatClassDisplay(seat.getTypeOfSeat());
-                
-                // ✅ Enrich with Flight Details via Seat
-                if (seat.getFlightId() != null && !seat.getFlightId().isEmpty()) {
-                    Flight flight = getFlightByFlightIdField(seat.getFlightId());
-                    if (flight != null) {
-                        ticket.setFlightDetails(flight);
-                    }
+
+                // Tickets saved before Ticket.flightId existed still go through the seat
+                if (flightLookup == null && hasText(seat.getFlightId())) {
+                    flightLookup = timed("flight", flightDetailsCache.getAsync(seat.getFlightId()));
+                    awaitAll(deadline, flightLookup);
+                    partial |= !completed(flightLookup);
                 }
             }
+
+            // ✅ Enrich with Flight Details
+            Flight flight = resultOf(flightLookup, "flight");
+            if (flight != null) {
+                ticket.setFlightDetails(flight);
+            }
+
+            outcome = partial ? "partial" : "complete";
+            return ticket;
+        } finally {
+            Timer.builder("booking.ticket_details.duration")
+                .description("Ticket details latency, ticket lookup to enriched ticket")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> lookup, long deadline) throws Exception {
+        return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    // Wait until every lookup has finished or the deadline has passed
+    private void awaitAll(long deadline, CompletableFuture<?>... lookups) throws InterruptedException {
+        CompletableFuture<?>[] started = Arrays.stream(lookups)
+            .filter(Objects::nonNull)
+            .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(started).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // Reported per lookup by resultOf
+        }
+    }
+
+    private static boolean completed(CompletableFuture<?> lookup) {
+        return lookup.isDone() && !lookup.isCompletedExceptionally();
+    }
+
+    private <T> T resultOf(CompletableFuture<T> lookup, String part) {
+        if (lookup == null) {
+            return null;
+        }
+        if (!lookup.isDone()) {
+            log.warn("Timed out loading ticket {}", part);
+            countMissing(part, "timeout");
+            return null;
+        }
+        try {
+            return lookup.join();
         } catch (Exception e) {
-            System.err.println("⚠️ Failed to load seat/flight: " + e.getMessage());
+            log.warn("Failed to load ticket {}: {}", part, e.getMessage());
+            countMissing(part, "error");
+            return null;
         }
-        
-        return ticket;
+    }
+
+    // Parts left out of a ticket's details, so partial responses can be told apart
+    private void countMissing(String part, String reason) {
+        Counter.builder("booking.ticket_details.missing")
+            .description("Ticket details parts left out, by part and reason")
+            .tag("part", part)
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    // Latency of each parallel lookup, for the tail of the ticket details histogram
+    private <T> CompletableFuture<T> timed(String part, CompletableFuture<T> lookup) {
+        long startedAt = System.nanoTime();
+        return lookup.whenComplete((result, error) -> Timer.builder("booking.ticket_details.lookup")
+            .description("Ticket details lookup latency by part")
+            .tag("part", part)
+            .tag("outcome", error == null ? "success" : "error")
+            .publishPercentileHistogram()
+            .register(meterRegistry)
+            .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS));
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isEmpty();
     }
 
     /**
@@ -180,12 +302,11 @@ import java.util.concurrent.ExecutionException;
         for (QueryDocumentSnapshot doc : querySnapshot.getDocuments()) {
             Ticket ticket = doc.toObject(Ticket.class);
             ticket.setDocumentId(doc.getId());
-            
-            // Enrich each ticket with details
-            enrichTicketDetails(ticket);
-            
             customerTickets.add(ticket);
         }
+
+        // Enrich the tickets concurrently rather than one after another
+        enrichmentExecutor.forEach(customerTickets, this::enrichTicketDetails);
         
         System.out.println("✅ Found " + customerTickets.size() + " tickets");
         return customerTickets;
@@ -239,11 +360,11 @@ import java.util.concurrent.ExecutionException;
      * ✅ NEW METHOD: Fetch flight by flightId field (F001, F002, etc)
      * NOT by Firestore document ID
      */
-    private Flight getFlightByFlightIdField(String flightId) throws ExecutionException, InterruptedException {
+    private Flight getFlightByFlightIdField(String flightId) throws Exception {
         System.out.println("🔍 Searching for flight with flightId: " + flightId);
         
         // Query: SELECT * FROM flights WHERE flightId = "F001"
-        var querySnapshot = repository.getCollectionByField("flights", "flightId", flightId).get().get();
+        var querySnapshot = repository.findByField("flights", "flightId", flightId);
         
         if (querySnapshot.isEmpty()) {
             System.err.println("❌ No flight found with flightId: " + flightId);
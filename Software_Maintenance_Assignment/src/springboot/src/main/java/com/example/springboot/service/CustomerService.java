@@ -1,5 +1,6 @@
 package com.example.springboot.service;
 
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.model.Customer;
 import com.example.springboot.repository.CustomerRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -36,6 +37,8 @@ public class CustomerService {
     public Customer registerCustomer(Customer customer) {
         try {
             return customerRepository.save(customer);
+        } catch (DuplicateResourceException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error registering customer: {}", e.getMessage());
             throw new RuntimeException("Failed to register customer", e);
@@ -0,0 +1,146 @@
+package com.example.springboot.service;
+
+import com.example.springboot.utils.ScratchPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import jakarta.annotation.PostConstruct;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * EmailTemplateRenderer - Renders the HTML emails from templates/email/*.html
+ *
+ * Uses its own Thymeleaf engine with the template cache always on (independent of
+ * spring.thymeleaf.cache for the web pages), and parses every template at startup, so
+ * a send only evaluates an already compiled template. A locale-specific variant
+ * (e.g. welcome_ms.html) is used when one exists; which file serves a given
+ * template and locale is looked up once and remembered. Output goes into a pooled
+ * buffer that is reused across renders instead of a new one per email; a ThreadLocal
+ * would give every virtual thread its own buffer and reuse none of them.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+
+    static final String PREFIX = "templates/email/";
+    static final String SUFFIX = ".html";
+    static final List<String> TEMPLATES = List.of("verification", "password-reset", "welcome");
+
+    // Buffers that grew past this are dropped rather than returned to the pool
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+    private final Map<String, String> resolvedNames = new ConcurrentHashMap<>();
+    private final ScratchPool<StringBuilderWriter> buffers =
+            new ScratchPool<>(ScratchPool.defaultCapacity(), () -> new StringBuilderWriter(8 * 1024));
+    private final List<Locale> preloadLocales;
+
+    public EmailTemplateRenderer(@Value("${app.email.preload-locales:en,ms}") List<String> preloadLocales) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix(PREFIX);
+        resolver.setSuffix(SUFFIX);
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        resolver.setCacheTTLMs(null);   // parsed once, kept for the life of the app
+        templateEngine.setTemplateResolver(resolver);
+        this.preloadLocales = preloadLocales.stream().map(Locale::forLanguageTag).toList();
+    }
+
+    /**
+     * Parse every template (and locale variant) up front; a missing or broken
+     * template fails startup instead of the first send
+     */
+    @PostConstruct
+    public void preload() {
+        for (String template : TEMPLATES) {
+            for (Locale locale : preloadLocales) {
+                render(template, locale, Map.of());
+            }
+        }
+        log.info("Preloaded {} email templates", resolvedNames.size());
+    }
+
+    /**
+     * Render a template for a locale, falling back to the default variant
+     *
+     * @param template name under templates/email without suffix, e.g. "welcome"
+     */
+    public String render(String template, Locale locale, Map<String, Object> variables) {
+        Context context = new Context(locale, variables);
+        StringBuilderWriter buffer = buffers.borrow();
+        try {
+            templateEngine.process(resolve(template, locale), context, buffer);
+            return buffer.builder.toString();
+        } finally {
+            if (buffer.builder.capacity() <= MAX_RETAINED_BUFFER) {
+                buffer.builder.setLength(0);
+                buffers.release(buffer);
+            }
+        }
+    }
+
+    /**
+     * Most specific existing variant: name_lang_COUNTRY, then name_lang, then name
+     */
+    String resolve(String template, Locale locale) {
+        return resolvedNames.computeIfAbsent(template + "|" + locale.toLanguageTag(), key -> {
+            if (!locale.getCountry().isEmpty() && exists(template + "_" + locale.getLanguage() + "_" + locale.getCountry())) {
+                return template + "_" + locale.getLanguage() + "_" + locale.getCountry();
+            }
+            if (!locale.getLanguage().isEmpty() && exists(template + "_" + locale.getLanguage())) {
+                return template + "_" + locale.getLanguage();
+            }
+            return template;
+        });
+    }
+
+    private boolean exists(String name) {
+        return ClassUtils.getDefaultClassLoader().getResource(PREFIX + name + SUFFIX) != null;
+    }
+
+    /**
+     * Unsynchronized Writer over a StringBuilder that can be cleared and reused
+     */
+    static final class StringBuilderWriter extends Writer {
+
+        final StringBuilder builder;
+
+        StringBuilderWriter(int capacity) {
+            this.builder = new StringBuilder(capacity);
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) {
+            builder.append(chars, offset, length);
+        }
+
+        @Override
+        public void write(int c) {
+            builder.append((char) c);
+        }
+
+        @Override
+        public void write(String str, int offset, int length) {
+            builder.append(str, offset, offset + length);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.springboot.service;
 
 import com.example.springboot.model.EmailVerificationToken;
 import com.example.springboot.repository.EmailVerificationTokenRepository;
+import com.google.cloud.firestore.Transaction;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,20 +26,32 @@ public class EmailVerificationTokenService {
      * Create verification token for user
      */
     public String createVerificationToken(String userId, String email) {
-        String token = UUID.randomUUID().toString();
+        EmailVerificationToken verificationToken = newVerificationToken(userId, email);
         
-        EmailVerificationToken verificationToken = EmailVerificationToken.builder()
-            .token(token)
+        tokenRepository.save(verificationToken);
+        
+        log.info("Verification token created for user: {}", userId);
+        return verificationToken.getToken();
+    }
+    
+    /**
+     * Build a verification token without storing it (see save(Transaction, ...))
+     */
+    public EmailVerificationToken newVerificationToken(String userId, String email) {
+        return EmailVerificationToken.builder()
+            .token(UUID.randomUUID().toString())
             .userId(userId)
             .email(email)
             .expiryDate(LocalDateTime.now().plusHours(EXPIRATION_HOURS))
             .used(false)
             .build();
-        
-        tokenRepository.save(verificationToken);
-        
-        log.info("Verification token created for user: {}", userId);
-        return token;
+    }
+    
+    /**
+     * Store a token built by newVerificationToken in the caller's transaction
+     */
+    public void save(Transaction transaction, EmailVerificationToken verificationToken) {
+        tokenRepository.save(transaction, verificationToken);
     }
     
     /**
@@ -0,0 +1,137 @@
+package com.example.springboot.service;
+
+import com.example.springboot.repository.EmailVerificationTokenRepository;
+import com.example.springboot.repository.PasswordResetTokenRepository;
+import com.example.springboot.repository.RefreshTokenRepository;
+import com.example.springboot.security.jwt.TokenFamilyRegistry;
+import com.example.springboot.security.ratelimit.FirestoreRateLimitStore;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * ExpiredTokenPurgeService - Deletes expired refresh, password-reset, email-verification
+ * and revocation documents, expired token families and expired shared rate limit windows.
+ *
+ * Runs on every node but only does work on the node holding the "token-purge" lease.
+ * Each collection is range-queried on its expiry field a page at a time and deleted
+ * through a BulkWriter capped at max-ops-per-second; a run stops once it has spent
+ * its delete budget or if the lease is lost mid-run.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExpiredTokenPurgeService {
+
+    static final String LEASE_NAME = "token-purge";
+    private static final String REVOKED_TOKENS_COLLECTION = "revoked_tokens";
+
+    private final Firestore firestore;
+    private final LeaderLeaseService leaseService;
+
+    @Value("${app.token-purge.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.token-purge.page-size:300}")
+    private int pageSize = 300;
+
+    @Value("${app.token-purge.max-ops-per-second:100}")
+    private int maxOpsPerSecond = 100;
+
+    @Value("${app.token-purge.max-deletes-per-run:10000}")
+    private int maxDeletesPerRun = 10_000;
+
+    @Scheduled(initialDelayString = "${app.token-purge.initial-delay-ms:60000}",
+               fixedDelayString = "${app.token-purge.interval-ms:3600000}")
+    public void purgeExpiredTokens() {
+        if (!enabled || !leaseService.tryAcquire(LEASE_NAME)) {
+            return;
+        }
+
+        // Token documents store expiry as ISO-8601 strings, which sort chronologically
+        String nowIso = LocalDateTime.now().toString();
+        int budget = maxDeletesPerRun;
+
+        BulkWriter bulkWriter = firestore.bulkWriter(BulkWriterOptions.builder()
+                .setInitialOpsPerSecond(Math.max(1, maxOpsPerSecond / 2))
+                .setMaxOpsPerSecond(Math.max(1, maxOpsPerSecond))
+                .build());
+        try {
+            budget -= purge(bulkWriter, RefreshTokenRepository.COLLECTION_NAME, "expiryDate", nowIso, budget);
+            budget -= purge(bulkWriter, PasswordResetTokenRepository.COLLECTION_NAME, "expiryDate", nowIso, budget);
+            budget -= purge(bulkWriter, EmailVerificationTokenRepository.COLLECTION_NAME, "expiryDate", nowIso, budget);
+            budget -= purge(bulkWriter, REVOKED_TOKENS_COLLECTION, "expiresAt", System.currentTimeMillis(), budget);
+            budget -= purge(bulkWriter, TokenFamilyRegistry.COLLECTION_NAME, "expiresAt", System.currentTimeMillis(), budget);
+            budget -= purge(bulkWriter, FirestoreRateLimitStore.COLLECTION_NAME, "expiresAt", System.currentTimeMillis(), budget);
+            log.info("Token purge finished, {} documents deleted", maxDeletesPerRun - budget);
+        } finally {
+            close(bulkWriter);
+        }
+    }
+
+    /**
+     * Close the writer, waiting for its last deletes. A failure here is logged rather
+     * than thrown so it cannot hide an exception from the purge itself.
+     */
+    private void close(BulkWriter bulkWriter) {
+        try {
+            bulkWriter.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while closing the token purge writer");
+        } catch (ExecutionException e) {
+            log.error("Failed to flush the token purge writer: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Delete documents of one collection whose expiry field is before the cutoff
+     *
+     * @return number of documents deleted
+     */
+    int purge(BulkWriter bulkWriter, String collectionName, String expiryField, Object cutoff, int budget) {
+        int deleted = 0;
+        try {
+            while (deleted < budget && leaseService.isHeld(LEASE_NAME)) {
+                int limit = Math.min(pageSize, budget - deleted);
+                List<QueryDocumentSnapshot> expired = firestore.collection(collectionName)
+                        .whereLessThan(expiryField, cutoff)
+                        .select(expiryField)
+                        .limit(limit)
+                        .get()
+                        .get()
+                        .getDocuments();
+                if (expired.isEmpty()) {
+                    break;
+                }
+
+                for (QueryDocumentSnapshot document : expired) {
+                    bulkWriter.delete(document.getReference());
+                }
+                // Wait for the page so the next query does not return the same documents
+                bulkWriter.flush().get();
+                deleted += expired.size();
+
+                if (expired.size() < limit) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to purge expired documents from {}: {}", collectionName, e.getMessage());
+        }
+        if (deleted > 0) {
+            log.debug("Purged {} expired documents from {}", deleted, collectionName);
+        }
+        return deleted;
+    }
+}
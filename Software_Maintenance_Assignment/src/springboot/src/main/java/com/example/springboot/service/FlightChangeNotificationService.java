@@ -0,0 +1,431 @@
+package com.example.springboot.service;
+
+import com.example.springboot.dto.response.FlightNotificationProgressDTO;
+import com.example.springboot.model.Flight;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FlightChangeNotificationService - Emails every passenger of a changed or cancelled flight
+ *
+ * A run pages through the flight's tickets (page-size at a time, ordered by document id),
+ * loads the page's passengers in one batched read, skips email addresses already notified
+ * in this run, and sends through ThrottledMailSender. Runs execute one at a time on a
+ * background thread; the most recent ones are kept with their progress for the staff
+ * dashboard (GET /api/flights/notifications).
+ *
+ * Progress survives a crash: a run holds a lease (LeaderLeaseService) named after its job
+ * and records its counters and the last ticket it finished in flight_notification_jobs
+ * after every page. A run whose node dies stops renewing its lease; the resume sweep on
+ * any node then takes the lease over and continues after the recorded ticket. A page
+ * that was being sent during the crash is sent again, and addresses notified before the
+ * crash are not remembered, so a passenger may get a second copy but none is skipped.
+ */
+@Slf4j
+@Service
+public class FlightChangeNotificationService {
+
+    static final String TICKETS_COLLECTION = "tickets";
+    static final String PASSENGERS_COLLECTION = "passengers";
+    static final String JOBS_COLLECTION = "flight_notification_jobs";
+    static final String LEASE_PREFIX = "flight-notifications-";
+    static final String RUNNING = "RUNNING";
+    // Local status of a run stopped because its lease lapsed; the lease's next holder continues it
+    static final String HANDED_OVER = "HANDED_OVER";
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final Firestore firestore;
+    private final ThrottledMailSender throttledMailSender;
+    private final LeaderLeaseService leaseService;
+    private final ExecutorService worker;
+
+    // Jobs queued or running on this node, so the resume sweep does not start them twice
+    private final Set<String> localJobs = ConcurrentHashMap.newKeySet();
+
+    // Newest first; guarded by itself
+    private final Deque<Job> recentJobs = new ArrayDeque<>();
+
+    @Value("${app.flight-notifications.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.flight-notifications.page-size:200}")
+    private int pageSize = 200;
+
+    @Value("${app.flight-notifications.history:20}")
+    private int history = 20;
+
+    public FlightChangeNotificationService(Firestore firestore, ThrottledMailSender throttledMailSender,
+                                           LeaderLeaseService leaseService) {
+        this.firestore = firestore;
+        this.throttledMailSender = throttledMailSender;
+        this.leaseService = leaseService;
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flight-notifications");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Tell passengers booked under ticketFlightId about the flight's new schedule
+     *
+     * @param ticketFlightId Flight ID stored on the tickets (the one before any rename)
+     * @return job id, or null when notifications are disabled
+     */
+    public String notifyFlightChanged(String ticketFlightId, Flight flight) {
+        String subject = "Schedule change for flight " + flight.getFlightId();
+        String text = String.format(
+                "The schedule of your flight %s from %s to %s has changed.%n%n"
+                        + "Departure: %s %s%nArrival: %s %s%nBoarding: %s%n%n"
+                        + "Your booking is still valid. We apologise for the inconvenience.",
+                flight.getFlightId(), flight.getDepartureCountry(), flight.getArrivalCountry(),
+                flight.getDepartureDate(), formatTime(flight.getDepartureTime()),
+                flight.getArrivalDate(), formatTime(flight.getArrivalTime()),
+                formatTime(flight.getBoardingTime()));
+        return start(ticketFlightId, "CHANGED", subject, text);
+    }
+
+    /**
+     * Tell passengers that the flight was cancelled
+     *
+     * @return job id, or null when notifications are disabled
+     */
+    public String notifyFlightCancelled(String flightId) {
+        String subject = "Flight " + flightId + " has been cancelled";
+        String text = "We regret to inform you that flight " + flightId + " has been cancelled. "
+                + "Please contact us to rebook or request a refund.";
+        return start(flightId, "CANCELLED", subject, text);
+    }
+
+    /**
+     * Most recent runs, newest first
+     */
+    public List<FlightNotificationProgressDTO> getRecentJobs() {
+        synchronized (recentJobs) {
+            return recentJobs.stream().map(Job::toProgress).toList();
+        }
+    }
+
+    private String start(String flightId, String kind, String subject, String text) {
+        if (!enabled || flightId == null) {
+            return null;
+        }
+        Job job = new Job(UUID.randomUUID().toString(), flightId, kind);
+        submit(job, subject, text);
+        return job.id;
+    }
+
+    /**
+     * Continue runs left RUNNING by a node that stopped renewing their lease
+     */
+    @Scheduled(initialDelayString = "${app.flight-notifications.resume-initial-delay-ms:30000}",
+               fixedDelayString = "${app.flight-notifications.resume-interval-ms:60000}")
+    public void resumeInterrupted() {
+        if (!enabled) {
+            return;
+        }
+        List<QueryDocumentSnapshot> running;
+        try {
+            running = firestore.collection(JOBS_COLLECTION).whereEqualTo("status", RUNNING).get().get().getDocuments();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            log.error("Failed to look up interrupted flight notification runs: {}", e.getMessage());
+            return;
+        }
+        for (QueryDocumentSnapshot document : running) {
+            if (localJobs.contains(document.getId()) || !leaseService.tryAcquire(LEASE_PREFIX + document.getId())) {
+                continue;
+            }
+            Job job = Job.restore(document);
+            log.info("Resuming flight {} {} notifications after ticket {}", job.flightId, job.kind, job.lastTicketId);
+            submit(job, document.getString("subject"), document.getString("text"));
+        }
+    }
+
+    private void submit(Job job, String subject, String text) {
+        synchronized (recentJobs) {
+            recentJobs.removeIf(recent -> recent.id.equals(job.id));
+            recentJobs.addFirst(job);
+            while (recentJobs.size() > Math.max(1, history)) {
+                recentJobs.removeLast();
+            }
+        }
+        localJobs.add(job.id);
+        worker.execute(() -> run(job, subject, text));
+    }
+
+    void run(Job job, String subject, String text) {
+        String lease = LEASE_PREFIX + job.id;
+        // Without the lease another node could resume the run too, so progress is not recorded
+        boolean durable = leaseService.tryAcquire(lease);
+        if (!durable) {
+            log.warn("No lease for flight {} notifications; progress will not survive a restart", job.flightId);
+        }
+        boolean leaseLost = false;
+        try {
+            if (durable) {
+                Map<String, Object> definition = new HashMap<>();
+                definition.put("flightId", job.flightId);
+                definition.put("kind", job.kind);
+                definition.put("subject", subject);
+                definition.put("text", text);
+                definition.put("startedAt", job.startedAt);
+                record(job, definition);
+            }
+            if (fanOut(job, subject, text, durable ? lease : null)) {
+                job.status = "COMPLETED";
+                log.info("Flight {} {} notifications: {} sent, {} failed, {} duplicates skipped",
+                        job.flightId, job.kind, job.sent.get(), job.failed.get(), job.duplicatesSkipped.get());
+            } else {
+                leaseLost = true;
+                job.status = HANDED_OVER;
+                log.warn("Lost lease for flight {} {} notifications after ticket {}; stopped so the next holder resumes",
+                        job.flightId, job.kind, job.lastTicketId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail("Interrupted");
+        } catch (Exception e) {
+            log.error("Flight {} {} notifications failed: {}", job.flightId, job.kind, e.getMessage());
+            job.fail(e.getMessage());
+        } finally {
+            job.finishedAt = System.currentTimeMillis();
+            if (durable) {
+                if (!leaseLost) {
+                    record(job, Map.of());
+                }
+                leaseService.release(lease);
+            }
+            localJobs.remove(job.id);
+        }
+    }
+
+    /**
+     * Send the run page by page. With a lease, every page and every progress write first
+     * checks it is still held; returns false once it is not, so a run that another node
+     * may have resumed neither sends nor records anything further.
+     *
+     * @param lease the run's lease, or null when progress is not recorded
+     */
+    private boolean fanOut(Job job, String subject, String text, String lease) throws Exception {
+        int limit = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        Set<String> notified = new HashSet<>();
+
+        while (true) {
+            if (lease != null && !leaseService.isHeld(lease)) {
+                return false;
+            }
+            Query page = firestore.collection(TICKETS_COLLECTION)
+                    .whereEqualTo("flightId", job.flightId)
+                    .select("passengerId")
+                    .orderBy(FieldPath.documentId())
+                    .limit(limit);
+            if (job.lastTicketId != null) {
+                page = page.startAfter(job.lastTicketId);
+            }
+            List<QueryDocumentSnapshot> tickets = page.get().get().getDocuments();
+            if (tickets.isEmpty()) {
+                return true;
+            }
+            job.ticketsScanned.addAndGet(tickets.size());
+
+            // Several tickets can point at the same passenger document
+            List<String> passengerIds = tickets.stream()
+                    .map(ticket -> ticket.getString("passengerId"))
+                    .filter(Objects::nonNull)
+                    .toList();
+            Set<String> uniquePassengerIds = new LinkedHashSet<>(passengerIds);
+            job.duplicatesSkipped.addAndGet(passengerIds.size() - uniquePassengerIds.size());
+
+            List<SimpleMailMessage> messages = new ArrayList<>();
+            for (DocumentSnapshot passenger : loadPassengers(uniquePassengerIds)) {
+                String email = passenger.exists() ? passenger.getString("email") : null;
+                if (email == null || email.isBlank()) {
+                    continue;
+                }
+                if (!notified.add(email.trim().toLowerCase(Locale.ROOT))) {
+                    job.duplicatesSkipped.incrementAndGet();
+                    continue;
+                }
+                messages.add(message(email.trim(), subject, text));
+            }
+            if (!messages.isEmpty()) {
+                job.recipients.addAndGet(messages.size());
+                int failures = throttledMailSender.send(messages);
+                job.sent.addAndGet(messages.size() - failures);
+                job.failed.addAndGet(failures);
+            }
+
+            job.lastTicketId = tickets.get(tickets.size() - 1).getId();
+            if (lease != null) {
+                if (!leaseService.isHeld(lease)) {
+                    return false;
+                }
+                record(job, Map.of());
+            }
+            if (tickets.size() < limit) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Save the job's progress (plus any extra fields); a failed write is logged, the run
+     * carries on and is at worst resumed from an earlier ticket
+     */
+    private void record(Job job, Map<String, Object> extra) {
+        Map<String, Object> fields = new HashMap<>(extra);
+        fields.put("status", job.status);
+        fields.put("lastTicketId", job.lastTicketId);
+        fields.put("ticketsScanned", job.ticketsScanned.get());
+        fields.put("recipients", job.recipients.get());
+        fields.put("duplicatesSkipped", job.duplicatesSkipped.get());
+        fields.put("sent", job.sent.get());
+        fields.put("failed", job.failed.get());
+        fields.put("finishedAt", job.finishedAt);
+        fields.put("error", job.error);
+        fields.put("updatedAt", System.currentTimeMillis());
+        try {
+            firestore.collection(JOBS_COLLECTION).document(job.id).set(fields, SetOptions.merge()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to record progress of flight {} notifications: {}", job.flightId, e.getMessage());
+        }
+    }
+
+    /**
+     * One batched read for all passengers of a page of tickets
+     */
+    private List<DocumentSnapshot> loadPassengers(Set<String> passengerIds) throws Exception {
+        if (passengerIds.isEmpty()) {
+            return List.of();
+        }
+        DocumentReference[] refs = passengerIds.stream()
+                .map(id -> firestore.collection(PASSENGERS_COLLECTION).document(id))
+                .toArray(DocumentReference[]::new);
+        return firestore.getAll(refs).get();
+    }
+
+    private static SimpleMailMessage message(String to, String subject, String text) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("noreply@airline.com");
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(text);
+        return message;
+    }
+
+    private static String formatTime(int time) {
+        return String.format("%02d:%02d", time / 100, time % 100);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Live progress of one run; counters are written by the worker and read by the dashboard
+     */
+    static final class Job {
+        final String id;
+        final String flightId;
+        final String kind;
+        final long startedAt;
+        final AtomicInteger ticketsScanned = new AtomicInteger();
+        final AtomicInteger recipients = new AtomicInteger();
+        final AtomicInteger duplicatesSkipped = new AtomicInteger();
+        final AtomicInteger sent = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        volatile String status = RUNNING;
+        volatile Long finishedAt;
+        volatile String error;
+        // Last ticket whose page has been sent; the run continues after it
+        volatile String lastTicketId;
+
+        Job(String id, String flightId, String kind) {
+            this(id, flightId, kind, System.currentTimeMillis());
+        }
+
+        private Job(String id, String flightId, String kind, long startedAt) {
+            this.id = id;
+            this.flightId = flightId;
+            this.kind = kind;
+            this.startedAt = startedAt;
+        }
+
+        /**
+         * Rebuild a run from its recorded progress
+         */
+        static Job restore(DocumentSnapshot document) {
+            Long startedAt = document.getLong("startedAt");
+            Job job = new Job(document.getId(), document.getString("flightId"), document.getString("kind"),
+                    startedAt != null ? startedAt : System.currentTimeMillis());
+            job.lastTicketId = document.getString("lastTicketId");
+            job.ticketsScanned.set(intField(document, "ticketsScanned"));
+            job.recipients.set(intField(document, "recipients"));
+            job.duplicatesSkipped.set(intField(document, "duplicatesSkipped"));
+            job.sent.set(intField(document, "sent"));
+            job.failed.set(intField(document, "failed"));
+            return job;
+        }
+
+        private static int intField(DocumentSnapshot document, String field) {
+            Long value = document.getLong(field);
+            return value != null ? value.intValue() : 0;
+        }
+
+        void fail(String message) {
+            error = message;
+            status = "FAILED";
+        }
+
+        FlightNotificationProgressDTO toProgress() {
+            return FlightNotificationProgressDTO.builder()
+                    .jobId(id)
+                    .flightId(flightId)
+                    .kind(kind)
+                    .status(status)
+                    .ticketsScanned(ticketsScanned.get())
+                    .recipients(recipients.get())
+                    .duplicatesSkipped(duplicatesSkipped.get())
+                    .sent(sent.get())
+                    .failed(failed.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.Flight;
+import com.example.springboot.repository.FirestoreRepository;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * FlightDetailsCache - Flights by their Flight ID (F001, F002, ...) for ticket pages
+ *
+ * Many tickets share a few flights, so the flight query behind a ticket details page is
+ * kept for a short time. FlightService evicts a flight when it is updated or
+ * deactivated; the TTL bounds staleness from any other writer. Cached flights are shared
+ * between requests and must be treated as read-only. Concurrent misses each query
+ * Firestore; there is deliberately no cache loader (see VirtualThreads).
+ */
+@Component
+public class FlightDetailsCache {
+
+    static final String COLLECTION_NAME = "flights";
+
+    private final FirestoreRepository repository;
+    private final Cache<String, Flight> flights;
+
+    public FlightDetailsCache(
+            FirestoreRepository repository,
+            @Value("${app.booking.flight-cache.ttl-seconds:60}") long ttlSeconds,
+            @Value("${app.booking.flight-cache.max-size:1000}") long maxSize) {
+        this.repository = repository;
+        this.flights = CacheBuilder.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(Math.max(1, ttlSeconds)))
+                .maximumSize(Math.max(1, maxSize))
+                .build();
+    }
+
+    /**
+     * Flight with the given Flight ID, or null (not cached) if there is none
+     */
+    public CompletableFuture<Flight> getAsync(String flightId) {
+        Flight cached = flights.getIfPresent(flightId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return repository.getCollectionByFieldAsync(COLLECTION_NAME, "flightId", flightId).thenApply(snapshot -> {
+            if (snapshot.isEmpty()) {
+                return null;
+            }
+            QueryDocumentSnapshot doc = snapshot.getDocuments().get(0);
+            Flight flight = doc.toObject(Flight.class);
+            flight.setDocumentId(doc.getId());
+            flights.put(flightId, flight);
+            return flight;
+        });
+    }
+
+    public void evict(String flightId) {
+        if (flightId != null) {
+            flights.invalidate(flightId);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.Flight;
+import com.example.springboot.model.Passenger;
+import com.example.springboot.model.Seat;
+import com.example.springboot.model.Ticket;
+import com.example.springboot.repository.FirestoreRepository;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * FlightExportService - Flight-level boarding pass and passenger manifest export for gate staff.
+ *
+ * Loads every ticket of a flight with one query, batch-fetches passengers and seats,
+ * then renders boarding passes on a bounded pool and streams them into a single ZIP.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlightExportService {
+
+    private static final String MANIFEST_FILE_NAME = "manifest.csv";
+    private static final String[] MANIFEST_HEADER = {
+        "Booking Reference", "Passenger Name", "Passport No", "Email", "Phone", "Seat", "Class", "Ticket ID"
+    };
+
+    // Rendering is CPU bound, so never use more threads than cores (and cap it to protect booking traffic)
+    private static final int RENDER_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    // Bounds how many rendered PDFs can sit in memory waiting to be written
+    private static final int MAX_IN_FLIGHT = RENDER_THREADS * 2;
+
+    private final FirestoreRepository repository;
+    private final TicketDocumentService ticketDocumentService;
+
+    private final ExecutorService renderPool =
+        Executors.newFixedThreadPool(RENDER_THREADS, new CustomizableThreadFactory("boarding-pass-render-"));
+
+    /**
+     * Load all tickets of a flight, enriched with passenger, seat and flight details.
+     * Costs one ticket query, one flight query and one batched get per passenger/seat chunk.
+     */
+    public List<Ticket> loadFlightTickets(String flightId) throws Exception {
+        Flight flight = findFlight(flightId);
+        if (flight == null) {
+            throw new IllegalArgumentException("Flight not found: " + flightId);
+        }
+
+        List<Ticket> tickets = new ArrayList<>();
+        var querySnapshot = repository.getCollectionByField("tickets", "flightId", flightId).get().get();
+        for (QueryDocumentSnapshot doc : querySnapshot.getDocuments()) {
+            Ticket ticket = doc.toObject(Ticket.class);
+            ticket.setDocumentId(doc.getId());
+            tickets.add(ticket);
+        }
+
+        Map<String, Passenger> passengers = repository.findAllByIds("passengers",
+            tickets.stream().map(Ticket::getPassengerId).collect(Collectors.toList()), Passenger.class);
+        Map<String, Seat> seats = repository.findAllByIds("seats",
+            tickets.stream().map(Ticket::getSeatId).collect(Collectors.toList()), Seat.class);
+
+        for (Ticket ticket : tickets) {
+            Passenger passenger = passengers.get(ticket.getPassengerId());
+            if (passenger != null) {
+                passenger.setDocumentId(ticket.getPassengerId());
+                ticket.setPassengerDetails(passenger);
+            }
+            Seat seat = seats.get(ticket.getSeatId());
+            if (seat != null) {
+                ticket.setSeatNumberDisplay(String.valueOf(seat.getSeatNumber()));
+                ticket.setSeatClassDisplay(seat.getTypeOfSeat());
+            }
+            ticket.setFlightDetails(flight);
+        }
+
+        tickets.sort(Comparator.comparingInt(t -> {
+            Seat seat = seats.get(t.getSeatId());
+            return seat != null ? seat.getSeatNumber() : Integer.MAX_VALUE;
+        }));
+        log.info("Loaded {} tickets for flight {} export", tickets.size(), flightId);
+        return tickets;
+    }
+
+    /**
+     * Stream one boarding pass PDF per ticket plus the passenger manifest into a ZIP.
+     * PDFs are rendered in parallel but written in ticket order, with at most
+     * MAX_IN_FLIGHT rendered documents held in memory at once.
+     */
+    public void writeBoardingPassZip(List<Ticket> tickets, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        Deque<Future<byte[]>> window = new ArrayDeque<>();
+        Deque<Ticket> pending = new ArrayDeque<>();
+
+        try {
+            for (Ticket ticket : tickets) {
+                if (window.size() >= MAX_IN_FLIGHT) {
+                    writeZipEntry(zip, pending.poll(), window.poll());
+                }
+                window.add(renderPool.submit(() -> ticketDocumentService.generateTicketPdf(ticket)));
+                pending.add(ticket);
+            }
+            while (!window.isEmpty()) {
+                writeZipEntry(zip, pending.poll(), window.poll());
+            }
+
+            zip.putNextEntry(new ZipEntry(MANIFEST_FILE_NAME));
+            Writer writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+            writeManifestCsv(tickets, writer);
+            writer.flush();
+            zip.closeEntry();
+            zip.finish();
+        } finally {
+            // Client disconnected or rendering failed - don't keep rendering for nobody
+            window.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Write the passenger manifest as CSV (one row per ticket)
+     */
+    public void writeManifestCsv(List<Ticket> tickets, Writer writer) throws IOException {
+        writeCsvRow(writer, MANIFEST_HEADER);
+        for (Ticket ticket : tickets) {
+            Passenger passenger = ticket.getPassengerDetails();
+            writeCsvRow(writer, new String[] {
+                ticket.getBookingReference(),
+                passenger != null ? passenger.getFullName() : null,
+                passenger != null ? passenger.getPassportNo() : null,
+                passenger != null ? passenger.getEmail() : null,
+                passenger != null ? passenger.getPhoneNumber() : null,
+                ticket.getSeatNumberDisplay(),
+                ticket.getSeatClassDisplay(),
+                ticket.getDocumentId()
+            });
+        }
+        writer.flush();
+    }
+
+    private void writeZipEntry(ZipOutputStream zip, Ticket ticket, Future<byte[]> pdf) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = pdf.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Boarding pass export interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render boarding pass " + ticket.getBookingReference()
+                + ": " + e.getCause().getMessage(), e.getCause());
+        }
+
+        String seat = ticket.getSeatNumberDisplay() != null ? ticket.getSeatNumberDisplay() : "NA";
+        zip.putNextEntry(new ZipEntry("boarding-pass-" + seat + "-" + ticket.getBookingReference() + ".pdf"));
+        zip.write(bytes);
+        zip.closeEntry();
+    }
+
+    private void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(escapeCsv(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Quote a value for CSV. A value a spreadsheet would read as a formula (leading
+     * =, +, -, @, tab or CR) gets a ' prefix so it opens as text
+     */
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            return "\"'" + value.replace("\"", "\"\"") + "\"";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private Flight findFlight(String flightId) throws ExecutionException, InterruptedException {
+        var querySnapshot = repository.getCollectionByField("flights", "flightId", flightId).get().get();
+        if (querySnapshot.isEmpty()) {
+            return null;
+        }
+        QueryDocumentSnapshot doc = querySnapshot.getDocuments().get(0);
+        Flight flight = doc.toObject(Flight.class);
+        flight.setDocumentId(doc.getId());
+        return flight;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.springboot.service;
 
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.model.Flight;
+import com.example.springboot.repository.RequestReadMemo;
+import com.example.springboot.repository.UniqueConstraintRepository;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -19,7 +22,7 @@ import java.util.stream.Collectors;
 @Service
 public class FlightService {
 
-    private static final String COLLECTION_NAME = "flights";
+    static final String COLLECTION_NAME = "flights";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("d/M/yyyy");
 
     @Autowired
@@ -28,6 +31,18 @@ public class FlightService {
     @Autowired
     private SeatService seatService;  // Inject SeatService
 
+    @Autowired
+    private UniqueConstraintRepository uniqueConstraintRepository;
+
+    @Autowired
+    private FlightChangeNotificationService flightChangeNotificationService;
+
+    @Autowired
+    private FlightDetailsCache flightDetailsCache;
+
+    @Autowired
+    private BoardingScanService boardingScanService;
+
     // ==================== ADD FLIGHT (WITH SEAT CREATION) ====================
     /**
      * Add a new flight and create seats automatically
@@ -55,10 +70,14 @@ public class FlightService {
         flightData.put("totalSeats", flight.getTotalSeats());
         flightData.put("status", flight.getStatus());
 
-        // Save flight to Firestore
-        DocumentReference docRef = firestore.collection(COLLECTION_NAME)
-            .add(flightData)
-            .get();
+        // Save flight to Firestore, reserving its Flight ID in the same transaction
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document();
+        runReserving(transaction -> {
+            uniqueConstraintRepository.reserve(transaction, "Flight", ownerOf(docRef.getId()),
+                Map.of("flightId", flight.getFlightId()));
+            transaction.create(docRef, flightData);
+            return null;
+        }, flight.getFlightId());
 
         flight.setDocumentId(docRef.getId());
 
@@ -104,13 +123,33 @@ public class FlightService {
         updates.put("planeNo", flight.getPlaneNo());
         updates.put("totalSeats", flight.getTotalSeats());
 
-        // Update in Firestore
-        firestore.collection(COLLECTION_NAME)
-            .document(documentId)
-            .update(updates)
-            .get();
+        // Update in Firestore; a changed Flight ID moves its reservation in the same transaction
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(documentId);
+        String previousFlightId = document.getString("flightId");
+        boolean flightIdChanged = "ACTIVE".equals(document.getString("status"))
+            && !Objects.equals(previousFlightId, flight.getFlightId());
+        runReserving(transaction -> {
+            if (flightIdChanged) {
+                uniqueConstraintRepository.reserve(transaction, "Flight", ownerOf(documentId),
+                    Map.of("flightId", flight.getFlightId()));
+                if (previousFlightId != null) {
+                    uniqueConstraintRepository.release(transaction, Map.of("flightId", previousFlightId));
+                }
+            }
+            transaction.update(docRef, updates);
+            return null;
+        }, flight.getFlightId());
+        flightDetailsCache.evict(previousFlightId);
+        flightDetailsCache.evict(flight.getFlightId());
+        boardingScanService.evictFlight(previousFlightId);
+        boardingScanService.evictFlight(flight.getFlightId());
 
         flight.setDocumentId(documentId);
+
+        // Passengers of an active flight hear about a new schedule; tickets still carry the old Flight ID
+        if ("ACTIVE".equals(document.getString("status")) && scheduleChanged(document, flight)) {
+            flightChangeNotificationService.notifyFlightChanged(previousFlightId, flight);
+        }
         
         // Note: If totalSeats changed, you might want to update seats
         // For now, we'll keep existing seats unchanged
@@ -139,14 +178,42 @@ public class FlightService {
         Map<String, Object> updates = new HashMap<>();
         updates.put("status", "INACTIVE");
 
-        firestore.collection(COLLECTION_NAME)
-            .document(documentId)
-            .update(updates)
-            .get();
+        // Inactive flights no longer hold their Flight ID
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(documentId);
+        boolean active = "ACTIVE".equals(document.getString("status"));
+        firestore.runTransaction(transaction -> {
+            transaction.update(docRef, updates);
+            if (active && flightId != null) {
+                uniqueConstraintRepository.release(transaction, Map.of("flightId", flightId));
+            }
+            return null;
+        }).get();
+        RequestReadMemo.invalidate(COLLECTION_NAME);
+        flightDetailsCache.evict(flightId);
+        boardingScanService.evictFlight(flightId);
 
         // ✅ DELETE ALL SEATS FOR THIS FLIGHT
         System.out.println("Flight " + flightId + " deactivated. Deleting associated seats...");
         seatService.deleteSeatsForFlight(flightId);
+
+        if (active) {
+            flightChangeNotificationService.notifyFlightCancelled(flightId);
+        }
+    }
+
+    /**
+     * Whether any date or time passengers rely on differs from the stored flight
+     */
+    private boolean scheduleChanged(DocumentSnapshot document, Flight flight) {
+        return !Objects.equals(document.getString("departureDate"), flight.getDepartureDate())
+            || !Objects.equals(document.getString("arrivalDate"), flight.getArrivalDate())
+            || !sameTime(document.getLong("departureTime"), flight.getDepartureTime())
+            || !sameTime(document.getLong("arrivalTime"), flight.getArrivalTime())
+            || !sameTime(document.getLong("boardingTime"), flight.getBoardingTime());
+    }
+
+    private static boolean sameTime(Long stored, int updated) {
+        return stored != null && stored == updated;
     }
 
     // ==================== GET ALL ACTIVE FLIGHTS ====================
@@ -225,8 +292,9 @@ public class FlightService {
             errors.add("Flight ID must be in format F001, F002, etc.");
         }
 
-        // Check duplicate Flight ID (only for new flights)
-        if (!isUpdate && flightIdExists(flight.getFlightId())) {
+        // Check duplicate Flight ID (only for new flights). Once every active flight has a
+        // reservation the insert transaction alone enforces this, so the query is skipped.
+        if (!isUpdate && uniqueConstraintRepository.isLegacyCheckEnabled() && flightIdExists(flight.getFlightId())) {
             errors.add("Flight ID " + flight.getFlightId() + " already exists");
         }
 
@@ -319,6 +387,27 @@ public class FlightService {
         return !documents.isEmpty();
     }
 
+    /**
+     * Run a write transaction, reporting a taken Flight ID as a validation error
+     */
+    private void runReserving(Transaction.Function<Void> function, String flightId)
+            throws ExecutionException, InterruptedException {
+        try {
+            firestore.runTransaction(function).get();
+            RequestReadMemo.invalidate(COLLECTION_NAME);
+        } catch (ExecutionException | RuntimeException e) {
+            DuplicateResourceException duplicate = UniqueConstraintRepository.findDuplicate(e);
+            if (duplicate != null) {
+                throw new IllegalArgumentException("Flight ID " + flightId + " already exists");
+            }
+            throw e;
+        }
+    }
+
+    public static String ownerOf(String documentId) {
+        return COLLECTION_NAME + "/" + documentId;
+    }
+
     // ==================== HELPER METHODS ====================
     private Flight documentToFlight(DocumentSnapshot document) {
         Flight flight = new Flight();
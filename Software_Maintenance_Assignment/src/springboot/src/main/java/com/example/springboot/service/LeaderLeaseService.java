@@ -0,0 +1,156 @@
+package com.example.springboot.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * LeaderLeaseService - Firestore lease documents for "only one node runs this" jobs.
+ *
+ * A lease (leases/{name}) names its owner and an expiry. Acquiring is a transaction
+ * that succeeds when the lease is free, expired or already ours; held leases are
+ * extended by a heartbeat, so a node that dies simply stops renewing and another
+ * node takes over once the lease expires.
+ *
+ * Each held lease also keeps a local expiry, counted from just before the write that
+ * claimed or renewed it. isHeld is false once that passes, so a node whose heartbeat
+ * is late or failing stops working under a lease that may already belong to another node.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderLeaseService {
+
+    private static final String COLLECTION_NAME = "leases";
+
+    private final Firestore firestore;
+
+    @Value("${app.leases.ttl-ms:60000}")
+    private long leaseTtlMs = 60_000;
+
+    private final String nodeId = resolveNodeId();
+    // Lease name -> local expiry (epoch millis) of the leases this node holds
+    private final Map<String, Long> heldLeases = new ConcurrentHashMap<>();
+
+    /**
+     * Acquire (or renew) the named lease for this node
+     */
+    public boolean tryAcquire(String leaseName) {
+        long expiresAt = System.currentTimeMillis() + leaseTtlMs;
+        boolean acquired = writeLease(leaseName, true);
+        if (acquired) {
+            if (heldLeases.put(leaseName, expiresAt) == null) {
+                log.info("Node {} acquired lease {}", nodeId, leaseName);
+            }
+        } else {
+            heldLeases.remove(leaseName);
+        }
+        return acquired;
+    }
+
+    /**
+     * Whether this node holds the lease and its last claim or renewal has not expired yet
+     */
+    public boolean isHeld(String leaseName) {
+        Long expiresAt = heldLeases.get(leaseName);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Give the lease up so another node can take over without waiting for expiry
+     */
+    public void release(String leaseName) {
+        if (heldLeases.remove(leaseName) != null) {
+            writeLease(leaseName, false);
+        }
+    }
+
+    /**
+     * Extend every lease this node holds; a lease that was taken over is dropped
+     */
+    @Scheduled(fixedDelayString = "${app.leases.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        for (String leaseName : heldLeases.keySet()) {
+            long expiresAt = System.currentTimeMillis() + leaseTtlMs;
+            if (writeLease(leaseName, true)) {
+                heldLeases.replace(leaseName, expiresAt);
+            } else {
+                heldLeases.remove(leaseName);
+                log.warn("Node {} lost lease {}", nodeId, leaseName);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        for (String leaseName : heldLeases.keySet()) {
+            release(leaseName);
+        }
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Transactionally claim (acquire=true) or free (acquire=false) the lease if this
+     * node may: it is unowned, expired or already ours
+     */
+    private boolean writeLease(String leaseName, boolean acquire) {
+        DocumentReference docRef = firestore.collection(COLLECTION_NAME).document(leaseName);
+        try {
+            ApiFuture<Boolean> result = firestore.runTransaction(transaction -> {
+                DocumentSnapshot snapshot = transaction.get(docRef).get();
+                long now = System.currentTimeMillis();
+
+                if (snapshot.exists()) {
+                    String owner = snapshot.getString("owner");
+                    Long expiresAt = snapshot.getLong("expiresAt");
+                    boolean ours = nodeId.equals(owner);
+                    boolean expired = expiresAt == null || expiresAt <= now;
+                    if (!ours && !expired) {
+                        return false;
+                    }
+                    if (!acquire && !ours) {
+                        return false;
+                    }
+                }
+
+                Map<String, Object> map = new HashMap<>();
+                map.put("owner", acquire ? nodeId : null);
+                map.put("expiresAt", acquire ? now + leaseTtlMs : 0L);
+                map.put("heartbeatAt", now);
+                transaction.set(docRef, map);
+                return true;
+            });
+            return result.get();
+
+        } catch (Exception e) {
+            log.error("Failed to update lease {}: {}", leaseName, e.getMessage());
+            return false;
+        }
+    }
+
+    private static String resolveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -6,18 +6,25 @@ import com.example.springboot.dto.response.MFAStatusDTO;
 import com.example.springboot.exception.MFAValidationException;
 import com.example.springboot.exception.UserNotFoundException;
 import com.example.springboot.repository.MFASecretRepository;
+import com.example.springboot.security.mfa.HashedBackupCodes;
+import com.example.springboot.security.mfa.QRCodeRenderer;
 import com.example.springboot.security.mfa.TOTPGenerator;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.security.MessageDigest;
 import java.security.SecureRandom;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Service
@@ -26,10 +33,28 @@ public class MFAService {
     
     private final MFASecretRepository mfaSecretRepository;
     private final TOTPGenerator totpGenerator;
+    private final QRCodeRenderer qrCodeRenderer;
     
     private static final String ENCRYPTION_ALGORITHM = "AES";
     private static final int BACKUP_CODES_COUNT = 10;
     private static final int BACKUP_CODE_LENGTH = 8;
+    private static final int TOTP_CODE_LENGTH = 6;
+    private static final int SETUP_QR_TTL_MINUTES = 10;
+    private static final int SECRET_CACHE_TTL_SECONDS = 60;
+    private static final int MAX_CONSUME_ATTEMPTS = 3;
+    
+    // Rendered setup QR codes, kept only while a setup is pending verification
+    private final Cache<String, byte[]> setupQrCodes = CacheBuilder.newBuilder()
+        .expireAfterWrite(SETUP_QR_TTL_MINUTES, TimeUnit.MINUTES)
+        .maximumSize(10_000)
+        .build();
+    
+    // Short-lived view of mfa_secrets keyed by (userId, role), so a login doesn't re-query Firestore.
+    // Invalidated on every write path below; empty Optionals cache "MFA not set up".
+    private final Cache<String, Optional<CachedSecret>> secretCache = CacheBuilder.newBuilder()
+        .expireAfterWrite(SECRET_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+        .maximumSize(10_000)
+        .build();
     
     public MFAStatusDTO setupMFA(String userId, Role userRole) {
         try {
@@ -45,24 +70,24 @@ public class MFAService {
             
             String secret = totpGenerator.generateSecret();
             String[] backupCodes = generateBackupCodes();
-            String encryptedBackupCodes = encryptBackupCodes(backupCodes);
             
             MFASecret mfaSecret = MFASecret.builder()
                 .userId(userId)
                 .userRole(userRole)
                 .secret(secret)
-                .backupCodes(encryptedBackupCodes)
+                .backupCodes(HashedBackupCodes.create(backupCodes).serialize())
                 .verified(false) // [FIX] Initially false
                 .build();
                 
             mfaSecretRepository.save(mfaSecret);
+            invalidateSecret(userId, userRole, existing.map(MFASecret::getSecret).orElse(null));
             
-            String qrCodeUrl = totpGenerator.generateQRCodeUrl(secret, "Airline-" + userId);
+            byte[] qrCode = renderSetupQRCode(userId, userRole, secret);
             
             return MFAStatusDTO.builder()
                 .mfaEnabled(false) // Setup started but not enabled yet
                 .secret(secret)
-                .qrCodeUrl(qrCodeUrl)
+                .qrCodeUrl(qrCodeRenderer.toDataUri(qrCode))
                 .backupCodes(backupCodes)
                 .build();
                 
@@ -73,23 +98,18 @@ public class MFAService {
     
     public boolean validateMFACode(String userId, Role userRole, String code) {
         try {
-            MFASecret mfaSecret = mfaSecretRepository.findByUserIdAndUserRole(userId, userRole)
+            CachedSecret cached = findCachedSecret(userId, userRole)
                 .orElseThrow(() -> new UserNotFoundException("MFA not setup for this user"));
             
             // Validate code logic...
-            if (code.matches("\\d{6}")) {
-                if (totpGenerator.validateCode(mfaSecret.getSecret(), code)) {
+            if (code.length() == TOTP_CODE_LENGTH) {
+                if (totpGenerator.validateCode(cached.secret.getSecret(), code)) {
                     return true;
                 }
             }
             
             if (code.length() == BACKUP_CODE_LENGTH) {
-                String[] backupCodes = decryptBackupCodes(mfaSecret.getBackupCodes());
-                for (String backupCode : backupCodes) {
-                    if (backupCode.equals(code)) {
-                        return true;
-                    }
-                }
+                return consumeBackupCode(userId, userRole, cached, code);
             }
             return false;
             
@@ -110,6 +130,8 @@ public class MFAService {
             
             mfaSecret.setVerified(true);
             mfaSecretRepository.save(mfaSecret);
+            setupQrCodes.invalidate(setupKey(userId, userRole));
+            secretCache.invalidate(setupKey(userId, userRole));
             return true;
         }
         return false;
@@ -120,12 +142,33 @@ public class MFAService {
             throw new UserNotFoundException("MFA not setup for this user");
         }
         mfaSecretRepository.deleteByUserIdAndUserRole(userId, userRole);
+        setupQrCodes.invalidate(setupKey(userId, userRole));
+        
+        Optional<CachedSecret> cached = secretCache.getIfPresent(setupKey(userId, userRole));
+        invalidateSecret(userId, userRole,
+            cached != null && cached.isPresent() ? cached.get().secret.getSecret() : null);
+    }
+    
+    /**
+     * PNG of the setup QR code for a pending (not yet verified) MFA setup.
+     * Served from the per-setup cache; re-rendered if the entry has expired.
+     */
+    public byte[] getSetupQRCode(String userId, Role userRole) {
+        byte[] cached = setupQrCodes.getIfPresent(setupKey(userId, userRole));
+        if (cached != null) {
+            return cached;
+        }
+        
+        MFASecret mfaSecret = mfaSecretRepository.findByUserIdAndUserRole(userId, userRole)
+            .filter(secret -> !Boolean.TRUE.equals(secret.getVerified()))
+            .orElseThrow(() -> new UserNotFoundException("No pending MFA setup for this user"));
+        return renderSetupQRCode(userId, userRole, mfaSecret.getSecret());
     }
     
     public MFAStatusDTO getMFAStatus(String userId, Role userRole) {
         // [FIX] Only return true if secret exists AND is verified
-        Optional<MFASecret> secretOpt = mfaSecretRepository.findByUserIdAndUserRole(userId, userRole);
-        boolean mfaEnabled = secretOpt.isPresent() && Boolean.TRUE.equals(secretOpt.get().getVerified());
+        Optional<CachedSecret> secretOpt = findCachedSecret(userId, userRole);
+        boolean mfaEnabled = secretOpt.isPresent() && Boolean.TRUE.equals(secretOpt.get().secret.getVerified());
         
         return MFAStatusDTO.builder().mfaEnabled(mfaEnabled).build();
     }
@@ -136,10 +179,10 @@ public class MFAService {
                 .orElseThrow(() -> new UserNotFoundException("MFA not setup for this user"));
             
             String[] backupCodes = generateBackupCodes();
-            String encryptedBackupCodes = encryptBackupCodes(backupCodes);
             
-            mfaSecret.setBackupCodes(encryptedBackupCodes);
+            mfaSecret.setBackupCodes(HashedBackupCodes.create(backupCodes).serialize());
             mfaSecretRepository.save(mfaSecret);
+            secretCache.invalidate(setupKey(userId, userRole));
             
             return backupCodes;
             
@@ -148,6 +191,86 @@ public class MFAService {
         }
     }
     
+    /**
+     * Remove a backup code so it can be used only once. The write is a compare-and-set
+     * on the stored set; if another login changed it first, re-read and try again.
+     */
+    private boolean consumeBackupCode(String userId, Role userRole, CachedSecret cached, String code) {
+        for (int attempt = 0; attempt < MAX_CONSUME_ATTEMPTS && cached != null; attempt++) {
+            String stored = cached.secret.getBackupCodes();
+            String remaining = remainingBackupCodes(cached, code);
+            if (remaining == null) {
+                return false;
+            }
+            
+            boolean consumed = mfaSecretRepository.compareAndSetBackupCodes(cached.secret.getId(), stored, remaining);
+            secretCache.invalidate(setupKey(userId, userRole));
+            if (consumed) {
+                log.info("Backup code used for user: {}", userId);
+                return true;
+            }
+            cached = findCachedSecret(userId, userRole).orElse(null);
+        }
+        return false;
+    }
+    
+    /**
+     * Stored backup codes with the given code removed, or null if the code is not valid.
+     * Legacy AES-encrypted sets are converted to the hashed format on first use.
+     */
+    private String remainingBackupCodes(CachedSecret cached, String code) {
+        if (cached.backupCodes != null) {
+            return cached.backupCodes.contains(code) ? cached.backupCodes.without(code).serialize() : null;
+        }
+        
+        try {
+            byte[] candidate = code.getBytes();
+            boolean matched = false;
+            List<String> others = new ArrayList<>();
+            for (String backupCode : decryptBackupCodes(cached.secret.getBackupCodes())) {
+                if (!matched && MessageDigest.isEqual(backupCode.getBytes(), candidate)) {
+                    matched = true;
+                } else {
+                    others.add(backupCode);
+                }
+            }
+            return matched ? HashedBackupCodes.create(others.toArray(new String[0])).serialize() : null;
+        } catch (Exception e) {
+            log.warn("Unreadable legacy backup codes for MFA secret {}", cached.secret.getId());
+            return null;
+        }
+    }
+    
+    private Optional<CachedSecret> findCachedSecret(String userId, Role userRole) {
+        String key = setupKey(userId, userRole);
+        Optional<CachedSecret> cached = secretCache.getIfPresent(key);
+        if (cached == null) {
+            cached = mfaSecretRepository.findByUserIdAndUserRole(userId, userRole).map(CachedSecret::new);
+            secretCache.put(key, cached);
+        }
+        return cached;
+    }
+    
+    private void invalidateSecret(String userId, Role userRole, String oldSecret) {
+        secretCache.invalidate(setupKey(userId, userRole));
+        if (oldSecret != null) {
+            totpGenerator.evictSecret(oldSecret);
+        }
+    }
+    
+    private byte[] renderSetupQRCode(String userId, Role userRole, String secret) {
+        String otpAuthUri = totpGenerator.generateOtpAuthUri(secret, "Airline-" + userId);
+        byte[] png = qrCodeRenderer.renderPng(otpAuthUri);
+        if (png != null) {
+            setupQrCodes.put(setupKey(userId, userRole), png);
+        }
+        return png;
+    }
+    
+    private String setupKey(String userId, Role userRole) {
+        return userId + ":" + userRole;
+    }
+    
     private String[] generateBackupCodes() {
         String[] codes = new String[BACKUP_CODES_COUNT];
         SecureRandom random = new SecureRandom();
@@ -166,22 +289,6 @@ public class MFAService {
         return code.toString();
     }
     
-    private String encryptBackupCodes(String[] codes) throws Exception {
-        String codesString = String.join(",", codes);
-        KeyGenerator keyGen = KeyGenerator.getInstance(ENCRYPTION_ALGORITHM);
-        keyGen.init(256);
-        SecretKey secretKey = keyGen.generateKey();
-        
-        Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-        
-        byte[] encrypted = cipher.doFinal(codesString.getBytes());
-        String keyString = Base64.getEncoder().encodeToString(secretKey.getEncoded());
-        String encryptedString = Base64.getEncoder().encodeToString(encrypted);
-        
-        return keyString + ":" + encryptedString;
-    }
-    
     private String[] decryptBackupCodes(String encryptedData) throws Exception {
         String[] parts = encryptedData.split(":");
         byte[] keyBytes = Base64.getDecoder().decode(parts[0]);
@@ -194,4 +301,25 @@ public class MFAService {
         byte[] decrypted = cipher.doFinal(encryptedBytes);
         return new String(decrypted).split(",");
     }
-}
\ No newline at end of file
+    
+    /**
+     * MFA secret plus its parsed backup code set (null for legacy encrypted codes)
+     */
+    private static final class CachedSecret {
+        private final MFASecret secret;
+        private final HashedBackupCodes backupCodes;
+        
+        private CachedSecret(MFASecret secret) {
+            this.secret = secret;
+            this.backupCodes = parseHashed(secret.getBackupCodes());
+        }
+        
+        private static HashedBackupCodes parseHashed(String stored) {
+            try {
+                return HashedBackupCodes.isHashed(stored) ? HashedBackupCodes.parse(stored) : null;
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.springboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MailDispatcher - Bounded outgoing mail queue drained in batches
+ *
+ * EmailService builds messages and hands them over here. A single worker takes up to
+ * batch-size queued messages at a time and passes them to JavaMailSender in one call;
+ * JavaMailSenderImpl then opens one SMTP connection for the whole batch instead of a
+ * connect/login/quit per message. When the queue is full, enqueue waits up to
+ * enqueue-timeout-ms and then drops the message (logged and counted): mail is
+ * best-effort here and must never hold up the caller indefinitely.
+ *
+ * Metrics: mail.queue_depth, mail.batch.size, mail.send.duration (per batch),
+ * mail.sent, mail.failed and mail.rejected.
+ */
+@Slf4j
+@Component
+public class MailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final BlockingQueue<MimeMessage> queue;
+    private final Timer sendTimer;
+    private final DistributionSummary batchSize;
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter rejected;
+
+    @Value("${app.mail.batch-size:20}")
+    private int maxBatchSize = 20;
+
+    @Value("${app.mail.enqueue-timeout-ms:100}")
+    private long enqueueTimeoutMs = 100;
+
+    private volatile boolean running = true;
+    private Thread worker;
+
+    public MailDispatcher(
+            JavaMailSender mailSender,
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.queue-capacity:500}") int queueCapacity) {
+        this.mailSender = mailSender;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        Gauge.builder("mail.queue_depth", queue, BlockingQueue::size)
+                .description("Messages waiting to be sent")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send.duration")
+                .description("Time to send one batch over a single SMTP connection")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("mail.batch.size")
+                .register(meterRegistry);
+        this.sent = Counter.builder("mail.sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.failed").register(meterRegistry);
+        this.rejected = Counter.builder("mail.rejected")
+                .description("Messages dropped because the queue stayed full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        worker = new Thread(this::drainLoop, "mail-dispatch");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queue a message for sending
+     *
+     * @return false if the queue stayed full for enqueue-timeout-ms and the message was dropped
+     */
+    public boolean enqueue(MimeMessage message) {
+        try {
+            if (queue.offer(message, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        log.warn("Mail queue full ({} waiting), message dropped", queue.size());
+        return false;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                List<MimeMessage> batch = nextBatch(1, TimeUnit.SECONDS);
+                if (!batch.isEmpty()) {
+                    sendBatch(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Keep the worker alive whatever a batch does
+                log.error("Mail dispatch failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Wait for the first message, then take whatever else is already queued, up to batch-size
+     */
+    List<MimeMessage> nextBatch(long timeout, TimeUnit unit) throws InterruptedException {
+        List<MimeMessage> batch = new ArrayList<>();
+        MimeMessage first = queue.poll(timeout, unit);
+        if (first != null) {
+            batch.add(first);
+            queue.drainTo(batch, Math.max(1, maxBatchSize) - 1);
+        }
+        return batch;
+    }
+
+    void sendBatch(List<MimeMessage> batch) {
+        batchSize.record(batch.size());
+        long startedAt = System.nanoTime();
+        try {
+            mailSender.send(batch.toArray(new MimeMessage[0]));
+            sent.increment(batch.size());
+        } catch (MailSendException e) {
+            // Messages not listed as failed went out on the same connection
+            int failures = e.getFailedMessages().isEmpty() ? batch.size() : e.getFailedMessages().size();
+            failed.increment(failures);
+            sent.increment(batch.size() - failures);
+            log.error("Failed to send {} of {} queued emails: {}", failures, batch.size(), e.getMessage());
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            log.error("Failed to send {} queued emails: {}", batch.size(), e.getMessage());
+        } finally {
+            sendTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+        // Best effort: flush what is still queued before the context closes
+        List<MimeMessage> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            sendBatch(remaining);
+        }
+    }
+}
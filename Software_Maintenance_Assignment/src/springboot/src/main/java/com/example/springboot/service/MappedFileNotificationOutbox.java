@@ -0,0 +1,452 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.NotificationIntent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MappedFileNotificationOutbox - Outbox kept in a memory-mapped append-only log on local disk
+ *
+ * Every change appends a record (PUT with the whole intent as JSON, or REMOVE with its id)
+ * and forces it to disk before returning, so an acknowledged prepare/commit survives a
+ * crash. The live intents are also held in memory and rebuilt by replaying the log on
+ * startup. When the mapped file fills up, the live intents are written to a new log
+ * generation (outbox.&lt;n&gt;.log); a generation only becomes current once its header is
+ * marked active, so a crash or failure during compaction falls back to the previous one.
+ * Dead letters stay until the dispatcher expires them, so they do not fill every
+ * generation forever.
+ *
+ * Per node: each instance drains its own file. Records are framed as
+ * [int length][byte op][body]; a zero length marks the end of the log.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.outbox.store", havingValue = "file", matchIfMissing = true)
+public class MappedFileNotificationOutbox implements NotificationOutbox {
+
+    private static final int MAGIC = 0x4F424F58;   // "OBOX"
+    private static final int HEADER_SIZE = 8;      // magic, active flag, padding
+    private static final int ACTIVE_OFFSET = 4;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final String FILE_PREFIX = "outbox.";
+    private static final String FILE_SUFFIX = ".log";
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int fileSize;
+
+    // Guards everything below. A lock rather than synchronized: appends force the log to
+    // disk while holding it, which would pin a virtual thread to its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Live intents in insertion order
+    private final Map<String, NotificationIntent> intents = new LinkedHashMap<>();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long generation;
+
+    public MappedFileNotificationOutbox(
+            ObjectMapper objectMapper,
+            @Value("${app.outbox.directory:data/notification-outbox}") String directory,
+            @Value("${app.outbox.file-size-bytes:16777216}") int fileSize) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.fileSize = Math.max(HEADER_SIZE + 1024, fileSize);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(directory);
+            Path current = null;
+            for (Path file : generations()) {
+                if (current == null && isActive(file)) {
+                    current = file;
+                    generation = generationOf(file);
+                }
+            }
+            if (current != null) {
+                replay(current);
+            }
+            // Start every run on a fresh, compacted generation
+            rewrite();
+            log.info("Notification outbox opened at {} with {} intents", directory, intents.size());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (buffer != null) {
+                buffer.force();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public NotificationIntent prepare(NotificationIntent intent) {
+        lock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            intent.setId(UUID.randomUUID().toString());
+            intent.setStatus(NotificationIntent.PREPARED);
+            intent.setCreatedAt(now);
+            intent.setNextAttemptAt(now);
+            put(intent);
+            return intent;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void commit(String id) {
+        lock.lock();
+        try {
+            NotificationIntent intent = intents.get(id);
+            if (intent != null && NotificationIntent.PREPARED.equals(intent.getStatus())) {
+                intent.setStatus(NotificationIntent.PENDING);
+                put(intent);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void abort(String id) {
+        lock.lock();
+        try {
+            remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<NotificationIntent> due(long nowMillis, int max) {
+        lock.lock();
+        try {
+            List<NotificationIntent> due = new ArrayList<>();
+            for (NotificationIntent intent : intents.values()) {
+                if (due.size() >= max) {
+                    break;
+                }
+                if (NotificationIntent.PENDING.equals(intent.getStatus()) && intent.getNextAttemptAt() <= nowMillis) {
+                    due.add(copy(intent));
+                }
+            }
+            return due;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<NotificationIntent> unconfirmed(long preparedBeforeMillis) {
+        lock.lock();
+        try {
+            List<NotificationIntent> unconfirmed = new ArrayList<>();
+            for (NotificationIntent intent : intents.values()) {
+                if (NotificationIntent.PREPARED.equals(intent.getStatus()) && intent.getCreatedAt() < preparedBeforeMillis) {
+                    unconfirmed.add(copy(intent));
+                }
+            }
+            return unconfirmed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void markSent(String id) {
+        lock.lock();
+        try {
+            remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void retry(String id, long nextAttemptAt, String error) {
+        lock.lock();
+        try {
+            NotificationIntent intent = intents.get(id);
+            if (intent != null) {
+                intent.setAttempts(intent.getAttempts() + 1);
+                intent.setNextAttemptAt(nextAttemptAt);
+                intent.setLastError(error);
+                put(intent);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deadLetter(String id, String error) {
+        lock.lock();
+        try {
+            NotificationIntent intent = intents.get(id);
+            if (intent != null) {
+                intent.setAttempts(intent.getAttempts() + 1);
+                intent.setStatus(NotificationIntent.DEAD);
+                intent.setLastError(error);
+                intent.setDeadLetteredAt(System.currentTimeMillis());
+                put(intent);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<NotificationIntent> expireDeadLetters(long deadBeforeMillis) {
+        lock.lock();
+        try {
+            List<NotificationIntent> expired = new ArrayList<>();
+            for (NotificationIntent intent : intents.values()) {
+                if (NotificationIntent.DEAD.equals(intent.getStatus()) && intent.getDeadLetteredAt() < deadBeforeMillis) {
+                    expired.add(copy(intent));
+                }
+            }
+            for (NotificationIntent intent : expired) {
+                remove(intent.getId());
+            }
+            return expired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return (int) intents.values().stream()
+                    .filter(intent -> !NotificationIntent.DEAD.equals(intent.getStatus()))
+                    .count();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int deadCount() {
+        lock.lock();
+        try {
+            return intents.size() - pendingCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(NotificationIntent intent) {
+        try {
+            append(OP_PUT, objectMapper.writeValueAsBytes(intent));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write notification outbox", e);
+        }
+        intents.put(intent.getId(), intent);
+    }
+
+    private void remove(String id) {
+        if (intents.containsKey(id)) {
+            append(OP_REMOVE, id.getBytes(StandardCharsets.UTF_8));
+            intents.remove(id);
+        }
+    }
+
+    private void append(byte op, byte[] body) {
+        int recordSize = Integer.BYTES + 1 + body.length;
+        if (buffer.remaining() < recordSize + Integer.BYTES) {
+            rewrite();
+            if (buffer.remaining() < recordSize + Integer.BYTES) {
+                throw new IllegalStateException("Notification outbox file is full");
+            }
+        }
+        int start = buffer.position();
+        buffer.putInt(body.length);
+        buffer.put(op);
+        buffer.put(body);
+        buffer.force(start, recordSize);
+    }
+
+    /**
+     * Write the live intents into the next generation and switch to it. The current
+     * generation stays in use until the next one is complete and marked active.
+     */
+    private void rewrite() {
+        long nextGeneration = generation + 1;
+        Path next = directory.resolve(FILE_PREFIX + nextGeneration + FILE_SUFFIX);
+        FileChannel nextChannel = null;
+        MappedByteBuffer nextBuffer;
+        try {
+            nextChannel = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            nextBuffer = nextChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            nextBuffer.putInt(MAGIC);
+            nextBuffer.position(HEADER_SIZE);
+            for (NotificationIntent intent : intents.values()) {
+                byte[] body = objectMapper.writeValueAsBytes(intent);
+                if (nextBuffer.remaining() < Integer.BYTES + 1 + body.length + Integer.BYTES) {
+                    throw new IllegalStateException("Notification outbox file is full");
+                }
+                nextBuffer.putInt(body.length);
+                nextBuffer.put(OP_PUT);
+                nextBuffer.put(body);
+            }
+            nextBuffer.force();
+            // Only now does the new generation win over the previous one
+            nextBuffer.put(ACTIVE_OFFSET, (byte) 1);
+            nextBuffer.force();
+        } catch (IOException | RuntimeException e) {
+            discard(nextChannel, next);
+            if (e instanceof IOException io) {
+                throw new UncheckedIOException("Failed to compact notification outbox", io);
+            }
+            throw (RuntimeException) e;
+        }
+
+        FileChannel previousChannel = channel;
+        channel = nextChannel;
+        buffer = nextBuffer;
+        generation = nextGeneration;
+        try {
+            if (previousChannel != null) {
+                previousChannel.close();
+            }
+            deleteOlderThan(generation);
+        } catch (IOException e) {
+            log.warn("Could not clean up old notification outbox files: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Close and delete a generation that was never completed
+     */
+    private void discard(FileChannel unfinished, Path file) {
+        try {
+            if (unfinished != null) {
+                unfinished.close();
+            }
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Never marked active, so it is ignored on startup and overwritten next time
+            log.debug("Could not delete unfinished outbox file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void replay(Path file) throws IOException {
+        try (FileChannel replayChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer records = replayChannel.map(FileChannel.MapMode.READ_ONLY, 0, replayChannel.size());
+            records.position(HEADER_SIZE);
+            while (records.remaining() > Integer.BYTES + 1) {
+                int length = records.getInt();
+                if (length <= 0 || length > records.remaining() - 1) {
+                    break;
+                }
+                byte op = records.get();
+                byte[] body = new byte[length];
+                records.get(body);
+                try {
+                    if (op == OP_PUT) {
+                        NotificationIntent intent = objectMapper.readValue(body, NotificationIntent.class);
+                        intents.put(intent.getId(), intent);
+                    } else if (op == OP_REMOVE) {
+                        intents.remove(new String(body, StandardCharsets.UTF_8));
+                    } else {
+                        break;
+                    }
+                } catch (IOException e) {
+                    // Torn last record from a crash mid-append; it was never acknowledged
+                    log.warn("Notification outbox replay stopped at a damaged record: {}", e.getMessage());
+                    break;
+                }
+            }
+        }
+    }
+
+    private List<Path> generations() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                if (generationOf(file) >= 0) {
+                    files.add(file);
+                }
+            }
+        }
+        files.sort(Comparator.comparingLong(MappedFileNotificationOutbox::generationOf).reversed());
+        return files;
+    }
+
+    private boolean isActive(Path file) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (fileChannel.size() < HEADER_SIZE) {
+                return false;
+            }
+            MappedByteBuffer header = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            return header.getInt(0) == MAGIC && header.get(ACTIVE_OFFSET) == 1;
+        }
+    }
+
+    private void deleteOlderThan(long keepGeneration) throws IOException {
+        for (Path file : generations()) {
+            if (generationOf(file) < keepGeneration) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // A still-mapped file cannot be deleted on some platforms; retried next compaction
+                    log.debug("Could not delete old outbox file {}: {}", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private NotificationIntent copy(NotificationIntent intent) {
+        return intent.toBuilder().build();
+    }
+}
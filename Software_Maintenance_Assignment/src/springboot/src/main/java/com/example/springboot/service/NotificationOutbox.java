@@ -0,0 +1,66 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.NotificationIntent;
+
+import java.util.List;
+
+/**
+ * NotificationOutbox - Durable store of notifications waiting to be delivered
+ *
+ * A caller prepares the intent before its own writes and commits it after them (or
+ * aborts it on failure), so a crash can never lose a notification for a completed
+ * operation. NotificationOutboxDispatcher drains committed intents. The default store is
+ * MappedFileNotificationOutbox (app.outbox.store=file), which needs no external service.
+ */
+public interface NotificationOutbox {
+
+    /**
+     * Durably record an intent as PREPARED
+     *
+     * @return the intent with its id and timestamps set
+     */
+    NotificationIntent prepare(NotificationIntent intent);
+
+    /**
+     * The operation completed: the intent may be delivered
+     */
+    void commit(String id);
+
+    /**
+     * The operation failed: forget the intent
+     */
+    void abort(String id);
+
+    /**
+     * Committed intents whose next attempt is due, oldest first
+     */
+    List<NotificationIntent> due(long nowMillis, int max);
+
+    /**
+     * Intents still PREPARED since before the given time (the operation may have crashed)
+     */
+    List<NotificationIntent> unconfirmed(long preparedBeforeMillis);
+
+    void markSent(String id);
+
+    /**
+     * Count a failed attempt and schedule the next one
+     */
+    void retry(String id, long nextAttemptAt, String error);
+
+    /**
+     * Give up on the intent; it is kept for inspection but never retried
+     */
+    void deadLetter(String id, String error);
+
+    /**
+     * Drop intents that were dead-lettered before the given time
+     *
+     * @return the intents dropped
+     */
+    List<NotificationIntent> expireDeadLetters(long deadBeforeMillis);
+
+    int pendingCount();
+
+    int deadCount();
+}
@@ -0,0 +1,145 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.NotificationIntent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * NotificationOutboxDispatcher - Delivers committed outbox intents in batches
+ *
+ * Each run first settles intents left PREPARED for longer than prepare-timeout-ms
+ * (the booking thread died between its writes and the commit): the intent is committed
+ * if its booking exists in Firestore and dropped otherwise. It then sends up to
+ * batch-size due intents in one mail call. A failed intent is retried after an
+ * exponential backoff with jitter, and dead-lettered after max-attempts. Dead letters are
+ * dropped after dead-letter-retention-ms; each one is logged with its recipient and
+ * reference when it goes.
+ *
+ * Metrics: outbox.pending, outbox.dead, outbox.sent, outbox.retried, outbox.dead_lettered,
+ * outbox.expired.
+ */
+@Slf4j
+@Service
+public class NotificationOutboxDispatcher {
+
+    private final NotificationOutbox outbox;
+    private final NotificationService notificationService;
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter deadLettered;
+    private final Counter expired;
+
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.outbox.batch-size:50}")
+    private int batchSize = 50;
+
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts = 8;
+
+    @Value("${app.outbox.backoff-base-ms:1000}")
+    private long backoffBaseMs = 1000;
+
+    @Value("${app.outbox.backoff-max-ms:600000}")
+    private long backoffMaxMs = 600_000;
+
+    @Value("${app.outbox.prepare-timeout-ms:60000}")
+    private long prepareTimeoutMs = 60_000;
+
+    @Value("${app.outbox.dead-letter-retention-ms:604800000}")
+    private long deadLetterRetentionMs = 604_800_000L;
+
+    public NotificationOutboxDispatcher(NotificationOutbox outbox, NotificationService notificationService,
+                                        MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.notificationService = notificationService;
+
+        Gauge.builder("outbox.pending", outbox, NotificationOutbox::pendingCount)
+                .description("Notifications waiting in the outbox")
+                .register(meterRegistry);
+        Gauge.builder("outbox.dead", outbox, NotificationOutbox::deadCount)
+                .description("Notifications that used up their retries")
+                .register(meterRegistry);
+        this.sent = Counter.builder("outbox.sent").register(meterRegistry);
+        this.retried = Counter.builder("outbox.retried").register(meterRegistry);
+        this.deadLettered = Counter.builder("outbox.dead_lettered").register(meterRegistry);
+        this.expired = Counter.builder("outbox.expired").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        resolveUnconfirmed(now - prepareTimeoutMs);
+        expireDeadLetters(now - deadLetterRetentionMs);
+
+        List<NotificationIntent> batch = outbox.due(now, Math.max(1, batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, String> failures = notificationService.deliver(batch);
+        for (NotificationIntent intent : batch) {
+            String error = failures.get(intent.getId());
+            if (error == null) {
+                outbox.markSent(intent.getId());
+                sent.increment();
+            } else if (intent.getAttempts() + 1 >= maxAttempts) {
+                outbox.deadLetter(intent.getId(), error);
+                deadLettered.increment();
+                log.error("Notification {} to {} dead-lettered after {} attempts: {}",
+                        intent.getId(), intent.getRecipient(), intent.getAttempts() + 1, error);
+            } else {
+                outbox.retry(intent.getId(), now + backoffDelay(intent.getAttempts()), error);
+                retried.increment();
+            }
+        }
+        log.debug("Outbox dispatched {} notifications, {} failed", batch.size(), failures.size());
+    }
+
+    private void resolveUnconfirmed(long preparedBefore) {
+        for (NotificationIntent intent : outbox.unconfirmed(preparedBefore)) {
+            try {
+                if (notificationService.isConfirmed(intent)) {
+                    outbox.commit(intent.getId());
+                } else {
+                    outbox.abort(intent.getId());
+                    log.info("Dropped notification {}: booking {} was never saved", intent.getId(), intent.getReference());
+                }
+            } catch (Exception e) {
+                // Firestore unavailable: leave it PREPARED and look again next run
+                log.warn("Could not confirm notification {}: {}", intent.getId(), e.getMessage());
+            }
+        }
+    }
+
+    private void expireDeadLetters(long deadBefore) {
+        for (NotificationIntent intent : outbox.expireDeadLetters(deadBefore)) {
+            expired.increment();
+            log.warn("Expired dead-lettered notification {} ({} to {}, booking {}): {}", intent.getId(),
+                    intent.getType(), intent.getRecipient(), intent.getReference(), intent.getLastError());
+        }
+    }
+
+    /**
+     * Exponential backoff capped at backoff-max-ms, with equal jitter so retries of a
+     * batch that failed together spread out
+     */
+    long backoffDelay(int attempts) {
+        long exponential = backoffBaseMs << Math.min(attempts, 20);
+        long capped = Math.min(backoffMaxMs, Math.max(backoffBaseMs, exponential));
+        long half = capped / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+}
@@ -1,25 +1,129 @@
 package com.example.springboot.service;
 
+import com.example.springboot.model.NotificationIntent;
+import com.example.springboot.repository.FirestoreRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
 @Service
 public class NotificationService {
 
     @Autowired private JavaMailSender mailSender;
+    @Autowired private NotificationOutbox outbox;
+    @Autowired private FirestoreRepository repository;
 
     public void sendBookingSuccessEmail(String to, String ref) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom("noreply@airline.com");
-            message.setTo(to);
-            message.setSubject("Your Flight Confirmation: " + ref);
-            message.setText("Thank you for booking with us. Your booking reference is " + ref + ".");
-            mailSender.send(message);
+            mailSender.send(bookingSuccessMessage(to, ref));
         } catch (Exception e) {
             System.err.println("Email failed: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Record a booking confirmation in the outbox before the booking is written.
+     * It is only delivered after commitNotification. An outbox failure must not stop
+     * the booking, so it is logged and null returned; the caller then sends directly.
+     *
+     * @return outbox id to commit or abort, or null if the outbox is unavailable
+     */
+    public String prepareBookingSuccessEmail(String to, String ref) {
+        NotificationIntent intent = NotificationIntent.builder()
+                .type(NotificationIntent.BOOKING_CONFIRMATION)
+                .recipient(to)
+                .reference(ref)
+                .build();
+        try {
+            return outbox.prepare(intent).getId();
+        } catch (RuntimeException e) {
+            log.error("Could not record booking confirmation for {} in the outbox: {}", ref, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * If the commit cannot be written the intent stays PREPARED, and the dispatcher
+     * commits it once it finds the booking
+     */
+    public void commitNotification(String id) {
+        try {
+            outbox.commit(id);
+        } catch (RuntimeException e) {
+            log.error("Could not commit outbox notification {}: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * If the abort cannot be written the dispatcher drops the intent once it finds no booking
+     */
+    public void abortNotification(String id) {
+        try {
+            outbox.abort(id);
+        } catch (RuntimeException e) {
+            log.error("Could not abort outbox notification {}: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Send a batch of outbox intents in one JavaMailSender call (one SMTP connection)
+     *
+     * @return error message per intent id that was not sent; empty if all went out
+     */
+    public Map<String, String> deliver(List<NotificationIntent> intents) {
+        Map<String, String> failures = new HashMap<>();
+        if (intents.isEmpty()) {
+            return failures;
+        }
+        SimpleMailMessage[] messages = new SimpleMailMessage[intents.size()];
+        Map<SimpleMailMessage, NotificationIntent> byMessage = new IdentityHashMap<>();
+        for (int i = 0; i < messages.length; i++) {
+            NotificationIntent intent = intents.get(i);
+            messages[i] = bookingSuccessMessage(intent.getRecipient(), intent.getReference());
+            byMessage.put(messages[i], intent);
+        }
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                intents.forEach(intent -> failures.put(intent.getId(), e.getMessage()));
+            }
+            e.getFailedMessages().forEach((message, cause) -> {
+                NotificationIntent intent = byMessage.get(message);
+                if (intent != null) {
+                    failures.put(intent.getId(), cause.getMessage());
+                }
+            });
+        } catch (Exception e) {
+            intents.forEach(intent -> failures.put(intent.getId(), e.getMessage()));
+        }
+        return failures;
+    }
+
+    /**
+     * Whether the booking behind a still-PREPARED intent was actually saved
+     * (the process stopped between the booking writes and the commit)
+     */
+    public boolean isConfirmed(NotificationIntent intent) throws Exception {
+        return !repository.getCollectionByField("tickets", "bookingReference", intent.getReference())
+                .limit(1).get().get().isEmpty();
+    }
+
+    private SimpleMailMessage bookingSuccessMessage(String to, String ref) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom("noreply@airline.com");
+        message.setTo(to);
+        message.setSubject("Your Flight Confirmation: " + ref);
+        message.setText("Thank you for booking with us. Your booking reference is " + ref + ".");
+        return message;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.springboot.service;
+
+import com.example.springboot.enums.Role;
+import com.example.springboot.repository.AdminRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
+import com.example.springboot.repository.SuperadminRepository;
+import com.example.springboot.repository.UserRepository;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PrincipalIndexBackfillService - Indexes accounts created before principals_by_email existed
+ *
+ * Pages through superadmins, staff and customers reading only the email field and
+ * writes one index entry per account. Customers go last so that, as with the old
+ * sequential lookup, a customer wins if the same email appears in several collections.
+ * Runs once in the background after startup and records a marker when done, so later
+ * starts skip it; new accounts are indexed by the registration paths themselves.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrincipalIndexBackfillService {
+
+    // Firestore batches cap at 500 writes
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final Firestore firestore;
+    private final PrincipalEmailIndexRepository principalEmailIndexRepository;
+
+    @Value("${app.principal-index.backfill-enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.principal-index.page-size:300}")
+    private int pageSize = 300;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled) {
+            log.info("Principal index backfill disabled");
+            return;
+        }
+        Thread worker = new Thread(this::backfillAll, "principal-index-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void backfillAll() {
+        if (principalEmailIndexRepository.isBackfilled()) {
+            log.debug("Principal index already backfilled");
+            return;
+        }
+        try {
+            int indexed = backfill(SuperadminRepository.COLLECTION_NAME, Role.SUPERADMIN)
+                    + backfill(AdminRepository.COLLECTION_NAME, Role.ADMIN)
+                    + backfill(UserRepository.COLLECTION_NAME, Role.USER);
+            principalEmailIndexRepository.markBackfilled();
+            log.info("Principal index backfill complete: {} accounts indexed", indexed);
+        } catch (Exception e) {
+            // Logins keep falling back to the collection scan; retried on next start
+            log.error("Principal index backfill failed: {}", e.getMessage());
+        }
+    }
+
+    int backfill(String collectionName, Role role) throws Exception {
+        int limit = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        int indexed = 0;
+        DocumentSnapshot cursor = null;
+
+        while (true) {
+            Query page = firestore.collection(collectionName)
+                    .orderBy(FieldPath.documentId())
+                    .select("email")
+                    .limit(limit);
+            if (cursor != null) {
+                page = page.startAfter(cursor);
+            }
+            List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+            if (documents.isEmpty()) {
+                return indexed;
+            }
+
+            WriteBatch batch = firestore.batch();
+            for (QueryDocumentSnapshot document : documents) {
+                String email = PrincipalEmailIndexRepository.normalize(document.getString("email"));
+                if (email == null) {
+                    continue;
+                }
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("email", email);
+                entry.put("role", role.name());
+                entry.put("principalId", document.getId());
+                entry.put("updatedAt", LocalDateTime.now().toString());
+                batch.set(firestore.collection(PrincipalEmailIndexRepository.COLLECTION_NAME)
+                        .document(PrincipalEmailIndexRepository.documentId(email)), entry);
+                indexed++;
+            }
+            batch.commit().get();
+
+            if (documents.size() < limit) {
+                return indexed;
+            }
+            cursor = documents.get(documents.size() - 1);
+        }
+    }
+}
@@ -6,13 +6,20 @@ import com.example.springboot.dto.request.UserRegisterRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
 import com.example.springboot.factory.RegisterStrategyFactory;
 import com.example.springboot.strategy.registration.RegisterStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * RegistrationExecutionService - Orchestrates registration using Strategy + Factory patterns
  * Controller → Service → Factory → Strategy → Adapter → Repository
+ *
+ * End-to-end user registration latency is recorded as registration.duration with
+ * p50/p99 published, tagged by outcome, so changes to the pipeline can be compared.
  */
 @Slf4j
 @Service
@@ -20,11 +27,14 @@ import org.springframework.stereotype.Service;
 public class RegistrationExecutionService {
     
     private final RegisterStrategyFactory registerStrategyFactory; // Factory Pattern
+    private final MeterRegistry meterRegistry;
     
     /**
      * Register user using Strategy Pattern
      */
     public AuthResponseDTO registerUser(UserRegisterRequestDTO request) {
+        long startedAt = System.nanoTime();
+        String outcome = "failure";
         try {
             log.info("Executing user registration");
             
@@ -32,11 +42,20 @@ public class RegistrationExecutionService {
             RegisterStrategy strategy = registerStrategyFactory.getRegisterStrategy(Role.USER);
             
             // Execute strategy
-            return strategy.register(request, request.getRecaptchaToken());
+            AuthResponseDTO response = strategy.register(request, request.getRecaptchaToken());
+            outcome = "success";
+            return response;
             
         } catch (Exception e) {
             log.error("User registration execution failed: {}", e.getMessage());
             throw e;
+        } finally {
+            Timer.builder("registration.duration")
+                .description("User registration latency, request to response")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
     
@@ -0,0 +1,121 @@
+package com.example.springboot.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * RegistrationStepExecutor - Runs the independent registration steps side by side
+ *
+ * reCAPTCHA verification, the existence checks and password hashing do not depend on
+ * each other, so they are submitted together and awaited against one deadline for the
+ * whole registration instead of a timeout per step. The pool is bounded; when it is
+ * full the request thread runs the step itself, which degrades to the old sequential
+ * behaviour rather than failing. Per-step time is exported as registration.step.duration.
+ */
+@Slf4j
+@Component
+public class RegistrationStepExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final long timeoutMs;
+
+    public RegistrationStepExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${app.registration.threads:8}") int threads,
+            @Value("${app.registration.queue-capacity:64}") int queueCapacity,
+            @Value("${app.registration.timeout-ms:10000}") long timeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.timeoutMs = timeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "registration-step-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        Gauge.builder("registration.step.queue_depth", executor, e -> e.getQueue().size())
+                .description("Registration steps waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Deadline (System.nanoTime) for a registration starting now
+     */
+    public long newDeadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
+    /**
+     * Start a step in the background
+     *
+     * @param step metric tag, e.g. "recaptcha" or "hash"
+     */
+    public <T> CompletableFuture<T> submit(String step, Supplier<T> task) {
+        Timer timer = meterRegistry.timer("registration.step.duration", "step", step);
+        return CompletableFuture.supplyAsync(() -> {
+            long startedAt = System.nanoTime();
+            try {
+                return task.get();
+            } finally {
+                timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        }, executor);
+    }
+
+    /**
+     * Wait for a step until the shared deadline. Exceptions thrown by the step are
+     * rethrown as they are.
+     *
+     * @throws TimeoutException if the deadline passes first
+     */
+    public <T> T await(CompletableFuture<T> future, long deadline) throws TimeoutException, InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        try {
+            return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Registration step failed", cause);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("Registration step cancelled", e);
+        }
+    }
+
+    /**
+     * Drop steps nobody will wait for any more (an earlier step already failed the request)
+     */
+    public void cancel(CompletableFuture<?>... futures) {
+        for (CompletableFuture<?> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.springboot.service;
 
 import com.example.springboot.model.Seat;
+import com.example.springboot.repository.RequestReadMemo;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.DocumentReference;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,6 +63,7 @@ public class SeatService {
                 .add(seatData)
                 .get();
         }
+        RequestReadMemo.invalidate(COLLECTION_NAME);
         
         System.out.println("✓ Successfully created " + totalSeats + " seats for flight " + flightId);
         System.out.println("  - Business Class: Seats " + SEAT_NUMBER_START + "-" + (SEAT_NUMBER_START + BUSINESS_CLASS_COUNT - 1));
@@ -91,6 +93,7 @@ public class SeatService {
             document.getReference().delete().get();
             deletedCount++;
         }
+        RequestReadMemo.invalidate(COLLECTION_NAME);
         
         System.out.println("✓ Deleted " + deletedCount + " seats for flight " + flightId);
     }
@@ -0,0 +1,105 @@
+package com.example.springboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ThrottledMailSender - Sends bulk mail no faster than a token bucket allows
+ *
+ * Used for fan-out mail (e.g. every passenger of a changed flight) so one large flight
+ * cannot flood the SMTP server or crowd out account emails. The bucket holds up to
+ * burst tokens and refills at per-second tokens a second; each message costs one token.
+ * Messages go out in chunks of up to burst per JavaMailSender call, one SMTP
+ * connection per chunk. The calling thread waits for tokens, so call it from a
+ * background worker, never from a request thread.
+ */
+@Slf4j
+@Component
+public class ThrottledMailSender {
+
+    private final JavaMailSender mailSender;
+    private final double permitsPerNano;
+    private final int burst;
+    private final Counter sent;
+    private final Counter failed;
+
+    // Token bucket state; guarded by this
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    public ThrottledMailSender(
+            JavaMailSender mailSender,
+            MeterRegistry meterRegistry,
+            @Value("${app.mail.throttle.per-second:5}") double perSecond,
+            @Value("${app.mail.throttle.burst:10}") int burst) {
+        this.mailSender = mailSender;
+        this.permitsPerNano = Math.max(0.001, perSecond) / TimeUnit.SECONDS.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.sent = Counter.builder("mail.throttled.sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.throttled.failed").register(meterRegistry);
+    }
+
+    /**
+     * Send the messages, waiting for tokens as needed
+     *
+     * @return number of messages that could not be sent
+     */
+    public int send(List<SimpleMailMessage> messages) throws InterruptedException {
+        int failures = 0;
+        for (int from = 0; from < messages.size(); from += burst) {
+            List<SimpleMailMessage> chunk = messages.subList(from, Math.min(messages.size(), from + burst));
+            acquire(chunk.size());
+            failures += sendChunk(chunk);
+        }
+        return failures;
+    }
+
+    private int sendChunk(List<SimpleMailMessage> chunk) {
+        try {
+            mailSender.send(chunk.toArray(new SimpleMailMessage[0]));
+            sent.increment(chunk.size());
+            return 0;
+        } catch (MailSendException e) {
+            int failures = e.getFailedMessages().isEmpty() ? chunk.size() : e.getFailedMessages().size();
+            failed.increment(failures);
+            sent.increment(chunk.size() - failures);
+            log.warn("Failed to send {} of {} throttled emails: {}", failures, chunk.size(), e.getMessage());
+            return failures;
+        } catch (Exception e) {
+            failed.increment(chunk.size());
+            log.warn("Failed to send {} throttled emails: {}", chunk.size(), e.getMessage());
+            return chunk.size();
+        }
+    }
+
+    /**
+     * Block until the bucket holds the given number of tokens (at most burst), then take them
+     */
+    void acquire(int permits) throws InterruptedException {
+        int needed = Math.min(permits, burst);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                tokens = Math.min(burst, tokens + (now - refilledAt) * permitsPerNano);
+                refilledAt = now;
+                if (tokens >= needed) {
+                    tokens -= needed;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((needed - tokens) / permitsPerNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.springboot.service;
+
+import com.example.springboot.config.VirtualThreads;
+import com.example.springboot.repository.RequestReadMemo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * TicketEnrichmentExecutor - Runs the per-ticket lookups of a ticket list concurrently
+ *
+ * Each ticket's passenger/seat/flight reads block on Firestore, so a customer with many
+ * tickets used to wait for them one ticket after another. On platform threads the work
+ * runs on a small shared pool; when that is busy the request thread enriches the ticket
+ * itself. Under the virtual-threads profile every ticket gets its own virtual thread,
+ * up to max-concurrency at a time.
+ *
+ * Not exposed as an Executor bean: that would make Spring Boot drop its
+ * applicationTaskExecutor (see AsyncConfig).
+ */
+@Component
+public class TicketEnrichmentExecutor {
+
+    private final Executor executor;
+
+    public TicketEnrichmentExecutor(
+            @Value("${app.booking.enrichment.threads:8}") int threads,
+            @Value("${app.booking.enrichment.max-concurrency:256}") int maxConcurrency,
+            @Value("${" + VirtualThreads.PROPERTY + ":false}") boolean virtualThreads) {
+        if (virtualThreads && VirtualThreads.supported()) {
+            executor = VirtualThreads.executor("ticket-enrichment-", maxConcurrency);
+            return;
+        }
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                Math.max(1, threads), Math.max(1, threads), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, threads) * 4),
+                new CustomizableThreadFactory("ticket-enrichment-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    /**
+     * Run task for every item and wait until all of them have finished; the tasks share
+     * the caller's RequestReadMemo
+     */
+    public <T> void forEach(List<T> items, Consumer<T> task) {
+        if (items.size() <= 1) {
+            items.forEach(task);
+            return;
+        }
+        CompletableFuture.allOf(items.stream()
+                .map(item -> CompletableFuture.runAsync(
+                        RequestReadMemo.propagate(() -> task.accept(item)), executor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.springboot.service;
+
+import com.example.springboot.repository.EmailVerificationTokenRepository;
+import com.example.springboot.repository.PasswordResetTokenRepository;
+import com.example.springboot.repository.RefreshTokenRepository;
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TokenHashMigrationService - Moves legacy token documents to SHA-256(token) IDs.
+ *
+ * Walks each token collection one page at a time (only documents that still carry a
+ * raw "token" field match the query), rewrites every document under its hash ID
+ * without the raw token and deletes the original in the same batch. Runs once in the
+ * background after startup; it is idempotent, so every instance may run it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenHashMigrationService {
+
+    // Two writes (set + delete) per document; Firestore batches cap at 500
+    private static final int MAX_PAGE_SIZE = 250;
+
+    private final Firestore firestore;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final PasswordResetTokenRepository passwordResetTokenRepository;
+    private final EmailVerificationTokenRepository emailVerificationTokenRepository;
+
+    @Value("${app.token-migration.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.token-migration.page-size:200}")
+    private int pageSize = 200;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!enabled) {
+            log.info("Token hash migration disabled");
+            return;
+        }
+        Thread worker = new Thread(this::migrateAll, "token-hash-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void migrateAll() {
+        if (migrate(RefreshTokenRepository.COLLECTION_NAME)) {
+            refreshTokenRepository.disableLegacyLookup();
+        }
+        if (migrate(PasswordResetTokenRepository.COLLECTION_NAME)) {
+            passwordResetTokenRepository.disableLegacyLookup();
+        }
+        if (migrate(EmailVerificationTokenRepository.COLLECTION_NAME)) {
+            emailVerificationTokenRepository.disableLegacyLookup();
+        }
+    }
+
+    /**
+     * @return true once no legacy documents remain in the collection
+     */
+    boolean migrate(String collectionName) {
+        try {
+            int migrated = migrateCollection(collectionName);
+            log.info("Migrated {} legacy documents in {}", migrated, collectionName);
+            return true;
+        } catch (Exception e) {
+            log.error("Token hash migration failed for {}: {}", collectionName, e.getMessage());
+            return false;
+        }
+    }
+
+    private int migrateCollection(String collectionName) throws Exception {
+        CollectionReference collection = firestore.collection(collectionName);
+        int limit = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        int migrated = 0;
+        DocumentSnapshot cursor = null;
+
+        while (true) {
+            // orderBy("token") only matches documents that still have the raw token field
+            Query page = collection.orderBy("token").limit(limit);
+            if (cursor != null) {
+                page = page.startAfter(cursor);
+            }
+            List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+            if (documents.isEmpty()) {
+                return migrated;
+            }
+
+            WriteBatch batch = firestore.batch();
+            for (QueryDocumentSnapshot document : documents) {
+                String rawToken = document.getString("token");
+                if (rawToken == null || rawToken.isEmpty()) {
+                    continue;
+                }
+                String tokenHash = TokenHashUtil.sha256Hex(rawToken);
+
+                Map<String, Object> data = new HashMap<>(document.getData());
+                data.remove("token");
+                data.put("id", tokenHash);
+                data.put("tokenHash", tokenHash);
+
+                batch.set(collection.document(tokenHash), data);
+                if (!document.getId().equals(tokenHash)) {
+                    batch.delete(document.getReference());
+                }
+                migrated++;
+            }
+            batch.commit().get();
+
+            if (documents.size() < limit) {
+                return migrated;
+            }
+            cursor = documents.get(documents.size() - 1);
+        }
+    }
+}
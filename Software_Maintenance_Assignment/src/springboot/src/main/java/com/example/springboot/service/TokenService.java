@@ -1,7 +1,14 @@
 package com.example.springboot.service;
 
 // import com.example.springboot.domain.entity.RefreshToken;
+import com.example.springboot.dto.response.JWTResponseDTO;
+import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.repository.RefreshTokenRepository;
+import com.example.springboot.security.jwt.JwtPrincipal;
+import com.example.springboot.security.jwt.JwtTokenProvider;
+import com.example.springboot.security.jwt.TokenFamilyRegistry;
+import com.example.springboot.security.jwt.TokenRevocationRegistry;
+import com.example.springboot.utils.TokenHashUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,14 +21,59 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class TokenService {
     
+    private static final String REFRESH_TOKEN_TYPE = "refresh";
+    
     private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final TokenRevocationRegistry revocationRegistry;
+    private final TokenFamilyRegistry tokenFamilyRegistry;
     
     public void revokeToken(String token) {
         try {
+            // Record in the revocation set first so the token stops working immediately
+            jwtTokenProvider.parseToken(token).ifPresent(principal -> {
+                revocationRegistry.revoke(TokenHashUtil.sha256Hex(token), principal.getExpiresAtMillis());
+                // Ends the whole session, including its refresh token
+                tokenFamilyRegistry.revokeFamily(principal.getFamilyId(), jwtTokenProvider.nextRefreshExpiryMillis());
+            });
+            jwtTokenProvider.evictToken(token);
+
             refreshTokenRepository.revokeToken(token);
             log.info("Token revoked successfully");
         } catch (Exception e) {
             log.error("Failed to revoke token: {}", e.getMessage());
         }
     }
+    
+    /**
+     * Exchange a refresh token for a new access/refresh pair (one-time use).
+     * Replaying an already rotated refresh token revokes the whole session.
+     */
+    public JWTResponseDTO refreshTokens(String refreshToken) {
+        JwtPrincipal principal = jwtTokenProvider.parseToken(refreshToken)
+            .filter(p -> REFRESH_TOKEN_TYPE.equals(p.getTokenType()))
+            .orElseThrow(() -> new InvalidCredentialsException("Invalid or expired refresh token"));
+        
+        if (principal.getFamilyId() == 0) {
+            throw new InvalidCredentialsException("Refresh token cannot be rotated, please log in again");
+        }
+        
+        long newExpiresAt = jwtTokenProvider.nextRefreshExpiryMillis();
+        TokenFamilyRegistry.Outcome outcome = tokenFamilyRegistry.rotate(
+            principal.getFamilyId(), principal.getGeneration(), newExpiresAt);
+        
+        switch (outcome) {
+            case ROTATED:
+                jwtTokenProvider.evictToken(refreshToken);
+                log.info("Refresh token rotated for user: {}", principal.getUserId());
+                return jwtTokenProvider.generateTokens(
+                    principal.getUserId(), principal.getEmail(), principal.getRole(),
+                    principal.getFamilyId(), principal.getGeneration() + 1);
+            case REUSED:
+                log.warn("Refresh token reuse for user {}, session revoked", principal.getUserId());
+                throw new InvalidCredentialsException("Refresh token has already been used, please log in again");
+            default:
+                throw new InvalidCredentialsException("Session is no longer valid, please log in again");
+        }
+    }
 }
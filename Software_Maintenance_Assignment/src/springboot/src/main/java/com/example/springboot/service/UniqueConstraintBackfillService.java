@@ -0,0 +1,113 @@
+package com.example.springboot.service;
+
+import com.example.springboot.repository.UniqueConstraintRepository;
+import com.example.springboot.repository.UserRepository;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * UniqueConstraintBackfillService - Reserves the unique values of records created before
+ * the unique collection existed
+ *
+ * Pages through customers (email, phone number, IC number) and active flights (Flight ID)
+ * and reserves each value for its record. Values already held by an earlier record are
+ * logged and left with that record. When done it records a marker, which switches the
+ * exists-checks from field queries to reservation lookups on this and later starts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UniqueConstraintBackfillService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final Firestore firestore;
+    private final UniqueConstraintRepository uniqueConstraintRepository;
+
+    @Value("${app.unique-constraints.backfill-enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.unique-constraints.page-size:300}")
+    private int pageSize = 300;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled) {
+            log.info("Unique constraint backfill disabled");
+            return;
+        }
+        Thread worker = new Thread(this::backfillAll, "unique-constraint-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void backfillAll() {
+        if (uniqueConstraintRepository.isBackfilled()) {
+            log.debug("Unique constraints already backfilled");
+            return;
+        }
+        try {
+            int customers = backfill(firestore.collection(UserRepository.COLLECTION_NAME)
+                            .select("email", "phoneNumber", "custIcNo"),
+                    document -> UserRepository.uniqueValues(document.getString("email"),
+                            document.getString("phoneNumber"), document.getString("custIcNo")),
+                    UserRepository::ownerOf);
+            int flights = backfill(firestore.collection(FlightService.COLLECTION_NAME)
+                            .whereEqualTo("status", "ACTIVE")
+                            .select("flightId"),
+                    document -> document.getString("flightId") != null
+                            ? Map.of("flightId", document.getString("flightId"))
+                            : Map.of(),
+                    FlightService::ownerOf);
+            uniqueConstraintRepository.markBackfilled();
+            log.info("Unique constraint backfill complete: {} customers, {} flights", customers, flights);
+        } catch (Exception e) {
+            // Exists-checks keep using field queries; retried on next start
+            log.error("Unique constraint backfill failed: {}", e.getMessage());
+        }
+    }
+
+    int backfill(Query source, Function<DocumentSnapshot, Map<String, String>> values,
+                 Function<String, String> owner) throws Exception {
+        int limit = Math.min(Math.max(pageSize, 1), MAX_PAGE_SIZE);
+        int reserved = 0;
+        DocumentSnapshot cursor = null;
+
+        while (true) {
+            Query page = source.orderBy(FieldPath.documentId()).limit(limit);
+            if (cursor != null) {
+                page = page.startAfter(cursor);
+            }
+            List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+            if (documents.isEmpty()) {
+                return reserved;
+            }
+
+            for (QueryDocumentSnapshot document : documents) {
+                Map<String, String> recordValues = values.apply(document);
+                if (!recordValues.isEmpty()) {
+                    uniqueConstraintRepository.reserveExisting(owner.apply(document.getId()), recordValues);
+                    reserved++;
+                }
+            }
+
+            if (documents.size() < limit) {
+                return reserved;
+            }
+            cursor = documents.get(documents.size() - 1);
+        }
+    }
+}
@@ -8,10 +8,12 @@ import com.example.springboot.dto.response.AdminProfileDTO;
 import com.example.springboot.dto.response.MessageResponseDTO;
 import com.example.springboot.dto.response.SuperadminProfileDTO;
 import com.example.springboot.dto.response.UserProfileDTO;
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.exception.UnauthorizedException;
 import com.example.springboot.exception.UserNotFoundException;
 import com.example.springboot.repository.AdminRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.repository.SuperadminRepository;
 import com.example.springboot.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +38,7 @@ public class UserManagementService {
     private final AdminRepository adminRepository;
     private final SuperadminRepository superadminRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalEmailIndexRepository principalEmailIndexRepository;
     
     /**
      * Get current user's profile (for User role)
@@ -279,15 +282,23 @@ public AdminProfileDTO getCurrentAdminProfile() {
                 user.setName(fullName);
             }
             
+            boolean phoneChanged = false;
             if (phoneNumber != null && !phoneNumber.isEmpty()) {
                 if (userRepository.existsByPhoneNumber(phoneNumber) && 
                     !phoneNumber.equals(user.getPhoneNumber())) {
                     throw new IllegalArgumentException("Phone number already in use");
                 }
+                phoneChanged = !phoneNumber.equals(user.getPhoneNumber());
                 user.setPhoneNumber(phoneNumber);
             }
             
-            User updatedUser = userRepository.save(user);
+            // A new phone number moves its uniqueness reservation in the same write
+            User updatedUser;
+            try {
+                updatedUser = phoneChanged ? userRepository.update(user) : userRepository.save(user);
+            } catch (DuplicateResourceException e) {
+                throw new IllegalArgumentException("Phone number already in use");
+            }
             
             log.info("Profile updated for user ID: {}", userId);
             
@@ -327,11 +338,11 @@ public AdminProfileDTO getCurrentAdminProfile() {
             
             log.info("Deleting account for user ID: {}", userId);
             
-            if (userRepository.findById(userId).isEmpty()) {
-                throw new UserNotFoundException("User not found");
-            }
+            User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
             
             userRepository.deleteById(userId);
+            principalEmailIndexRepository.deleteByEmail(user.getEmail());
             
             log.info("Account deleted for user ID: {}", userId);
             
@@ -9,6 +9,7 @@ import com.example.springboot.dto.request.SocialLoginRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
 import com.example.springboot.dto.response.JWTResponseDTO;
 import com.example.springboot.exception.InvalidCredentialsException;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.repository.UserRepository;
 import com.example.springboot.security.jwt.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,7 @@ public class GoogleAuthStrategy implements AuthStrategy {
     private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalEmailIndexRepository principalEmailIndexRepository;
     
     @Override
     public AuthResponseDTO authenticate(Object credentials, String recaptchaToken) {
@@ -124,7 +126,9 @@ public class GoogleAuthStrategy implements AuthStrategy {
             .mfaEnabled(false)
             .build();
         
-        return userRepository.save(newUser);
+        // The index entry commits with the account, as in EmailRegisterStrategy
+        return userRepository.create(newUser, transaction ->
+            principalEmailIndexRepository.save(transaction, newUser.getEmail(), Role.USER, newUser.getCustId()));
     }
     
     @Override
@@ -8,6 +8,7 @@ import com.example.springboot.dto.response.AuthResponseDTO;
 import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.exception.UnauthorizedException;
 import com.example.springboot.repository.AdminRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.service.MFAService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +28,7 @@ public class AdminRegisterStrategy implements RegisterStrategy {
     private final PasswordEncoder passwordEncoder;
     private final MFAService mfaService;
     private final RecaptchaAdapter recaptchaAdapter;
+    private final PrincipalEmailIndexRepository principalEmailIndexRepository;
     
     @Override
     public AuthResponseDTO register(Object registrationData, String recaptchaToken) {
@@ -70,7 +72,9 @@ public class AdminRegisterStrategy implements RegisterStrategy {
                 .createdBy(superadminId)
                 .build();
                 
-            Admin savedAdmin = adminRepository.save(newAdmin);
+            // The index entry commits with the account: a staff member without one could not sign in
+            Admin savedAdmin = adminRepository.create(newAdmin, transaction ->
+                principalEmailIndexRepository.save(transaction, newAdmin.getEmail(), Role.ADMIN, newAdmin.getStaffId()));
             
             log.info("Staff created successfully by Superadmin {}: {}", 
                 superadminId, savedAdmin.getEmail());
@@ -2,22 +2,35 @@ package com.example.springboot.strategy.registration;
 
 import com.example.springboot.adapter.firebase.FirebaseAdapter;
 import com.example.springboot.adapter.recaptcha.RecaptchaAdapter;
+import com.example.springboot.model.EmailVerificationToken;
 import com.example.springboot.model.User;
 import com.example.springboot.enums.AuthProvider;
 import com.example.springboot.enums.Role;
 import com.example.springboot.dto.request.UserRegisterRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.exception.InvalidCredentialsException;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.repository.UserRepository;
 import com.example.springboot.service.EmailService;
 import com.example.springboot.service.EmailVerificationTokenService;
+import com.example.springboot.service.RegistrationStepExecutor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
 /**
  * EmailRegisterStrategy - UPDATED with real email verification
+ *
+ * reCAPTCHA and the existence checks run concurrently under one time budget
+ * (RegistrationStepExecutor). Password hashing starts only once reCAPTCHA has passed, so
+ * a bot cannot make the server spend BCrypt time, and overlaps with whatever is left of
+ * the existence checks. The user, its verification token and its email index entry are
+ * then written in a single transaction.
  */
 @Slf4j
 @Component
@@ -30,26 +43,57 @@ public class EmailRegisterStrategy implements RegisterStrategy {
     private final EmailService emailService;  // NEW
     private final EmailVerificationTokenService tokenService;  // NEW
     private final FirebaseAdapter firebaseAdapter;
+    private final PrincipalEmailIndexRepository principalEmailIndexRepository;
+    private final RegistrationStepExecutor stepExecutor;
     
     @Override
     public AuthResponseDTO register(Object registrationData, String recaptchaToken) {
         try {
-            // Validate reCAPTCHA
-            if (!recaptchaAdapter.validateRecaptcha(recaptchaToken)) {
-                throw new InvalidCredentialsException("reCAPTCHA validation failed");
-            }
-            
             UserRegisterRequestDTO request = (UserRegisterRequestDTO) registrationData;
             log.info("User registration attempt for: {}", request.getEmail());
             
-            // Check if email already exists
-            if (userRepository.existsByEmail(request.getEmail())) {
-                throw new InvalidCredentialsException("Email already registered");
-            }
+            // reCAPTCHA and the existence checks are independent: run them together
+            long deadline = stepExecutor.newDeadline();
+            CompletableFuture<Boolean> captchaValid = stepExecutor.submit("recaptcha",
+                () -> recaptchaAdapter.validateRecaptcha(recaptchaToken));
+            CompletableFuture<Boolean> emailTaken = stepExecutor.submit("email_check",
+                () -> userRepository.existsByEmail(request.getEmail()));
+            CompletableFuture<Boolean> phoneTaken = stepExecutor.submit("phone_check",
+                () -> userRepository.existsByPhoneNumber(request.getPhoneNumber()));
+            CompletableFuture<String> passwordHash = null;
             
-            // Check if phone number already exists
-            if (userRepository.existsByPhoneNumber(request.getPhoneNumber())) {
-                throw new InvalidCredentialsException("Phone number already registered");
+            String encodedPassword;
+            try {
+                // Validate reCAPTCHA
+                if (!stepExecutor.await(captchaValid, deadline)) {
+                    throw new InvalidCredentialsException("reCAPTCHA validation failed");
+                }
+
+                // Only a human gets a hash; it runs while the existence checks finish
+                passwordHash = stepExecutor.submit("hash", () -> passwordEncoder.encode(request.getPassword()));
+                
+                // Check if email already exists
+                if (stepExecutor.await(emailTaken, deadline)) {
+                    throw new InvalidCredentialsException("Email already registered");
+                }
+                
+                // Check if phone number already exists
+                if (stepExecutor.await(phoneTaken, deadline)) {
+                    throw new InvalidCredentialsException("Phone number already registered");
+                }
+                
+                encodedPassword = stepExecutor.await(passwordHash, deadline);
+            } catch (TimeoutException e) {
+                log.warn("Registration checks for {} exceeded the time budget", request.getEmail());
+                throw new InvalidCredentialsException("Registration timed out, please try again");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InvalidCredentialsException("Registration interrupted");
+            } finally {
+                stepExecutor.cancel(captchaValid, emailTaken, phoneTaken);
+                if (passwordHash != null) {
+                    stepExecutor.cancel(passwordHash);
+                }
             }
 
             String firebaseUid;
@@ -71,7 +115,7 @@ public class EmailRegisterStrategy implements RegisterStrategy {
             User newUser = User.builder()
                 .custId(firebaseUid)              // Changed
                 .email(request.getEmail())
-                .custPassword(passwordEncoder.encode(request.getPassword())) // Changed
+                .custPassword(encodedPassword)    // Changed
                 .name(request.getName())          // Changed
                 .custIcNo(request.getCustIcNo())  // New
                 .gender(request.getGender())      // New
@@ -83,17 +127,24 @@ public class EmailRegisterStrategy implements RegisterStrategy {
                 .accountLocked(false)
                 .failedLoginAttempts(0)
                 .build();
-                
-            User savedUser = userRepository.save(newUser);
             
-            // Generate verification token
-            String verificationToken = tokenService.createVerificationToken(
-                savedUser.getCustId(), 
-                savedUser.getEmail()
-            );
+            // Verification token and email index entry are committed with the user
+            EmailVerificationToken verificationToken =
+                tokenService.newVerificationToken(firebaseUid, request.getEmail());
+                
+            User savedUser;
+            try {
+                // Reserves email, phone and IC atomically; only a concurrent registration gets here with a duplicate
+                savedUser = userRepository.create(newUser, transaction -> {
+                    tokenService.save(transaction, verificationToken);
+                    principalEmailIndexRepository.save(transaction, newUser.getEmail(), Role.USER, firebaseUid);
+                });
+            } catch (DuplicateResourceException e) {
+                throw new InvalidCredentialsException(duplicateMessage(e.getFieldName()));
+            }
             
             // Send verification email (async)
-            emailService.sendVerificationEmail(savedUser, verificationToken);
+            emailService.sendVerificationEmail(savedUser, verificationToken.getToken());
             
             log.info("User registered successfully: {}", savedUser.getEmail());
             
@@ -115,6 +166,16 @@ public class EmailRegisterStrategy implements RegisterStrategy {
         }
     }
     
+    private String duplicateMessage(String fieldName) {
+        if ("phoneNumber".equals(fieldName)) {
+            return "Phone number already registered";
+        }
+        if ("custIcNo".equals(fieldName)) {
+            return "IC number already registered";
+        }
+        return "Email already registered";
+    }
+    
     @Override
     public String getStrategyName() {
         return "EMAIL_USER_REGISTRATION";
@@ -0,0 +1,49 @@
+package com.example.springboot.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * ScratchPool - Small shared pool of reusable, non-thread-safe scratch objects
+ *
+ * Used instead of a ThreadLocal where callers may run on virtual threads: each
+ * virtual thread would get (and then drop) its own copy, so nothing is reused.
+ * A borrower takes an idle object or creates one, and hands it back when done;
+ * once the pool is full, returned objects are left to the garbage collector.
+ */
+public class ScratchPool<T> {
+
+    private final BlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    public ScratchPool(int capacity, Supplier<T> factory) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.factory = factory;
+    }
+
+    /**
+     * Enough idle objects for every CPU to be using one at once
+     */
+    public static int defaultCapacity() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public T borrow() {
+        T value = idle.poll();
+        return value != null ? value : factory.get();
+    }
+
+    /**
+     * Return an object for reuse; it must not be touched by the caller afterwards
+     */
+    public void release(T value) {
+        if (value != null) {
+            idle.offer(value);
+        }
+    }
+
+    int idleCount() {
+        return idle.size();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.springboot.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * TokenHashUtil - SHA-256 fingerprints of bearer tokens, for cache keys and storage lookups
+ */
+@UtilityClass
+public class TokenHashUtil {
+    
+    private static final HexFormat HEX = HexFormat.of();
+    
+    /**
+     * Lowercase hex SHA-256 of the token's UTF-8 bytes
+     */
+    public static String sha256Hex(String token) {
+        if (token == null) {
+            throw new IllegalArgumentException("Token cannot be null");
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.springboot;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Closed-loop load test for comparing the platform-thread and virtual-thread modes.
+ *
+ * Start the app once normally and once with --spring.profiles.active=virtual-threads
+ * (Java 21+), against the same Firestore project, and run this against each. Every step
+ * keeps the given number of clients busy for step-seconds and prints throughput, p50/p99
+ * latency and the error rate. The max sustainable RPS is the best step whose p99 stays
+ * within slo-ms with under 1% errors.
+ *
+ * mvn test-compile, then run main() with the test classpath, e.g.
+ *   --url=http://localhost:8081/api/tickets/customer/C001 --token=&lt;JWT&gt;
+ *   [--steps=16,32,64,128,256,512] [--step-seconds=30] [--slo-ms=500]
+ */
+public class ThreadingModeLoadGenerator {
+
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI url = URI.create(require(options, "url"));
+        String token = options.get("token");
+        int[] steps = Arrays.stream(options.getOrDefault("steps", "16,32,64,128,256,512").split(","))
+                .mapToInt(step -> Integer.parseInt(step.trim()))
+                .toArray();
+        long stepNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("step-seconds", "30")));
+        long sloMillis = Long.parseLong(options.getOrDefault("slo-ms", "500"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+        HttpRequest.Builder request = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(30)).GET();
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+
+        System.out.printf("%8s %10s %10s %10s %8s%n", "clients", "rps", "p50 ms", "p99 ms", "errors");
+        double sustainable = 0;
+        for (int clients : steps) {
+            StepResult result = runStep(client, request.build(), clients, stepNanos);
+            System.out.printf("%8d %10.1f %10.1f %10.1f %7.2f%%%n",
+                    clients, result.rps(), result.percentileMillis(0.50), result.percentileMillis(0.99),
+                    result.errorRate() * 100);
+            if (result.percentileMillis(0.99) <= sloMillis && result.errorRate() < MAX_ERROR_RATE) {
+                sustainable = Math.max(sustainable, result.rps());
+            }
+        }
+        System.out.printf("Max sustainable RPS (p99 <= %d ms, errors < 1%%): %.1f%n", sloMillis, sustainable);
+        System.exit(0);
+    }
+
+    private static StepResult runStep(HttpClient client, HttpRequest request, int clients, long stepNanos)
+            throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<long[]> latencies = new ArrayList<>();
+        List<int[]> errors = new ArrayList<>();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            long[] samples = new long[1 << 16];
+            int[] counts = new int[2];   // [0] samples taken, [1] errors
+            latencies.add(samples);
+            errors.add(counts);
+            workers.execute(() -> {
+                while (running.get()) {
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long latency = System.nanoTime() - sent;
+                    if (counts[0] < samples.length) {
+                        samples[counts[0]] = latency;
+                    }
+                    counts[0]++;
+                    if (!ok) {
+                        counts[1]++;
+                    }
+                }
+            });
+        }
+        TimeUnit.NANOSECONDS.sleep(stepNanos);
+        running.set(false);
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        int total = 0;
+        int failed = 0;
+        List<Long> all = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            int[] counts = errors.get(i);
+            total += counts[0];
+            failed += counts[1];
+            for (int s = 0; s < Math.min(counts[0], latencies.get(i).length); s++) {
+                all.add(latencies.get(i)[s]);
+            }
+        }
+        all.sort(null);
+        return new StepResult(total / seconds, total == 0 ? 0 : (double) failed / total, all);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static String require(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing --" + name + "=...");
+        }
+        return value;
+    }
+
+    private record StepResult(double rps, double errorRate, List<Long> sortedLatencies) {
+
+        double percentileMillis(double percentile) {
+            if (sortedLatencies.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedLatencies.size() - 1, Math.ceil(percentile * sortedLatencies.size()) - 1);
+            return sortedLatencies.get(Math.max(0, index)) / 1e6;
+        }
+    }
+}
@@ -199,6 +199,31 @@ class AuthControllerTest {
     // Logout
     // ==========================================
 
+    @Test
+    void testRefresh_Success() throws Exception {
+        RefreshTokenRequestDTO request = new RefreshTokenRequestDTO("refresh-token");
+        AuthResponseDTO response = AuthResponseDTO.builder().success(true).build();
+        when(authExecutionService.refreshTokens(any())).thenReturn(response);
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true));
+    }
+
+    @Test
+    void testRefresh_Rejected() throws Exception {
+        RefreshTokenRequestDTO request = new RefreshTokenRequestDTO("reused-token");
+        when(authExecutionService.refreshTokens(any())).thenThrow(new RuntimeException("Refresh token has already been used"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
     @Test
     void testLogout_Success() throws Exception {
         mockMvc.perform(post("/api/auth/logout")
@@ -0,0 +1,100 @@
+package com.example.springboot.controller;
+
+import com.example.springboot.dto.request.BoardingScanRequestDTO;
+import com.example.springboot.dto.response.BoardingScanResponseDTO;
+import com.example.springboot.service.BoardingScanService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for BoardingController
+ *
+ * Tests Module: Gate Boarding Module
+ * Coverage: Scan status mapping, flight preload
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Boarding Controller Tests")
+class BoardingControllerTest {
+
+    @Mock
+    private BoardingScanService boardingScanService;
+
+    @InjectMocks
+    private BoardingController boardingController;
+
+    @Test
+    void testScan_Boarded() {
+        when(boardingScanService.scan("REF1", "A1")).thenReturn(response(true, BoardingScanService.STATUS_BOARDED));
+
+        ResponseEntity<BoardingScanResponseDTO> result = boardingController.scan(new BoardingScanRequestDTO("REF1", "A1"));
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertTrue(result.getBody().getSuccess());
+    }
+
+    @Test
+    void testScan_AlreadyBoarded() {
+        when(boardingScanService.scan("REF1", "A1"))
+            .thenReturn(response(false, BoardingScanService.STATUS_ALREADY_BOARDED));
+
+        ResponseEntity<BoardingScanResponseDTO> result = boardingController.scan(new BoardingScanRequestDTO("REF1", "A1"));
+
+        assertEquals(HttpStatus.CONFLICT, result.getStatusCode());
+    }
+
+    @Test
+    void testScan_NotFound() {
+        when(boardingScanService.scan("NOPE", "A1")).thenReturn(response(false, BoardingScanService.STATUS_NOT_FOUND));
+
+        ResponseEntity<BoardingScanResponseDTO> result = boardingController.scan(new BoardingScanRequestDTO("NOPE", "A1"));
+
+        assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+    }
+
+    @Test
+    void testScan_LookupFailed() {
+        when(boardingScanService.scan("REF1", "A1")).thenReturn(response(false, BoardingScanService.STATUS_LOOKUP_FAILED));
+
+        ResponseEntity<BoardingScanResponseDTO> result = boardingController.scan(new BoardingScanRequestDTO("REF1", "A1"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+    }
+
+    @Test
+    void testPreloadFlight_Success() throws Exception {
+        when(boardingScanService.preloadFlight("F001")).thenReturn(42);
+
+        ResponseEntity<?> result = boardingController.preloadFlight("F001");
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(42, ((Map<?, ?>) result.getBody()).get("ticketsIndexed"));
+    }
+
+    @Test
+    void testPreloadFlight_NotFound() throws Exception {
+        when(boardingScanService.preloadFlight("F404")).thenThrow(new IllegalArgumentException("Flight not found: F404"));
+
+        ResponseEntity<?> result = boardingController.preloadFlight("F404");
+
+        assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+    }
+
+    private BoardingScanResponseDTO response(boolean success, String status) {
+        return BoardingScanResponseDTO.builder()
+            .success(success)
+            .status(status)
+            .bookingReference("REF1")
+            .build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.springboot.controller;
 
 import com.example.springboot.model.Flight;
+import com.example.springboot.dto.response.FlightNotificationProgressDTO;
+import com.example.springboot.service.FlightChangeNotificationService;
 import com.example.springboot.service.FlightService;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
 
@@ -37,6 +39,9 @@ class FlightRestControllerTest {
     @Mock
     private FlightService flightService;
 
+    @Mock
+    private FlightChangeNotificationService flightChangeNotificationService;
+
     @InjectMocks
     private FlightRestController flightController;
 
@@ -519,4 +524,18 @@ class FlightRestControllerTest {
         Map<String, Object> body = (Map<String, Object>) response.getBody();
         assertEquals(2, body.get("count"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetNotificationProgress() {
+        FlightNotificationProgressDTO progress = FlightNotificationProgressDTO.builder()
+                .jobId("job-1").flightId("F001").kind("CANCELLED").status("RUNNING").sent(12).build();
+        when(flightChangeNotificationService.getRecentJobs()).thenReturn(List.of(progress));
+
+        ResponseEntity<?> response = flightController.getNotificationProgress();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(true, body.get("success"));
+        assertEquals(List.of(progress), body.get("jobs"));
+    }
+}
@@ -2,6 +2,7 @@ package com.example.springboot.controller;
 
 import com.example.springboot.dto.response.MFAStatusDTO;
 import com.example.springboot.enums.Role;
+import com.example.springboot.exception.UserNotFoundException;
 import com.example.springboot.model.Admin;
 import com.example.springboot.model.Superadmin;
 import com.example.springboot.model.User;
@@ -29,6 +30,8 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -82,6 +85,27 @@ class MFAControllerTest {
                 .andExpect(jsonPath("$.data.secret").value("SECRET"));
     }
 
+    @Test
+    void testGetSetupQRCode_Success() throws Exception {
+        byte[] png = new byte[] {(byte) 0x89, 'P', 'N', 'G'};
+        when(mfaService.getSetupQRCode("user-id", Role.USER)).thenReturn(png);
+
+        mockMvc.perform(get("/api/mfa/setup/qr"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "image/png"))
+                .andExpect(header().string("Cache-Control", "no-store"))
+                .andExpect(content().bytes(png));
+    }
+
+    @Test
+    void testGetSetupQRCode_NoPendingSetup() throws Exception {
+        when(mfaService.getSetupQRCode("user-id", Role.USER))
+                .thenThrow(new UserNotFoundException("No pending MFA setup for this user"));
+
+        mockMvc.perform(get("/api/mfa/setup/qr"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testSetupMFA_Exception() throws Exception {
         when(mfaService.setupMFA(anyString(), any())).thenThrow(new RuntimeException("Setup failed"));
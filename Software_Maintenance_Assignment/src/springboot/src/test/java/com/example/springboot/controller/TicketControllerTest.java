@@ -2,6 +2,7 @@ package com.example.springboot.controller;
 
 import com.example.springboot.model.*;
 import com.example.springboot.service.BookingService;
+import com.example.springboot.service.FlightExportService;
 import com.example.springboot.service.TicketDocumentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,6 +35,9 @@ class TicketControllerTest {
     @Mock
     private TicketDocumentService ticketDocumentService;
 
+    @Mock
+    private FlightExportService flightExportService;
+
     @InjectMocks
     private TicketController ticketController;
 
@@ -362,4 +366,57 @@ class TicketControllerTest {
         List<Ticket> tickets = (List<Ticket>) ((Map<?, ?>) response.getBody()).get("tickets");
         assertNull(tickets.get(0).getFlightDetails());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testDownloadFlightBoardingPasses_Success() throws Exception {
+        // Arrange
+        when(flightExportService.loadFlightTickets("F001")).thenReturn(testTickets);
+
+        // Act
+        ResponseEntity<?> response = ticketController.downloadFlightBoardingPasses("F001");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/zip", response.getHeaders().getContentType().toString());
+        assertNotNull(response.getBody());
+    }
+
+    @Test
+    void testDownloadFlightBoardingPasses_FlightNotFound() throws Exception {
+        // Arrange
+        when(flightExportService.loadFlightTickets("F404"))
+                .thenThrow(new IllegalArgumentException("Flight not found: F404"));
+
+        // Act
+        ResponseEntity<?> response = ticketController.downloadFlightBoardingPasses("F404");
+
+        // Assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void testDownloadFlightManifest_Success() throws Exception {
+        // Arrange
+        when(flightExportService.loadFlightTickets("F001")).thenReturn(testTickets);
+
+        // Act
+        ResponseEntity<?> response = ticketController.downloadFlightManifest("F001");
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("text", response.getHeaders().getContentType().getType());
+        assertEquals("csv", response.getHeaders().getContentType().getSubtype());
+    }
+
+    @Test
+    void testDownloadFlightManifest_LoadFailure() throws Exception {
+        // Arrange
+        when(flightExportService.loadFlightTickets("F001")).thenThrow(new RuntimeException("Firestore down"));
+
+        // Act
+        ResponseEntity<?> response = ticketController.downloadFlightManifest("F001");
+
+        // Assert
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+}
@@ -5,15 +5,15 @@ import com.example.springboot.dto.response.AuthResponseDTO;
 import com.example.springboot.dto.response.JWTResponseDTO;
 import com.example.springboot.enums.Role;
 import com.example.springboot.exception.InvalidCredentialsException;
-import com.example.springboot.exception.RateLimitExceededException;
 import com.example.springboot.model.Admin;
+import com.example.springboot.model.PrincipalRef;
 import com.example.springboot.model.Superadmin;
 import com.example.springboot.model.User;
 import com.example.springboot.repository.AdminRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.repository.SuperadminRepository;
 import com.example.springboot.repository.UserRepository;
 import com.example.springboot.security.jwt.JwtTokenProvider;
-import com.example.springboot.security.ratelimit.RateLimiter;
 import com.example.springboot.service.MFAService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,7 +38,7 @@ class AuthServiceImplTest {
     @Mock private PasswordEncoder passwordEncoder;
     @Mock private JwtTokenProvider jwtTokenProvider;
     @Mock private MFAService mfaService;
-    @Mock private RateLimiter rateLimiter;
+    @Mock private PrincipalEmailIndexRepository principalEmailIndexRepository;
 
     @InjectMocks
     private AuthServiceImpl authService;
@@ -52,23 +52,105 @@ class AuthServiceImplTest {
         loginRequest.setPassword("password");
     }
 
-    @Test
-    void testRateLimitBlocked() {
-        when(rateLimiter.isBlocked("test@test.com")).thenReturn(true);
-        when(rateLimiter.getBlockTimeRemaining("test@test.com")).thenReturn(60L);
-
-        assertThrows(RateLimitExceededException.class, () -> authService.performAuthentication(loginRequest));
-    }
-
     @Test
     void testUserNotFound() {
-        when(rateLimiter.isBlocked(any())).thenReturn(false);
         when(userRepository.findByEmail(any())).thenReturn(Optional.empty());
         when(adminRepository.findByEmail(any())).thenReturn(Optional.empty());
         when(superadminRepository.findByEmail(any())).thenReturn(Optional.empty());
 
         assertThrows(InvalidCredentialsException.class, () -> authService.performAuthentication(loginRequest));
-        verify(rateLimiter).recordFailedAttempt("test@test.com");
+    }
+
+    // --- EMAIL INDEX ---
+
+    @Test
+    void testIndexHit_SingleGet() {
+        User user = new User();
+        user.setCustId("U1");
+        user.setEmail("Test@Test.com");
+        user.setCustPassword("encodedPass");
+        user.setAccountLocked(false);
+        user.setEmailVerified(true);
+        user.setMfaEnabled(false);
+
+        when(principalEmailIndexRepository.findByEmail("test@test.com"))
+            .thenReturn(Optional.of(new PrincipalRef("test@test.com", Role.USER, "U1")));
+        when(userRepository.findById("U1")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("password", "encodedPass")).thenReturn(true);
+        when(jwtTokenProvider.generateTokens("U1", "Test@Test.com", Role.USER)).thenReturn(new JWTResponseDTO());
+
+        AuthResponseDTO response = authService.performAuthentication(loginRequest);
+
+        assertTrue(response.getSuccess());
+        verify(userRepository, never()).findByEmail(any());
+        verifyNoInteractions(adminRepository, superadminRepository);
+    }
+
+    @Test
+    void testIndexStale_FallsBackAndRepairs() {
+        Admin admin = new Admin();
+        admin.setStaffId("A1");
+        admin.setEmail("test@test.com");
+        admin.setAccountLocked(true);
+
+        // Index still points at a deleted customer
+        when(principalEmailIndexRepository.findByEmail("test@test.com"))
+            .thenReturn(Optional.of(new PrincipalRef("test@test.com", Role.USER, "gone")));
+        when(userRepository.findById("gone")).thenReturn(Optional.empty());
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.empty());
+        when(adminRepository.findByEmail("test@test.com")).thenReturn(Optional.of(admin));
+
+        assertThrows(InvalidCredentialsException.class, () -> authService.performAuthentication(loginRequest));
+
+        verify(principalEmailIndexRepository).evict("test@test.com");
+        verify(principalEmailIndexRepository).save("test@test.com", Role.ADMIN, "A1");
+    }
+
+    @Test
+    void testIndexMiss_AfterBackfill_OnlySuperadminsScanned() {
+        when(principalEmailIndexRepository.findByEmail("test@test.com")).thenReturn(Optional.empty());
+        when(principalEmailIndexRepository.isBackfilled()).thenReturn(true);
+        when(superadminRepository.findByEmail("test@test.com")).thenReturn(Optional.empty());
+
+        assertThrows(InvalidCredentialsException.class, () -> authService.performAuthentication(loginRequest));
+
+        verifyNoInteractions(userRepository, adminRepository);
+    }
+
+    @Test
+    void testIndexMiss_AfterBackfill_SeededSuperadminIndexed() {
+        Superadmin sa = new Superadmin();
+        sa.setId("SA1");
+        sa.setEmail("test@test.com");
+        sa.setPassword("encoded");
+        sa.setAccountLocked(true);
+
+        when(principalEmailIndexRepository.findByEmail("test@test.com")).thenReturn(Optional.empty());
+        when(principalEmailIndexRepository.isBackfilled()).thenReturn(true);
+        when(superadminRepository.findByEmail("test@test.com")).thenReturn(Optional.of(sa));
+
+        assertThrows(InvalidCredentialsException.class, () -> authService.performAuthentication(loginRequest));
+
+        verify(principalEmailIndexRepository).save("test@test.com", Role.SUPERADMIN, "SA1");
+        verifyNoInteractions(userRepository, adminRepository);
+    }
+
+    @Test
+    void testIndexLookupFails_ScansCollections() {
+        Admin admin = new Admin();
+        admin.setStaffId("A1");
+        admin.setEmail("test@test.com");
+        admin.setAccountLocked(true);
+
+        when(principalEmailIndexRepository.findByEmail("test@test.com"))
+            .thenThrow(new IllegalStateException("Firestore down"));
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.empty());
+        when(adminRepository.findByEmail("test@test.com")).thenReturn(Optional.of(admin));
+
+        assertThrows(InvalidCredentialsException.class, () -> authService.performAuthentication(loginRequest));
+
+        verify(adminRepository).findByEmail("test@test.com");
+        verify(principalEmailIndexRepository, never()).isBackfilled();
     }
 
     // --- USER SCENARIOS ---
@@ -91,7 +173,6 @@ class AuthServiceImplTest {
 
         assertTrue(response.getSuccess());
         verify(userRepository).save(user); // Updates last login
-        verify(rateLimiter).clearAttempts("test@test.com");
     }
 
     @Test
@@ -2,8 +2,10 @@ package com.example.springboot.decorator;
 
 import com.example.springboot.dto.request.LoginRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
+import com.example.springboot.dto.response.JWTResponseDTO;
+import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.exception.RateLimitExceededException;
-import com.example.springboot.security.ratelimit.LoginAttemptService;
+import com.example.springboot.security.ratelimit.RateLimiter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Qualifier;
 
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
@@ -26,7 +29,7 @@ class RateLimitedAuthServiceTest {
     private AuthServiceComponent baseAuthService;
 
     @Mock
-    private LoginAttemptService loginAttemptService;
+    private RateLimiter rateLimiter;
 
     private RateLimitedAuthService rateLimitedAuthService;
 
@@ -35,48 +38,78 @@ class RateLimitedAuthServiceTest {
     @BeforeEach
     void setUp() {
         // Constructing manually to control injection
-        rateLimitedAuthService = new RateLimitedAuthService(baseAuthService, loginAttemptService);
+        rateLimitedAuthService = new RateLimitedAuthService(baseAuthService, rateLimiter);
         
         request = new LoginRequestDTO();
         request.setEmail("test@test.com");
     }
 
     @Test
-    @DisplayName("Should block request if LoginAttemptService says blocked")
+    @DisplayName("Should block request if RateLimiter says blocked")
     void testPerformAuthentication_Blocked() {
-        when(loginAttemptService.isBlocked("test@test.com")).thenReturn(true);
+        when(rateLimiter.isBlocked("test@test.com")).thenReturn(true);
+        when(rateLimiter.getBlockTimeRemaining("test@test.com")).thenReturn(60L);
 
-        assertThrows(RateLimitExceededException.class, () -> 
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class, () -> 
             rateLimitedAuthService.performAuthentication(request)
         );
 
+        assertTrue(e.getMessage().contains("60 seconds"));
         verify(baseAuthService, never()).performAuthentication(any());
     }
 
     @Test
     @DisplayName("Should call base service and record success")
     void testPerformAuthentication_Success() {
-        when(loginAttemptService.isBlocked(anyString())).thenReturn(false);
+        when(rateLimiter.isBlocked(anyString())).thenReturn(false);
         
-        AuthResponseDTO successResponse = AuthResponseDTO.builder().success(true).build();
+        AuthResponseDTO successResponse = AuthResponseDTO.builder().success(true).tokens(new JWTResponseDTO()).build();
         when(baseAuthService.performAuthentication(request)).thenReturn(successResponse);
 
         AuthResponseDTO result = rateLimitedAuthService.performAuthentication(request);
 
         assertTrue(result.getSuccess());
-        verify(loginAttemptService).loginSucceeded("test@test.com");
+        verify(rateLimiter).clearAttempts("test@test.com");
     }
 
     @Test
-    @DisplayName("Should record failure when base service throws exception")
+    @DisplayName("Should keep the count while an MFA code is still required")
+    void testPerformAuthentication_MfaRequired() {
+        when(rateLimiter.isBlocked(anyString())).thenReturn(false);
+        
+        AuthResponseDTO mfaResponse = AuthResponseDTO.builder().success(false).build();
+        when(baseAuthService.performAuthentication(request)).thenReturn(mfaResponse);
+
+        AuthResponseDTO result = rateLimitedAuthService.performAuthentication(request);
+
+        assertFalse(result.getSuccess());
+        verify(rateLimiter, never()).clearAttempts(anyString());
+        verify(rateLimiter, never()).recordFailedAttempt(anyString());
+    }
+
+    @Test
+    @DisplayName("Should record failure when base service rejects the credentials")
     void testPerformAuthentication_Failure() {
-        when(loginAttemptService.isBlocked(anyString())).thenReturn(false);
-        when(baseAuthService.performAuthentication(request)).thenThrow(new RuntimeException("Auth failed"));
+        when(rateLimiter.isBlocked(anyString())).thenReturn(false);
+        when(baseAuthService.performAuthentication(request)).thenThrow(new InvalidCredentialsException("Invalid email or password"));
+
+        assertThrows(InvalidCredentialsException.class, () -> 
+            rateLimitedAuthService.performAuthentication(request)
+        );
+
+        verify(rateLimiter).recordFailedAttempt("test@test.com");
+    }
+
+    @Test
+    @DisplayName("Should not count a failure that is not about the credentials")
+    void testPerformAuthentication_OutageNotCounted() {
+        when(rateLimiter.isBlocked(anyString())).thenReturn(false);
+        when(baseAuthService.performAuthentication(request)).thenThrow(new IllegalStateException("Firestore down"));
 
-        assertThrows(RuntimeException.class, () -> 
+        assertThrows(IllegalStateException.class, () -> 
             rateLimitedAuthService.performAuthentication(request)
         );
 
-        verify(loginAttemptService).loginFailed("test@test.com");
+        verify(rateLimiter, never()).recordFailedAttempt(anyString());
     }
 }
\ No newline at end of file
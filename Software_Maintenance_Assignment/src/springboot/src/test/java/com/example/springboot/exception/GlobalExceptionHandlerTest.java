@@ -19,6 +19,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -79,6 +80,16 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.error").value("Too Many Requests"));
     }
 
+    // --- 4b. Test Password Hashing Saturated (503) ---
+    @Test
+    void handlePasswordHashingUnavailable_ShouldReturnServiceUnavailable() throws Exception {
+        mockMvc.perform(get("/test/hashing-busy"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+    }
+
     // --- 5. Test Method Not Supported (405) ---
     @Test
     void handleMethodNotSupported_ShouldReturnMethodNotAllowed() throws Exception {
@@ -116,6 +127,15 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.message").value("Email taken"));
     }
 
+    // --- 8b. Test Duplicate Resource (409) ---
+    @Test
+    void handleDuplicateResource_ShouldReturnConflict() throws Exception {
+        mockMvc.perform(get("/test/duplicate"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.message").value("A record with this phoneNumber already exists"));
+    }
+
     // --- 9. Test MFA Validation Exception (401) ---
     @Test
     void handleMFAValidation_ShouldReturnUnauthorized() throws Exception {
@@ -187,6 +207,11 @@ class GlobalExceptionHandlerTest {
             throw new RateLimitExceededException("Too slow");
         }
 
+        @GetMapping("/hashing-busy")
+        public void hashingBusy() {
+            throw new PasswordHashingUnavailableException("Busy", 3);
+        }
+
         @GetMapping("/user-not-found")
         public void userNotFound() {
             throw new UserNotFoundException("User missing");
@@ -202,6 +227,11 @@ class GlobalExceptionHandlerTest {
             throw new EmailAlreadyExistsException("Email taken");
         }
 
+        @GetMapping("/duplicate")
+        public void duplicate() {
+            throw new DuplicateResourceException("Customer", "phoneNumber", "0123456789");
+        }
+
         @GetMapping("/mfa-fail")
         public void mfaFail() {
             throw new MFAValidationException("Bad OTP");
@@ -0,0 +1,17 @@
+package com.example.springboot.exception;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingUnavailableExceptionTest {
+
+    @Test
+    void testConstructorWithMessageAndRetryAfter() {
+        PasswordHashingUnavailableException exception =
+            new PasswordHashingUnavailableException("Service is busy", 5);
+
+        assertEquals("Service is busy", exception.getMessage());
+        assertEquals(5, exception.getRetryAfterSeconds());
+        assertNull(exception.getCause());
+    }
+}
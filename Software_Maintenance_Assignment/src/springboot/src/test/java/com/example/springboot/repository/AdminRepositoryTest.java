@@ -4,6 +4,7 @@ import com.example.springboot.enums.Gender;
 import com.example.springboot.enums.Role;
 import com.example.springboot.model.Admin;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,7 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +25,7 @@ import java.util.concurrent.ExecutionException;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -128,6 +131,42 @@ class AdminRepositoryTest {
         assertThrows(RuntimeException.class, () -> adminRepository.save(admin));
     }
 
+    // --- Create Tests ---
+
+    @Test
+    void testCreate_WritesAccountAndExtraWritesInOneTransaction() throws Exception {
+        // Arrange
+        Transaction transaction = mock(Transaction.class);
+        when(firestore.collection("staff")).thenReturn(collectionReference);
+        when(collectionReference.document("admin123")).thenReturn(documentReference);
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<Void> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+        List<Transaction> extraWrites = new ArrayList<>();
+
+        // Act
+        Admin created = adminRepository.create(admin, extraWrites::add);
+
+        // Assert
+        assertEquals("admin123", created.getStaffId());
+        verify(transaction).create(eq(documentReference), anyMap());
+        assertEquals(List.of(transaction), extraWrites);
+        verify(documentReference, never()).set(anyMap());
+    }
+
+    @Test
+    void testCreate_Failure() {
+        // Arrange: the transaction fails, so neither the account nor the extra writes commit
+        when(firestore.collection("staff")).thenReturn(collectionReference);
+        when(collectionReference.document("admin123")).thenReturn(documentReference);
+        when(firestore.runTransaction(any(Transaction.Function.class)))
+                .thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("Firestore error")));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> adminRepository.create(admin, transaction -> { }));
+    }
+
     // --- Find By ID Tests ---
 
     @Test
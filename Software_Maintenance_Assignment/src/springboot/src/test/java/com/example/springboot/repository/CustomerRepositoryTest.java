@@ -1,8 +1,10 @@
 package com.example.springboot.repository;
 
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.generator.CustomerIdGenerator;
 import com.example.springboot.model.Customer;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
@@ -46,6 +49,15 @@ class CustomerRepositoryTest {
     @Mock
     private DocumentSnapshot documentSnapshot;
 
+    @Mock
+    private UniqueConstraintRepository uniqueConstraintRepository;
+
+    @Mock
+    private Transaction transaction;
+
+    @Mock
+    private UniqueValueFilter uniqueValueFilter;
+
     @InjectMocks
     private CustomerRepository customerRepository;
 
@@ -59,39 +71,68 @@ class CustomerRepositoryTest {
 
         when(firestore.collection("customers")).thenReturn(collectionReference);
         when(collectionReference.document(anyString())).thenReturn(documentReference);
+        when(uniqueConstraintRepository.isLegacyCheckEnabled()).thenReturn(true);
+        when(uniqueValueFilter.mightContain(anyString(), any())).thenReturn(true);
+
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<Void> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+        when(transaction.get(any(DocumentReference.class))).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
     }
 
     @Test
-    void testSave_NewCustomer_GeneratesId() throws ExecutionException, InterruptedException {
+    void testSave_NewCustomer_GeneratesId() throws Exception {
         customer.setCustId(null);
         when(idGenerator.generateId()).thenReturn("C001");
-        when(documentReference.set(any(Customer.class), any(SetOptions.class))).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(null);
 
         Customer savedCustomer = customerRepository.save(customer);
 
         assertEquals("C001", savedCustomer.getCustId());
         verify(idGenerator).generateId();
-        verify(documentReference).set(customer, SetOptions.merge());
+        verify(uniqueConstraintRepository).reserve(transaction, "Customer", "customers/C001",
+                Map.of("email", "test@example.com"));
+        verify(transaction).set(documentReference, customer, SetOptions.merge());        verify(uniqueValueFilter).putAll("test@example.com", null, null);
     }
 
     @Test
-    void testSave_ExistingCustomer_UsesId() throws ExecutionException, InterruptedException {
+    void testSave_ExistingCustomer_UsesId() throws Exception {
         customer.setCustId("C002");
-        when(documentReference.set(any(Customer.class), any(SetOptions.class))).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(null);
 
         Customer savedCustomer = customerRepository.save(customer);
 
         assertEquals("C002", savedCustomer.getCustId());
         verify(idGenerator, never()).generateId();
-        verify(documentReference).set(customer, SetOptions.merge());
+        verify(transaction).set(documentReference, customer, SetOptions.merge());
+    }
+
+    @Test
+    void testSave_ChangedEmail_ReleasesOldValue() throws Exception {
+        customer.setCustId("C002");
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getString("email")).thenReturn("old@example.com");
+
+        customerRepository.save(customer);
+
+        verify(uniqueConstraintRepository).release(transaction, Map.of("email", "old@example.com"));
+    }
+
+    @Test
+    void testSave_DuplicateValue_NotWritten() throws Exception {
+        customer.setCustId("C003");
+        doThrow(new DuplicateResourceException("Customer", "email", "test@example.com"))
+                .when(uniqueConstraintRepository).reserve(any(), anyString(), anyString(), anyMap());
+
+        DuplicateResourceException ex = assertThrows(DuplicateResourceException.class,
+                () -> customerRepository.save(customer));
+
+        assertEquals("email", ex.getFieldName());
+        verify(transaction, never()).set(any(DocumentReference.class), any(Customer.class), any(SetOptions.class));
     }
 
     @Test
     void testFindById_Found() throws ExecutionException, InterruptedException {
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(true);
         when(documentSnapshot.toObject(Customer.class)).thenReturn(customer);
         when(documentSnapshot.getId()).thenReturn("C001");
@@ -104,8 +145,7 @@ class CustomerRepositoryTest {
 
     @Test
     void testFindById_NotFound() throws ExecutionException, InterruptedException {
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(false);
 
         Optional<Customer> result = customerRepository.findById("C001");
@@ -113,6 +153,31 @@ class CustomerRepositoryTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void testFindByIdAsync() throws Exception {
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.toObject(Customer.class)).thenReturn(customer);
+        when(documentSnapshot.getId()).thenReturn("C001");
+
+        Optional<Customer> result = customerRepository.findByIdAsync("C001").get();
+
+        assertTrue(result.isPresent());
+        assertEquals("C001", result.get().getCustId());
+    }
+
+    @Test
+    void testFindByEmailAsync_NotFound() throws Exception {
+        Query query = mock(Query.class);
+        QuerySnapshot querySnapshot = mock(QuerySnapshot.class);
+        when(firestore.collection("customers")).thenReturn(collectionReference);
+        when(collectionReference.whereEqualTo("email", "none@example.com")).thenReturn(query);
+        when(query.get()).thenReturn(ApiFutures.immediateFuture(querySnapshot));
+        when(querySnapshot.getDocuments()).thenReturn(java.util.Collections.emptyList());
+
+        assertFalse(customerRepository.findByEmailAsync("none@example.com").get().isPresent());
+    }
+
     @Test
     void testFindAll() throws ExecutionException, InterruptedException {
         ApiFuture<QuerySnapshot> querySnapshotFuture = mock(ApiFuture.class);
@@ -157,14 +222,12 @@ class CustomerRepositoryTest {
     @Test
     void testFindByEmail() throws ExecutionException, InterruptedException {
         Query query = mock(Query.class);
-        ApiFuture<QuerySnapshot> querySnapshotFuture = mock(ApiFuture.class);
         QuerySnapshot querySnapshot = mock(QuerySnapshot.class);
         QueryDocumentSnapshot queryDocumentSnapshot = mock(QueryDocumentSnapshot.class);
 
         when(firestore.collection("customers")).thenReturn(collectionReference);
         when(collectionReference.whereEqualTo("email", "test@example.com")).thenReturn(query);
-        when(query.get()).thenReturn(querySnapshotFuture);
-        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
+        when(query.get()).thenReturn(ApiFutures.immediateFuture(querySnapshot));
         when(querySnapshot.getDocuments()).thenReturn(java.util.Collections.singletonList(queryDocumentSnapshot));
         when(queryDocumentSnapshot.toObject(Customer.class)).thenReturn(customer);
         when(queryDocumentSnapshot.getId()).thenReturn("C001");
@@ -218,14 +281,12 @@ class CustomerRepositoryTest {
     @Test
     void testExistsByEmail() throws ExecutionException, InterruptedException {
         Query query = mock(Query.class);
-        ApiFuture<QuerySnapshot> querySnapshotFuture = mock(ApiFuture.class);
         QuerySnapshot querySnapshot = mock(QuerySnapshot.class);
         QueryDocumentSnapshot queryDocumentSnapshot = mock(QueryDocumentSnapshot.class);
 
         when(firestore.collection("customers")).thenReturn(collectionReference);
         when(collectionReference.whereEqualTo("email", "test@example.com")).thenReturn(query);
-        when(query.get()).thenReturn(querySnapshotFuture);
-        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
+        when(query.get()).thenReturn(ApiFutures.immediateFuture(querySnapshot));
         when(querySnapshot.getDocuments()).thenReturn(java.util.Collections.singletonList(queryDocumentSnapshot));
         when(queryDocumentSnapshot.toObject(Customer.class)).thenReturn(customer);
 
@@ -253,6 +314,15 @@ class CustomerRepositoryTest {
         assertTrue(exists);
     }
 
+    @Test
+    void testExistsByPhoneNumber_FilterNegative() throws ExecutionException, InterruptedException {
+        when(uniqueValueFilter.mightContain("phoneNumber", "0199999999")).thenReturn(false);
+
+        assertFalse(customerRepository.existsByPhoneNumber("0199999999"));
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+        verify(uniqueConstraintRepository, never()).isReserved(anyString(), any());
+    }
+
     @Test
     void testExistsByCustPassword() throws ExecutionException, InterruptedException {
         Query query = mock(Query.class);
@@ -271,14 +341,24 @@ class CustomerRepositoryTest {
         assertTrue(exists);
     }
 
+    @Test
+    void testExistsByEmail_Reserved() throws ExecutionException, InterruptedException {
+        when(uniqueConstraintRepository.isLegacyCheckEnabled()).thenReturn(false);
+        when(uniqueConstraintRepository.isReserved("email", "test@example.com")).thenReturn(true);
+
+        assertTrue(customerRepository.existsByEmail("test@example.com"));
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
     @Test
     void testDeleteById() throws ExecutionException, InterruptedException {
-        when(documentReference.delete()).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(null);
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getString("phoneNumber")).thenReturn("0123456789");
 
         customerRepository.deleteById("C001");
 
-        verify(documentReference).delete();
+        verify(uniqueConstraintRepository).release(transaction, Map.of("phoneNumber", "0123456789"));
+        verify(transaction).delete(documentReference);
     }
 
     @Test
@@ -298,8 +378,7 @@ class CustomerRepositoryTest {
 
     @Test
     void testExistsById() throws ExecutionException, InterruptedException {
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(true);
         when(documentSnapshot.toObject(Customer.class)).thenReturn(customer);
 
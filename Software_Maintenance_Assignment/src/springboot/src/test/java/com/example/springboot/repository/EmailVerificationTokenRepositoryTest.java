@@ -1,22 +1,27 @@
 package com.example.springboot.repository;
 
 import com.example.springboot.model.EmailVerificationToken;
+import com.example.springboot.utils.TokenHashUtil;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +51,12 @@ class EmailVerificationTokenRepositoryTest {
     @Mock
     private QueryDocumentSnapshot queryDocumentSnapshot;
 
+    @Mock
+    private ApiFuture<DocumentSnapshot> documentSnapshotFuture;
+
+    @Mock
+    private DocumentSnapshot documentSnapshot;
+
     @InjectMocks
     private EmailVerificationTokenRepository repository;
 
@@ -65,17 +76,35 @@ class EmailVerificationTokenRepositoryTest {
     @Test
     void testSave_NewToken() throws ExecutionException, InterruptedException {
         token.setId(null);
+        String hash = TokenHashUtil.sha256Hex("verify-uuid");
         when(firestore.collection("email_verification_tokens")).thenReturn(collectionReference);
-        when(collectionReference.document()).thenReturn(documentReference);
-        when(documentReference.getId()).thenReturn("generatedId");
-        when(collectionReference.document("generatedId")).thenReturn(documentReference);
+        when(collectionReference.document(hash)).thenReturn(documentReference);
         when(documentReference.set(anyMap())).thenReturn(writeResultFuture);
         when(writeResultFuture.get()).thenReturn(null);
 
         EmailVerificationToken saved = repository.save(token);
 
-        assertEquals("generatedId", saved.getId());
-        verify(documentReference).set(anyMap());
+        assertEquals(hash, saved.getId());
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(documentReference).set(captor.capture());
+        assertEquals(hash, captor.getValue().get("tokenHash"));
+        assertFalse(captor.getValue().containsKey("token"));
+    }
+
+    @Test
+    void testSave_LegacyDocumentMovedToHashId() throws ExecutionException, InterruptedException {
+        String hash = TokenHashUtil.sha256Hex("verify-uuid");
+        DocumentReference legacyRef = mock(DocumentReference.class);
+        when(firestore.collection("email_verification_tokens")).thenReturn(collectionReference);
+        when(collectionReference.document(hash)).thenReturn(documentReference);
+        when(collectionReference.document("verifyDocId")).thenReturn(legacyRef);
+        when(documentReference.set(anyMap())).thenReturn(writeResultFuture);
+        when(legacyRef.delete()).thenReturn(writeResultFuture);
+
+        EmailVerificationToken saved = repository.save(token);
+
+        assertEquals(hash, saved.getId());
+        verify(legacyRef).delete();
     }
 
     @Test
@@ -87,6 +116,7 @@ class EmailVerificationTokenRepositoryTest {
     @Test
     void testFindByToken_Found() throws ExecutionException, InterruptedException {
         when(firestore.collection("email_verification_tokens")).thenReturn(collectionReference);
+        mockDirectGet("verify-uuid", false);
         when(collectionReference.whereEqualTo("token", "verify-uuid")).thenReturn(query);
         when(query.limit(1)).thenReturn(query);
         when(query.get()).thenReturn(querySnapshotFuture);
@@ -105,6 +135,7 @@ class EmailVerificationTokenRepositoryTest {
     @Test
     void testFindByToken_NotFound() throws ExecutionException, InterruptedException {
         when(firestore.collection("email_verification_tokens")).thenReturn(collectionReference);
+        mockDirectGet("invalid", false);
         when(collectionReference.whereEqualTo("token", "invalid")).thenReturn(query);
         when(query.limit(1)).thenReturn(query);
         when(query.get()).thenReturn(querySnapshotFuture);
@@ -125,9 +156,40 @@ class EmailVerificationTokenRepositoryTest {
         assertFalse(result.isPresent()); // The code explicitly catches Exception and returns Optional.empty()
     }
 
+    @Test
+    void testFindByToken_DirectGet() throws ExecutionException, InterruptedException {
+        when(firestore.collection("email_verification_tokens")).thenReturn(collectionReference);
+        mockDirectGet("verify-uuid", true);
+        mockDocumentData(documentSnapshot);
+
+        Optional<EmailVerificationToken> result = repository.findByToken("verify-uuid");
+
+        assertTrue(result.isPresent());
+        assertEquals("verify-uuid", result.get().getToken());
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
+    @Test
+    void testFindByToken_LegacyLookupDisabled() throws ExecutionException, InterruptedException {
+        when(firestore.collection("email_verification_tokens")).thenReturn(collectionReference);
+        mockDirectGet("verify-uuid", false);
+        repository.disableLegacyLookup();
+
+        Optional<EmailVerificationToken> result = repository.findByToken("verify-uuid");
+
+        assertFalse(result.isPresent());
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
+    private void mockDirectGet(String rawToken, boolean exists) throws ExecutionException, InterruptedException {
+        when(collectionReference.document(TokenHashUtil.sha256Hex(rawToken))).thenReturn(documentReference);
+        when(documentReference.get()).thenReturn(documentSnapshotFuture);
+        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentSnapshot.exists()).thenReturn(exists);
+    }
+
     private void mockDocumentData(DocumentSnapshot snapshot) {
         when(snapshot.getId()).thenReturn("verifyDocId");
-        when(snapshot.getString("token")).thenReturn("verify-uuid");
         when(snapshot.getString("userId")).thenReturn("user123");
         when(snapshot.getString("email")).thenReturn("test@test.com");
         when(snapshot.getString("expiryDate")).thenReturn(LocalDateTime.now().plusHours(24).toString());
@@ -0,0 +1,73 @@
+package com.example.springboot.repository;
+
+import com.google.api.core.SettableApiFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for FirestoreFutures
+ *
+ * Tests Module: Repository - async Firestore access
+ * Coverage: completion, failure, cancellation, failures while starting a call
+ */
+class FirestoreFuturesTest {
+
+    @Test
+    @DisplayName("Completes when the ApiFuture completes")
+    void testToCompletable_Success() throws Exception {
+        SettableApiFuture<String> apiFuture = SettableApiFuture.create();
+
+        CompletableFuture<String> future = FirestoreFutures.toCompletable(apiFuture);
+
+        assertFalse(future.isDone());
+        apiFuture.set("done");
+        assertEquals("done", future.get());
+    }
+
+    @Test
+    @DisplayName("Fails with the ApiFuture's cause")
+    void testToCompletable_Failure() {
+        SettableApiFuture<String> apiFuture = SettableApiFuture.create();
+        CompletableFuture<String> future = FirestoreFutures.toCompletable(apiFuture);
+
+        apiFuture.setException(new IllegalStateException("unavailable"));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    @DisplayName("Cancelling the CompletableFuture cancels the Firestore call")
+    void testToCompletable_CancelPropagates() {
+        SettableApiFuture<String> apiFuture = SettableApiFuture.create();
+        CompletableFuture<String> future = FirestoreFutures.toCompletable(apiFuture);
+
+        future.cancel(true);
+
+        assertTrue(apiFuture.isCancelled());
+    }
+
+    @Test
+    @DisplayName("An exception while starting the call fails the future")
+    void testCall_StartFailure() {
+        CompletableFuture<String> future = FirestoreFutures.call(() -> {
+            throw new IllegalArgumentException("bad path");
+        });
+
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    @DisplayName("A started call is adapted")
+    void testCall_Success() throws Exception {
+        SettableApiFuture<String> apiFuture = SettableApiFuture.create();
+        apiFuture.set("value");
+
+        assertEquals("value", FirestoreFutures.call(() -> apiFuture).get());
+    }
+}
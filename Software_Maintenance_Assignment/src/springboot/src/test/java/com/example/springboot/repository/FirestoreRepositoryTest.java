@@ -1,6 +1,8 @@
 package com.example.springboot.repository;
 
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,11 +36,7 @@ class FirestoreRepositoryTest {
     @Mock
     private DocumentReference documentReference;
 
-    @Mock
-    private ApiFuture<WriteResult> writeResultFuture;
-
-    @Mock
-    private ApiFuture<DocumentSnapshot> documentSnapshotFuture;
+    private final ApiFuture<WriteResult> writeResultFuture = ApiFutures.immediateFuture(null);
 
     @Mock
     private DocumentSnapshot documentSnapshot;
@@ -66,7 +67,6 @@ class FirestoreRepositoryTest {
         Object data = new Object();
         when(documentReference.getId()).thenReturn(DOC_ID);
         when(documentReference.set(data)).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(null);
 
         String resultId = firestoreRepository.save(COLLECTION_NAME, data);
 
@@ -92,7 +92,6 @@ class FirestoreRepositoryTest {
     void testSaveWithId() throws ExecutionException, InterruptedException {
         Object data = new Object();
         when(documentReference.set(data)).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(null);
 
         firestoreRepository.saveWithId(COLLECTION_NAME, DOC_ID, data);
 
@@ -115,8 +114,7 @@ class FirestoreRepositoryTest {
 
     @Test
     void testFindById_Found() throws Exception {
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(true);
         when(documentSnapshot.toObject(String.class)).thenReturn("FoundData");
 
@@ -127,8 +125,7 @@ class FirestoreRepositoryTest {
 
     @Test
     void testFindById_NotFound() throws Exception {
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(false);
 
         String result = firestoreRepository.findById(COLLECTION_NAME, DOC_ID, String.class);
@@ -139,7 +136,6 @@ class FirestoreRepositoryTest {
     @Test
     void testUpdateField() throws ExecutionException, InterruptedException {
         when(documentReference.update(anyString(), any())).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(null);
 
         firestoreRepository.updateField(COLLECTION_NAME, DOC_ID, "fieldName", "value");
 
@@ -166,4 +162,138 @@ class FirestoreRepositoryTest {
         assertEquals(query, result);
         verify(collectionReference).whereEqualTo("field", "value");
     }
+
+    @Test
+    void testSaveAsync_CompletesWithGeneratedId() throws Exception {
+        Object data = new Object();
+        SettableApiFuture<WriteResult> pending = SettableApiFuture.create();
+        when(documentReference.getId()).thenReturn(DOC_ID);
+        when(documentReference.set(data)).thenReturn(pending);
+
+        CompletableFuture<String> result = firestoreRepository.saveAsync(COLLECTION_NAME, data);
+
+        assertFalse(result.isDone(), "Should not wait for Firestore");
+        pending.set(null);
+        assertEquals(DOC_ID, result.get());
+    }
+
+    @Test
+    void testFindByIdAsync_FailureCompletesExceptionally() {
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFailedFuture(new IllegalStateException("unavailable")));
+
+        CompletableFuture<String> result = firestoreRepository.findByIdAsync(COLLECTION_NAME, DOC_ID, String.class);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+    }
+
+    @Test
+    void testFindByIdAsync_ComposesIndependentReads() throws Exception {
+        DocumentReference otherReference = mock(DocumentReference.class);
+        DocumentSnapshot otherSnapshot = mock(DocumentSnapshot.class);
+        SettableApiFuture<DocumentSnapshot> first = SettableApiFuture.create();
+        SettableApiFuture<DocumentSnapshot> second = SettableApiFuture.create();
+        when(collectionReference.document("other")).thenReturn(otherReference);
+        when(documentReference.get()).thenReturn(first);
+        when(otherReference.get()).thenReturn(second);
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.toObject(String.class)).thenReturn("A");
+        when(otherSnapshot.exists()).thenReturn(true);
+        when(otherSnapshot.toObject(String.class)).thenReturn("B");
+
+        CompletableFuture<String> combined = firestoreRepository.findByIdAsync(COLLECTION_NAME, DOC_ID, String.class)
+                .thenCombine(firestoreRepository.findByIdAsync(COLLECTION_NAME, "other", String.class), String::concat);
+
+        // Both reads are in flight before either completes
+        verify(documentReference).get();
+        verify(otherReference).get();
+        second.set(otherSnapshot);
+        first.set(documentSnapshot);
+        assertEquals("AB", combined.get());
+    }
+
+    @Test
+    void testFindAllByIds_SkipsMissingDocuments() throws Exception {
+        DocumentSnapshot missing = mock(DocumentSnapshot.class);
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getId()).thenReturn(DOC_ID);
+        when(documentSnapshot.toObject(String.class)).thenReturn("FoundData");
+        when(missing.exists()).thenReturn(false);
+        when(firestore.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(documentSnapshot, missing)));
+
+        Map<String, String> result = firestoreRepository.findAllByIds(COLLECTION_NAME, List.of(DOC_ID, "missing", DOC_ID), String.class);
+
+        assertEquals(Map.of(DOC_ID, "FoundData"), result);
+        verify(firestore, times(1)).getAll(any(DocumentReference[].class));
+    }
+
+    @Test
+    void testUpdateFieldAsync_StartFailureCompletesExceptionally() {
+        when(documentReference.update(anyString(), any())).thenThrow(new IllegalArgumentException("bad field"));
+
+        CompletableFuture<Void> result = firestoreRepository.updateFieldAsync(COLLECTION_NAME, DOC_ID, "fieldName", "value");
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    void testGetCollectionByFieldAsync() throws Exception {
+        QuerySnapshot querySnapshot = mock(QuerySnapshot.class);
+        when(collectionReference.whereEqualTo("field", "value")).thenReturn(query);
+        when(query.get()).thenReturn(ApiFutures.immediateFuture(querySnapshot));
+
+        assertSame(querySnapshot, firestoreRepository.getCollectionByFieldAsync(COLLECTION_NAME, "field", "value").get());
+    }
+
+    @Test
+    void testFindById_RepeatedReadsInOneRequestAreMemoized() throws Exception {
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.toObject(String.class)).thenReturn("FoundData");
+
+        RequestReadMemo memo = RequestReadMemo.open();
+        try {
+            assertEquals("FoundData", firestoreRepository.findById(COLLECTION_NAME, DOC_ID, String.class));
+            assertEquals("FoundData", firestoreRepository.findById(COLLECTION_NAME, DOC_ID, String.class));
+            assertEquals(1, memo.hits());
+        } finally {
+            memo.close();
+        }
+        verify(documentReference, times(1)).get();
+    }
+
+    @Test
+    void testUpdateField_InvalidatesMemoizedReads() throws Exception {
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
+        when(documentReference.update(anyString(), any())).thenReturn(writeResultFuture);
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.toObject(String.class)).thenReturn("FoundData");
+
+        RequestReadMemo memo = RequestReadMemo.open();
+        try {
+            firestoreRepository.findById(COLLECTION_NAME, DOC_ID, String.class);
+            firestoreRepository.updateField(COLLECTION_NAME, DOC_ID, "fieldName", "value");
+            firestoreRepository.findById(COLLECTION_NAME, DOC_ID, String.class);
+        } finally {
+            memo.close();
+        }
+        verify(documentReference, times(2)).get();
+    }
+
+    @Test
+    void testFindByField_MemoizedPerRequest() throws Exception {
+        QuerySnapshot querySnapshot = mock(QuerySnapshot.class);
+        when(collectionReference.whereEqualTo("field", "value")).thenReturn(query);
+        when(query.get()).thenReturn(ApiFutures.immediateFuture(querySnapshot));
+
+        RequestReadMemo memo = RequestReadMemo.open();
+        try {
+            assertSame(querySnapshot, firestoreRepository.findByField(COLLECTION_NAME, "field", "value"));
+            assertSame(querySnapshot, firestoreRepository.findByField(COLLECTION_NAME, "field", "value"));
+        } finally {
+            memo.close();
+        }
+        verify(query, times(1)).get();
+    }
 }
@@ -18,6 +18,7 @@ import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -176,6 +177,45 @@ class MFASecretRepositoryTest {
         assertTrue(mfaSecretRepository.existsByUserIdAndUserRole("user123", Role.USER));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCompareAndSetBackupCodes_Matches_Updates() throws Exception {
+        Transaction transaction = stubTransaction("sha256:salt:a,b");
+
+        assertTrue(mfaSecretRepository.compareAndSetBackupCodes("secret123", "sha256:salt:a,b", "sha256:salt:b"));
+
+        verify(transaction).update(documentReference, "backupCodes", "sha256:salt:b");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCompareAndSetBackupCodes_ChangedConcurrently_NoUpdate() throws Exception {
+        Transaction transaction = stubTransaction("sha256:salt:b");
+
+        assertFalse(mfaSecretRepository.compareAndSetBackupCodes("secret123", "sha256:salt:a,b", "sha256:salt:b"));
+
+        verify(transaction, never()).update(any(DocumentReference.class), anyString(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Transaction stubTransaction(String currentBackupCodes) throws Exception {
+        Transaction transaction = mock(Transaction.class);
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        ApiFuture<DocumentSnapshot> snapshotFuture = mock(ApiFuture.class);
+
+        when(firestore.collection("mfa_secrets")).thenReturn(collectionReference);
+        when(collectionReference.document("secret123")).thenReturn(documentReference);
+        when(transaction.get(documentReference)).thenReturn(snapshotFuture);
+        when(snapshotFuture.get()).thenReturn(snapshot);
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getString("backupCodes")).thenReturn(currentBackupCodes);
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<Boolean> function = invocation.getArgument(0);
+            return com.google.api.core.ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+        return transaction;
+    }
+
     private void mockDocumentData(DocumentSnapshot snapshot) {
         when(snapshot.getId()).thenReturn("secret123");
         when(snapshot.getString("userId")).thenReturn("user123");
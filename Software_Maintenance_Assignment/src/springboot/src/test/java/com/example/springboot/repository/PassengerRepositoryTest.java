@@ -3,6 +3,8 @@ package com.example.springboot.repository;
 import com.example.springboot.generator.PassengerIdGenerator;
 import com.example.springboot.model.Passenger;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,7 @@ import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,9 +43,6 @@ class PassengerRepositoryTest {
     @Mock
     private ApiFuture<WriteResult> writeResultFuture;
 
-    @Mock
-    private ApiFuture<DocumentSnapshot> documentSnapshotFuture;
-
     @Mock
     private DocumentSnapshot documentSnapshot;
 
@@ -90,8 +90,7 @@ class PassengerRepositoryTest {
 
     @Test
     void testFindById_Found() throws ExecutionException, InterruptedException {
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(true);
         when(documentSnapshot.toObject(Passenger.class)).thenReturn(passenger);
 
@@ -103,8 +102,7 @@ class PassengerRepositoryTest {
 
     @Test
     void testFindById_NotFound() throws ExecutionException, InterruptedException {
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(false);
 
         Optional<Passenger> result = passengerRepository.findById("P001");
@@ -112,6 +110,20 @@ class PassengerRepositoryTest {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void testFindByIdAsync_DoesNotBlock() throws ExecutionException, InterruptedException {
+        SettableApiFuture<DocumentSnapshot> pending = SettableApiFuture.create();
+        when(documentReference.get()).thenReturn(pending);
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.toObject(Passenger.class)).thenReturn(passenger);
+
+        CompletableFuture<Optional<Passenger>> result = passengerRepository.findByIdAsync("P001");
+
+        assertFalse(result.isDone());
+        pending.set(documentSnapshot);
+        assertEquals(Optional.of(passenger), result.get());
+    }
+
     @Test
     void testFindAll() throws ExecutionException, InterruptedException {
         ApiFuture<QuerySnapshot> querySnapshotFuture = mock(ApiFuture.class);
@@ -215,8 +227,7 @@ class PassengerRepositoryTest {
 
     @Test
     void testExistsById() throws ExecutionException, InterruptedException {
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(true);
         when(documentSnapshot.toObject(Passenger.class)).thenReturn(passenger);
 
@@ -2,22 +2,27 @@ package com.example.springboot.repository;
 
 import com.example.springboot.enums.Role;
 import com.example.springboot.model.PasswordResetToken;
+import com.example.springboot.utils.TokenHashUtil;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -47,6 +52,12 @@ class PasswordResetTokenRepositoryTest {
     @Mock
     private QueryDocumentSnapshot queryDocumentSnapshot;
 
+    @Mock
+    private ApiFuture<DocumentSnapshot> documentSnapshotFuture;
+
+    @Mock
+    private DocumentSnapshot documentSnapshot;
+
     @InjectMocks
     private PasswordResetTokenRepository repository;
 
@@ -67,16 +78,35 @@ class PasswordResetTokenRepositoryTest {
     @Test
     void testSave_NewToken() throws ExecutionException, InterruptedException {
         token.setId(null);
+        String hash = TokenHashUtil.sha256Hex("reset-uuid");
         when(firestore.collection("password_reset_tokens")).thenReturn(collectionReference);
-        when(collectionReference.document()).thenReturn(documentReference);
-        when(documentReference.getId()).thenReturn("generatedId");
-        when(collectionReference.document("generatedId")).thenReturn(documentReference);
+        when(collectionReference.document(hash)).thenReturn(documentReference);
         when(documentReference.set(anyMap())).thenReturn(writeResultFuture);
         when(writeResultFuture.get()).thenReturn(null);
 
         PasswordResetToken saved = repository.save(token);
 
-        assertEquals("generatedId", saved.getId());
+        assertEquals(hash, saved.getId());
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(documentReference).set(captor.capture());
+        assertEquals(hash, captor.getValue().get("tokenHash"));
+        assertFalse(captor.getValue().containsKey("token"));
+    }
+
+    @Test
+    void testSave_LegacyDocumentMovedToHashId() throws ExecutionException, InterruptedException {
+        String hash = TokenHashUtil.sha256Hex("reset-uuid");
+        DocumentReference legacyRef = mock(DocumentReference.class);
+        when(firestore.collection("password_reset_tokens")).thenReturn(collectionReference);
+        when(collectionReference.document(hash)).thenReturn(documentReference);
+        when(collectionReference.document("tokenDocId")).thenReturn(legacyRef);
+        when(documentReference.set(anyMap())).thenReturn(writeResultFuture);
+        when(legacyRef.delete()).thenReturn(writeResultFuture);
+
+        PasswordResetToken saved = repository.save(token);
+
+        assertEquals(hash, saved.getId());
+        verify(legacyRef).delete();
     }
 
     @Test
@@ -88,6 +118,7 @@ class PasswordResetTokenRepositoryTest {
     @Test
     void testFindByToken_Found() throws ExecutionException, InterruptedException {
         when(firestore.collection("password_reset_tokens")).thenReturn(collectionReference);
+        mockDirectGet("reset-uuid", false);
         when(collectionReference.whereEqualTo("token", "reset-uuid")).thenReturn(query);
         when(query.limit(1)).thenReturn(query);
         when(query.get()).thenReturn(querySnapshotFuture);
@@ -105,6 +136,7 @@ class PasswordResetTokenRepositoryTest {
     @Test
     void testFindByToken_NotFound() throws ExecutionException, InterruptedException {
         when(firestore.collection("password_reset_tokens")).thenReturn(collectionReference);
+        mockDirectGet("invalid-token", false);
         when(collectionReference.whereEqualTo("token", "invalid-token")).thenReturn(query);
         when(query.limit(1)).thenReturn(query);
         when(query.get()).thenReturn(querySnapshotFuture);
@@ -119,6 +151,7 @@ class PasswordResetTokenRepositoryTest {
     @Test
     void testRoleFallback_InvalidRole() throws ExecutionException, InterruptedException {
         when(firestore.collection("password_reset_tokens")).thenReturn(collectionReference);
+        mockDirectGet("reset-uuid", false);
         when(collectionReference.whereEqualTo("token", "reset-uuid")).thenReturn(query);
         when(query.limit(1)).thenReturn(query);
         when(query.get()).thenReturn(querySnapshotFuture);
@@ -135,9 +168,40 @@ class PasswordResetTokenRepositoryTest {
         assertEquals(Role.USER, result.get().getUserRole()); // Default behavior
     }
 
+    @Test
+    void testFindByToken_DirectGet() throws ExecutionException, InterruptedException {
+        when(firestore.collection("password_reset_tokens")).thenReturn(collectionReference);
+        mockDirectGet("reset-uuid", true);
+        mockDocumentData(documentSnapshot);
+
+        Optional<PasswordResetToken> result = repository.findByToken("reset-uuid");
+
+        assertTrue(result.isPresent());
+        assertEquals("reset-uuid", result.get().getToken());
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
+    @Test
+    void testFindByToken_LegacyLookupDisabled() throws ExecutionException, InterruptedException {
+        when(firestore.collection("password_reset_tokens")).thenReturn(collectionReference);
+        mockDirectGet("reset-uuid", false);
+        repository.disableLegacyLookup();
+
+        Optional<PasswordResetToken> result = repository.findByToken("reset-uuid");
+
+        assertFalse(result.isPresent());
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
+    private void mockDirectGet(String rawToken, boolean exists) throws ExecutionException, InterruptedException {
+        when(collectionReference.document(TokenHashUtil.sha256Hex(rawToken))).thenReturn(documentReference);
+        when(documentReference.get()).thenReturn(documentSnapshotFuture);
+        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentSnapshot.exists()).thenReturn(exists);
+    }
+
     private void mockDocumentData(DocumentSnapshot snapshot) {
         when(snapshot.getId()).thenReturn("tokenDocId");
-        when(snapshot.getString("token")).thenReturn("reset-uuid");
         when(snapshot.getString("userId")).thenReturn("user123");
         when(snapshot.getString("userRole")).thenReturn("USER");
         when(snapshot.getString("email")).thenReturn("test@test.com");
@@ -0,0 +1,156 @@
+package com.example.springboot.repository;
+
+import com.example.springboot.enums.Role;
+import com.example.springboot.model.PrincipalRef;
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for PrincipalEmailIndexRepository
+ *
+ * Tests Module: Authentication - email to principal index
+ * Coverage: normalized hashed document IDs, single-get lookup, cache hits, failed reads and writes,
+ *           cached backfill marker
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PrincipalEmailIndexRepositoryTest {
+
+    private static final String DOC_ID = TokenHashUtil.sha256Hex("user@example.com");
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference collectionReference;
+    @Mock private DocumentReference documentReference;
+    @Mock private ApiFuture<DocumentSnapshot> documentFuture;
+    @Mock private DocumentSnapshot documentSnapshot;
+
+    @InjectMocks
+    private PrincipalEmailIndexRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(firestore.collection(PrincipalEmailIndexRepository.COLLECTION_NAME)).thenReturn(collectionReference);
+        when(collectionReference.document(DOC_ID)).thenReturn(documentReference);
+        when(documentReference.get()).thenReturn(documentFuture);
+        when(documentFuture.get()).thenReturn(documentSnapshot);
+        when(documentSnapshot.getString("email")).thenReturn("user@example.com");
+        when(documentSnapshot.getString("role")).thenReturn("ADMIN");
+        when(documentSnapshot.getString("principalId")).thenReturn("staff-1");
+    }
+
+    @Test
+    @DisplayName("Find - Normalized email resolves with one document get")
+    void testFindByEmail_Found() {
+        when(documentSnapshot.exists()).thenReturn(true);
+
+        Optional<PrincipalRef> result = repository.findByEmail("  User@Example.COM ");
+
+        assertTrue(result.isPresent());
+        assertEquals(Role.ADMIN, result.get().getRole());
+        assertEquals("staff-1", result.get().getPrincipalId());
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Find - Hits are served from the cache")
+    void testFindByEmail_Cached() {
+        when(documentSnapshot.exists()).thenReturn(true);
+
+        repository.findByEmail("user@example.com");
+        repository.findByEmail("user@example.com");
+
+        verify(documentReference, times(1)).get();
+    }
+
+    @Test
+    @DisplayName("Find - Misses are not cached")
+    void testFindByEmail_NotFound() {
+        when(documentSnapshot.exists()).thenReturn(false);
+
+        assertTrue(repository.findByEmail("user@example.com").isEmpty());
+        assertTrue(repository.findByEmail("user@example.com").isEmpty());
+
+        verify(documentReference, times(2)).get();
+    }
+
+    @Test
+    @DisplayName("Find - Failed read throws instead of reporting a miss")
+    void testFindByEmail_Failure() throws Exception {
+        when(documentFuture.get()).thenThrow(new ExecutionException(new RuntimeException("Firestore down")));
+
+        assertThrows(IllegalStateException.class, () -> repository.findByEmail("user@example.com"));
+    }
+
+    @Test
+    @DisplayName("Backfill marker - Read once seen, then served from memory")
+    @SuppressWarnings("unchecked")
+    void testIsBackfilled_Cached() throws Exception {
+        DocumentReference markerReference = mock(DocumentReference.class);
+        DocumentSnapshot marker = mock(DocumentSnapshot.class);
+        when(collectionReference.document("_backfill")).thenReturn(markerReference);
+        when(markerReference.get()).thenReturn(ApiFutures.immediateFuture(marker));
+        when(marker.exists()).thenReturn(false, true);
+
+        assertFalse(repository.isBackfilled());
+        assertTrue(repository.isBackfilled());
+        assertTrue(repository.isBackfilled());
+
+        verify(markerReference, times(2)).get();
+    }
+
+    @Test
+    @DisplayName("Save - Entry keyed by the hash of the normalized email")
+    @SuppressWarnings("unchecked")
+    void testSave() {
+        when(documentReference.set(anyMap())).thenReturn(ApiFutures.immediateFuture(mock(WriteResult.class)));
+
+        repository.save("User@Example.com", Role.USER, "cust-1");
+
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(documentReference).set(captor.capture());
+        assertEquals("user@example.com", captor.getValue().get("email"));
+        assertEquals("USER", captor.getValue().get("role"));
+        assertEquals("cust-1", captor.getValue().get("principalId"));
+
+        // Served from the cache after the write
+        assertEquals("cust-1", repository.findByEmail("user@example.com").orElseThrow().getPrincipalId());
+        verify(documentReference, never()).get();
+    }
+
+    @Test
+    @DisplayName("Save - Firestore failure is logged, not thrown")
+    void testSave_Failure() {
+        when(documentReference.set(anyMap()))
+                .thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("Firestore down")));
+
+        assertDoesNotThrow(() -> repository.save("user@example.com", Role.USER, "cust-1"));
+    }
+
+    @Test
+    @DisplayName("Normalize - Blank email ignored")
+    void testNormalize() {
+        assertNull(PrincipalEmailIndexRepository.normalize("  "));
+        assertEquals("a@b.com", PrincipalEmailIndexRepository.normalize(" A@B.com "));
+        assertTrue(repository.findByEmail(null).isEmpty());
+    }
+}
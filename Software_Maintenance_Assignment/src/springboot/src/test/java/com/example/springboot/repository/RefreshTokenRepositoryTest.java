@@ -2,6 +2,7 @@ package com.example.springboot.repository;
 
 import com.example.springboot.enums.Role;
 import com.example.springboot.model.RefreshToken;
+import com.example.springboot.utils.TokenHashUtil;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,6 +25,7 @@ import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,9 +48,8 @@ class RefreshTokenRepositoryTest {
         lenient().when(firestore.collection("refresh_tokens")).thenReturn(collectionReference);
     }
 
-    private void mockRefreshTokenSnapshot(QueryDocumentSnapshot mockDoc, String tokenStr) {
-        when(mockDoc.getId()).thenReturn("doc-1");
-        when(mockDoc.getString("token")).thenReturn(tokenStr);
+    private void mockRefreshTokenSnapshot(DocumentSnapshot mockDoc, String docId) {
+        when(mockDoc.getId()).thenReturn(docId);
         when(mockDoc.getString("userId")).thenReturn("u1");
         when(mockDoc.getString("userRole")).thenReturn("USER");
         when(mockDoc.getString("expiryDate")).thenReturn(LocalDateTime.now().plusDays(1).toString());
@@ -56,8 +57,26 @@ class RefreshTokenRepositoryTest {
         when(mockDoc.getBoolean("revoked")).thenReturn(false);
     }
 
+    private DocumentSnapshot mockDirectGet(String token, boolean exists) throws ExecutionException, InterruptedException {
+        ApiFuture<DocumentSnapshot> future = mock(ApiFuture.class);
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(collectionReference.document(TokenHashUtil.sha256Hex(token))).thenReturn(documentReference);
+        when(documentReference.get()).thenReturn(future);
+        when(future.get()).thenReturn(snapshot);
+        when(snapshot.exists()).thenReturn(exists);
+        return snapshot;
+    }
+
+    private void mockLegacyQuery(String token, List<QueryDocumentSnapshot> documents) throws ExecutionException, InterruptedException {
+        when(collectionReference.whereEqualTo("token", token)).thenReturn(query);
+        when(query.limit(1)).thenReturn(query);
+        when(query.get()).thenReturn(querySnapshotFuture);
+        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(documents);
+    }
+
     @Test
-    @DisplayName("Save - Success")
+    @DisplayName("Save - Document keyed by token hash, raw token not stored")
     void testSave() throws ExecutionException, InterruptedException {
         RefreshToken token = RefreshToken.builder()
                 .token("xyz-token")
@@ -67,56 +86,96 @@ class RefreshTokenRepositoryTest {
                 .createdAt(LocalDateTime.now()) // Ensure createdAt is set
                 .revoked(false)
                 .build();
+        String hash = TokenHashUtil.sha256Hex("xyz-token");
 
-        when(collectionReference.document()).thenReturn(documentReference);
-        when(documentReference.getId()).thenReturn("doc-1");
-        when(collectionReference.document("doc-1")).thenReturn(documentReference);
+        when(collectionReference.document(hash)).thenReturn(documentReference);
         when(documentReference.set(any(Map.class))).thenReturn(writeResultFuture);
         when(writeResultFuture.get()).thenReturn(mock(WriteResult.class));
 
         RefreshToken result = refreshTokenRepository.save(token);
 
-        assertEquals("doc-1", result.getId());
+        assertEquals(hash, result.getId());
+        ArgumentCaptor<Map<String, Object>> mapCaptor = ArgumentCaptor.forClass(Map.class);
+        verify(documentReference).set(mapCaptor.capture());
+        assertEquals(hash, mapCaptor.getValue().get("tokenHash"));
+        assertFalse(mapCaptor.getValue().containsKey("token"));
+        verify(collectionReference, never()).document();
+    }
+
+    @Test
+    @DisplayName("Save - Legacy document moves to its hash ID")
+    void testSave_LegacyDocumentMigrated() throws ExecutionException, InterruptedException {
+        RefreshToken token = RefreshToken.builder()
+                .id("legacy-id")
+                .token("xyz-token")
+                .userId("u1")
+                .userRole(Role.USER)
+                .expiryDate(LocalDateTime.now())
+                .build();
+        String hash = TokenHashUtil.sha256Hex("xyz-token");
+        DocumentReference legacyRef = mock(DocumentReference.class);
+        ApiFuture<WriteResult> deleteFuture = mock(ApiFuture.class);
+
+        when(collectionReference.document(hash)).thenReturn(documentReference);
+        when(collectionReference.document("legacy-id")).thenReturn(legacyRef);
+        when(documentReference.set(any(Map.class))).thenReturn(writeResultFuture);
+        when(legacyRef.delete()).thenReturn(deleteFuture);
+
+        RefreshToken result = refreshTokenRepository.save(token);
+
+        assertEquals(hash, result.getId());
         verify(documentReference).set(any(Map.class));
+        verify(legacyRef).delete();
     }
 
     @Test
-    @DisplayName("FindByToken - Success")
+    @DisplayName("FindByToken - Direct get by token hash")
     void testFindByToken() throws ExecutionException, InterruptedException {
-        when(collectionReference.whereEqualTo("token", "xyz-token")).thenReturn(query);
-        when(query.limit(1)).thenReturn(query);
-        when(query.get()).thenReturn(querySnapshotFuture);
-        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
-
-        QueryDocumentSnapshot mockDoc = mock(QueryDocumentSnapshot.class);
-        when(querySnapshot.getDocuments()).thenReturn(List.of(mockDoc));
-        
-        mockRefreshTokenSnapshot(mockDoc, "xyz-token");
+        DocumentSnapshot snapshot = mockDirectGet("xyz-token", true);
+        mockRefreshTokenSnapshot(snapshot, TokenHashUtil.sha256Hex("xyz-token"));
 
         Optional<RefreshToken> result = refreshTokenRepository.findByToken("xyz-token");
 
         assertTrue(result.isPresent());
         assertEquals("u1", result.get().getUserId());
+        assertEquals("xyz-token", result.get().getToken());
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("FindByToken - Falls back to legacy field query")
+    void testFindByToken_LegacyFallback() throws ExecutionException, InterruptedException {
+        mockDirectGet("xyz-token", false);
+        QueryDocumentSnapshot legacyDoc = mock(QueryDocumentSnapshot.class);
+        mockRefreshTokenSnapshot(legacyDoc, "legacy-id");
+        mockLegacyQuery("xyz-token", List.of(legacyDoc));
+
+        Optional<RefreshToken> result = refreshTokenRepository.findByToken("xyz-token");
+
+        assertTrue(result.isPresent());
+        assertEquals("legacy-id", result.get().getId());
+    }
+
+    @Test
+    @DisplayName("FindByToken - No legacy query once migration is complete")
+    void testFindByToken_LegacyLookupDisabled() throws ExecutionException, InterruptedException {
+        mockDirectGet("xyz-token", false);
+        refreshTokenRepository.disableLegacyLookup();
+
+        Optional<RefreshToken> result = refreshTokenRepository.findByToken("xyz-token");
+
+        assertFalse(result.isPresent());
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
     }
 
     @Test
     @DisplayName("RevokeToken - Success")
     void testRevokeToken_Success() throws ExecutionException, InterruptedException {
-        // Step 1: Mock Finding the token
-        when(collectionReference.whereEqualTo("token", "active-token")).thenReturn(query);
-        when(query.limit(1)).thenReturn(query);
-        when(query.get()).thenReturn(querySnapshotFuture);
-        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
-
-        QueryDocumentSnapshot mockDoc = mock(QueryDocumentSnapshot.class);
-        when(querySnapshot.getDocuments()).thenReturn(List.of(mockDoc));
-        
-        // Use helper to mock ALL fields required by convertToRefreshToken
-        mockRefreshTokenSnapshot(mockDoc, "active-token");
+        // Step 1: Mock finding the token by its hash ID
+        DocumentSnapshot snapshot = mockDirectGet("active-token", true);
+        mockRefreshTokenSnapshot(snapshot, TokenHashUtil.sha256Hex("active-token"));
 
-        // Step 2: Mock Saving the token (the update part)
-        // Note: Repository likely calls firestore.collection(...).document(ID).set(...)
-        when(collectionReference.document("doc-1")).thenReturn(documentReference);
+        // Step 2: Mock saving the token (the update part) to the same hash-keyed document
         when(documentReference.set(any(Map.class))).thenReturn(writeResultFuture);
         when(writeResultFuture.get()).thenReturn(mock(WriteResult.class));
 
@@ -134,11 +193,8 @@ class RefreshTokenRepositoryTest {
     @Test
     @DisplayName("RevokeToken - Token Not Found")
     void testRevokeToken_NotFound() throws ExecutionException, InterruptedException {
-        when(collectionReference.whereEqualTo("token", "missing-token")).thenReturn(query);
-        when(query.limit(1)).thenReturn(query);
-        when(query.get()).thenReturn(querySnapshotFuture);
-        when(querySnapshotFuture.get()).thenReturn(querySnapshot);
-        when(querySnapshot.getDocuments()).thenReturn(Collections.emptyList());
+        mockDirectGet("missing-token", false);
+        mockLegacyQuery("missing-token", Collections.emptyList());
 
         // Act
         refreshTokenRepository.revokeToken("missing-token");
@@ -0,0 +1,56 @@
+package com.example.springboot.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RequestReadMemoFilter
+ *
+ * Tests Module: Repository - request-scoped reads
+ * Coverage: memo bound for API requests and released afterwards, other paths skipped
+ */
+class RequestReadMemoFilterTest {
+
+    private final RequestReadMemoFilter filter = new RequestReadMemoFilter();
+
+    @Test
+    @DisplayName("API requests run with a memo that is released afterwards")
+    void testApiRequest_HasMemo() throws Exception {
+        AtomicReference<RequestReadMemo> seen = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/tickets/T1"), new MockHttpServletResponse(),
+                (request, response) -> seen.set(RequestReadMemo.current()));
+
+        assertNotNull(seen.get());
+        assertNull(RequestReadMemo.current());
+    }
+
+    @Test
+    @DisplayName("Static resources run without a memo")
+    void testStaticResource_NoMemo() throws Exception {
+        AtomicReference<RequestReadMemo> seen = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/css/app.css"), new MockHttpServletResponse(),
+                (request, response) -> seen.set(RequestReadMemo.current()));
+
+        assertNull(seen.get());
+    }
+
+    @Test
+    @DisplayName("The memo is released even when the request fails")
+    void testFailingRequest_ReleasesMemo() {
+        assertThrows(IllegalStateException.class, () ->
+                filter.doFilter(new MockHttpServletRequest("POST", "/api/booking/confirm"), new MockHttpServletResponse(),
+                        (request, response) -> {
+                            throw new IllegalStateException("boom");
+                        }));
+
+        assertNull(RequestReadMemo.current());
+    }
+}
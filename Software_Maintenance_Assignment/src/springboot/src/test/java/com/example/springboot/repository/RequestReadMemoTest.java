@@ -0,0 +1,141 @@
+package com.example.springboot.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RequestReadMemo
+ *
+ * Tests Module: Repository - request-scoped reads
+ * Coverage: pass-through without a memo, repeated and in-flight reads, invalidation,
+ * failed reads, propagation to worker threads, hit counts
+ */
+class RequestReadMemoTest {
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        RequestReadMemo memo = RequestReadMemo.current();
+        if (memo != null) {
+            memo.close();
+        }
+    }
+
+    private CompletableFuture<String> read(String value) {
+        reads.incrementAndGet();
+        return CompletableFuture.completedFuture(value);
+    }
+
+    @Test
+    @DisplayName("Without a memo every read goes through")
+    void testNoMemo_PassesThrough() throws Exception {
+        RequestReadMemo.document("seats", "S1", () -> read("seat"));
+        RequestReadMemo.document("seats", "S1", () -> read("seat"));
+
+        assertNull(RequestReadMemo.current());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    @DisplayName("Repeated document and query reads collapse into one")
+    void testRepeatedReads_Collapse() throws Exception {
+        RequestReadMemo memo = RequestReadMemo.open();
+
+        assertEquals("seat", RequestReadMemo.document("seats", "S1", () -> read("seat")).get());
+        assertEquals("seat", RequestReadMemo.document("seats", "S1", () -> read("other")).get());
+        assertEquals("flight", RequestReadMemo.query("flights", "flightId", "F001", () -> read("flight")).get());
+        assertEquals("flight", RequestReadMemo.query("flights", "flightId", "F001", () -> read("other")).get());
+        RequestReadMemo.document("seats", "S2", () -> read("seat 2")).get();
+
+        assertEquals(3, reads.get());
+        assertEquals(5, memo.lookups());
+        assertEquals(2, memo.hits());
+    }
+
+    @Test
+    @DisplayName("A read still in flight is shared, and cancelling one copy leaves the others")
+    void testInFlightRead_Shared() throws Exception {
+        RequestReadMemo.open();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> first = RequestReadMemo.document("seats", "S1", () -> pending);
+        CompletableFuture<String> second = RequestReadMemo.document("seats", "S1", () -> read("other"));
+        first.cancel(true);
+        pending.complete("seat");
+
+        assertEquals("seat", second.get());
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    @DisplayName("Invalidating a collection forgets its documents and queries only")
+    void testInvalidate() throws Exception {
+        RequestReadMemo.open();
+        RequestReadMemo.document("seats", "S1", () -> read("seat")).get();
+        RequestReadMemo.query("seats", "flightId", "F001", () -> read("seats")).get();
+        RequestReadMemo.document("seatsArchive", "S1", () -> read("archived")).get();
+
+        RequestReadMemo.invalidate("seats");
+        RequestReadMemo.document("seats", "S1", () -> read("seat")).get();
+        RequestReadMemo.query("seats", "flightId", "F001", () -> read("seats")).get();
+        RequestReadMemo.document("seatsArchive", "S1", () -> read("archived")).get();
+
+        assertEquals(5, reads.get());
+    }
+
+    @Test
+    @DisplayName("Failed reads are not memoized")
+    void testFailedRead_NotKept() throws Exception {
+        RequestReadMemo.open();
+
+        CompletableFuture<String> failed = RequestReadMemo.document("seats", "S1",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("unavailable")));
+        assertTrue(failed.isCompletedExceptionally());
+
+        assertEquals("seat", RequestReadMemo.document("seats", "S1", () -> read("seat")).get());
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    @DisplayName("Tasks wrapped with propagate use the caller's memo on another thread")
+    void testPropagate() throws Exception {
+        RequestReadMemo memo = RequestReadMemo.open();
+        RequestReadMemo.document("seats", "S1", () -> read("seat")).get();
+        AtomicReference<RequestReadMemo> seen = new AtomicReference<>();
+
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            worker.submit(RequestReadMemo.propagate(() -> {
+                seen.set(RequestReadMemo.current());
+                RequestReadMemo.document("seats", "S1", () -> read("seat")).join();
+            })).get();
+            worker.submit(() -> assertNull(RequestReadMemo.current())).get();
+        } finally {
+            worker.shutdown();
+        }
+
+        assertSame(memo, seen.get());
+        assertEquals(1, reads.get());
+        assertEquals(1, memo.hits());
+    }
+
+    @Test
+    @DisplayName("Closing the memo unbinds it from the thread")
+    void testClose() {
+        RequestReadMemo memo = RequestReadMemo.open();
+
+        memo.close();
+
+        assertNull(RequestReadMemo.current());
+    }
+}
@@ -14,6 +14,7 @@ import org.mockito.quality.Strictness;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -92,6 +93,27 @@ class StaffRepositoryTest {
         assertNull(result);
     }
 
+    @Test
+    void testFindByStaffIdAsync() throws Exception {
+        when(firestoreRepository.findByIdAsync("staff", "S001", Staff.class))
+                .thenReturn(CompletableFuture.completedFuture(staff));
+
+        assertEquals("S001", staffRepository.findByStaffIdAsync("S001").get().getStaffId());
+    }
+
+    @Test
+    void testFindByPositionAsync() throws Exception {
+        when(firestoreRepository.getCollectionByFieldAsync("staff", "position", "Manager"))
+                .thenReturn(CompletableFuture.completedFuture(querySnapshot));
+        when(querySnapshot.getDocuments()).thenReturn(Collections.singletonList(queryDocumentSnapshot));
+        when(queryDocumentSnapshot.getString("staffId")).thenReturn("S001");
+
+        List<Staff> result = staffRepository.findByPositionAsync("Manager").get();
+
+        assertEquals(1, result.size());
+        assertEquals("S001", result.get(0).getStaffId());
+    }
+
     @Test
     void testFindAll() throws ExecutionException, InterruptedException {
         when(collectionReference.get()).thenReturn(querySnapshotFuture);
@@ -0,0 +1,176 @@
+package com.example.springboot.repository;
+
+import com.example.springboot.exception.DuplicateResourceException;
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for UniqueConstraintRepository
+ *
+ * Tests Module: Registration / Flight Management - unique value reservations
+ * Coverage: reservation created in the transaction, taken values rejected, own values kept,
+ * single-get exists check and its failures, per-field backfill reservations, backfill marker
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UniqueConstraintRepositoryTest {
+
+    private static final String EMAIL_DOC_ID = "email:" + TokenHashUtil.sha256Hex("user@example.com");
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference collectionReference;
+    @Mock private DocumentReference documentReference;
+    @Mock private Transaction transaction;
+    @Mock private DocumentSnapshot documentSnapshot;
+    @Mock private ApiFuture<DocumentSnapshot> documentFuture;
+
+    @InjectMocks
+    private UniqueConstraintRepository repository;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(firestore.collection(UniqueConstraintRepository.COLLECTION_NAME)).thenReturn(collectionReference);
+        when(collectionReference.document(anyString())).thenReturn(documentReference);
+        when(transaction.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(documentSnapshot)));
+        when(documentReference.get()).thenReturn(documentFuture);
+        when(documentFuture.get()).thenReturn(documentSnapshot);
+    }
+
+    @Test
+    @DisplayName("Reserve - Free value created under the normalized hashed id")
+    @SuppressWarnings("unchecked")
+    void testReserve_FreeValue() throws Exception {
+        when(documentSnapshot.exists()).thenReturn(false);
+
+        repository.reserve(transaction, "Customer", "customers/cust-1", Map.of("email", " User@Example.com "));
+
+        verify(collectionReference).document(EMAIL_DOC_ID);
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).create(eq(documentReference), captor.capture());
+        assertEquals("customers/cust-1", captor.getValue().get("owner"));
+        assertEquals("email", captor.getValue().get("field"));
+    }
+
+    @Test
+    @DisplayName("Reserve - Value held by another record rejected with the field name")
+    void testReserve_TakenValue() {
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getString("owner")).thenReturn("customers/other");
+
+        DuplicateResourceException ex = assertThrows(DuplicateResourceException.class, () ->
+                repository.reserve(transaction, "Customer", "customers/cust-1", Map.of("email", "user@example.com")));
+
+        assertEquals("email", ex.getFieldName());
+        verify(transaction, never()).create(any(DocumentReference.class), anyMap());
+    }
+
+    @Test
+    @DisplayName("Reserve - Value the owner already holds is left as is")
+    void testReserve_OwnValue() throws Exception {
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getString("owner")).thenReturn("customers/cust-1");
+
+        repository.reserve(transaction, "Customer", "customers/cust-1", Map.of("email", "user@example.com"));
+
+        verify(transaction, never()).create(any(DocumentReference.class), anyMap());
+    }
+
+    @Test
+    @DisplayName("Reserve - Blank values need no reads")
+    void testReserve_BlankValues() throws Exception {
+        repository.reserve(transaction, "Customer", "customers/cust-1", Map.of("email", "  "));
+
+        verify(transaction, never()).getAll(any(DocumentReference[].class));
+    }
+
+    @Test
+    @DisplayName("Is Reserved - One document get")
+    void testIsReserved() throws Exception {
+        when(documentSnapshot.exists()).thenReturn(true);
+
+        assertTrue(repository.isReserved("email", "USER@example.com"));
+        verify(collectionReference).document(EMAIL_DOC_ID);
+        assertFalse(repository.isReserved("email", null));
+    }
+
+    @Test
+    @DisplayName("Is Reserved - A failed read is thrown, not taken as free")
+    void testIsReserved_Failure() throws Exception {
+        when(documentFuture.get()).thenThrow(new ExecutionException(new RuntimeException("unavailable")));
+
+        assertThrows(ExecutionException.class, () -> repository.isReserved("email", "user@example.com"));
+    }
+
+    @Test
+    @DisplayName("Reserve Existing - A taken value is skipped, the record's other values are reserved")
+    @SuppressWarnings("unchecked")
+    void testReserveExisting_SkipsOnlyTakenField() throws Exception {
+        DocumentSnapshot takenEmail = mock(DocumentSnapshot.class);
+        when(takenEmail.exists()).thenReturn(true);
+        when(takenEmail.getString("owner")).thenReturn("customers/other");
+        DocumentSnapshot freePhone = mock(DocumentSnapshot.class);
+        when(freePhone.exists()).thenReturn(false);
+        when(transaction.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(takenEmail, freePhone)));
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(inv ->
+                ApiFutures.immediateFuture(((Transaction.Function<Object>) inv.getArgument(0)).updateCallback(transaction)));
+
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("email", "user@example.com");
+        values.put("phoneNumber", "0123456789");
+        repository.reserveExisting("customers/cust-1", values);
+
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(transaction, times(1)).create(eq(documentReference), captor.capture());
+        assertEquals("phoneNumber", captor.getValue().get("field"));
+    }
+
+    @Test
+    @DisplayName("Release - Reservation deleted in the transaction")
+    void testRelease() {
+        repository.release(transaction, Map.of("email", "user@example.com"));
+
+        verify(transaction).delete(documentReference);
+    }
+
+    @Test
+    @DisplayName("Backfilled - Marker turns off legacy checks")
+    void testIsBackfilled() {
+        when(documentSnapshot.exists()).thenReturn(true);
+
+        assertTrue(repository.isLegacyCheckEnabled());
+        assertTrue(repository.isBackfilled());
+        assertFalse(repository.isLegacyCheckEnabled());
+    }
+
+    @Test
+    @DisplayName("Find Duplicate - Found through the cause chain")
+    void testFindDuplicate() {
+        DuplicateResourceException duplicate = new DuplicateResourceException("Flight", "flightId", "FL001");
+
+        assertSame(duplicate, UniqueConstraintRepository.findDuplicate(new ExecutionException(duplicate)));
+        assertNull(UniqueConstraintRepository.findDuplicate(new RuntimeException("other")));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.springboot.repository;
+
+import com.google.api.gax.rpc.ApiStreamObserver;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for UniqueValueFilter
+ *
+ * Tests Module: Registration - existence checks
+ * Coverage: fall-through before build, definite negatives, normalized values, startup stream,
+ * failed build, metrics
+ */
+class UniqueValueFilterTest {
+
+    private Firestore firestore;
+    private Query query;
+    private SimpleMeterRegistry meterRegistry;
+    private UniqueValueFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        firestore = mock(Firestore.class);
+        CollectionReference collectionReference = mock(CollectionReference.class);
+        query = mock(Query.class);
+        when(firestore.collection(UserRepository.COLLECTION_NAME)).thenReturn(collectionReference);
+        when(collectionReference.select(any(String[].class))).thenReturn(query);
+
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new UniqueValueFilter(firestore, meterRegistry, 1000, 0.01);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void streamDocuments(DocumentSnapshot... documents) {
+        doAnswer(invocation -> {
+            ApiStreamObserver<DocumentSnapshot> observer = invocation.getArgument(0);
+            for (DocumentSnapshot document : documents) {
+                observer.onNext(document);
+            }
+            observer.onCompleted();
+            return null;
+        }).when(query).stream(any(ApiStreamObserver.class));
+    }
+
+    @Test
+    @DisplayName("Lookup - Everything falls through until the filter is built")
+    void testMightContain_NotReady() {
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("email", "nobody@example.com"));
+    }
+
+    @Test
+    @DisplayName("Build - Streamed values are found, unknown values are definite negatives")
+    void testBuild() {
+        DocumentSnapshot customer = mock(DocumentSnapshot.class);
+        when(customer.getString("email")).thenReturn("User@Example.com");
+        when(customer.getString("phoneNumber")).thenReturn("0123456789");
+        streamDocuments(customer);
+
+        filter.build();
+
+        assertTrue(filter.isReady());
+        assertTrue(filter.mightContain("email", " user@example.COM"));
+        assertTrue(filter.mightContain("phoneNumber", "0123456789"));
+        assertFalse(filter.mightContain("email", "new@example.com"));
+        assertEquals(1.0, meterRegistry.counter("unique_filter.lookups",
+                "field", "email", "result", "negative").count());
+        assertEquals(0.01, meterRegistry.get("unique_filter.configured_fpp").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Put - Values written after the build are found")
+    void testPut_AfterBuild() {
+        streamDocuments();
+        filter.build();
+
+        filter.putAll("new@example.com", null, "990101-01-1234");
+
+        assertTrue(filter.mightContain("email", "new@example.com"));
+        assertTrue(filter.mightContain("custIcNo", "990101-01-1234"));
+    }
+
+    @Test
+    @DisplayName("Build - Stream failure leaves every lookup going to Firestore")
+    @SuppressWarnings("unchecked")
+    void testBuild_Failure() {
+        doAnswer(invocation -> {
+            ApiStreamObserver<DocumentSnapshot> observer = invocation.getArgument(0);
+            observer.onError(new RuntimeException("Firestore down"));
+            return null;
+        }).when(query).stream(any(ApiStreamObserver.class));
+
+        filter.build();
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("email", "new@example.com"));
+    }
+}
@@ -3,8 +3,10 @@ package com.example.springboot.repository;
 import com.example.springboot.enums.AuthProvider;
 import com.example.springboot.enums.Gender;
 import com.example.springboot.enums.Role;
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.model.User;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -23,6 +25,8 @@ import java.util.concurrent.ExecutionException;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,11 +37,13 @@ class UserRepositoryTest {
     @Mock private CollectionReference collectionReference;
     @Mock private DocumentReference documentReference;
     @Mock private ApiFuture<WriteResult> writeResultFuture;
-    @Mock private ApiFuture<DocumentSnapshot> documentSnapshotFuture;
     @Mock private ApiFuture<QuerySnapshot> querySnapshotFuture;
     @Mock private DocumentSnapshot documentSnapshot;
     @Mock private QuerySnapshot querySnapshot;
     @Mock private Query query;
+    @Mock private UniqueConstraintRepository uniqueConstraintRepository;
+    @Mock private Transaction transaction;
+    @Mock private UniqueValueFilter uniqueValueFilter;
 
     @InjectMocks
     private UserRepository userRepository;
@@ -47,6 +53,14 @@ class UserRepositoryTest {
     @BeforeEach
     void setUp() {
         lenient().when(firestore.collection("customers")).thenReturn(collectionReference);
+        lenient().when(uniqueConstraintRepository.isLegacyCheckEnabled()).thenReturn(true);
+        lenient().when(uniqueValueFilter.mightContain(anyString(), any())).thenReturn(true);
+        lenient().when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<Void> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+        lenient().when(transaction.get(any(DocumentReference.class)))
+                .thenReturn(ApiFutures.immediateFuture(documentSnapshot));
 
         testUser = User.builder()
                 .custId("cust-123")
@@ -113,14 +127,101 @@ class UserRepositoryTest {
         assertTrue(exception.getMessage().contains("Failed to save user"));
     }
 
+    // ==================== CREATE / UPDATE TESTS ====================
+
+    @Test
+    @DisplayName("Create - Unique values reserved in the same transaction as the insert")
+    void testCreate_ReservesUniqueValues() throws Exception {
+        testUser.setPhoneNumber("0123456789");
+        testUser.setCustIcNo("Not Provided");
+        when(collectionReference.document("cust-123")).thenReturn(documentReference);
+
+        userRepository.create(testUser);
+
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("email", "test@example.com");
+        expected.put("phoneNumber", "0123456789");
+        verify(uniqueConstraintRepository).reserve(transaction, "User", "customers/cust-123", expected);
+        verify(transaction).create(eq(documentReference), any(Map.class));
+    }
+
+    @Test
+    @DisplayName("Create - Extra writes committed in the user's transaction")
+    void testCreate_WithExtraWrites() {
+        when(collectionReference.document("cust-123")).thenReturn(documentReference);
+        DocumentReference tokenRef = mock(DocumentReference.class);
+
+        userRepository.create(testUser, tx -> tx.set(tokenRef, Map.of("used", false)));
+
+        verify(transaction).create(eq(documentReference), any(Map.class));
+        verify(transaction).set(tokenRef, Map.of("used", false));
+        verify(firestore, times(1)).runTransaction(any(Transaction.Function.class));
+    }
+
+    @Test
+    @DisplayName("Create - Taken value surfaces as DuplicateResourceException")
+    void testCreate_Duplicate() throws Exception {
+        when(collectionReference.document("cust-123")).thenReturn(documentReference);
+        doThrow(new DuplicateResourceException("User", "email", "test@example.com"))
+                .when(uniqueConstraintRepository).reserve(any(), anyString(), anyString(), anyMap());
+
+        DuplicateResourceException ex = assertThrows(DuplicateResourceException.class,
+                () -> userRepository.create(testUser));
+
+        assertEquals("email", ex.getFieldName());
+        verify(transaction, never()).create(any(DocumentReference.class), any(Map.class));
+    }
+
+    @Test
+    @DisplayName("Update - Changed phone number reserved, old one released")
+    void testUpdate_SwapsPhoneNumber() throws Exception {
+        testUser.setPhoneNumber("0199999999");
+        when(collectionReference.document("cust-123")).thenReturn(documentReference);
+        when(documentSnapshot.getString("email")).thenReturn("test@example.com");
+        when(documentSnapshot.getString("phoneNumber")).thenReturn("0123456789");
+
+        userRepository.update(testUser);
+
+        verify(uniqueConstraintRepository).release(transaction, Map.of("phoneNumber", "0123456789"));
+        verify(transaction).set(eq(documentReference), any(Map.class));
+    }
+
+    @Test
+    @DisplayName("ExistsByEmail - Reservation lookup once backfilled")
+    void testExistsByEmail_Reserved() throws Exception {
+        when(uniqueConstraintRepository.isLegacyCheckEnabled()).thenReturn(false);
+        when(uniqueConstraintRepository.isReserved("email", "test@example.com")).thenReturn(true);
+
+        assertTrue(userRepository.existsByEmail("test@example.com"));
+        verify(collectionReference, never()).whereEqualTo(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("ExistsByEmail - A failed reservation lookup is thrown, not taken as free")
+    void testExistsByEmail_ReservationLookupFails() throws Exception {
+        when(uniqueConstraintRepository.isLegacyCheckEnabled()).thenReturn(false);
+        when(uniqueConstraintRepository.isReserved("email", "test@example.com"))
+                .thenThrow(new ExecutionException(new RuntimeException("unavailable")));
+
+        assertThrows(RuntimeException.class, () -> userRepository.existsByEmail("test@example.com"));
+    }
+
+    @Test
+    @DisplayName("ExistsByEmail - Filter negative skips Firestore")
+    void testExistsByEmail_FilterNegative() {
+        when(uniqueValueFilter.mightContain("email", "new@example.com")).thenReturn(false);
+
+        assertFalse(userRepository.existsByEmail("new@example.com"));
+        verifyNoInteractions(firestore, uniqueConstraintRepository);
+    }
+
     // ==================== FIND BY ID TESTS ====================
 
     @Test
     @DisplayName("FindById - Found")
     void testFindById_Found() throws ExecutionException, InterruptedException {
         when(collectionReference.document("cust-123")).thenReturn(documentReference);
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         
         mockUserSnapshot(documentSnapshot, "cust-123", "test@example.com");
         
@@ -134,8 +235,7 @@ class UserRepositoryTest {
     @DisplayName("FindById - Not Found")
     void testFindById_NotFound() throws ExecutionException, InterruptedException {
         when(collectionReference.document("cust-123")).thenReturn(documentReference);
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         when(documentSnapshot.exists()).thenReturn(false);
 
         Optional<User> result = userRepository.findById("cust-123");
@@ -147,8 +247,7 @@ class UserRepositoryTest {
     @DisplayName("FindById - Mapping Logic (Invalid Role Fallback)")
     void testFindById_InvalidRole_Fallback() throws ExecutionException, InterruptedException {
         when(collectionReference.document("cust-123")).thenReturn(documentReference);
-        when(documentReference.get()).thenReturn(documentSnapshotFuture);
-        when(documentSnapshotFuture.get()).thenReturn(documentSnapshot);
+        when(documentReference.get()).thenReturn(ApiFutures.immediateFuture(documentSnapshot));
         
         // Mock standard fields first
         mockUserSnapshot(documentSnapshot, "cust-123", "test@example.com");
@@ -224,11 +323,12 @@ class UserRepositoryTest {
     @DisplayName("DeleteById - Success")
     void testDeleteById_Success() throws ExecutionException, InterruptedException {
         when(collectionReference.document("cust-123")).thenReturn(documentReference);
-        when(documentReference.delete()).thenReturn(writeResultFuture);
-        when(writeResultFuture.get()).thenReturn(mock(WriteResult.class));
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getString("email")).thenReturn("test@example.com");
 
         assertDoesNotThrow(() -> userRepository.deleteById("cust-123"));
-        verify(documentReference).delete();
+        verify(uniqueConstraintRepository).release(transaction, Map.of("email", "test@example.com"));
+        verify(transaction).delete(documentReference);
     }
 
     // ==================== FIND ALL TEST ====================
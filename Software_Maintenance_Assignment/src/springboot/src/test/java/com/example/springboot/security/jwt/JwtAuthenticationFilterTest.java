@@ -16,6 +16,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -47,16 +49,18 @@ class JwtAuthenticationFilterTest {
         String token = "valid.jwt.token";
         
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getUserIdFromToken(token)).thenReturn("user1");
-        when(jwtTokenProvider.getRoleFromToken(token)).thenReturn(Role.USER);
+        when(jwtTokenProvider.parseToken(token)).thenReturn(Optional.of(principal("user1", Role.USER)));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertNotNull(auth);
         assertEquals("user1", auth.getPrincipal());
+        assertTrue(auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_USER")));
         verify(filterChain).doFilter(request, response);
+        // Token is parsed and verified exactly once per request
+        verify(jwtTokenProvider, times(1)).parseToken(token);
+        verifyNoMoreInteractions(jwtTokenProvider);
     }
 
     @Test
@@ -68,9 +72,7 @@ class JwtAuthenticationFilterTest {
         when(request.getHeader("Authorization")).thenReturn(null);
         when(request.getCookies()).thenReturn(new Cookie[]{cookie});
         
-        when(jwtTokenProvider.validateToken(token)).thenReturn(true);
-        when(jwtTokenProvider.getUserIdFromToken(token)).thenReturn("admin1");
-        when(jwtTokenProvider.getRoleFromToken(token)).thenReturn(Role.ADMIN);
+        when(jwtTokenProvider.parseToken(token)).thenReturn(Optional.of(principal("admin1", Role.ADMIN)));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -85,7 +87,7 @@ class JwtAuthenticationFilterTest {
     void testDoFilterInternal_InvalidToken() throws Exception {
         String token = "invalid.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenReturn(false);
+        when(jwtTokenProvider.parseToken(token)).thenReturn(Optional.empty());
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
@@ -111,11 +113,42 @@ class JwtAuthenticationFilterTest {
     void testDoFilterInternal_Exception() throws Exception {
         String token = "error.token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtTokenProvider.validateToken(token)).thenThrow(new RuntimeException("Validation Error"));
+        when(jwtTokenProvider.parseToken(token)).thenThrow(new RuntimeException("Validation Error"));
 
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(filterChain).doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should Not Filter - Static resources are skipped")
+    void testShouldNotFilter_StaticResources() {
+        when(request.getContextPath()).thenReturn("");
+
+        when(request.getRequestURI()).thenReturn("/css/styles.css");
+        assertTrue(jwtAuthenticationFilter.shouldNotFilter(request));
+
+        when(request.getRequestURI()).thenReturn("/js/pages/mfaSetup.js");
+        assertTrue(jwtAuthenticationFilter.shouldNotFilter(request));
+
+        when(request.getRequestURI()).thenReturn("/favicon.ico");
+        assertTrue(jwtAuthenticationFilter.shouldNotFilter(request));
+    }
+
+    @Test
+    @DisplayName("Should Not Filter - API and page requests are filtered")
+    void testShouldNotFilter_ApiRequests() {
+        when(request.getContextPath()).thenReturn("/app");
+
+        when(request.getRequestURI()).thenReturn("/app/api/tickets/123");
+        assertFalse(jwtAuthenticationFilter.shouldNotFilter(request));
+
+        when(request.getRequestURI()).thenReturn("/app/css/styles.css");
+        assertTrue(jwtAuthenticationFilter.shouldNotFilter(request));
+    }
+
+    private JwtPrincipal principal(String userId, Role role) {
+        return new JwtPrincipal(userId, userId + "@mail.com", role, null, Long.MAX_VALUE, 0L, 0);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.springboot.security.jwt;
+
+import com.example.springboot.enums.Role;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for per-request JWT authentication cost, single-threaded so the
+ * scores read as authenticated requests/sec per core:
+ *  - legacyTripleParse: old filter path (rebuild key + parse/verify three times)
+ *  - singleParseUncached: one verify with the prebuilt parser
+ *  - parseTokenCached: JwtTokenProvider.parseToken hitting the verified-token cache
+ *    (includes the revocation-set check)
+ *
+ * mvn test-compile, then run main() with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyMustBeLongEnoughForHS512Algorithm_AtLeast64Bytes!!";
+
+    private JwtTokenProvider provider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        provider = new JwtTokenProvider(null, new TokenRevocationRegistry(null), new TokenFamilyRegistry(null));
+        ReflectionTestUtils.setField(provider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(provider, "accessTokenExpiration", 3600000L);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpiration", 7200000L);
+        token = provider.generateTokens("user-123", "user@example.com", Role.USER, 1L, 0).getAccessToken();
+        provider.parseToken(token);
+    }
+
+    @Benchmark
+    public void legacyTripleParse(Blackhole blackhole) {
+        for (int i = 0; i < 3; i++) {
+            SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+            blackhole.consume(claims.getSubject());
+        }
+    }
+
+    @Benchmark
+    public JwtPrincipal singleParseUncached() {
+        return provider.verify(token);
+    }
+
+    @Benchmark
+    public Object parseTokenCached() {
+        return provider.parseToken(token);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(JwtTokenProviderBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
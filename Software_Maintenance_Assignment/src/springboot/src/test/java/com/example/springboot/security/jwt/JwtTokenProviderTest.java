@@ -2,6 +2,7 @@ package com.example.springboot.security.jwt;
 
 import com.example.springboot.dto.response.JWTResponseDTO;
 import com.example.springboot.enums.Role;
+import com.example.springboot.utils.TokenHashUtil;
 import com.example.springboot.repository.RefreshTokenRepository;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -19,6 +20,10 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class JwtTokenProviderTest {
@@ -26,6 +31,12 @@ class JwtTokenProviderTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Mock
+    private TokenFamilyRegistry tokenFamilyRegistry;
+
     @InjectMocks
     private JwtTokenProvider jwtTokenProvider;
 
@@ -100,4 +111,120 @@ class JwtTokenProviderTest {
         Role role = jwtTokenProvider.getRoleFromToken(token);
         assertEquals(Role.USER, role, "Should default to USER for invalid role strings");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Parse Token - Single parse returns full principal")
+    void testParseToken_Principal() {
+        String token = jwtTokenProvider.generateMFASessionToken("u1", "test@mail.com", Role.ADMIN);
+
+        JwtPrincipal principal = jwtTokenProvider.parseToken(token).orElseThrow();
+
+        assertEquals("u1", principal.getUserId());
+        assertEquals("test@mail.com", principal.getEmail());
+        assertEquals(Role.ADMIN, principal.getRole());
+        assertEquals("mfa_session", principal.getTokenType());
+        assertFalse(principal.isExpired(System.currentTimeMillis()));
+    }
+
+    @Test
+    @DisplayName("Parse Token - Verified principal is cached")
+    void testParseToken_Cached() {
+        String token = jwtTokenProvider.generateTokens("u1", "test@mail.com", Role.USER).getAccessToken();
+
+        JwtPrincipal first = jwtTokenProvider.parseToken(token).orElseThrow();
+        JwtPrincipal second = jwtTokenProvider.parseToken(token).orElseThrow();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("Parse Token - Expired token is rejected")
+    void testParseToken_Expired() {
+        Date past = new Date(System.currentTimeMillis() - 60000);
+        String token = Jwts.builder()
+                .setSubject("u1")
+                .claim("role", "USER")
+                .setIssuedAt(new Date(past.getTime() - 60000))
+                .setExpiration(past)
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS512)
+                .compact();
+
+        assertTrue(jwtTokenProvider.parseToken(token).isEmpty());
+        assertThrows(io.jsonwebtoken.JwtException.class, () -> jwtTokenProvider.getUserIdFromToken(token));
+    }
+
+    @Test
+    @DisplayName("Parse Token - Tampered and empty tokens are rejected, never cached")
+    void testParseToken_Invalid() {
+        String token = jwtTokenProvider.generateTokens("u1", "test@mail.com", Role.USER).getAccessToken();
+        String tampered = token.substring(0, token.length() - 5) + "xxxxx";
+
+        assertTrue(jwtTokenProvider.parseToken(tampered).isEmpty());
+        assertTrue(jwtTokenProvider.parseToken(tampered).isEmpty());
+        assertTrue(jwtTokenProvider.parseToken("").isEmpty());
+        assertTrue(jwtTokenProvider.parseToken(null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Evict Token - Next parse verifies again")
+    void testEvictToken() {
+        String token = jwtTokenProvider.generateTokens("u1", "test@mail.com", Role.USER).getAccessToken();
+        JwtPrincipal first = jwtTokenProvider.parseToken(token).orElseThrow();
+
+        jwtTokenProvider.evictToken(token);
+
+        JwtPrincipal second = jwtTokenProvider.parseToken(token).orElseThrow();
+        assertNotSame(first, second);
+        assertEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("Parse Token - Revoked token is rejected even when cached")
+    void testParseToken_Revoked() {
+        String token = jwtTokenProvider.generateTokens("u1", "test@mail.com", Role.USER).getAccessToken();
+        assertTrue(jwtTokenProvider.parseToken(token).isPresent());
+
+        when(revocationRegistry.isRevoked(TokenHashUtil.sha256Hex(token))).thenReturn(true);
+
+        assertTrue(jwtTokenProvider.parseToken(token).isEmpty());
+        assertFalse(jwtTokenProvider.validateToken(token));
+    }
+
+    @Test
+    @DisplayName("Generate Tokens - New login starts a token family")
+    void testGenerateTokens_StartsFamily() {
+        when(tokenFamilyRegistry.startFamily(eq("u1"), anyLong())).thenReturn(42L);
+
+        JWTResponseDTO tokens = jwtTokenProvider.generateTokens("u1", "test@mail.com", Role.USER);
+
+        verify(tokenFamilyRegistry).startFamily(eq("u1"), anyLong());
+        JwtPrincipal refresh = jwtTokenProvider.parseToken(tokens.getRefreshToken()).orElseThrow();
+        assertEquals(42L, refresh.getFamilyId());
+        assertEquals(0, refresh.getGeneration());
+        assertEquals("refresh", refresh.getTokenType());
+    }
+
+    @Test
+    @DisplayName("Generate Tokens - Family and generation carried by both tokens")
+    void testGenerateTokens_FamilyClaims() {
+        JWTResponseDTO tokens = jwtTokenProvider.generateTokens("u1", "test@mail.com", Role.USER, 7L, 3);
+
+        JwtPrincipal access = jwtTokenProvider.parseToken(tokens.getAccessToken()).orElseThrow();
+        JwtPrincipal refresh = jwtTokenProvider.parseToken(tokens.getRefreshToken()).orElseThrow();
+        assertEquals(7L, access.getFamilyId());
+        assertEquals(3, access.getGeneration());
+        assertEquals(7L, refresh.getFamilyId());
+        assertEquals(3, refresh.getGeneration());
+    }
+
+    @Test
+    @DisplayName("Parse Token - Token of a revoked family is rejected")
+    void testParseToken_RevokedFamily() {
+        String token = jwtTokenProvider.generateTokens("u1", "test@mail.com", Role.USER, 7L, 0).getAccessToken();
+        assertTrue(jwtTokenProvider.parseToken(token).isPresent());
+
+        when(tokenFamilyRegistry.isRevoked(7L)).thenReturn(true);
+
+        assertTrue(jwtTokenProvider.parseToken(token).isEmpty());
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.springboot.security.jwt;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for TokenFamilyRegistry
+ *
+ * Tests Module: Authentication - refresh token rotation
+ * Coverage: family start, rotation, reuse detection (local and Firestore), revocation, unknown families,
+ *           revocations from other instances
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TokenFamilyRegistryTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference collectionReference;
+    @Mock private DocumentReference documentReference;
+    @Mock private Transaction transaction;
+    @Mock private DocumentSnapshot snapshot;
+    @Mock private ApiFuture<DocumentSnapshot> snapshotFuture;
+
+    @InjectMocks
+    private TokenFamilyRegistry registry;
+
+    private final long expiresAt = System.currentTimeMillis() + 60000;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        when(firestore.collection("token_families")).thenReturn(collectionReference);
+        when(collectionReference.document(anyString())).thenReturn(documentReference);
+        when(documentReference.set(anyMap())).thenReturn(ApiFutures.immediateFuture(mock(WriteResult.class)));
+        when(documentReference.update(anyString(), any())).thenReturn(ApiFutures.immediateFuture(mock(WriteResult.class)));
+        when(transaction.get(documentReference)).thenReturn(snapshotFuture);
+        when(snapshotFuture.get()).thenReturn(snapshot);
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<TokenFamilyRegistry.Outcome> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+    }
+
+    private void stubStoredFamily(long generation, boolean revoked) {
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getLong("generation")).thenReturn(generation);
+        when(snapshot.getBoolean("revoked")).thenReturn(revoked);
+    }
+
+    @Test
+    @DisplayName("Start Family - Non-zero id persisted at generation 0")
+    @SuppressWarnings("unchecked")
+    void testStartFamily() {
+        long familyId = registry.startFamily("u1", expiresAt);
+
+        assertTrue(familyId > 0);
+        assertEquals(1, registry.size());
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(collectionReference).document(Long.toString(familyId));
+        verify(documentReference).set(captor.capture());
+        assertEquals(0L, captor.getValue().get("generation"));
+        assertEquals("u1", captor.getValue().get("userId"));
+    }
+
+    @Test
+    @DisplayName("Rotate - Current generation advances")
+    void testRotate() {
+        long familyId = registry.startFamily("u1", expiresAt);
+        stubStoredFamily(0L, false);
+
+        assertEquals(TokenFamilyRegistry.Outcome.ROTATED, registry.rotate(familyId, 0, expiresAt + 1000));
+
+        verify(transaction).update(documentReference, "generation", 1L, "expiresAt", expiresAt + 1000);
+        assertFalse(registry.isRevoked(familyId));
+    }
+
+    @Test
+    @DisplayName("Rotate - Replayed token revokes the family locally without Firestore read")
+    void testRotate_LocalReuse() {
+        long familyId = registry.startFamily("u1", expiresAt);
+        stubStoredFamily(0L, false);
+        registry.rotate(familyId, 0, expiresAt);
+
+        assertEquals(TokenFamilyRegistry.Outcome.REUSED, registry.rotate(familyId, 0, expiresAt));
+
+        assertTrue(registry.isRevoked(familyId));
+        verify(firestore, times(1)).runTransaction(any(Transaction.Function.class));
+        verify(documentReference).update("revoked", true);
+        assertEquals(TokenFamilyRegistry.Outcome.REVOKED, registry.rotate(familyId, 1, expiresAt));
+    }
+
+    @Test
+    @DisplayName("Rotate - Generation mismatch in Firestore (other node) is reuse")
+    void testRotate_RemoteReuse() {
+        stubStoredFamily(5L, false);
+
+        assertEquals(TokenFamilyRegistry.Outcome.REUSED, registry.rotate(77L, 3, expiresAt));
+
+        verify(transaction).update(documentReference, "revoked", true);
+        assertTrue(registry.isRevoked(77L));
+    }
+
+    @Test
+    @DisplayName("Rotate - Unknown and revoked families")
+    void testRotate_UnknownAndRevoked() {
+        when(snapshot.exists()).thenReturn(false);
+        assertEquals(TokenFamilyRegistry.Outcome.UNKNOWN, registry.rotate(88L, 0, expiresAt));
+        assertEquals(TokenFamilyRegistry.Outcome.UNKNOWN, registry.rotate(0L, 0, expiresAt));
+
+        stubStoredFamily(0L, true);
+        assertEquals(TokenFamilyRegistry.Outcome.REVOKED, registry.rotate(89L, 0, expiresAt));
+        assertTrue(registry.isRevoked(89L));
+    }
+
+    @Test
+    @DisplayName("Rotate - Firestore failure is surfaced")
+    void testRotate_Failure() {
+        doThrow(new RuntimeException("Firestore down")).when(firestore).runTransaction(any(Transaction.Function.class));
+
+        assertThrows(RuntimeException.class, () -> registry.rotate(90L, 0, expiresAt));
+    }
+
+    @Test
+    @DisplayName("Start - Subscribes to revoked families and unsubscribes on stop")
+    void testStart() {
+        Query query = mock(Query.class);
+        ListenerRegistration registration = mock(ListenerRegistration.class);
+        when(collectionReference.whereEqualTo("revoked", true)).thenReturn(query);
+        when(query.addSnapshotListener(any())).thenReturn(registration);
+
+        registry.start();
+        registry.stop();
+
+        verify(query).addSnapshotListener(any());
+        verify(registration).remove();
+    }
+
+    @Test
+    @DisplayName("Snapshot - Family revoked on another instance is revoked locally")
+    void testOnSnapshot() {
+        long familyId = registry.startFamily("u1", expiresAt);
+        QueryDocumentSnapshot revokedDoc = mock(QueryDocumentSnapshot.class);
+        when(revokedDoc.getId()).thenReturn(Long.toString(familyId));
+        when(revokedDoc.getLong("expiresAt")).thenReturn(expiresAt);
+        QueryDocumentSnapshot expiredDoc = mock(QueryDocumentSnapshot.class);
+        when(expiredDoc.getId()).thenReturn("42");
+        when(expiredDoc.getLong("expiresAt")).thenReturn(System.currentTimeMillis() - 1);
+        DocumentChange revoked = mock(DocumentChange.class);
+        when(revoked.getType()).thenReturn(DocumentChange.Type.ADDED);
+        when(revoked.getDocument()).thenReturn(revokedDoc);
+        DocumentChange expired = mock(DocumentChange.class);
+        when(expired.getType()).thenReturn(DocumentChange.Type.ADDED);
+        when(expired.getDocument()).thenReturn(expiredDoc);
+        QuerySnapshot snapshots = mock(QuerySnapshot.class);
+        when(snapshots.getDocumentChanges()).thenReturn(List.of(revoked, expired));
+
+        assertFalse(registry.isRevoked(familyId));
+        registry.onSnapshot(snapshots);
+
+        assertTrue(registry.isRevoked(familyId));
+        assertFalse(registry.isRevoked(42L));
+        assertEquals(TokenFamilyRegistry.Outcome.REVOKED, registry.rotate(familyId, 0, expiresAt));
+    }
+
+    @Test
+    @DisplayName("Revoke Family - Immediate local revocation and expiry pruning")
+    void testRevokeFamily() {
+        long familyId = registry.startFamily("u1", System.currentTimeMillis() - 1);
+
+        registry.revokeFamily(familyId, System.currentTimeMillis() - 1);
+        assertTrue(registry.isRevoked(familyId));
+        assertFalse(registry.isRevoked(0L));
+
+        registry.pruneExpired();
+        assertEquals(0, registry.size());
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.springboot.security.jwt;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for TokenFamilyTable
+ *
+ * Tests Module: Authentication - refresh token families
+ * Coverage: put/get, compare-and-set, revoke, expiry removal, growth, agreement with a HashMap
+ */
+class TokenFamilyTableTest {
+
+    private final TokenFamilyTable table = new TokenFamilyTable();
+
+    @Test
+    @DisplayName("Put/Generation - Stored and absent families")
+    void testPutAndGet() {
+        table.put(42L, 0, 1000L);
+
+        assertEquals(0, table.generation(42L));
+        assertEquals(TokenFamilyTable.ABSENT, table.generation(43L));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    @DisplayName("Compare And Set - Only advances from the expected generation")
+    void testCompareAndSet() {
+        table.put(42L, 2, 1000L);
+
+        assertFalse(table.compareAndSet(42L, 1, 2, 2000L));
+        assertTrue(table.compareAndSet(42L, 2, 3, 2000L));
+        assertEquals(3, table.generation(42L));
+        assertFalse(table.compareAndSet(99L, 0, 1, 2000L));
+    }
+
+    @Test
+    @DisplayName("Revoke - Known and unknown families become revoked")
+    void testRevoke() {
+        table.put(42L, 5, 1000L);
+
+        table.revoke(42L, 500L);
+        table.revoke(43L, 1000L);
+
+        assertEquals(TokenFamilyTable.REVOKED, table.generation(42L));
+        assertEquals(TokenFamilyTable.REVOKED, table.generation(43L));
+        assertFalse(table.compareAndSet(42L, 5, 6, 2000L));
+    }
+
+    @Test
+    @DisplayName("Remove Expired - Only expired families are dropped")
+    void testRemoveExpired() {
+        table.put(1L, 0, 100L);
+        table.put(2L, 0, 200L);
+        table.put(3L, 0, 300L);
+
+        assertEquals(2, table.removeExpired(200L));
+
+        assertEquals(TokenFamilyTable.ABSENT, table.generation(1L));
+        assertEquals(TokenFamilyTable.ABSENT, table.generation(2L));
+        assertEquals(0, table.generation(3L));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    @DisplayName("Zero id - Rejected")
+    void testZeroId() {
+        assertThrows(IllegalArgumentException.class, () -> table.put(0L, 0, 100L));
+        assertEquals(TokenFamilyTable.ABSENT, table.generation(0L));
+    }
+
+    @Test
+    @DisplayName("Random operations - Agrees with a HashMap through growth and deletions")
+    void testAgainstHashMap() {
+        Random random = new Random(7);
+        Map<Long, long[]> expected = new HashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            long id = random.nextInt(20_000) + 1;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int generation = random.nextInt(10);
+                    long expiresAt = random.nextInt(1000);
+                    table.put(id, generation, expiresAt);
+                    expected.put(id, new long[] {generation, expiresAt});
+                }
+                case 1 -> {
+                    long[] entry = expected.get(id);
+                    assertEquals(entry == null ? TokenFamilyTable.ABSENT : (int) entry[0], table.generation(id));
+                }
+                default -> {
+                    if (i % 100 == 0) {
+                        long now = random.nextInt(1000);
+                        int removed = table.removeExpired(now);
+                        int before = expected.size();
+                        expected.values().removeIf(entry -> entry[1] <= now);
+                        assertEquals(before - expected.size(), removed);
+                    }
+                }
+            }
+        }
+        assertEquals(expected.size(), table.size());
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.springboot.security.jwt;
+
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for TokenRevocationRegistry
+ *
+ * Tests Module: Authentication - token revocation
+ * Coverage: revoke/isRevoked, startup load, snapshot updates, expiry pruning, filter growth
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TokenRevocationRegistryTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference collectionReference;
+    @Mock private DocumentReference documentReference;
+    @Mock private Query query;
+    @Mock private ApiFuture<QuerySnapshot> queryFuture;
+    @Mock private QuerySnapshot querySnapshot;
+    @Mock private ApiFuture<WriteResult> writeFuture;
+    @Mock private ListenerRegistration listenerRegistration;
+
+    @InjectMocks
+    private TokenRevocationRegistry registry;
+
+    private final String hash = TokenHashUtil.sha256Hex("some.jwt.token");
+
+    @BeforeEach
+    void setUp() {
+        when(firestore.collection("revoked_tokens")).thenReturn(collectionReference);
+        when(collectionReference.document(anyString())).thenReturn(documentReference);
+        when(documentReference.set(anyMap())).thenReturn(writeFuture);
+        when(collectionReference.whereGreaterThan(eq("expiresAt"), anyLong())).thenReturn(query);
+        when(query.get()).thenReturn(queryFuture);
+    }
+
+    private QueryDocumentSnapshot revocationDoc(String id, long expiresAt) {
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.getId()).thenReturn(id);
+        when(doc.getLong("expiresAt")).thenReturn(expiresAt);
+        return doc;
+    }
+
+    @Test
+    @DisplayName("Revoke - Token is revoked locally and persisted under its hash")
+    void testRevoke() {
+        long expiresAt = System.currentTimeMillis() + 60000;
+
+        assertFalse(registry.isRevoked(hash));
+        registry.revoke(hash, expiresAt);
+
+        assertTrue(registry.isRevoked(hash));
+        assertFalse(registry.isRevoked(TokenHashUtil.sha256Hex("other.jwt.token")));
+
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(collectionReference).document(hash);
+        verify(documentReference).set(captor.capture());
+        assertEquals(expiresAt, captor.getValue().get("expiresAt"));
+    }
+
+    @Test
+    @DisplayName("Revoke - Already expired token is ignored")
+    void testRevoke_Expired() {
+        registry.revoke(hash, System.currentTimeMillis() - 1000);
+
+        assertFalse(registry.isRevoked(hash));
+        assertEquals(0, registry.size());
+        verify(documentReference, never()).set(anyMap());
+    }
+
+    @Test
+    @DisplayName("Revoke - Persist failure still revokes locally")
+    void testRevoke_PersistFailure() {
+        when(documentReference.set(anyMap())).thenThrow(new RuntimeException("Firestore down"));
+
+        registry.revoke(hash, System.currentTimeMillis() + 60000);
+
+        assertTrue(registry.isRevoked(hash));
+    }
+
+    @Test
+    @DisplayName("Is Revoked - Null hash")
+    void testIsRevoked_Null() {
+        assertFalse(registry.isRevoked(null));
+    }
+
+    @Test
+    @DisplayName("Start - Loads active revocations and subscribes to changes")
+    void testStart() throws Exception {
+        QueryDocumentSnapshot doc = revocationDoc(hash, System.currentTimeMillis() + 60000);
+        when(queryFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(doc));
+        when(query.addSnapshotListener(any())).thenReturn(listenerRegistration);
+
+        registry.start();
+
+        assertTrue(registry.isRevoked(hash));
+        verify(query).addSnapshotListener(any());
+
+        registry.stop();
+        verify(listenerRegistration).remove();
+    }
+
+    @Test
+    @DisplayName("Start - Firestore failure leaves an empty registry")
+    void testStart_Failure() throws Exception {
+        when(queryFuture.get()).thenThrow(new RuntimeException("Firestore down"));
+        when(query.addSnapshotListener(any())).thenThrow(new RuntimeException("Firestore down"));
+
+        assertDoesNotThrow(() -> registry.start());
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    @DisplayName("Snapshot - Added and removed documents update the set")
+    void testOnSnapshot() {
+        QueryDocumentSnapshot doc = revocationDoc(hash, System.currentTimeMillis() + 60000);
+        DocumentChange added = mock(DocumentChange.class);
+        when(added.getType()).thenReturn(DocumentChange.Type.ADDED);
+        when(added.getDocument()).thenReturn(doc);
+        DocumentChange removed = mock(DocumentChange.class);
+        when(removed.getType()).thenReturn(DocumentChange.Type.REMOVED);
+        when(removed.getDocument()).thenReturn(doc);
+
+        QuerySnapshot addSnapshot = mock(QuerySnapshot.class);
+        when(addSnapshot.getDocumentChanges()).thenReturn(List.of(added));
+        registry.onSnapshot(addSnapshot);
+        assertTrue(registry.isRevoked(hash));
+
+        QuerySnapshot removeSnapshot = mock(QuerySnapshot.class);
+        when(removeSnapshot.getDocumentChanges()).thenReturn(List.of(removed));
+        registry.onSnapshot(removeSnapshot);
+        assertFalse(registry.isRevoked(hash));
+    }
+
+    @Test
+    @DisplayName("Prune - Expired revocations are dropped")
+    @SuppressWarnings("unchecked")
+    void testPruneExpired() {
+        registry.revoke(hash, System.currentTimeMillis() + 60000);
+        Map<String, Long> revoked = (Map<String, Long>) ReflectionTestUtils.getField(registry, "revoked");
+        revoked.put("expired-hash", System.currentTimeMillis() - 1000);
+
+        registry.pruneExpired();
+
+        assertEquals(1, registry.size());
+        assertTrue(registry.isRevoked(hash));
+        assertFalse(registry.isRevoked("expired-hash"));
+    }
+
+    @Test
+    @DisplayName("Filter - Grows past the expected insertions without losing entries")
+    void testFilterGrowth() {
+        ReflectionTestUtils.setField(registry, "expectedInsertions", 2);
+        ReflectionTestUtils.setField(registry, "filterCapacity", 2);
+        long expiresAt = System.currentTimeMillis() + 60000;
+
+        for (int i = 0; i < 10; i++) {
+            registry.revoke(TokenHashUtil.sha256Hex("token-" + i), expiresAt);
+        }
+
+        assertEquals(10, registry.size());
+        for (int i = 0; i < 10; i++) {
+            assertTrue(registry.isRevoked(TokenHashUtil.sha256Hex("token-" + i)));
+        }
+    }
+}
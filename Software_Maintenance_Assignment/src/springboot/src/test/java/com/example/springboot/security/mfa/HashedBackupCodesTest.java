@@ -0,0 +1,68 @@
+package com.example.springboot.security.mfa;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedBackupCodesTest {
+
+    private static final String[] CODES = {"AAAA1111", "BBBB2222", "CCCC3333"};
+
+    @Test
+    @DisplayName("Create - contains every generated code and nothing else")
+    void testCreate_Contains() {
+        HashedBackupCodes hashed = HashedBackupCodes.create(CODES);
+
+        assertEquals(3, hashed.size());
+        for (String code : CODES) {
+            assertTrue(hashed.contains(code));
+        }
+        assertFalse(hashed.contains("DDDD4444"));
+        assertFalse(hashed.contains(null));
+    }
+
+    @Test
+    @DisplayName("Serialize/parse - round trip keeps salt and digests, never plaintext")
+    void testSerializeParse_RoundTrip() {
+        String stored = HashedBackupCodes.create(CODES).serialize();
+
+        assertTrue(HashedBackupCodes.isHashed(stored));
+        for (String code : CODES) {
+            assertFalse(stored.contains(code));
+        }
+        HashedBackupCodes parsed = HashedBackupCodes.parse(stored);
+        assertEquals(3, parsed.size());
+        assertTrue(parsed.contains("BBBB2222"));
+    }
+
+    @Test
+    @DisplayName("Create - salt differs per set")
+    void testCreate_RandomSalt() {
+        assertNotEquals(HashedBackupCodes.create(CODES).serialize(), HashedBackupCodes.create(CODES).serialize());
+    }
+
+    @Test
+    @DisplayName("Without - removes one code and keeps the original unchanged")
+    void testWithout() {
+        HashedBackupCodes hashed = HashedBackupCodes.create(CODES);
+
+        HashedBackupCodes remaining = hashed.without("AAAA1111");
+
+        assertEquals(2, remaining.size());
+        assertFalse(remaining.contains("AAAA1111"));
+        assertTrue(hashed.contains("AAAA1111"));
+
+        HashedBackupCodes empty = HashedBackupCodes.parse(
+            remaining.without("BBBB2222").without("CCCC3333").serialize());
+        assertEquals(0, empty.size());
+    }
+
+    @Test
+    @DisplayName("Parse - legacy encrypted format is rejected")
+    void testParse_Legacy() {
+        assertFalse(HashedBackupCodes.isHashed("a2V5:Y2lwaGVy"));
+        assertFalse(HashedBackupCodes.isHashed(null));
+        assertThrows(IllegalArgumentException.class, () -> HashedBackupCodes.parse("a2V5:Y2lwaGVy"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.springboot.security.mfa;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.Result;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QRCodeRendererTest {
+
+    private final QRCodeRenderer renderer = new QRCodeRenderer();
+
+    @Test
+    @DisplayName("Render PNG - decodes back to the original content")
+    void testRenderPng_RoundTrip() throws Exception {
+        String content = "otpauth://totp/AirlineTicketing%3Auser?secret=JBSWY3DPEHPK3PXP&issuer=AirlineTicketing";
+
+        byte[] png = renderer.renderPng(content);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(QRCodeRenderer.QR_SIZE, image.getWidth());
+        assertEquals(QRCodeRenderer.QR_SIZE, image.getHeight());
+        assertEquals(content, decode(image));
+    }
+
+    @Test
+    @DisplayName("Render data URI - inline base64 PNG")
+    void testRenderDataUri() throws Exception {
+        String uri = renderer.renderDataUri("hello");
+
+        assertTrue(uri.startsWith("data:image/png;base64,"));
+        byte[] png = Base64.getDecoder().decode(uri.substring("data:image/png;base64,".length()));
+        assertEquals("hello", decode(ImageIO.read(new ByteArrayInputStream(png))));
+    }
+
+    @Test
+    @DisplayName("Render PNG - pooled slots don't leak content between concurrent renders")
+    void testRenderPng_Concurrent() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String content = "content-" + i;
+                results.add(pool.submit(() -> decode(ImageIO.read(new ByteArrayInputStream(renderer.renderPng(content))))));
+            }
+            for (int i = 0; i < 40; i++) {
+                assertEquals("content-" + i, results.get(i).get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Render PNG - empty content rejected")
+    void testRenderPng_Empty() {
+        assertThrows(IllegalArgumentException.class, () -> renderer.renderPng(""));
+        assertNull(renderer.toDataUri(null));
+    }
+
+    private String decode(BufferedImage image) throws Exception {
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        Result result = new MultiFormatReader().decode(bitmap);
+        return result.getText();
+    }
+}
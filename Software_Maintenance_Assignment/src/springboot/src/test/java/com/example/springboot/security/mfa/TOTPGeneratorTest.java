@@ -6,8 +6,6 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.MockitoAnnotations;
 
-import java.lang.reflect.Method;
-
 import static org.junit.jupiter.api.Assertions.*;
 
 class TOTPGeneratorTest {
@@ -31,37 +29,33 @@ class TOTPGeneratorTest {
     }
 
     @Test
-    @DisplayName("Generate QR Code URL - Format Check")
-    void testGenerateQRCodeUrl() {
+    @DisplayName("Generate otpauth URI - Format Check")
+    void testGenerateOtpAuthUri() {
         String secret = "JBSWY3DPEHPK3PXP"; // Test Base32 string
         String account = "test@example.com";
         
-        String url = totpGenerator.generateQRCodeUrl(secret, account);
+        String uri = totpGenerator.generateOtpAuthUri(secret, account);
         
-        assertNotNull(url);
-        assertTrue(url.startsWith("https://api.qrserver.com/v1/create-qr-code/"));
-        assertTrue(url.contains("data="));
-        // Encoded "AirlineTicketing"
-        assertTrue(url.contains("AirlineTicketing"));
+        assertNotNull(uri);
+        assertTrue(uri.startsWith("otpauth://totp/AirlineTicketing%3Atest%40example.com?"));
+        assertTrue(uri.contains("secret=" + secret));
+        assertTrue(uri.endsWith("&issuer=AirlineTicketing"));
+        // Secret must never be sent to a third-party QR service
+        assertFalse(uri.contains("http"));
     }
 
     @Test
-    @DisplayName("Validate Code - Logic Test (Reflection/Mocking Time)")
-    void testValidateCode_Logic() throws Exception {
-        // Since validateCode relies on System.currentTimeMillis, we can't easily mock time 
-        // without PowerMock or changing source to use a Clock. 
-        // Instead, we will generate a valid code for "NOW" using the private method and ensure it passes validation.
+    @DisplayName("Validate Code - Logic Test (current code from TOTPVerifier)")
+    void testValidateCode_Logic() {
+        // validateCode relies on System.currentTimeMillis, so generate the code for "NOW"
+        // with TOTPVerifier's public API and ensure it passes validation.
         
         String secret = totpGenerator.generateSecret();
         
-        // Access private method generateCode via reflection
-        Method generateCodeMethod = TOTPGenerator.class.getDeclaredMethod("generateCode", String.class, long.class);
-        generateCodeMethod.setAccessible(true);
-        
         long currentTime = System.currentTimeMillis() / 1000L;
         long timeStep = currentTime / 30; // 30s step
         
-        String validCode = (String) generateCodeMethod.invoke(totpGenerator, secret, timeStep);
+        String validCode = String.format("%06d", new TOTPVerifier(1).generate(secret, timeStep));
         
         // Test 1: Current code
         assertTrue(totpGenerator.validateCode(secret, validCode), "Should validate current code");
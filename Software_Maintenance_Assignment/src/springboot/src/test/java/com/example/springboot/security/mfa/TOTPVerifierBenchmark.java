@@ -0,0 +1,125 @@
+package com.example.springboot.security.mfa;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for TOTP validation: the original per-call implementation
+ * (Base32 decode + Mac.getInstance + String.format for every window step)
+ * against TOTPVerifier. Run with the GC profiler to compare gc.alloc.rate.norm.
+ *
+ * mvn test-compile, then run main() with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TOTPVerifierBenchmark {
+
+    private static final long EPOCH_SECONDS = 1_700_000_000L;
+
+    private TOTPVerifier verifier;
+    private String secret;
+    private String validCode;
+    private String invalidCode;
+
+    @Setup
+    public void setUp() {
+        verifier = new TOTPVerifier(1);
+        secret = new TOTPGenerator().generateSecret();
+        validCode = String.format("%06d", verifier.generate(secret, EPOCH_SECONDS / 30));
+        invalidCode = String.format("%06d", (verifier.generate(secret, EPOCH_SECONDS / 30) + 1) % 1_000_000);
+    }
+
+    @Benchmark
+    public boolean legacyValidCode() throws Exception {
+        return legacyValidate(secret, validCode);
+    }
+
+    @Benchmark
+    public boolean legacyInvalidCode() throws Exception {
+        return legacyValidate(secret, invalidCode);
+    }
+
+    @Benchmark
+    public boolean verifierValidCode() {
+        return verifier.verify(secret, validCode, EPOCH_SECONDS);
+    }
+
+    @Benchmark
+    public boolean verifierInvalidCode() {
+        return verifier.verify(secret, invalidCode, EPOCH_SECONDS);
+    }
+
+    // Mirrors the pre-TOTPVerifier TOTPGenerator.validateCode/generateCode
+    private static boolean legacyValidate(String secret, String code) throws Exception {
+        long currentTimeStep = EPOCH_SECONDS / 30;
+        for (int i = -1; i <= 1; i++) {
+            if (legacyGenerateCode(secret, currentTimeStep + i).equals(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String legacyGenerateCode(String secret, long timeStep) throws Exception {
+        byte[] decodedSecret = legacyDecode(secret);
+        byte[] timeBytes = ByteBuffer.allocate(8).putLong(timeStep).array();
+
+        Mac hmac = Mac.getInstance("HmacSHA1");
+        hmac.init(new SecretKeySpec(decodedSecret, "HmacSHA1"));
+        byte[] hash = hmac.doFinal(timeBytes);
+
+        int offset = hash[hash.length - 1] & 0x0F;
+        int binary = ((hash[offset] & 0x7F) << 24) | ((hash[offset + 1] & 0xFF) << 16)
+            | ((hash[offset + 2] & 0xFF) << 8) | (hash[offset + 3] & 0xFF);
+        return String.format("%06d", binary % (int) Math.pow(10, 6));
+    }
+
+    private static byte[] legacyDecode(String data) {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567";
+        data = data.trim().replaceAll("=", "").toUpperCase();
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        int val = 0;
+        int bits = 0;
+        for (char c : data.toCharArray()) {
+            int index = alphabet.indexOf(c);
+            if (index < 0) continue;
+            val = (val << 5) | index;
+            bits += 5;
+            if (bits >= 8) {
+                bos.write((val >> (bits - 8)) & 0xFF);
+                bits -= 8;
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(TOTPVerifierBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.springboot.security.mfa;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TOTPVerifierTest {
+
+    // RFC 6238 Appendix B SHA1 seed "12345678901234567890" in Base32
+    private static final String RFC_SECRET = "GEZDGNBVGY3TQOJQGEZDGNBVGY3TQOJQ";
+
+    private final TOTPVerifier verifier = new TOTPVerifier(1);
+
+    @Test
+    @DisplayName("Generate - matches RFC 6238 test vectors (last 6 digits)")
+    void testGenerate_RfcVectors() {
+        assertEquals(287082, verifier.generate(RFC_SECRET, 59L / 30));
+        assertEquals(81804, verifier.generate(RFC_SECRET, 1111111109L / 30));
+        assertEquals(5924, verifier.generate(RFC_SECRET, 1234567890L / 30));
+        assertEquals(279037, verifier.generate(RFC_SECRET, 2000000000L / 30));
+    }
+
+    @Test
+    @DisplayName("Verify - accepts current step and +/- 1 window, rejects outside")
+    void testVerify_Window() {
+        assertTrue(verifier.verify(RFC_SECRET, "287082", 59));
+        assertTrue(verifier.verify(RFC_SECRET, "287082", 89));   // next step
+        assertTrue(verifier.verify(RFC_SECRET, "287082", 29));   // previous step
+        assertFalse(verifier.verify(RFC_SECRET, "287082", 120)); // two steps later
+    }
+
+    @Test
+    @DisplayName("Verify - leading zeros are significant")
+    void testVerify_LeadingZeros() {
+        assertTrue(verifier.verify(RFC_SECRET, "081804", 1111111109L));
+        assertFalse(verifier.verify(RFC_SECRET, "81804", 1111111109L));
+    }
+
+    @Test
+    @DisplayName("Verify - malformed codes and secrets are rejected")
+    void testVerify_Malformed() {
+        assertFalse(verifier.verify(RFC_SECRET, null, 59));
+        assertFalse(verifier.verify(RFC_SECRET, "28708a", 59));
+        assertFalse(verifier.verify(RFC_SECRET, "2870820", 59));
+        assertFalse(verifier.verify(null, "287082", 59));
+    }
+
+    @Test
+    @DisplayName("Verify - lowercase and padded secrets decode to the same key")
+    void testVerify_SecretNormalisation() {
+        assertTrue(verifier.verify(RFC_SECRET.toLowerCase(), "287082", 59));
+        assertTrue(verifier.verify(RFC_SECRET + "====", "287082", 59));
+    }
+
+    @Test
+    @DisplayName("Verify - per-thread Mac reuse is safe across threads and secrets")
+    void testVerify_Concurrent() throws Exception {
+        TOTPGenerator generator = new TOTPGenerator();
+        List<String> secrets = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            secrets.add(generator.generateSecret());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String secret = secrets.get(i % secrets.size());
+                long step = 1000 + i;
+                results.add(pool.submit(() -> {
+                    String code = String.format("%06d", verifier.generate(secret, step));
+                    return verifier.verify(secret, code, step * 30);
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Evict - key is re-decoded after eviction")
+    void testEvict() {
+        assertTrue(verifier.verify(RFC_SECRET, "287082", 59));
+        verifier.evict(RFC_SECRET);
+        verifier.evict(null);
+        assertTrue(verifier.verify(RFC_SECRET, "287082", 59));
+    }
+}
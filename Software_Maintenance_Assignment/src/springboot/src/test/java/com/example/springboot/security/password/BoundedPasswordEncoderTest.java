@@ -0,0 +1,52 @@
+package com.example.springboot.security.password;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for BoundedPasswordEncoder
+ *
+ * Tests Module: Security - password hashing
+ * Coverage: encode and matches delegated through the hashing executor
+ */
+@ExtendWith(MockitoExtension.class)
+class BoundedPasswordEncoderTest {
+
+    @Mock private PasswordEncoder delegate;
+    @Mock private PasswordHashingExecutor executor;
+
+    @InjectMocks
+    private BoundedPasswordEncoder encoder;
+
+    @Test
+    @DisplayName("Encode - Runs the delegate on the executor")
+    void testEncode() {
+        when(executor.execute(eq("encode"), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(delegate.encode("secret")).thenReturn("hashed");
+
+        assertEquals("hashed", encoder.encode("secret"));
+        verify(executor).execute(eq("encode"), any());
+    }
+
+    @Test
+    @DisplayName("Matches - Runs the delegate on the executor")
+    void testMatches() {
+        when(executor.execute(eq("matches"), any())).thenAnswer(inv -> ((Supplier<?>) inv.getArgument(1)).get());
+        when(delegate.matches("secret", "hashed")).thenReturn(true);
+
+        assertTrue(encoder.matches("secret", "hashed"));
+        verify(executor).execute(eq("matches"), any());
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.springboot.security.password;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -13,10 +14,12 @@ class PasswordEncoderConfigTest {
     @DisplayName("PasswordEncoder Bean Creation and Functionality")
     void testPasswordEncoder() {
         PasswordEncoderConfig config = new PasswordEncoderConfig();
-        PasswordEncoder encoder = config.passwordEncoder();
+        PasswordHashingExecutor executor = new PasswordHashingExecutor(new SimpleMeterRegistry(), 1, 4);
+        PasswordEncoder encoder = config.passwordEncoder(executor);
 
         assertNotNull(encoder);
-        assertTrue(encoder instanceof BCryptPasswordEncoder);
+        assertTrue(encoder instanceof BoundedPasswordEncoder);
+        assertTrue(((BoundedPasswordEncoder) encoder).getDelegate() instanceof BCryptPasswordEncoder);
 
         String rawPassword = "password123";
         String encoded = encoder.encode(rawPassword);
@@ -24,5 +27,6 @@ class PasswordEncoderConfigTest {
         assertNotEquals(rawPassword, encoded);
         assertTrue(encoder.matches(rawPassword, encoded));
         assertFalse(encoder.matches("wrongPassword", encoded));
+        executor.shutdown();
     }
-}
\ No newline at end of file
+}
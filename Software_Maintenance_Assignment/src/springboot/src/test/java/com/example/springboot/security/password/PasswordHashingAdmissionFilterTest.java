@@ -0,0 +1,80 @@
+package com.example.springboot.security.password;
+
+import com.example.springboot.exception.PasswordHashingUnavailableException;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for PasswordHashingAdmissionFilter
+ *
+ * Tests Module: Security - password hashing
+ * Coverage: 503 with Retry-After when saturated, pass-through otherwise, unaffected routes
+ */
+@ExtendWith(MockitoExtension.class)
+class PasswordHashingAdmissionFilterTest {
+
+    @Mock private PasswordHashingExecutor executor;
+    @Mock private FilterChain filterChain;
+
+    @InjectMocks
+    private PasswordHashingAdmissionFilter filter;
+
+    @Test
+    @DisplayName("Filter - Saturated pool sheds login with 503")
+    void testSaturated() throws Exception {
+        when(executor.isSaturated()).thenReturn(true);
+        when(executor.retryAfterSeconds()).thenReturn(4L);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/auth/login"), response, filterChain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("4", response.getHeader("Retry-After"));
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    @DisplayName("Filter - Idle pool lets the request through")
+    void testNotSaturated() throws Exception {
+        when(executor.isSaturated()).thenReturn(false);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/register/user"), response, filterChain);
+
+        assertEquals(200, response.getStatus());
+        verify(filterChain).doFilter(any(), any());
+    }
+
+    @Test
+    @DisplayName("Filter - Rejection raised downstream becomes 503")
+    void testDownstreamRejection() throws Exception {
+        when(executor.isSaturated()).thenReturn(false);
+        doThrow(new PasswordHashingUnavailableException("busy", 2)).when(filterChain).doFilter(any(), any());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/dashboard/change-password"), response, filterChain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("Filter - Other routes are never checked")
+    void testOtherRoute() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/flights"), new MockHttpServletResponse(), filterChain);
+
+        verify(executor, never()).isSaturated();
+        verify(filterChain).doFilter(any(), any());
+    }
+}
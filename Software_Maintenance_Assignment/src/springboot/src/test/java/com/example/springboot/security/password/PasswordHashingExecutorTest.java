@@ -0,0 +1,103 @@
+package com.example.springboot.security.password;
+
+import com.example.springboot.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PasswordHashingExecutor
+ *
+ * Tests Module: Security - password hashing
+ * Coverage: work runs on the pool, bounded queue rejection, saturation check, timeout, metrics
+ */
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordHashingExecutor(meterRegistry, 1, 2);
+        ReflectionTestUtils.setField(executor, "maxQueueDepth", 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Execute - Runs on a hashing thread and records metrics")
+    void testExecute() {
+        String thread = executor.execute("encode", () -> Thread.currentThread().getName());
+
+        assertTrue(thread.startsWith("password-hashing-"));
+        assertEquals(1, meterRegistry.timer("password_hashing.duration", "operation", "encode").count());
+        assertEquals(1, meterRegistry.timer("password_hashing.queue_wait", "operation", "encode").count());
+    }
+
+    @Test
+    @DisplayName("Execute - Task exceptions are rethrown to the caller")
+    void testExecute_TaskFailure() {
+        assertThrows(IllegalArgumentException.class, () -> executor.execute("matches", () -> {
+            throw new IllegalArgumentException("bad hash");
+        }));
+    }
+
+    @Test
+    @DisplayName("Saturation - Full queue rejects with 503 details and counts the rejection")
+    void testSaturation() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        // One running, two queued: pool and queue are full
+        CompletableFuture.runAsync(() -> executor.execute("encode", () -> {
+            started.countDown();
+            return await();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture.runAsync(() -> executor.execute("encode", this::await));
+        CompletableFuture.runAsync(() -> executor.execute("encode", this::await));
+        waitForQueueDepth(2);
+
+        assertTrue(executor.isSaturated());
+        PasswordHashingUnavailableException ex = assertThrows(PasswordHashingUnavailableException.class,
+                () -> executor.execute("encode", () -> "x"));
+        assertTrue(ex.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.counter("password_hashing.rejected").count());
+    }
+
+    @Test
+    @DisplayName("Timeout - Slow hashing gives up with a 503 exception")
+    void testTimeout() {
+        ReflectionTestUtils.setField(executor, "timeoutMs", 50L);
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> executor.execute("matches", this::await));
+    }
+
+    private String await() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private void waitForQueueDepth(double depth) throws InterruptedException {
+        for (int i = 0; i < 500 && meterRegistry.get("password_hashing.queue_depth").gauge().value() < depth; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
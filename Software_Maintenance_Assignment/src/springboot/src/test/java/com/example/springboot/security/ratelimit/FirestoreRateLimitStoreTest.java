@@ -0,0 +1,164 @@
+package com.example.springboot.security.ratelimit;
+
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for FirestoreRateLimitStore
+ *
+ * Tests Module: Security - rate limiting
+ * Coverage: local decisions without remote calls, batched flush of increments,
+ *           shared totals from other nodes, retry of failed flushes, reset
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FirestoreRateLimitStoreTest {
+
+    private static final String KEY = "login:ip:1.1.1.1";
+    private static final long WINDOW = 60_000L;
+    private static final long NOW = 1_000_000L;
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference collectionReference;
+    @Mock private WriteBatch writeBatch;
+
+    @InjectMocks
+    private FirestoreRateLimitStore store;
+
+    // Cluster-wide counts as other nodes would have written them
+    private final Map<String, Long> remoteCounts = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(firestore.collection(FirestoreRateLimitStore.COLLECTION_NAME)).thenReturn(collectionReference);
+        when(collectionReference.document(anyString())).thenAnswer(inv -> {
+            DocumentReference ref = mock(DocumentReference.class);
+            when(ref.getId()).thenReturn(inv.getArgument(0));
+            return ref;
+        });
+        when(firestore.batch()).thenReturn(writeBatch);
+        when(writeBatch.commit()).thenReturn(ApiFutures.immediateFuture(Collections.emptyList()));
+        when(firestore.getAll(any(DocumentReference[].class))).thenAnswer(inv -> {
+            List<DocumentSnapshot> snapshots = new ArrayList<>();
+            for (Object arg : inv.getArguments()) {
+                DocumentReference[] refs = arg instanceof DocumentReference[] array
+                        ? array : new DocumentReference[] {(DocumentReference) arg};
+                for (DocumentReference ref : refs) {
+                    // Read the id before stubbing; calling a mock inside when() leaves it unfinished
+                    String id = ref.getId();
+                    Long count = remoteCounts.get(id);
+                    DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+                    when(snapshot.getId()).thenReturn(id);
+                    when(snapshot.exists()).thenReturn(count != null);
+                    when(snapshot.getLong("count")).thenReturn(count);
+                    snapshots.add(snapshot);
+                }
+            }
+            return ApiFutures.immediateFuture(snapshots);
+        });
+    }
+
+    @Test
+    @DisplayName("Try Acquire - Decided locally without touching Firestore")
+    void testTryAcquire_Local() {
+        assertEquals(0L, store.tryAcquire(KEY, 2, WINDOW, NOW));
+        assertEquals(0L, store.tryAcquire(KEY, 2, WINDOW, NOW));
+        assertTrue(store.tryAcquire(KEY, 2, WINDOW, NOW) > 0);
+
+        verifyNoInteractions(firestore);
+    }
+
+    @Test
+    @DisplayName("Flush - Pending increments written as one merged increment per window")
+    void testFlush_WritesIncrements() {
+        store.record(KEY, WINDOW, NOW);
+        store.record(KEY, WINDOW, NOW);
+        remoteCounts.put(documentId(NOW / WINDOW), 2L);     // Firestore after applying the increment
+
+        store.flush(NOW);
+
+        verify(writeBatch, times(1)).set(any(DocumentReference.class), anyMap(), any(SetOptions.class));
+        verify(writeBatch).commit();
+        // Counted once: the refreshed total replaces the flushed local increments
+        assertEquals(2, store.count(KEY, WINDOW, NOW));
+
+        // Nothing new to write on the next flush
+        store.flush(NOW);
+        verify(writeBatch, times(1)).commit();
+    }
+
+    @Test
+    @DisplayName("Flush - Counts from other nodes are applied after refresh")
+    void testFlush_SharedCounts() {
+        assertEquals(0L, store.tryAcquire(KEY, 5, WINDOW, NOW));
+        remoteCounts.put(documentId(NOW / WINDOW), 5L);
+
+        store.flush(NOW);
+
+        assertEquals(5, store.count(KEY, WINDOW, NOW));
+        assertTrue(store.tryAcquire(KEY, 5, WINDOW, NOW) > 0);
+    }
+
+    @Test
+    @DisplayName("Flush - Failed write keeps increments pending for the next flush")
+    void testFlush_FailureRetried() {
+        when(writeBatch.commit())
+                .thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("Firestore down")))
+                .thenReturn(ApiFutures.immediateFuture(Collections.emptyList()));
+        store.record(KEY, WINDOW, NOW);
+
+        store.flush(NOW);
+        assertEquals(1, store.count(KEY, WINDOW, NOW));
+
+        store.flush(NOW);
+        verify(writeBatch, times(2)).set(any(DocumentReference.class), anyMap(), any(SetOptions.class));
+    }
+
+    @Test
+    @DisplayName("Flush - Idle keys stop being refreshed")
+    void testFlush_DropsIdleKeys() {
+        store.record(KEY, WINDOW, NOW);
+        store.flush(NOW);
+        assertEquals(1, store.activeKeyCount());
+
+        store.flush(NOW + 2 * WINDOW);
+
+        assertEquals(0, store.activeKeyCount());
+    }
+
+    @Test
+    @DisplayName("Reset - Clears local counts and deletes the shared windows")
+    void testReset() {
+        store.record(KEY, WINDOW, NOW);
+
+        store.reset(KEY, WINDOW);
+
+        assertEquals(0, store.count(KEY, WINDOW, NOW));
+        verify(writeBatch, times(2)).delete(any(DocumentReference.class));
+        verify(writeBatch).commit();
+    }
+
+    private String documentId(long window) {
+        return TokenHashUtil.sha256Hex(KEY) + "-" + window;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.springboot.security.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for InMemoryRateLimitStore
+ *
+ * Tests Module: Security - rate limiting
+ * Coverage: independent counters per key, retry-after on rejection, record/count/reset, idle eviction
+ */
+class InMemoryRateLimitStoreTest {
+
+    private static final long WINDOW = 60_000L;
+    private static final long NOW = 1_000_000L;
+
+    private InMemoryRateLimitStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryRateLimitStore();
+    }
+
+    @Test
+    @DisplayName("Try Acquire - Rejects once the key is over its limit")
+    void testTryAcquire() {
+        assertEquals(0L, store.tryAcquire("login:ip:1.1.1.1", 2, WINDOW, NOW));
+        assertEquals(0L, store.tryAcquire("login:ip:1.1.1.1", 2, WINDOW, NOW));
+
+        long retryAfter = store.tryAcquire("login:ip:1.1.1.1", 2, WINDOW, NOW);
+        assertTrue(retryAfter > 0 && retryAfter <= 2 * WINDOW);
+    }
+
+    @Test
+    @DisplayName("Try Acquire - Keys are counted independently")
+    void testIndependentKeys() {
+        store.tryAcquire("login:ip:1.1.1.1", 1, WINDOW, NOW);
+
+        assertEquals(0L, store.tryAcquire("login:ip:2.2.2.2", 1, WINDOW, NOW));
+        assertEquals(0L, store.tryAcquire("register:ip:1.1.1.1", 1, WINDOW, NOW));
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    @DisplayName("Record - Counts events and reset forgets them")
+    void testRecordAndReset() {
+        assertEquals(1, store.record("failures:user@example.com", WINDOW, NOW));
+        assertEquals(2, store.record("failures:user@example.com", WINDOW, NOW));
+        assertEquals(2, store.count("failures:user@example.com", WINDOW, NOW));
+
+        store.reset("failures:user@example.com", WINDOW);
+        assertEquals(0, store.count("failures:user@example.com", WINDOW, NOW));
+    }
+
+    @Test
+    @DisplayName("Evict Idle - Drops counters untouched for two windows")
+    void testEvictIdle() {
+        store.tryAcquire("old", 5, WINDOW, NOW);
+        store.tryAcquire("recent", 5, WINDOW, NOW + 2 * WINDOW);
+
+        assertEquals(1, store.evictIdle(NOW + 2 * WINDOW));
+        assertEquals(1, store.size());
+    }
+}
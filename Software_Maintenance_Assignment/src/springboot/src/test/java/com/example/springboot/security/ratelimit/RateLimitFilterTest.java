@@ -0,0 +1,176 @@
+package com.example.springboot.security.ratelimit;
+
+import com.example.springboot.config.RateLimitConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for RateLimitFilter
+ *
+ * Tests Module: Security - rate limiting
+ * Coverage: per-IP, per-account and per-route policies, 429 response with Retry-After, throttle metric
+ */
+class RateLimitFilterTest {
+
+    private RateLimitConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter filter;
+    private FilterChain filterChain;
+
+    @BeforeEach
+    void setUp() {
+        config = new RateLimitConfig();
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RateLimitFilter(config, new InMemoryRateLimitStore(), meterRegistry);
+        filterChain = mock(FilterChain.class);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Filter - Unmatched route passes through")
+    void testUnmatchedRoute() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/api/flights", "1.1.1.1"), response, filterChain);
+
+        verify(filterChain).doFilter(any(), any());
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Filter - Per-IP limit returns 429 with Retry-After")
+    void testIpLimitExceeded() throws Exception {
+        int limit = config.getPolicies().get("register").getIpLimit();
+        for (int i = 0; i < limit; i++) {
+            MockHttpServletResponse ok = new MockHttpServletResponse();
+            filter.doFilter(request("POST", "/api/register/user", "1.1.1.1"), ok, filterChain);
+            assertEquals(200, ok.getStatus());
+        }
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/api/register/user", "1.1.1.1"), response, filterChain);
+
+        assertEquals(429, response.getStatus());
+        assertNotNull(response.getHeader("Retry-After"));
+        assertTrue(Long.parseLong(response.getHeader("Retry-After")) > 0);
+        assertTrue(response.getContentAsString().contains("Too Many Requests"));
+        verify(filterChain, times(limit)).doFilter(any(), any());
+        assertEquals(1.0, meterRegistry.counter("rate_limit.throttled",
+                "policy", "register", "dimension", "ip").count());
+
+        // Another client is unaffected
+        MockHttpServletResponse other = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/api/register/user", "2.2.2.2"), other, filterChain);
+        assertEquals(200, other.getStatus());
+    }
+
+    @Test
+    @DisplayName("Filter - Per-account limit applies across IPs")
+    void testAccountLimitExceeded() throws Exception {
+        config.getPolicies().put("booking-confirm", policy("/api/booking/confirm", 0, 2, 0));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "user1", null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+
+        filter.doFilter(request("POST", "/api/booking/confirm", "1.1.1.1"), new MockHttpServletResponse(), filterChain);
+        filter.doFilter(request("POST", "/api/booking/confirm", "2.2.2.2"), new MockHttpServletResponse(), filterChain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/api/booking/confirm", "3.3.3.3"), response, filterChain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals(1.0, meterRegistry.counter("rate_limit.throttled",
+                "policy", "booking-confirm", "dimension", "account").count());
+    }
+
+    @Test
+    @DisplayName("Filter - Route limit applies across all callers")
+    void testRouteLimitExceeded() throws Exception {
+        config.getPolicies().put("login", policy("/api/auth/login", 0, 0, 1));
+
+        filter.doFilter(request("POST", "/api/auth/login", "1.1.1.1"), new MockHttpServletResponse(), filterChain);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request("POST", "/api/auth/login", "2.2.2.2"), response, filterChain);
+
+        assertEquals(429, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Filter - Method mismatch is not limited")
+    void testMethodMismatch() throws Exception {
+        config.getPolicies().put("login", policy("/api/auth/login", 0, 0, 1));
+
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(request("GET", "/api/auth/login", "1.1.1.1"), new MockHttpServletResponse(), filterChain);
+        }
+
+        verify(filterChain, times(3)).doFilter(any(), any());
+    }
+
+    @Test
+    @DisplayName("Filter - Forwarded client IP used only when trusted")
+    void testForwardedFor() throws Exception {
+        config.getPolicies().put("login", policy("/api/auth/login", 1, 0, 0));
+        config.setTrustForwardedFor(true);
+
+        MockHttpServletRequest first = request("POST", "/api/auth/login", "10.0.0.1");
+        first.addHeader("X-Forwarded-For", "1.1.1.1, 10.0.0.1");
+        MockHttpServletRequest second = request("POST", "/api/auth/login", "10.0.0.1");
+        second.addHeader("X-Forwarded-For", "2.2.2.2, 10.0.0.1");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(first, new MockHttpServletResponse(), filterChain);
+        filter.doFilter(second, response, filterChain);
+
+        assertEquals(200, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Filter - Disabled limiter lets everything through")
+    void testDisabled() throws Exception {
+        config.setEnabled(false);
+        config.getPolicies().put("login", policy("/api/auth/login", 0, 0, 1));
+
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(request("POST", "/api/auth/login", "1.1.1.1"), new MockHttpServletResponse(), filterChain);
+        }
+
+        verify(filterChain, times(3)).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest request(String method, String uri, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+
+    private RateLimitConfig.Policy policy(String path, int ipLimit, int accountLimit, int routeLimit) {
+        RateLimitConfig.Policy policy = new RateLimitConfig.Policy();
+        policy.setMethod("POST");
+        policy.setPaths(List.of(path));
+        policy.setWindow(Duration.ofMinutes(1));
+        policy.setIpLimit(ipLimit);
+        policy.setAccountLimit(accountLimit);
+        policy.setRouteLimit(routeLimit);
+        return policy;
+    }
+}
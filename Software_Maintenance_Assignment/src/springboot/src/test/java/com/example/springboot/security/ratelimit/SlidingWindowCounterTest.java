@@ -0,0 +1,123 @@
+package com.example.springboot.security.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for SlidingWindowCounter
+ *
+ * Tests Module: Security - rate limiting
+ * Coverage: limit enforcement, sliding decay across windows, retry-after, idleness, concurrent CAS updates
+ */
+class SlidingWindowCounterTest {
+
+    private static final long WINDOW = 1000L;
+    private static final long START = 10_000L;
+
+    @Test
+    @DisplayName("Try Acquire - Allows up to the limit within a window")
+    void testTryAcquire_Limit() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(counter.tryAcquire(5, START));
+        }
+        assertFalse(counter.tryAcquire(5, START));
+        assertEquals(5, counter.count(START));
+    }
+
+    @Test
+    @DisplayName("Sliding Window - Previous window decays as the current one elapses")
+    void testSlidingDecay() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW);
+        for (int i = 0; i < 5; i++) {
+            counter.record(START);
+        }
+
+        // Half way through the next window half of the previous count still applies
+        assertEquals(3, counter.count(START + WINDOW + WINDOW / 2));
+        assertTrue(counter.tryAcquire(5, START + WINDOW + WINDOW / 2));
+        // Two windows later the first five are gone; the acquire above is now the previous window
+        assertEquals(1, counter.count(START + 2 * WINDOW));
+        assertEquals(1, counter.count(START + 2 * WINDOW + WINDOW / 2));
+        // and a window after that nothing is left
+        assertEquals(0, counter.count(START + 3 * WINDOW));
+    }
+
+    @Test
+    @DisplayName("Retry After - Request fits exactly when the retry delay has passed")
+    void testRetryAfter() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW);
+        for (int i = 0; i < 5; i++) {
+            counter.record(START);
+        }
+
+        long retryAfter = counter.retryAfterMillis(5, START + 200);
+        assertTrue(retryAfter > 0);
+        assertFalse(counter.tryAcquire(5, START + 200 + retryAfter - 2));
+        assertTrue(counter.tryAcquire(5, START + 200 + retryAfter));
+        assertEquals(0L, new SlidingWindowCounter(WINDOW).retryAfterMillis(5, START));
+    }
+
+    @Test
+    @DisplayName("Idle - Counter is idle after two untouched windows")
+    void testIsIdle() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW);
+        counter.record(START);
+
+        assertFalse(counter.isIdle(START + WINDOW));
+        assertTrue(counter.isIdle(START + 2 * WINDOW));
+    }
+
+    @Test
+    @DisplayName("Reset - Clears all counts")
+    void testReset() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(WINDOW);
+        counter.record(START);
+        counter.reset();
+
+        assertEquals(0, counter.count(START));
+    }
+
+    @Test
+    @DisplayName("Concurrency - Concurrent callers never exceed the limit")
+    void testConcurrentTryAcquire() throws Exception {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000L);
+        long now = System.currentTimeMillis();
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                startLatch.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (counter.tryAcquire(500, now)) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        startLatch.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, allowed.get());
+        assertEquals(500, counter.count(now));
+    }
+
+    @Test
+    @DisplayName("Constructor - Rejects a non-positive window")
+    void testInvalidWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new SlidingWindowCounter(0));
+    }
+}
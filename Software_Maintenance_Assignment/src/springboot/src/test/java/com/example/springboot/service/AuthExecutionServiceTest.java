@@ -2,6 +2,7 @@ package com.example.springboot.service;
 
 import com.example.springboot.dto.request.LoginRequestDTO;
 import com.example.springboot.dto.request.MFARequestDTO;
+import com.example.springboot.dto.request.RefreshTokenRequestDTO;
 import com.example.springboot.dto.request.SocialLoginRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
 import com.example.springboot.dto.response.JWTResponseDTO;
@@ -159,6 +160,26 @@ class AuthExecutionServiceTest {
         assertTrue(exception.getMessage().contains("MFA verification failed"));
     }
 
+    @Test
+    void testRefreshTokens_Success() {
+        JWTResponseDTO tokens = JWTResponseDTO.builder().accessToken("new_access").refreshToken("new_refresh").build();
+        when(tokenService.refreshTokens("old_refresh")).thenReturn(tokens);
+
+        AuthResponseDTO response = authExecutionService.refreshTokens(new RefreshTokenRequestDTO("old_refresh"));
+
+        assertTrue(response.getSuccess());
+        assertEquals("new_refresh", response.getTokens().getRefreshToken());
+    }
+
+    @Test
+    void testRefreshTokens_Rejected() {
+        when(tokenService.refreshTokens("reused_refresh"))
+            .thenThrow(new InvalidCredentialsException("Refresh token has already been used, please log in again"));
+
+        assertThrows(InvalidCredentialsException.class,
+            () -> authExecutionService.refreshTokens(new RefreshTokenRequestDTO("reused_refresh")));
+    }
+
     @Test
     void testLogout_Success() {
         String jwt = "valid_jwt_token";
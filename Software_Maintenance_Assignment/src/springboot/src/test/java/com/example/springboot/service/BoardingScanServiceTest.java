@@ -0,0 +1,340 @@
+package com.example.springboot.service;
+
+import com.example.springboot.dto.response.BoardingScanResponseDTO;
+import com.example.springboot.model.Flight;
+import com.example.springboot.model.Passenger;
+import com.example.springboot.model.Seat;
+import com.example.springboot.model.Ticket;
+import com.example.springboot.repository.FirestoreRepository;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for BoardingScanService
+ *
+ * Tests Module: Gate Boarding Module
+ * Coverage: Index preload, in-memory scans, duplicate scans, fallback lookup, batched flush,
+ *           flight status and boarding window checks, eviction
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Boarding Scan Service Tests")
+class BoardingScanServiceTest {
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2030, 1, 1, 13, 0);
+    private static final LocalDateTime BOARDING = DEPARTURE.minusHours(1);
+
+    @Mock
+    private FirestoreRepository repository;
+
+    @Mock
+    private Firestore firestore;
+
+    @Mock
+    private CollectionReference collection;
+
+    @Mock
+    private DocumentReference documentReference;
+
+    @InjectMocks
+    private BoardingScanService boardingScanService;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.getFirestore()).thenReturn(firestore);
+        when(firestore.collection(anyString())).thenReturn(collection);
+        when(collection.document()).thenReturn(documentReference);
+        when(collection.document(anyString())).thenReturn(documentReference);
+    }
+
+    @Test
+    @DisplayName("Preload flight - indexes tickets with one batched passenger/seat fetch")
+    void testPreloadFlight() throws Exception {
+        stubPreload();
+
+        int count = boardingScanService.preloadFlight("F001");
+
+        assertEquals(2, count);
+        assertEquals(2, boardingScanService.getIndexedTicketCount());
+        verify(repository, times(1)).findAllByIds(eq("passengers"), anyCollection(), eq(Passenger.class));
+        verify(repository, times(1)).findAllByIds(eq("seats"), anyCollection(), eq(Seat.class));
+    }
+
+    @Test
+    @DisplayName("Scan - indexed reference boards without touching Firestore")
+    void testScan_FromIndex() throws Exception {
+        stubPreload();
+        boardingScanService.preloadFlight("F001");
+        clearInvocations(repository);
+
+        BoardingScanResponseDTO response = boardingScanService.scan("REF1", "A1", BOARDING);
+
+        assertTrue(response.getSuccess());
+        assertEquals(BoardingScanService.STATUS_BOARDED, response.getStatus());
+        assertEquals("Alice", response.getPassengerName());
+        assertEquals("12", response.getSeatNumber());
+        assertNotNull(response.getBoardedAt());
+        assertEquals(1, boardingScanService.getPendingScanCount());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("Scan - second scan of same pass is rejected")
+    void testScan_AlreadyBoarded() throws Exception {
+        stubPreload();
+        boardingScanService.preloadFlight("F001");
+
+        boardingScanService.scan("REF1", "A1", BOARDING);
+        BoardingScanResponseDTO second = boardingScanService.scan("REF1", "A2", BOARDING);
+
+        assertFalse(second.getSuccess());
+        assertEquals(BoardingScanService.STATUS_ALREADY_BOARDED, second.getStatus());
+        assertEquals(1, boardingScanService.getPendingScanCount());
+    }
+
+    @Test
+    @DisplayName("Scan - unknown reference falls back to a single query")
+    void testScan_NotIndexed_NotFound() throws Exception {
+        Query query = mock(Query.class);
+        when(collection.whereEqualTo("bookingReference", "NOPE")).thenReturn(query);
+        when(query.limit(1)).thenReturn(query);
+        stubQueryResult(query, Collections.emptyList());
+
+        BoardingScanResponseDTO response = boardingScanService.scan("NOPE", "A1");
+
+        assertFalse(response.getSuccess());
+        assertEquals(BoardingScanService.STATUS_NOT_FOUND, response.getStatus());
+        assertEquals(0, boardingScanService.getPendingScanCount());
+    }
+
+    @Test
+    @DisplayName("Scan - a failed lookup is reported as such, not as an unknown pass")
+    @SuppressWarnings("unchecked")
+    void testScan_NotIndexed_LookupFails() throws Exception {
+        Query query = mock(Query.class);
+        ApiFuture<QuerySnapshot> future = mock(ApiFuture.class);
+        when(collection.whereEqualTo("bookingReference", "REF1")).thenReturn(query);
+        when(query.limit(1)).thenReturn(query);
+        when(query.get()).thenReturn(future);
+        when(future.get()).thenThrow(new ExecutionException(new RuntimeException("Firestore unavailable")));
+
+        BoardingScanResponseDTO response = boardingScanService.scan("REF1", "A1");
+
+        assertFalse(response.getSuccess());
+        assertEquals(BoardingScanService.STATUS_LOOKUP_FAILED, response.getStatus());
+        assertEquals(0, boardingScanService.getPendingScanCount());
+    }
+
+    @Test
+    @DisplayName("Scan - blank reference throws")
+    void testScan_Blank() {
+        assertThrows(IllegalArgumentException.class, () -> boardingScanService.scan("  ", "A1"));
+    }
+
+    @Test
+    @DisplayName("Flush scans - queued scans are committed in one batch")
+    @SuppressWarnings("unchecked")
+    void testFlushScans() throws Exception {
+        stubPreload();
+        boardingScanService.preloadFlight("F001");
+        boardingScanService.scan("REF1", "A1", BOARDING);
+        boardingScanService.scan("REF2", "A1", BOARDING);
+
+        WriteBatch batch = mock(WriteBatch.class);
+        ApiFuture<List<WriteResult>> commitFuture = mock(ApiFuture.class);
+        when(firestore.batch()).thenReturn(batch);
+        when(batch.commit()).thenReturn(commitFuture);
+        when(commitFuture.get()).thenReturn(Collections.emptyList());
+
+        boardingScanService.flushScans();
+
+        verify(batch, times(2)).set(any(DocumentReference.class), anyMap());
+        verify(batch, times(2)).update(any(DocumentReference.class), anyMap());
+        verify(batch, times(1)).commit();
+        assertEquals(0, boardingScanService.getPendingScanCount());
+    }
+
+    @Test
+    @DisplayName("Flush scans - failed commit re-queues scans")
+    void testFlushScans_FailureRequeues() throws Exception {
+        stubPreload();
+        boardingScanService.preloadFlight("F001");
+        boardingScanService.scan("REF1", "A1", BOARDING);
+
+        WriteBatch batch = mock(WriteBatch.class);
+        when(firestore.batch()).thenReturn(batch);
+        when(batch.commit()).thenThrow(new RuntimeException("Firestore unavailable"));
+
+        boardingScanService.flushScans();
+
+        assertEquals(1, boardingScanService.getPendingScanCount());
+    }
+
+    @Test
+    @DisplayName("Scan - pass of an inactive flight is rejected")
+    void testScan_FlightNotActive() throws Exception {
+        stubPreload("INACTIVE");
+        boardingScanService.preloadFlight("F001");
+
+        BoardingScanResponseDTO response = boardingScanService.scan("REF1", "A1", BOARDING);
+
+        assertFalse(response.getSuccess());
+        assertEquals(BoardingScanService.STATUS_FLIGHT_NOT_ACTIVE, response.getStatus());
+        assertEquals(0, boardingScanService.getPendingScanCount());
+    }
+
+    @Test
+    @DisplayName("Scan - pass is rejected before the window opens and after departure")
+    void testScan_OutsideBoardingWindow() throws Exception {
+        stubPreload();
+        boardingScanService.preloadFlight("F001");
+
+        BoardingScanResponseDTO early = boardingScanService.scan("REF1", "A1", DEPARTURE.minusHours(25));
+        BoardingScanResponseDTO late = boardingScanService.scan("REF1", "A1", DEPARTURE.plusMinutes(1));
+
+        assertEquals(BoardingScanService.STATUS_OUTSIDE_BOARDING_WINDOW, early.getStatus());
+        assertEquals(BoardingScanService.STATUS_OUTSIDE_BOARDING_WINDOW, late.getStatus());
+        assertEquals(0, boardingScanService.getPendingScanCount());
+        assertTrue(boardingScanService.scan("REF1", "A1", BOARDING).getSuccess());
+    }
+
+    @Test
+    @DisplayName("Scan - looked-up entry is checked against its flight and evicted after departure")
+    void testScan_NotIndexed_EvictedAfterDeparture() throws Exception {
+        stubPreload();
+        Query query = mock(Query.class);
+        when(collection.whereEqualTo("bookingReference", "REF1")).thenReturn(query);
+        when(query.limit(1)).thenReturn(query);
+        stubQueryResult(query, List.of(ticketDoc("t1", "REF1", "p1", "s1")));
+        when(repository.findById("passengers", "p1", Passenger.class)).thenReturn(new Passenger());
+        when(repository.findById("seats", "s1", Seat.class)).thenReturn(new Seat());
+
+        BoardingScanResponseDTO response = boardingScanService.scan("REF1", "A1", BOARDING);
+
+        assertTrue(response.getSuccess());
+        assertEquals(1, boardingScanService.getIndexedTicketCount());
+
+        boardingScanService.evictDepartedFlights(DEPARTURE.plusHours(3));
+
+        assertEquals(0, boardingScanService.getIndexedTicketCount());
+    }
+
+    @Test
+    @DisplayName("Preload flight - flight without a valid departure is rejected")
+    void testPreloadFlight_NoDeparture() throws Exception {
+        stubPreload();
+        Flight flight = new Flight();
+        flight.setFlightId("F001");
+        flight.setDepartureDate("not a date");
+        QueryDocumentSnapshot flightDoc = mock(QueryDocumentSnapshot.class);
+        when(flightDoc.toObject(Flight.class)).thenReturn(flight);
+        Query flightQuery = mock(Query.class);
+        when(repository.getCollectionByField("flights", "flightId", "F001")).thenReturn(flightQuery);
+        stubQueryResult(flightQuery, List.of(flightDoc));
+
+        assertThrows(IllegalArgumentException.class, () -> boardingScanService.preloadFlight("F001"));
+        assertEquals(0, boardingScanService.getIndexedTicketCount());
+    }
+
+    @Test
+    @DisplayName("Evict flight - drops its entries so the next scan looks it up again")
+    void testEvictFlight() throws Exception {
+        stubPreload();
+        boardingScanService.preloadFlight("F001");
+
+        boardingScanService.evictFlight("F001");
+
+        assertEquals(0, boardingScanService.getIndexedTicketCount());
+    }
+
+    // ==================== Helpers ====================
+
+    private void stubPreload() throws Exception {
+        stubPreload("ACTIVE");
+    }
+
+    private void stubPreload(String status) throws Exception {
+        Flight flight = new Flight();
+        flight.setFlightId("F001");
+        flight.setDepartureDate("1/1/2030");
+        flight.setDepartureTime(1300);
+        flight.setStatus(status);
+
+        QueryDocumentSnapshot flightDoc = mock(QueryDocumentSnapshot.class);
+        when(flightDoc.getId()).thenReturn("flight-doc-1");
+        when(flightDoc.toObject(Flight.class)).thenReturn(flight);
+
+        Query flightQuery = mock(Query.class);
+        when(repository.getCollectionByField("flights", "flightId", "F001")).thenReturn(flightQuery);
+        stubQueryResult(flightQuery, List.of(flightDoc));
+
+        Query ticketQuery = mock(Query.class);
+        when(repository.getCollectionByField("tickets", "flightId", "F001")).thenReturn(ticketQuery);
+        stubQueryResult(ticketQuery, List.of(ticketDoc("t1", "REF1", "p1", "s1"), ticketDoc("t2", "REF2", "p2", "s2")));
+
+        Passenger alice = new Passenger();
+        alice.setFullName("Alice");
+        Passenger bob = new Passenger();
+        bob.setFullName("Bob");
+        Seat seat12 = new Seat();
+        seat12.setSeatNumber(12);
+        seat12.setTypeOfSeat("Economy");
+        Seat seat3 = new Seat();
+        seat3.setSeatNumber(3);
+        seat3.setTypeOfSeat("Business");
+
+        when(repository.findAllByIds(eq("passengers"), anyCollection(), eq(Passenger.class)))
+            .thenReturn(Map.of("p1", alice, "p2", bob));
+        when(repository.findAllByIds(eq("seats"), anyCollection(), eq(Seat.class)))
+            .thenReturn(Map.of("s1", seat12, "s2", seat3));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubQueryResult(Query query, List<QueryDocumentSnapshot> docs) throws Exception {
+        ApiFuture<QuerySnapshot> future = mock(ApiFuture.class);
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(query.get()).thenReturn(future);
+        when(future.get()).thenReturn(snapshot);
+        when(snapshot.isEmpty()).thenReturn(docs.isEmpty());
+        when(snapshot.getDocuments()).thenReturn(docs);
+    }
+
+    private QueryDocumentSnapshot ticketDoc(String id, String ref, String passengerId, String seatId) {
+        Ticket ticket = new Ticket();
+        ticket.setBookingReference(ref);
+        ticket.setPassengerId(passengerId);
+        ticket.setSeatId(seatId);
+        ticket.setFlightId("F001");
+
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.getId()).thenReturn(id);
+        when(doc.toObject(Ticket.class)).thenReturn(ticket);
+        return doc;
+    }
+}
@@ -9,18 +9,24 @@ import com.example.springboot.strategy.PricingContext;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.QuerySnapshot;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -53,6 +59,15 @@ class BookingServiceTest {
     @Mock
     private PassengerFactory passengerFactory;
 
+    @Spy
+    private TicketEnrichmentExecutor enrichmentExecutor = new TicketEnrichmentExecutor(2, 2, false);
+
+    @Mock
+    private FlightDetailsCache flightDetailsCache;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private ApiFuture<QuerySnapshot> queryFuture;
 
@@ -109,6 +124,8 @@ class BookingServiceTest {
 
         // Setup test booking request
         testBookingRequest = createTestBookingRequest();
+
+        when(flightDetailsCache.getAsync(anyString())).thenReturn(CompletableFuture.completedFuture(null));
     }
 
     // ==================== CALCULATE SEAT PRICE TESTS ====================
@@ -273,7 +290,39 @@ class BookingServiceTest {
         verify(repository).save(eq("tickets"), any(Ticket.class));
         verify(repository).save(eq("payments"), any(Payment.class));
         verify(repository).updateField("seats", "seat-doc-1", "statusSeat", "Booked");
+        verify(notificationService).prepareBookingSuccessEmail("john@example.com", "ABC12345");
+        verify(notificationService).commitNotification("notification-1");
+        verify(notificationService, never()).sendBookingSuccessEmail(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should complete the booking and email directly when the outbox is unavailable")
+    void testProcessBooking_OutboxUnavailable_SendsDirectly() throws Exception {
+        // Arrange
+        setupSuccessfulBooking();
+        when(notificationService.prepareBookingSuccessEmail(anyString(), anyString())).thenReturn(null);
+
+        // Act
+        Ticket result = bookingService.processBooking(testBookingRequest);
+
+        // Assert
+        assertEquals("ticket-doc-1", result.getDocumentId());
+        verify(repository).updateField("seats", "seat-doc-1", "statusSeat", "Booked");
         verify(notificationService).sendBookingSuccessEmail("john@example.com", "ABC12345");
+        verify(notificationService, never()).commitNotification(any());
+    }
+
+    @Test
+    @DisplayName("Should drop the prepared notification when a booking write fails")
+    void testProcessBooking_WriteFails_AbortsNotification() throws Exception {
+        // Arrange
+        setupSuccessfulBooking();
+        when(repository.save(eq("payments"), any(Payment.class))).thenThrow(new RuntimeException("Firestore unavailable"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> bookingService.processBooking(testBookingRequest));
+        verify(notificationService).abortNotification("notification-1");
+        verify(notificationService, never()).commitNotification(anyString());
     }
 
     @Test
@@ -296,9 +345,7 @@ class BookingServiceTest {
     void testProcessBooking_FlightNotFound() throws Exception {
         // Arrange
         when(repository.findById("seats", "seat-doc-1", Seat.class)).thenReturn(testSeat);
-        when(repository.getCollectionByField("flights", "flightId", "F001")).thenReturn(query);
-        when(query.get()).thenReturn(queryFuture);
-        when(queryFuture.get()).thenReturn(querySnapshot);
+        when(repository.findByField("flights", "flightId", "F001")).thenReturn(querySnapshot);
         when(querySnapshot.isEmpty()).thenReturn(true);
 
         // Act & Assert
@@ -378,9 +425,9 @@ class BookingServiceTest {
     @DisplayName("Should get ticket details with full enrichment")
     void testGetTicketDetails_FullEnrichment() throws Exception {
         // Arrange
-        when(repository.findById("tickets", "ticket-doc-1", Ticket.class)).thenReturn(testTicket);
-        when(repository.findById("passengers", "passenger-doc-1", Passenger.class)).thenReturn(testPassenger);
-        when(repository.findById("seats", "seat-doc-1", Seat.class)).thenReturn(testSeat);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(CompletableFuture.completedFuture(testPassenger));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(testSeat));
         setupFlightQuery();
 
         // Act
@@ -398,7 +445,7 @@ class BookingServiceTest {
     @DisplayName("Should throw exception when ticket not found")
     void testGetTicketDetails_TicketNotFound() throws Exception {
         // Arrange
-        when(repository.findById("tickets", "ticket-doc-1", Ticket.class)).thenReturn(null);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act & Assert
         RuntimeException exception = assertThrows(
@@ -413,9 +460,9 @@ class BookingServiceTest {
     @DisplayName("Should handle missing passenger gracefully")
     void testGetTicketDetails_NoPassenger() throws Exception {
         // Arrange
-        when(repository.findById("tickets", "ticket-doc-1", Ticket.class)).thenReturn(testTicket);
-        when(repository.findById("passengers", "passenger-doc-1", Passenger.class)).thenReturn(null);
-        when(repository.findById("seats", "seat-doc-1", Seat.class)).thenReturn(testSeat);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(CompletableFuture.completedFuture(null));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(testSeat));
         setupFlightQuery();
 
         // Act
@@ -430,9 +477,9 @@ class BookingServiceTest {
     @DisplayName("Should handle missing seat gracefully")
     void testGetTicketDetails_NoSeat() throws Exception {
         // Arrange
-        when(repository.findById("tickets", "ticket-doc-1", Ticket.class)).thenReturn(testTicket);
-        when(repository.findById("passengers", "passenger-doc-1", Passenger.class)).thenReturn(testPassenger);
-        when(repository.findById("seats", "seat-doc-1", Seat.class)).thenReturn(null);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(CompletableFuture.completedFuture(testPassenger));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(null));
 
         // Act
         Ticket result = bookingService.getTicketDetails("ticket-doc-1");
@@ -447,9 +494,9 @@ class BookingServiceTest {
     void testGetTicketDetails_NullFlightId() throws Exception {
         // Arrange
         testSeat.setFlightId(null);
-        when(repository.findById("tickets", "ticket-doc-1", Ticket.class)).thenReturn(testTicket);
-        when(repository.findById("passengers", "passenger-doc-1", Passenger.class)).thenReturn(testPassenger);
-        when(repository.findById("seats", "seat-doc-1", Seat.class)).thenReturn(testSeat);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(CompletableFuture.completedFuture(testPassenger));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(testSeat));
 
         // Act
         Ticket result = bookingService.getTicketDetails("ticket-doc-1");
@@ -464,9 +511,9 @@ class BookingServiceTest {
     void testGetTicketDetails_EmptyFlightId() throws Exception {
         // Arrange
         testSeat.setFlightId("");
-        when(repository.findById("tickets", "ticket-doc-1", Ticket.class)).thenReturn(testTicket);
-        when(repository.findById("passengers", "passenger-doc-1", Passenger.class)).thenReturn(testPassenger);
-        when(repository.findById("seats", "seat-doc-1", Seat.class)).thenReturn(testSeat);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(CompletableFuture.completedFuture(testPassenger));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(testSeat));
 
         // Act
         Ticket result = bookingService.getTicketDetails("ticket-doc-1");
@@ -480,10 +527,10 @@ class BookingServiceTest {
     @DisplayName("Should handle exception when loading passenger")
     void testGetTicketDetails_PassengerException() throws Exception {
         // Arrange
-        when(repository.findById("tickets", "ticket-doc-1", Ticket.class)).thenReturn(testTicket);
-        when(repository.findById("passengers", "passenger-doc-1", Passenger.class))
-            .thenThrow(new RuntimeException("Database error"));
-        when(repository.findById("seats", "seat-doc-1", Seat.class)).thenReturn(testSeat);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Database error")));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(testSeat));
         setupFlightQuery();
 
         // Act
@@ -492,16 +539,18 @@ class BookingServiceTest {
         // Assert - Should not throw
         assertNotNull(result);
         assertNull(result.getPassengerDetails());
+        assertEquals(1, meterRegistry.get("booking.ticket_details.missing")
+            .tag("part", "passenger").tag("reason", "error").counter().count());
     }
 
     @Test
     @DisplayName("Should handle exception when loading seat")
     void testGetTicketDetails_SeatException() throws Exception {
         // Arrange
-        when(repository.findById("tickets", "ticket-doc-1", Ticket.class)).thenReturn(testTicket);
-        when(repository.findById("passengers", "passenger-doc-1", Passenger.class)).thenReturn(testPassenger);
-        when(repository.findById("seats", "seat-doc-1", Seat.class))
-            .thenThrow(new RuntimeException("Database error"));
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(CompletableFuture.completedFuture(testPassenger));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class))
+            .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Database error")));
 
         // Act
         Ticket result = bookingService.getTicketDetails("ticket-doc-1");
@@ -511,6 +560,76 @@ class BookingServiceTest {
         assertNotNull(result.getPassengerDetails());
     }
 
+    @Test
+    @DisplayName("Should resolve the flight from the ticket's Flight ID without a flights query")
+    void testGetTicketDetails_FlightFromTicketFlightId() throws Exception {
+        // Arrange
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(CompletableFuture.completedFuture(testPassenger));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(testSeat));
+        when(flightDetailsCache.getAsync("F001")).thenReturn(CompletableFuture.completedFuture(testFlight));
+
+        // Act
+        Ticket result = bookingService.getTicketDetails("ticket-doc-1");
+
+        // Assert
+        assertEquals(testFlight, result.getFlightDetails());
+        verify(flightDetailsCache, times(1)).getAsync("F001");
+        verify(repository, never()).findByField(eq("flights"), anyString(), anyString());
+        verify(repository, never()).findById(anyString(), anyString(), any());
+        assertEquals(1, meterRegistry.get("booking.ticket_details.duration").tag("outcome", "complete").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the seat's Flight ID for tickets without one")
+    void testGetTicketDetails_LegacyTicketUsesSeatFlightId() throws Exception {
+        // Arrange
+        testTicket.setFlightId(null);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(CompletableFuture.completedFuture(testPassenger));
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(testSeat));
+        when(flightDetailsCache.getAsync("F001")).thenReturn(CompletableFuture.completedFuture(testFlight));
+
+        // Act
+        Ticket result = bookingService.getTicketDetails("ticket-doc-1");
+
+        // Assert
+        assertEquals(testFlight, result.getFlightDetails());
+    }
+
+    @Test
+    @DisplayName("Should return what arrived before the deadline")
+    void testGetTicketDetails_DeadlineReturnsPartialTicket() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(bookingService, "ticketDetailsTimeoutMs", 50L);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(CompletableFuture.completedFuture(testTicket));
+        when(repository.findByIdAsync("passengers", "passenger-doc-1", Passenger.class)).thenReturn(new CompletableFuture<>());
+        when(repository.findByIdAsync("seats", "seat-doc-1", Seat.class)).thenReturn(CompletableFuture.completedFuture(testSeat));
+        when(flightDetailsCache.getAsync("F001")).thenReturn(CompletableFuture.completedFuture(testFlight));
+
+        // Act
+        Ticket result = bookingService.getTicketDetails("ticket-doc-1");
+
+        // Assert
+        assertNull(result.getPassengerDetails());
+        assertEquals("101", result.getSeatNumberDisplay());
+        assertEquals(testFlight, result.getFlightDetails());
+        assertEquals(1, meterRegistry.get("booking.ticket_details.duration").tag("outcome", "partial").timer().count());
+        assertEquals(1, meterRegistry.get("booking.ticket_details.missing")
+            .tag("part", "passenger").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should fail when the ticket itself misses the deadline")
+    void testGetTicketDetails_TicketTimeout() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(bookingService, "ticketDetailsTimeoutMs", 50L);
+        when(repository.findByIdAsync("tickets", "ticket-doc-1", Ticket.class)).thenReturn(new CompletableFuture<>());
+
+        // Act & Assert
+        assertThrows(TimeoutException.class, () -> bookingService.getTicketDetails("ticket-doc-1"));
+    }
+
     // ==================== GET CUSTOMER TICKETS TESTS ====================
 
     // @Test
@@ -610,6 +729,25 @@ class BookingServiceTest {
         assertNull(tickets.get(0).getFlightDetails());
     }
 
+    @Test
+    @DisplayName("Should enrich every ticket and keep query order")
+    void testGetCustomerTickets_EnrichesAllTickets() throws Exception {
+        // Arrange
+        setupCustomerTicketsQuery(createMockTicketDocuments(3));
+        when(repository.findById(eq("passengers"), anyString(), eq(Passenger.class))).thenReturn(testPassenger);
+
+        // Act
+        List<Ticket> tickets = bookingService.getCustomerTickets("customer-1");
+
+        // Assert
+        assertEquals(3, tickets.size());
+        for (int i = 0; i < tickets.size(); i++) {
+            assertEquals("ticket-doc-" + i, tickets.get(i).getDocumentId());
+            assertEquals(testPassenger, tickets.get(i).getPassengerDetails());
+        }
+        verify(enrichmentExecutor).forEach(eq(tickets), any());
+    }
+
     // ==================== GET SEAT BY ID TESTS ====================
 
     @Test
@@ -695,9 +833,7 @@ class BookingServiceTest {
     void testGetFlightBySeatId_FlightNotFound() throws Exception {
         // Arrange
         when(repository.findById("seats", "seat-doc-1", Seat.class)).thenReturn(testSeat);
-        when(repository.getCollectionByField("flights", "flightId", "F001")).thenReturn(query);
-        when(query.get()).thenReturn(queryFuture);
-        when(queryFuture.get()).thenReturn(querySnapshot);
+        when(repository.findByField("flights", "flightId", "F001")).thenReturn(querySnapshot);
         when(querySnapshot.isEmpty()).thenReturn(true);
 
         // Act & Assert
@@ -733,7 +869,7 @@ class BookingServiceTest {
         when(repository.save(eq("tickets"), any(Ticket.class))).thenReturn("ticket-doc-1");
         when(repository.save(eq("payments"), any(Payment.class))).thenReturn("payment-doc-1");
         doNothing().when(repository).updateField(anyString(), anyString(), anyString(), any());
-        doNothing().when(notificationService).sendBookingSuccessEmail(anyString(), anyString());
+        when(notificationService.prepareBookingSuccessEmail(anyString(), anyString())).thenReturn("notification-1");
     }
 
     private void setupFlightQuery() throws Exception {
@@ -744,11 +880,10 @@ class BookingServiceTest {
         List<QueryDocumentSnapshot> flightDocs = new ArrayList<>();
         flightDocs.add(flightDoc);
         
-        when(repository.getCollectionByField("flights", "flightId", "F001")).thenReturn(query);
-        when(query.get()).thenReturn(queryFuture);
-        when(queryFuture.get()).thenReturn(querySnapshot);
+        when(repository.findByField("flights", "flightId", "F001")).thenReturn(querySnapshot);
         when(querySnapshot.isEmpty()).thenReturn(false);
         when(querySnapshot.getDocuments()).thenReturn(flightDocs);
+        when(flightDetailsCache.getAsync("F001")).thenReturn(CompletableFuture.completedFuture(testFlight));
     }
 
     private void setupRepositoryForSeats(List<QueryDocumentSnapshot> docs) throws Exception {
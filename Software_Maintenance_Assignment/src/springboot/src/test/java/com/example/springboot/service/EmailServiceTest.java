@@ -13,7 +13,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Locale;
+import java.util.Map;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +31,12 @@ class EmailServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MailDispatcher mailDispatcher;
+
+    @Mock
+    private EmailTemplateRenderer templateRenderer;
+
     @InjectMocks
     private EmailService emailService;
 
@@ -39,6 +51,8 @@ class EmailServiceTest {
         
         // Lenient stubbing for createMimeMessage because it's called in all methods
         lenient().when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        lenient().when(mailDispatcher.enqueue(any(MimeMessage.class))).thenReturn(true);
+        lenient().when(templateRenderer.render(anyString(), any(Locale.class), anyMap())).thenReturn("<html></html>");
     }
 
     @Test
@@ -50,7 +64,8 @@ class EmailServiceTest {
 
         emailService.sendVerificationEmail(user, token);
 
-        verify(mailSender, times(1)).send(mimeMessage);
+        verify(mailDispatcher).enqueue(mimeMessage);
+        verify(mailSender, never()).send(any(MimeMessage.class));
     }
 
     @Test
@@ -58,12 +73,38 @@ class EmailServiceTest {
         User user = new User();
         user.setEmail("test@example.com");
         
-        doThrow(new RuntimeException("Mail server down")).when(mailSender).send(any(MimeMessage.class));
+        // Queue stayed full: message dropped, caller unaffected
+        when(mailDispatcher.enqueue(any(MimeMessage.class))).thenReturn(false);
 
         // Method catches exception, so this should not throw
         emailService.sendVerificationEmail(user, "token");
 
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(mailDispatcher).enqueue(any(MimeMessage.class));
+    }
+
+    @Test
+    void testSendVerificationEmail_RendersTemplate() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setName("Test User");
+
+        emailService.sendVerificationEmail(user, "verify-token-123");
+
+        verify(templateRenderer).render("verification", Locale.ENGLISH, Map.of(
+                "userName", "Test User",
+                "verificationUrl", "http://localhost:8080/pages/verify-email.html?token=verify-token-123"));
+    }
+
+    @Test
+    void testSendWelcomeEmail_UsesConfiguredLocale() {
+        ReflectionTestUtils.setField(emailService, "emailLocale", "ms");
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setName("Test User");
+
+        emailService.sendWelcomeEmail(user);
+
+        verify(templateRenderer).render(eq("welcome"), eq(Locale.forLanguageTag("ms")), anyMap());
     }
 
     @Test
@@ -73,18 +114,20 @@ class EmailServiceTest {
 
         emailService.sendPasswordResetEmail(email, token);
 
-        verify(mailSender, times(1)).send(mimeMessage);
+        verify(mailDispatcher).enqueue(mimeMessage);
+        verify(mailSender, never()).send(any(MimeMessage.class));
     }
 
     @Test
     void testSendPasswordResetEmail_Exception() {
         String email = "test@example.com";
         
-        doThrow(new RuntimeException("Mail error")).when(mailSender).send(any(MimeMessage.class));
+        // Queue stayed full: message dropped, caller unaffected
+        when(mailDispatcher.enqueue(any(MimeMessage.class))).thenReturn(false);
 
         emailService.sendPasswordResetEmail(email, "token");
 
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(mailDispatcher).enqueue(any(MimeMessage.class));
     }
 
     @Test
@@ -95,7 +138,8 @@ class EmailServiceTest {
 
         emailService.sendWelcomeEmail(user);
 
-        verify(mailSender, times(1)).send(mimeMessage);
+        verify(mailDispatcher).enqueue(mimeMessage);
+        verify(mailSender, never()).send(any(MimeMessage.class));
     }
 
     @Test
@@ -103,10 +147,11 @@ class EmailServiceTest {
         User user = new User();
         user.setEmail("test@example.com");
         
-        doThrow(new RuntimeException("Mail error")).when(mailSender).send(any(MimeMessage.class));
+        // Queue stayed full: message dropped, caller unaffected
+        when(mailDispatcher.enqueue(any(MimeMessage.class))).thenReturn(false);
 
         emailService.sendWelcomeEmail(user);
 
-        verify(mailSender, times(1)).send(any(MimeMessage.class));
+        verify(mailDispatcher).enqueue(any(MimeMessage.class));
     }
 }
\ No newline at end of file
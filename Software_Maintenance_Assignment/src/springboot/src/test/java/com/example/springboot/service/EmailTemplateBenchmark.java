@@ -0,0 +1,115 @@
+package com.example.springboot.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark for building one verification email body: the original
+ * String.format text block against EmailTemplateRenderer (template parsed once,
+ * output into the reused per-thread buffer). Run with the GC profiler to compare
+ * gc.alloc.rate.norm (bytes allocated per email). The template path is the slower of
+ * the two (about 18 vs 4 us and 16.6 vs 15.3 KB per email on JDK 17); it is kept for
+ * maintainability, and this benchmark tracks what that costs.
+ *
+ * mvn test-compile, then run main() with the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class EmailTemplateBenchmark {
+
+    private static final String USER_NAME = "Test User";
+    private static final String VERIFICATION_URL = "http://localhost:8080/pages/verify-email.html?token=3f1c9a7e-2b4d-4e8f-9a6b-0c5d7e8f9a1b";
+
+    private EmailTemplateRenderer renderer;
+    private Map<String, Object> variables;
+
+    @Setup
+    public void setUp() {
+        renderer = new EmailTemplateRenderer(List.of("en"));
+        renderer.preload();
+        variables = Map.of("userName", USER_NAME, "verificationUrl", VERIFICATION_URL);
+    }
+
+    @Benchmark
+    public String legacyStringFormat() {
+        return legacyVerificationEmailHtml(USER_NAME, VERIFICATION_URL);
+    }
+
+    @Benchmark
+    public String cachedTemplate() {
+        return renderer.render("verification", Locale.ENGLISH, variables);
+    }
+
+    // Mirrors the pre-template EmailService.buildVerificationEmailHtml
+    private static String legacyVerificationEmailHtml(String userName, String verificationUrl) {
+        return String.format("""
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="UTF-8">
+                <style>
+                    body { font-family: Arial, sans-serif; line-height: 1.6; color: #333; }
+                    .container { max-width: 600px; margin: 0 auto; padding: 20px; }
+                    .header { background: linear-gradient(135deg, #667eea 0%%, #764ba2 100%%); 
+                              color: white; padding: 30px; text-align: center; border-radius: 10px 10px 0 0; }
+                    .content { background: #f9f9f9; padding: 30px; border-radius: 0 0 10px 10px; }
+                    .button { display: inline-block; padding: 15px 30px; background: #667eea; 
+                              color: white; text-decoration: none; border-radius: 5px; margin: 20px 0; }
+                    .footer { text-align: center; color: #999; font-size: 12px; margin-top: 20px; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+                    <div class="header">
+                        <h1>✈️ Airline Ticketing</h1>
+                        <p>Email Verification</p>
+                    </div>
+                    <div class="content">
+                        <h2>Hello %s!</h2>
+                        <p>Thank you for registering with Airline Ticketing. Please verify your email address to complete your registration.</p>
+                        <p style="text-align: center;">
+                            <a href="%s" class="button">Verify Email Address</a>
+                        </p>
+                        <p>Or copy and paste this link in your browser:</p>
+                        <p style="word-break: break-all; color: #667eea;">%s</p>
+                        <p><strong>This link will expire in 24 hours.</strong></p>
+                        <p>If you didn't create an account, please ignore this email.</p>
+                    </div>
+                    <div class="footer">
+                        <p>&copy; 2024 Airline Ticketing. All rights reserved.</p>
+                    </div>
+                </div>
+            </body>
+            </html>
+            """, userName, verificationUrl, verificationUrl);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+            .include(EmailTemplateBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
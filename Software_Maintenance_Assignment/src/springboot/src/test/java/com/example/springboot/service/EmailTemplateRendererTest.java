@@ -0,0 +1,82 @@
+package com.example.springboot.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for EmailTemplateRenderer
+ *
+ * Tests Module: Email Notification Module
+ * Coverage: rendering of every email template, locale variant lookup and fallback,
+ * escaping, buffer reuse between renders
+ */
+class EmailTemplateRendererTest {
+
+    private EmailTemplateRenderer renderer;
+
+    @BeforeEach
+    void setUp() {
+        renderer = new EmailTemplateRenderer(List.of("en", "ms"));
+        renderer.preload();
+    }
+
+    @Test
+    @DisplayName("Render - Verification email contains the name and link")
+    void testRenderVerification() {
+        String html = renderer.render("verification", Locale.ENGLISH, Map.of(
+                "userName", "Test User",
+                "verificationUrl", "http://localhost:8080/pages/verify-email.html?token=abc"));
+
+        assertTrue(html.contains("Hello <span>Test User</span>!"));
+        assertTrue(html.contains("href=\"http://localhost:8080/pages/verify-email.html?token=abc\""));
+        assertTrue(html.contains("This link will expire in 24 hours."));
+    }
+
+    @Test
+    @DisplayName("Render - Locale variant is used when present")
+    void testRenderLocaleVariant() {
+        String html = renderer.render("welcome", Locale.forLanguageTag("ms-MY"), Map.of(
+                "userName", "Ali", "loginUrl", "http://localhost:8080/pages/login.html"));
+
+        assertTrue(html.contains("Selamat Datang"));
+        assertEquals("welcome_ms", renderer.resolve("welcome", Locale.forLanguageTag("ms-MY")));
+    }
+
+    @Test
+    @DisplayName("Render - Unknown locale falls back to the default template")
+    void testRenderFallback() {
+        String html = renderer.render("password-reset", Locale.FRENCH, Map.of("resetUrl", "http://x/reset"));
+
+        assertTrue(html.contains("Reset Your Password"));
+        assertEquals("password-reset", renderer.resolve("password-reset", Locale.FRENCH));
+    }
+
+    @Test
+    @DisplayName("Render - User-supplied values are HTML-escaped")
+    void testRenderEscapesValues() {
+        String html = renderer.render("welcome", Locale.ENGLISH, Map.of(
+                "userName", "<script>alert(1)</script>", "loginUrl", "http://x/login"));
+
+        assertFalse(html.contains("<script>"));
+        assertTrue(html.contains("&lt;script&gt;"));
+    }
+
+    @Test
+    @DisplayName("Render - Consecutive renders on one thread do not leak into each other")
+    void testBufferReuse() {
+        String first = renderer.render("welcome", Locale.ENGLISH, Map.of("userName", "First", "loginUrl", "u"));
+        String second = renderer.render("welcome", Locale.ENGLISH, Map.of("userName", "Second", "loginUrl", "u"));
+
+        assertTrue(first.contains("First"));
+        assertTrue(second.contains("Second"));
+        assertFalse(second.contains("First"));
+        assertEquals(first.length() + 1, second.length());
+    }
+}
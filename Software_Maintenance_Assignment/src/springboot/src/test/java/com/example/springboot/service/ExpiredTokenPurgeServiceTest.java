@@ -0,0 +1,142 @@
+package com.example.springboot.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for ExpiredTokenPurgeService
+ *
+ * Tests Module: Background jobs - expired token cleanup
+ * Coverage: lease gating, paged range deletes, delete budget, lease loss mid-run
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ExpiredTokenPurgeServiceTest {
+
+    @Mock private Firestore firestore;
+    @Mock private LeaderLeaseService leaseService;
+    @Mock private CollectionReference collectionReference;
+    @Mock private Query query;
+    @Mock private ApiFuture<QuerySnapshot> queryFuture;
+    @Mock private QuerySnapshot querySnapshot;
+    @Mock private BulkWriter bulkWriter;
+
+    @InjectMocks
+    private ExpiredTokenPurgeService purgeService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(firestore.collection(anyString())).thenReturn(collectionReference);
+        when(collectionReference.whereLessThan(anyString(), any())).thenReturn(query);
+        when(query.select(anyString())).thenReturn(query);
+        when(query.limit(anyInt())).thenReturn(query);
+        when(query.get()).thenReturn(queryFuture);
+        when(queryFuture.get()).thenReturn(querySnapshot);
+        when(firestore.bulkWriter(any(BulkWriterOptions.class))).thenReturn(bulkWriter);
+        when(bulkWriter.flush()).thenReturn(ApiFutures.immediateFuture(null));
+        when(leaseService.isHeld(ExpiredTokenPurgeService.LEASE_NAME)).thenReturn(true);
+    }
+
+    private List<QueryDocumentSnapshot> expiredDocs(int count) {
+        QueryDocumentSnapshot[] docs = new QueryDocumentSnapshot[count];
+        for (int i = 0; i < count; i++) {
+            docs[i] = mock(QueryDocumentSnapshot.class);
+            when(docs[i].getReference()).thenReturn(mock(DocumentReference.class));
+        }
+        return List.of(docs);
+    }
+
+    @Test
+    @DisplayName("Purge - Skipped when another node holds the lease")
+    void testPurge_NotLeader() {
+        when(leaseService.tryAcquire(ExpiredTokenPurgeService.LEASE_NAME)).thenReturn(false);
+
+        purgeService.purgeExpiredTokens();
+
+        verify(firestore, never()).bulkWriter(any(BulkWriterOptions.class));
+    }
+
+    @Test
+    @DisplayName("Purge - Leader range-queries every collection and closes the writer")
+    void testPurge_Leader() throws Exception {
+        when(leaseService.tryAcquire(ExpiredTokenPurgeService.LEASE_NAME)).thenReturn(true);
+        when(querySnapshot.getDocuments()).thenReturn(Collections.emptyList());
+
+        purgeService.purgeExpiredTokens();
+
+        verify(firestore).collection("refresh_tokens");
+        verify(firestore).collection("password_reset_tokens");
+        verify(firestore).collection("email_verification_tokens");
+        verify(firestore).collection("revoked_tokens");
+        verify(firestore).collection("token_families");
+        verify(firestore).collection("rate_limits");
+        verify(collectionReference, times(3)).whereLessThan(eq("expiryDate"), anyString());
+        verify(collectionReference, times(3)).whereLessThan(eq("expiresAt"), anyLong());
+        verify(bulkWriter).close();
+    }
+
+    @Test
+    @DisplayName("Purge - Deletes page by page until a short page")
+    void testPurge_Pages() {
+        ReflectionTestUtils.setField(purgeService, "pageSize", 2);
+        List<QueryDocumentSnapshot> fullPage = expiredDocs(2);
+        List<QueryDocumentSnapshot> lastPage = expiredDocs(1);
+        when(querySnapshot.getDocuments()).thenReturn(fullPage, lastPage);
+
+        int deleted = purgeService.purge(bulkWriter, "refresh_tokens", "expiryDate", "2030-01-01T00:00", 100);
+
+        assertEquals(3, deleted);
+        verify(bulkWriter, times(3)).delete(any(DocumentReference.class));
+        verify(bulkWriter, times(2)).flush();
+    }
+
+    @Test
+    @DisplayName("Purge - Stops at the delete budget")
+    void testPurge_Budget() {
+        ReflectionTestUtils.setField(purgeService, "pageSize", 2);
+        List<QueryDocumentSnapshot> page = expiredDocs(2);
+        when(querySnapshot.getDocuments()).thenReturn(page);
+
+        int deleted = purgeService.purge(bulkWriter, "refresh_tokens", "expiryDate", "2030-01-01T00:00", 4);
+
+        assertEquals(4, deleted);
+        verify(query, times(2)).get();
+    }
+
+    @Test
+    @DisplayName("Purge - Stops when the lease is lost")
+    void testPurge_LeaseLost() {
+        when(leaseService.isHeld(ExpiredTokenPurgeService.LEASE_NAME)).thenReturn(false);
+
+        int deleted = purgeService.purge(bulkWriter, "refresh_tokens", "expiryDate", "2030-01-01T00:00", 100);
+
+        assertEquals(0, deleted);
+        verify(query, never()).get();
+    }
+
+    @Test
+    @DisplayName("Purge - Query failure is logged, not thrown")
+    void testPurge_Failure() throws Exception {
+        when(queryFuture.get()).thenThrow(new RuntimeException("Firestore down"));
+
+        assertEquals(0, purgeService.purge(bulkWriter, "refresh_tokens", "expiryDate", "2030-01-01T00:00", 100));
+    }
+}
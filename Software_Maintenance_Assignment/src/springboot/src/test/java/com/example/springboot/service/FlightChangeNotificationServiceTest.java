@@ -0,0 +1,320 @@
+package com.example.springboot.service;
+
+import com.example.springboot.dto.response.FlightNotificationProgressDTO;
+import com.example.springboot.model.Flight;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for FlightChangeNotificationService
+ *
+ * Tests Module: Staff Dashboard - Flight Management
+ * Coverage: paging through tickets, batched passenger reads, email de-duplication,
+ * throttled sending, progress reporting, recorded progress, stopping on a lost lease and
+ * resuming interrupted runs
+ */
+class FlightChangeNotificationServiceTest {
+
+    private Firestore firestore;
+    private ThrottledMailSender throttledMailSender;
+    private LeaderLeaseService leaseService;
+    private CollectionReference jobs;
+    private DocumentReference jobDocument;
+    private CollectionReference passengers;
+    private Query tickets;
+    private FlightChangeNotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        firestore = mock(Firestore.class);
+        throttledMailSender = mock(ThrottledMailSender.class);
+        leaseService = mock(LeaderLeaseService.class);
+        jobs = mock(CollectionReference.class);
+        jobDocument = mock(DocumentReference.class);
+        when(firestore.collection("flight_notification_jobs")).thenReturn(jobs);
+        when(jobs.document(anyString())).thenReturn(jobDocument);
+        when(jobDocument.set(anyMap(), any(SetOptions.class))).thenReturn(ApiFutures.immediateFuture(null));
+        when(leaseService.tryAcquire(anyString())).thenReturn(true);
+        when(leaseService.isHeld(anyString())).thenReturn(true);
+        CollectionReference ticketCollection = mock(CollectionReference.class);
+        passengers = mock(CollectionReference.class);
+        tickets = mock(Query.class, RETURNS_SELF);
+        when(firestore.collection("tickets")).thenReturn(ticketCollection);
+        when(firestore.collection("passengers")).thenReturn(passengers);
+        when(ticketCollection.whereEqualTo("flightId", "F001")).thenReturn(tickets);
+        service = new FlightChangeNotificationService(firestore, throttledMailSender, leaseService);
+    }
+
+    @Test
+    @DisplayName("Fan-out - One email per unique address, duplicates counted")
+    void testRun_DeduplicatesEmails() throws Exception {
+        // Two tickets share p1; p2 has the same address in a different case
+        stubTicketPages(List.of(ticket("t1", "p1"), ticket("t2", "p1"), ticket("t3", "p2"), ticket("t4", "p3")));
+        stubPassengers(List.of(passenger("john@example.com"), passenger("John@Example.com "), passenger("mary@example.com")));
+        when(throttledMailSender.send(anyList())).thenReturn(0);
+
+        FlightChangeNotificationService.Job job = new FlightChangeNotificationService.Job("job-1", "F001", "CANCELLED");
+        service.run(job, "Flight F001 has been cancelled", "text");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SimpleMailMessage>> sent = ArgumentCaptor.forClass(List.class);
+        verify(throttledMailSender).send(sent.capture());
+        assertEquals(2, sent.getValue().size());
+        assertEquals("john@example.com", sent.getValue().get(0).getTo()[0]);
+        assertEquals("mary@example.com", sent.getValue().get(1).getTo()[0]);
+
+        FlightNotificationProgressDTO progress = job.toProgress();
+        assertEquals("COMPLETED", progress.getStatus());
+        assertEquals(4, progress.getTicketsScanned());
+        assertEquals(2, progress.getRecipients());
+        assertEquals(2, progress.getDuplicatesSkipped());
+        assertEquals(2, progress.getSent());
+        assertNotNull(progress.getFinishedAt());
+    }
+
+    @Test
+    @DisplayName("Fan-out - Pages through tickets after the last document")
+    void testRun_Paging() throws Exception {
+        ReflectionTestUtils.setField(service, "pageSize", 2);
+        stubTicketPages(List.of(ticket("t1", "p1"), ticket("t2", "p2")), List.of(ticket("t3", "p3")));
+        stubPassengers(List.of(passenger("a@example.com"), passenger("b@example.com")), List.of(passenger("c@example.com")));
+        when(throttledMailSender.send(anyList())).thenReturn(1);
+
+        FlightChangeNotificationService.Job job = new FlightChangeNotificationService.Job("job-1", "F001", "CHANGED");
+        service.run(job, "subject", "text");
+
+        verify(tickets).startAfter("t2");
+        verify(throttledMailSender, times(2)).send(anyList());
+        assertEquals(3, job.toProgress().getTicketsScanned());
+        assertEquals(3, job.toProgress().getRecipients());
+        assertEquals(2, job.toProgress().getFailed());
+        assertEquals(1, job.toProgress().getSent());
+    }
+
+    @Test
+    @DisplayName("Fan-out - A Firestore failure marks the run FAILED")
+    void testRun_Failure() throws Exception {
+        when(tickets.get()).thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("unavailable")));
+
+        FlightChangeNotificationService.Job job = new FlightChangeNotificationService.Job("job-1", "F001", "CHANGED");
+        service.run(job, "subject", "text");
+
+        assertEquals("FAILED", job.toProgress().getStatus());
+        assertNotNull(job.toProgress().getError());
+        verifyNoInteractions(throttledMailSender);
+    }
+
+    @Test
+    @DisplayName("Progress - Recorded after every page under the job's lease, lease released at the end")
+    void testRun_RecordsProgress() throws Exception {
+        ReflectionTestUtils.setField(service, "pageSize", 2);
+        stubTicketPages(List.of(ticket("t1", "p1"), ticket("t2", "p2")), List.of(ticket("t3", "p3")));
+        stubPassengers(List.of(passenger("a@example.com"), passenger("b@example.com")), List.of(passenger("c@example.com")));
+        when(throttledMailSender.send(anyList())).thenReturn(0);
+
+        FlightChangeNotificationService.Job job = new FlightChangeNotificationService.Job("job-1", "F001", "CHANGED");
+        service.run(job, "subject", "text");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> writes = ArgumentCaptor.forClass(Map.class);
+        verify(jobs, atLeastOnce()).document("job-1");
+        // Start, one per page, finish
+        verify(jobDocument, times(4)).set(writes.capture(), any(SetOptions.class));
+        List<Map<String, Object>> recorded = writes.getAllValues();
+        assertEquals("subject", recorded.get(0).get("subject"));
+        assertEquals("t2", recorded.get(1).get("lastTicketId"));
+        assertEquals(2, recorded.get(1).get("sent"));
+        assertEquals("RUNNING", recorded.get(2).get("status"));
+        assertEquals("t3", recorded.get(2).get("lastTicketId"));
+        assertEquals("COMPLETED", recorded.get(3).get("status"));
+        verify(leaseService).tryAcquire("flight-notifications-job-1");
+        verify(leaseService).release("flight-notifications-job-1");
+    }
+
+    @Test
+    @DisplayName("Progress - A run whose lease lapses stops before the next page and records nothing more")
+    void testRun_LeaseLost() throws Exception {
+        ReflectionTestUtils.setField(service, "pageSize", 2);
+        stubTicketPages(List.of(ticket("t1", "p1"), ticket("t2", "p2")), List.of(ticket("t3", "p3")));
+        stubPassengers(List.of(passenger("a@example.com"), passenger("b@example.com")), List.of(passenger("c@example.com")));
+        when(throttledMailSender.send(anyList())).thenReturn(0);
+        // Held for the first page and its progress write, gone before the second page
+        when(leaseService.isHeld("flight-notifications-job-1")).thenReturn(true, true, false);
+
+        FlightChangeNotificationService.Job job = new FlightChangeNotificationService.Job("job-1", "F001", "CHANGED");
+        service.run(job, "subject", "text");
+
+        verify(throttledMailSender, times(1)).send(anyList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Map<String, Object>> writes = ArgumentCaptor.forClass(Map.class);
+        // Start and the first page only
+        verify(jobDocument, times(2)).set(writes.capture(), any(SetOptions.class));
+        assertEquals("t2", writes.getAllValues().get(1).get("lastTicketId"));
+        assertEquals(FlightChangeNotificationService.HANDED_OVER, job.toProgress().getStatus());
+        verify(leaseService).release("flight-notifications-job-1");
+    }
+
+    @Test
+    @DisplayName("Progress - Without the lease the run still sends but records nothing")
+    void testRun_NoLease() throws Exception {
+        when(leaseService.tryAcquire(anyString())).thenReturn(false);
+        stubTicketPages(List.of(ticket("t1", "p1")));
+        stubPassengers(List.of(passenger("a@example.com")));
+        when(throttledMailSender.send(anyList())).thenReturn(0);
+
+        FlightChangeNotificationService.Job job = new FlightChangeNotificationService.Job("job-1", "F001", "CHANGED");
+        service.run(job, "subject", "text");
+
+        assertEquals("COMPLETED", job.toProgress().getStatus());
+        verify(throttledMailSender).send(anyList());
+        verifyNoInteractions(jobDocument);
+        verify(leaseService, never()).release(anyString());
+    }
+
+    @Test
+    @DisplayName("Resume - An orphaned RUNNING job continues after its last ticket with its counters")
+    void testResumeInterrupted() throws Exception {
+        DocumentSnapshot recorded = runningJob("job-9", "t2");
+        Query running = mock(Query.class);
+        QuerySnapshot runningSnapshot = mock(QuerySnapshot.class);
+        List<QueryDocumentSnapshot> runningJobs = List.of((QueryDocumentSnapshot) recorded);
+        when(runningSnapshot.getDocuments()).thenReturn(runningJobs);
+        when(jobs.whereEqualTo("status", "RUNNING")).thenReturn(running);
+        when(running.get()).thenReturn(ApiFutures.immediateFuture(runningSnapshot));
+        stubTicketPages(List.of(ticket("t3", "p3")));
+        stubPassengers(List.of(passenger("c@example.com")));
+        when(throttledMailSender.send(anyList())).thenReturn(0);
+
+        service.resumeInterrupted();
+
+        verify(leaseService, timeout(2000)).release("flight-notifications-job-9");
+        verify(tickets).startAfter("t2");
+        FlightNotificationProgressDTO progress = service.getRecentJobs().get(0);
+        assertEquals("job-9", progress.getJobId());
+        assertEquals("COMPLETED", progress.getStatus());
+        assertEquals(3, progress.getTicketsScanned());
+        assertEquals(3, progress.getSent());
+    }
+
+    @Test
+    @DisplayName("Resume - A job whose lease another node holds is left alone")
+    void testResumeInterrupted_LeaseHeldElsewhere() throws Exception {
+        DocumentSnapshot recorded = runningJob("job-9", "t2");
+        Query running = mock(Query.class);
+        QuerySnapshot runningSnapshot = mock(QuerySnapshot.class);
+        List<QueryDocumentSnapshot> runningJobs = List.of((QueryDocumentSnapshot) recorded);
+        when(runningSnapshot.getDocuments()).thenReturn(runningJobs);
+        when(jobs.whereEqualTo("status", "RUNNING")).thenReturn(running);
+        when(running.get()).thenReturn(ApiFutures.immediateFuture(runningSnapshot));
+        when(leaseService.tryAcquire("flight-notifications-job-9")).thenReturn(false);
+
+        service.resumeInterrupted();
+
+        assertTrue(service.getRecentJobs().isEmpty());
+        verifyNoInteractions(tickets);
+    }
+
+    @Test
+    @DisplayName("Start - Runs are listed newest first and capped at history")
+    void testRecentJobs() {
+        ReflectionTestUtils.setField(service, "history", 2);
+        when(tickets.get()).thenReturn(ApiFutures.immediateFuture(mock(QuerySnapshot.class)));
+
+        Flight flight = new Flight();
+        flight.setFlightId("F001");
+        String first = service.notifyFlightCancelled("F001");
+        String second = service.notifyFlightChanged("F001", flight);
+        String third = service.notifyFlightCancelled("F001");
+
+        List<FlightNotificationProgressDTO> jobs = service.getRecentJobs();
+        assertEquals(2, jobs.size());
+        assertEquals(third, jobs.get(0).getJobId());
+        assertEquals(second, jobs.get(1).getJobId());
+        assertNotEquals(first, jobs.get(1).getJobId());
+    }
+
+    @Test
+    @DisplayName("Start - Nothing happens when disabled")
+    void testDisabled() {
+        ReflectionTestUtils.setField(service, "enabled", false);
+
+        assertNull(service.notifyFlightCancelled("F001"));
+        assertTrue(service.getRecentJobs().isEmpty());
+    }
+
+    @SafeVarargs
+    private void stubTicketPages(List<QueryDocumentSnapshot>... pages) {
+        // Build the snapshots before stubbing get(); nested stubbing is not allowed
+        List<ApiFuture<QuerySnapshot>> futures = new ArrayList<>();
+        for (List<QueryDocumentSnapshot> page : pages) {
+            QuerySnapshot snapshot = mock(QuerySnapshot.class);
+            when(snapshot.getDocuments()).thenReturn(page);
+            futures.add(ApiFutures.immediateFuture(snapshot));
+        }
+        OngoingStubbing<ApiFuture<QuerySnapshot>> stubbing = when(tickets.get());
+        for (ApiFuture<QuerySnapshot> future : futures) {
+            stubbing = stubbing.thenReturn(future);
+        }
+    }
+
+    @SafeVarargs
+    private void stubPassengers(List<DocumentSnapshot>... pages) {
+        when(passengers.document(anyString())).thenAnswer(inv -> mock(DocumentReference.class));
+        OngoingStubbing<ApiFuture<List<DocumentSnapshot>>> stubbing = when(firestore.getAll(any(DocumentReference[].class)));
+        for (List<DocumentSnapshot> page : pages) {
+            stubbing = stubbing.thenReturn(ApiFutures.immediateFuture(page));
+        }
+    }
+
+    private QueryDocumentSnapshot ticket(String id, String passengerId) {
+        QueryDocumentSnapshot ticket = mock(QueryDocumentSnapshot.class);
+        when(ticket.getId()).thenReturn(id);
+        when(ticket.getString("passengerId")).thenReturn(passengerId);
+        return ticket;
+    }
+
+    private QueryDocumentSnapshot runningJob(String id, String lastTicketId) {
+        QueryDocumentSnapshot job = mock(QueryDocumentSnapshot.class);
+        when(job.getId()).thenReturn(id);
+        when(job.getString("flightId")).thenReturn("F001");
+        when(job.getString("kind")).thenReturn("CHANGED");
+        when(job.getString("subject")).thenReturn("subject");
+        when(job.getString("text")).thenReturn("text");
+        when(job.getString("lastTicketId")).thenReturn(lastTicketId);
+        when(job.getLong("startedAt")).thenReturn(1_000L);
+        when(job.getLong("ticketsScanned")).thenReturn(2L);
+        when(job.getLong("recipients")).thenReturn(2L);
+        when(job.getLong("sent")).thenReturn(2L);
+        return job;
+    }
+
+    private DocumentSnapshot passenger(String email) {
+        DocumentSnapshot passenger = mock(DocumentSnapshot.class);
+        when(passenger.exists()).thenReturn(true);
+        when(passenger.getString("email")).thenReturn(email);
+        return passenger;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.Flight;
+import com.example.springboot.repository.FirestoreRepository;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for FlightDetailsCache
+ *
+ * Tests Module: Booking Management Module - ticket details
+ * Coverage: miss then hit, unknown Flight ID, eviction
+ */
+class FlightDetailsCacheTest {
+
+    private FirestoreRepository repository;
+    private FlightDetailsCache cache;
+    private Flight flight;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FirestoreRepository.class);
+        cache = new FlightDetailsCache(repository, 60, 100);
+
+        flight = new Flight();
+        flight.setFlightId("F001");
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.toObject(Flight.class)).thenReturn(flight);
+        when(doc.getId()).thenReturn("flight-doc-1");
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.isEmpty()).thenReturn(false);
+        when(snapshot.getDocuments()).thenReturn(List.of(doc));
+        when(repository.getCollectionByFieldAsync("flights", "flightId", "F001"))
+                .thenReturn(CompletableFuture.completedFuture(snapshot));
+    }
+
+    @Test
+    @DisplayName("Queries Firestore once, then serves the flight from memory")
+    void testGetAsync_MissThenHit() throws Exception {
+        Flight first = cache.getAsync("F001").get();
+        Flight second = cache.getAsync("F001").get();
+
+        assertSame(flight, first);
+        assertSame(flight, second);
+        assertEquals("flight-doc-1", first.getDocumentId());
+        verify(repository, times(1)).getCollectionByFieldAsync("flights", "flightId", "F001");
+    }
+
+    @Test
+    @DisplayName("Unknown Flight IDs complete with null and are not cached")
+    void testGetAsync_UnknownFlight() throws Exception {
+        QuerySnapshot empty = mock(QuerySnapshot.class);
+        when(empty.isEmpty()).thenReturn(true);
+        when(repository.getCollectionByFieldAsync("flights", "flightId", "F404"))
+                .thenReturn(CompletableFuture.completedFuture(empty));
+
+        assertNull(cache.getAsync("F404").get());
+        assertNull(cache.getAsync("F404").get());
+
+        verify(repository, times(2)).getCollectionByFieldAsync("flights", "flightId", "F404");
+    }
+
+    @Test
+    @DisplayName("Evicted flights are queried again")
+    void testEvict() throws Exception {
+        cache.getAsync("F001").get();
+
+        cache.evict("F001");
+        cache.evict(null);
+        cache.getAsync("F001").get();
+
+        verify(repository, times(2)).getCollectionByFieldAsync("flights", "flightId", "F001");
+    }
+}
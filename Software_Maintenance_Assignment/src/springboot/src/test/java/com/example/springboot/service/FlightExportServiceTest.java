@@ -0,0 +1,233 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.Flight;
+import com.example.springboot.model.Passenger;
+import com.example.springboot.model.Seat;
+import com.example.springboot.model.Ticket;
+import com.example.springboot.repository.FirestoreRepository;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for FlightExportService
+ *
+ * Tests Module: Staff Flight Export Module
+ * Coverage: Batched ticket loading, streamed boarding pass ZIP, CSV manifest
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Flight Export Service Tests")
+class FlightExportServiceTest {
+
+    @Mock
+    private FirestoreRepository repository;
+
+    @Mock
+    private TicketDocumentService ticketDocumentService;
+
+    @InjectMocks
+    private FlightExportService flightExportService;
+
+    private Flight testFlight;
+
+    @BeforeEach
+    void setUp() {
+        testFlight = new Flight();
+        testFlight.setFlightId("F001");
+        testFlight.setDepartureCountry("Malaysia");
+        testFlight.setArrivalCountry("Japan");
+    }
+
+    @AfterEach
+    void tearDown() {
+        flightExportService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Load flight tickets - batch fetches passengers and seats once")
+    void testLoadFlightTickets_BatchFetch() throws Exception {
+        stubQuery("flights", List.of(flightDoc()));
+        stubQuery("tickets", List.of(ticketDoc("t1", "REF1", "p1", "s1"), ticketDoc("t2", "REF2", "p2", "s2")));
+
+        when(repository.findAllByIds(eq("passengers"), anyCollection(), eq(Passenger.class)))
+            .thenReturn(Map.of("p1", passenger("Alice"), "p2", passenger("Bob")));
+        when(repository.findAllByIds(eq("seats"), anyCollection(), eq(Seat.class)))
+            .thenReturn(Map.of("s1", seat(12), "s2", seat(3)));
+
+        List<Ticket> tickets = flightExportService.loadFlightTickets("F001");
+
+        assertEquals(2, tickets.size());
+        // Sorted by seat number
+        assertEquals("REF2", tickets.get(0).getBookingReference());
+        assertEquals("3", tickets.get(0).getSeatNumberDisplay());
+        assertEquals("Bob", tickets.get(0).getPassengerDetails().getFullName());
+        assertEquals("F001", tickets.get(1).getFlightDetails().getFlightId());
+        verify(repository, times(1)).findAllByIds(eq("passengers"), anyCollection(), eq(Passenger.class));
+        verify(repository, times(1)).findAllByIds(eq("seats"), anyCollection(), eq(Seat.class));
+        verify(repository, never()).findById(anyString(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Load flight tickets - unknown flight throws")
+    void testLoadFlightTickets_FlightNotFound() throws Exception {
+        stubQuery("flights", Collections.emptyList());
+
+        assertThrows(IllegalArgumentException.class, () -> flightExportService.loadFlightTickets("F404"));
+    }
+
+    @Test
+    @DisplayName("Write boarding pass ZIP - one PDF per ticket plus manifest, in order")
+    void testWriteBoardingPassZip() throws Exception {
+        List<Ticket> tickets = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            tickets.add(ticket("REF" + i, String.valueOf(i)));
+        }
+        when(ticketDocumentService.generateTicketPdf(any(Ticket.class)))
+            .thenAnswer(inv -> ((Ticket) inv.getArgument(0)).getBookingReference().getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        flightExportService.writeBoardingPassZip(tickets, out);
+
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                if (entry.getName().endsWith(".pdf")) {
+                    String content = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                    assertTrue(entry.getName().endsWith("-" + content + ".pdf"));
+                }
+            }
+        }
+
+        assertEquals(21, names.size());
+        assertEquals("boarding-pass-1-REF1.pdf", names.get(0));
+        assertEquals("boarding-pass-20-REF20.pdf", names.get(19));
+        assertEquals("manifest.csv", names.get(20));
+    }
+
+    @Test
+    @DisplayName("Write boarding pass ZIP - render failure surfaces as IOException")
+    void testWriteBoardingPassZip_RenderFailure() throws Exception {
+        when(ticketDocumentService.generateTicketPdf(any(Ticket.class)))
+            .thenThrow(new IllegalArgumentException("Booking reference is required"));
+
+        assertThrows(IOException.class, () ->
+            flightExportService.writeBoardingPassZip(List.of(ticket("REF1", "1")), new ByteArrayOutputStream()));
+    }
+
+    @Test
+    @DisplayName("Write manifest CSV - escapes commas and quotes")
+    void testWriteManifestCsv_Escaping() throws Exception {
+        Ticket ticket = ticket("REF1", "7");
+        ticket.setPassengerDetails(passenger("Tan, \"Ali\""));
+
+        StringWriter writer = new StringWriter();
+        flightExportService.writeManifestCsv(Arrays.asList(ticket), writer);
+
+        String[] lines = writer.toString().split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("Booking Reference,Passenger Name"));
+        assertTrue(lines[1].startsWith("REF1,\"Tan, \"\"Ali\"\"\","));
+    }
+
+    @Test
+    @DisplayName("Write manifest CSV - neutralises values a spreadsheet would run as formulas")
+    void testWriteManifestCsv_FormulaPrefix() throws Exception {
+        Ticket ticket = ticket("REF1", "7");
+        ticket.setPassengerDetails(passenger("=HYPERLINK(\"http://x\")"));
+
+        StringWriter writer = new StringWriter();
+        flightExportService.writeManifestCsv(Arrays.asList(ticket), writer);
+
+        String[] lines = writer.toString().split("\r\n");
+        assertTrue(lines[1].startsWith("REF1,\"'=HYPERLINK(\"\"http://x\"\")\","));
+    }
+
+    // ==================== Helpers ====================
+
+    @SuppressWarnings("unchecked")
+    private void stubQuery(String collection, List<QueryDocumentSnapshot> docs) throws Exception {
+        Query query = mock(Query.class);
+        ApiFuture<QuerySnapshot> future = mock(ApiFuture.class);
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(repository.getCollectionByField(eq(collection), eq("flightId"), anyString())).thenReturn(query);
+        when(query.get()).thenReturn(future);
+        when(future.get()).thenReturn(snapshot);
+        when(snapshot.isEmpty()).thenReturn(docs.isEmpty());
+        when(snapshot.getDocuments()).thenReturn(docs);
+    }
+
+    private QueryDocumentSnapshot flightDoc() {
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.getId()).thenReturn("flight-doc-1");
+        when(doc.toObject(Flight.class)).thenReturn(testFlight);
+        return doc;
+    }
+
+    private QueryDocumentSnapshot ticketDoc(String id, String ref, String passengerId, String seatId) {
+        Ticket ticket = new Ticket();
+        ticket.setBookingReference(ref);
+        ticket.setPassengerId(passengerId);
+        ticket.setSeatId(seatId);
+        ticket.setFlightId("F001");
+
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.getId()).thenReturn(id);
+        when(doc.toObject(Ticket.class)).thenReturn(ticket);
+        return doc;
+    }
+
+    private Ticket ticket(String ref, String seatNumber) {
+        Ticket ticket = new Ticket();
+        ticket.setDocumentId("doc-" + ref);
+        ticket.setBookingReference(ref);
+        ticket.setSeatNumberDisplay(seatNumber);
+        ticket.setSeatClassDisplay("Economy");
+        return ticket;
+    }
+
+    private Passenger passenger(String fullName) {
+        Passenger passenger = new Passenger();
+        passenger.setFullName(fullName);
+        passenger.setPassportNo("A1234567");
+        passenger.setEmail("p@example.com");
+        return passenger;
+    }
+
+    private Seat seat(int number) {
+        Seat seat = new Seat();
+        seat.setSeatNumber(number);
+        seat.setTypeOfSeat("Economy");
+        return seat;
+    }
+}
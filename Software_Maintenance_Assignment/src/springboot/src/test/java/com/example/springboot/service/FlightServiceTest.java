@@ -1,7 +1,11 @@
 package com.example.springboot.service;
 
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.model.Flight;
 import com.example.springboot.repository.FirestoreRepository;
+import com.example.springboot.repository.RequestReadMemo;
+import com.example.springboot.repository.UniqueConstraintRepository;
+import com.google.api.core.ApiFutures;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +20,8 @@ import org.mockito.quality.Strictness;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -37,6 +43,12 @@ class FlightServiceTest {
     @Mock
     private SeatService seatService;
 
+    @Mock
+    private FlightDetailsCache flightDetailsCache;
+
+    @Mock
+    private BoardingScanService boardingScanService;
+
     @Mock
     private Firestore firestore;
 
@@ -70,6 +82,15 @@ class FlightServiceTest {
     @Mock
     private ApiFuture<WriteResult> futureWriteResult;
 
+    @Mock
+    private UniqueConstraintRepository uniqueConstraintRepository;
+
+    @Mock
+    private FlightChangeNotificationService flightChangeNotificationService;
+
+    @Mock
+    private Transaction transaction;
+
     @InjectMocks
     private FlightService flightService;
 
@@ -92,6 +113,11 @@ class FlightServiceTest {
         testFlight.setPlaneNo("PL04");
         testFlight.setTotalSeats(32);
         testFlight.setStatus("ACTIVE");
+
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<Void> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
     }
 
     // ========== Get All Flights Tests ==========
@@ -320,8 +346,7 @@ class FlightServiceTest {
         when(future.get()).thenReturn(querySnapshot);
         when(querySnapshot.getDocuments()).thenReturn(Collections.emptyList());
         
-        when(collectionReference.add(anyMap())).thenReturn(futureDocumentReference);
-        when(futureDocumentReference.get()).thenReturn(documentReference);
+        when(collectionReference.document()).thenReturn(documentReference);
         when(documentReference.getId()).thenReturn("newDoc123");
 
         // Act
@@ -330,12 +355,33 @@ class FlightServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals("newDoc123", result.getDocumentId());
+        verify(uniqueConstraintRepository).reserve(transaction, "Flight", "flights/newDoc123", Map.of("flightId", "F001"));
+        verify(transaction).create(eq(documentReference), anyMap());
         verify(seatService).createSeatsForFlight("F001", 32);
     }
 
+    @Test
+    void testAddFlight_FlightIdReserved() throws Exception {
+        // Arrange
+        when(firestore.collection("flights")).thenReturn(collectionReference);
+        when(collectionReference.document()).thenReturn(documentReference);
+        when(documentReference.getId()).thenReturn("newDoc123");
+        doThrow(new DuplicateResourceException("Flight", "flightId", "F001"))
+            .when(uniqueConstraintRepository).reserve(any(), anyString(), anyString(), anyMap());
+
+        // Act & Assert
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+            flightService.addFlight(testFlight)
+        );
+        assertEquals("Flight ID F001 already exists", ex.getMessage());
+        verify(transaction, never()).create(any(DocumentReference.class), anyMap());
+        verify(seatService, never()).createSeatsForFlight(anyString(), anyInt());
+    }
+
     @Test
     void testAddFlight_DuplicateFlightId() throws Exception {
         // Arrange
+        when(uniqueConstraintRepository.isLegacyCheckEnabled()).thenReturn(true);
         when(firestore.collection("flights")).thenReturn(collectionReference);
         when(collectionReference.whereEqualTo("flightId", "F001")).thenReturn(query);
         when(query.whereEqualTo("status", "ACTIVE")).thenReturn(query);
@@ -373,7 +419,70 @@ class FlightServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(documentReference).update(anyMap());
+        verify(transaction).update(eq(documentReference), anyMap());
+        verify(boardingScanService).evictFlight("F001");
+    }
+
+    @Test
+    void testUpdateFlight_FlightIdChanged_MovesReservation() throws Exception {
+        // Arrange
+        when(firestore.collection("flights")).thenReturn(collectionReference);
+        when(collectionReference.document("doc123")).thenReturn(documentReference);
+        when(documentReference.get()).thenReturn(futureDocumentSnapshot);
+        when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getString("flightId")).thenReturn("F009");
+        when(documentSnapshot.getString("status")).thenReturn("ACTIVE");
+
+        // Act
+        flightService.updateFlight("doc123", testFlight);
+
+        // Assert
+        verify(uniqueConstraintRepository).reserve(transaction, "Flight", "flights/doc123", Map.of("flightId", "F001"));
+        verify(uniqueConstraintRepository).release(transaction, Map.of("flightId", "F009"));
+        verify(flightDetailsCache).evict("F009");
+        verify(flightDetailsCache).evict("F001");
+        verify(boardingScanService).evictFlight("F001");
+    }
+
+    @Test
+    void testUpdateFlight_ScheduleChanged_NotifiesPassengers() throws Exception {
+        // Arrange
+        mockExistingActiveFlight("F009", 1300L);
+        testFlight.setDepartureTime(1430);
+
+        // Act
+        flightService.updateFlight("doc123", testFlight);
+
+        // Assert - tickets still carry the old Flight ID
+        verify(flightChangeNotificationService).notifyFlightChanged("F009", testFlight);
+    }
+
+    @Test
+    void testUpdateFlight_ScheduleUnchanged_NoNotification() throws Exception {
+        // Arrange
+        mockExistingActiveFlight("F001", 1300L);
+
+        // Act
+        flightService.updateFlight("doc123", testFlight);
+
+        // Assert
+        verify(flightChangeNotificationService, never()).notifyFlightChanged(anyString(), any(Flight.class));
+    }
+
+    private void mockExistingActiveFlight(String flightId, long departureTime) throws Exception {
+        when(firestore.collection("flights")).thenReturn(collectionReference);
+        when(collectionReference.document("doc123")).thenReturn(documentReference);
+        when(documentReference.get()).thenReturn(futureDocumentSnapshot);
+        when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getString("flightId")).thenReturn(flightId);
+        when(documentSnapshot.getString("status")).thenReturn("ACTIVE");
+        when(documentSnapshot.getString("departureDate")).thenReturn("11/11/2023");
+        when(documentSnapshot.getString("arrivalDate")).thenReturn("12/11/2023");
+        when(documentSnapshot.getLong("departureTime")).thenReturn(departureTime);
+        when(documentSnapshot.getLong("arrivalTime")).thenReturn(2000L);
+        when(documentSnapshot.getLong("boardingTime")).thenReturn(1200L);
     }
 
     @Test
@@ -402,14 +511,44 @@ class FlightServiceTest {
         when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
         when(documentSnapshot.exists()).thenReturn(true);
         when(documentSnapshot.getString("flightId")).thenReturn("F001");
+        when(documentSnapshot.getString("status")).thenReturn("ACTIVE");
         when(documentReference.update(anyMap())).thenReturn(futureWriteResult);
 
         // Act
         flightService.deleteFlight("doc123");
 
         // Assert
-        verify(documentReference).update(anyMap());
+        verify(transaction).update(eq(documentReference), anyMap());
+        verify(uniqueConstraintRepository).release(transaction, Map.of("flightId", "F001"));
         verify(seatService).deleteSeatsForFlight("F001");
+        verify(flightChangeNotificationService).notifyFlightCancelled("F001");
+        verify(flightDetailsCache).evict("F001");
+        verify(boardingScanService).evictFlight("F001");
+    }
+
+    @Test
+    void testDeleteFlight_InvalidatesReadMemo() throws Exception {
+        when(firestore.collection("flights")).thenReturn(collectionReference);
+        when(collectionReference.document("doc123")).thenReturn(documentReference);
+        when(documentReference.get()).thenReturn(futureDocumentSnapshot);
+        when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.getString("flightId")).thenReturn("F001");
+        when(documentSnapshot.getString("status")).thenReturn("ACTIVE");
+
+        RequestReadMemo memo = RequestReadMemo.open();
+        try {
+            RequestReadMemo.document("flights", "doc123", () -> CompletableFuture.completedFuture("ACTIVE"));
+
+            flightService.deleteFlight("doc123");
+
+            String reread = RequestReadMemo.document("flights", "doc123",
+                () -> CompletableFuture.completedFuture("INACTIVE")).join();
+            assertEquals("INACTIVE", reread);
+            assertEquals(0, memo.hits());
+        } finally {
+            memo.close();
+        }
     }
 
     @Test
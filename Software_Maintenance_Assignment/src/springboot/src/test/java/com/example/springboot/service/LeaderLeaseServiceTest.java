@@ -0,0 +1,162 @@
+package com.example.springboot.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for LeaderLeaseService
+ *
+ * Tests Module: Background jobs - leader election
+ * Coverage: acquire free/expired/own lease, refuse live foreign lease, heartbeat loss, local expiry, release
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LeaderLeaseServiceTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference collectionReference;
+    @Mock private DocumentReference documentReference;
+    @Mock private Transaction transaction;
+    @Mock private DocumentSnapshot snapshot;
+    @Mock private ApiFuture<DocumentSnapshot> snapshotFuture;
+
+    @InjectMocks
+    private LeaderLeaseService leaseService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        when(firestore.collection("leases")).thenReturn(collectionReference);
+        when(collectionReference.document("token-purge")).thenReturn(documentReference);
+        when(transaction.get(documentReference)).thenReturn(snapshotFuture);
+        when(snapshotFuture.get()).thenReturn(snapshot);
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<Boolean> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+    }
+
+    private void stubLease(String owner, long expiresAt) {
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getString("owner")).thenReturn(owner);
+        when(snapshot.getLong("expiresAt")).thenReturn(expiresAt);
+    }
+
+    @Test
+    @DisplayName("Acquire - Free lease is claimed for this node")
+    @SuppressWarnings("unchecked")
+    void testTryAcquire_Free() {
+        when(snapshot.exists()).thenReturn(false);
+
+        assertTrue(leaseService.tryAcquire("token-purge"));
+        assertTrue(leaseService.isHeld("token-purge"));
+
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).set(eq(documentReference), captor.capture());
+        assertEquals(leaseService.getNodeId(), captor.getValue().get("owner"));
+        assertTrue((Long) captor.getValue().get("expiresAt") > System.currentTimeMillis());
+    }
+
+    @Test
+    @DisplayName("Acquire - Live lease owned by another node is refused")
+    void testTryAcquire_HeldElsewhere() {
+        stubLease("other-node", System.currentTimeMillis() + 60000);
+
+        assertFalse(leaseService.tryAcquire("token-purge"));
+        assertFalse(leaseService.isHeld("token-purge"));
+        verify(transaction, never()).set(any(DocumentReference.class), anyMap());
+    }
+
+    @Test
+    @DisplayName("Acquire - Expired lease is taken over")
+    void testTryAcquire_Takeover() {
+        stubLease("dead-node", System.currentTimeMillis() - 1000);
+
+        assertTrue(leaseService.tryAcquire("token-purge"));
+        verify(transaction).set(eq(documentReference), anyMap());
+    }
+
+    @Test
+    @DisplayName("Heartbeat - Renews own lease, drops a lease taken over by another node")
+    void testHeartbeat() {
+        when(snapshot.exists()).thenReturn(false);
+        assertTrue(leaseService.tryAcquire("token-purge"));
+
+        stubLease(leaseService.getNodeId(), System.currentTimeMillis() + 1000);
+        leaseService.heartbeat();
+        assertTrue(leaseService.isHeld("token-purge"));
+
+        stubLease("other-node", System.currentTimeMillis() + 60000);
+        leaseService.heartbeat();
+        assertFalse(leaseService.isHeld("token-purge"));
+    }
+
+    @Test
+    @DisplayName("IsHeld - Lease not renewed within its TTL is no longer held")
+    void testIsHeld_LocalExpiry() throws Exception {
+        ReflectionTestUtils.setField(leaseService, "leaseTtlMs", 20L);
+        when(snapshot.exists()).thenReturn(false);
+        assertTrue(leaseService.tryAcquire("token-purge"));
+
+        Thread.sleep(40);
+
+        assertFalse(leaseService.isHeld("token-purge"));
+    }
+
+    @Test
+    @DisplayName("Heartbeat - Renewal extends the local expiry")
+    void testHeartbeat_ExtendsLocalExpiry() throws Exception {
+        ReflectionTestUtils.setField(leaseService, "leaseTtlMs", 500L);
+        when(snapshot.exists()).thenReturn(false);
+        assertTrue(leaseService.tryAcquire("token-purge"));
+
+        Thread.sleep(300);
+        stubLease(leaseService.getNodeId(), System.currentTimeMillis() + 500);
+        leaseService.heartbeat();
+        Thread.sleep(300);
+
+        assertTrue(leaseService.isHeld("token-purge"));
+    }
+
+    @Test
+    @DisplayName("Release - Own lease is freed")
+    @SuppressWarnings("unchecked")
+    void testRelease() {
+        when(snapshot.exists()).thenReturn(false);
+        leaseService.tryAcquire("token-purge");
+        stubLease(leaseService.getNodeId(), System.currentTimeMillis() + 60000);
+
+        leaseService.release("token-purge");
+
+        assertFalse(leaseService.isHeld("token-purge"));
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(transaction, times(2)).set(eq(documentReference), captor.capture());
+        assertNull(captor.getValue().get("owner"));
+    }
+
+    @Test
+    @DisplayName("Acquire - Firestore failure means not acquired")
+    void testTryAcquire_Failure() {
+        doThrow(new RuntimeException("Firestore down")).when(firestore).runTransaction(any(Transaction.Function.class));
+
+        assertFalse(leaseService.tryAcquire("token-purge"));
+    }
+}
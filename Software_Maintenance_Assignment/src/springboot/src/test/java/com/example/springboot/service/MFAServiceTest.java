@@ -6,6 +6,8 @@ import com.example.springboot.exception.MFAValidationException;
 import com.example.springboot.exception.UserNotFoundException;
 import com.example.springboot.model.MFASecret;
 import com.example.springboot.repository.MFASecretRepository;
+import com.example.springboot.security.mfa.HashedBackupCodes;
+import com.example.springboot.security.mfa.QRCodeRenderer;
 import com.example.springboot.security.mfa.TOTPGenerator;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +31,9 @@ class MFAServiceTest {
     @Mock
     private TOTPGenerator totpGenerator;
 
+    @Mock
+    private QRCodeRenderer qrCodeRenderer;
+
     @InjectMocks
     private MFAService mfaService;
 
@@ -39,13 +44,15 @@ class MFAServiceTest {
     void testSetupMFA_NewSetup_Success() {
         when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.empty());
         when(totpGenerator.generateSecret()).thenReturn("SECRET123");
-        when(totpGenerator.generateQRCodeUrl(eq("SECRET123"), anyString())).thenReturn("http://qrcode.url");
+        when(totpGenerator.generateOtpAuthUri(eq("SECRET123"), anyString())).thenReturn("otpauth://totp/x");
+        when(qrCodeRenderer.renderPng("otpauth://totp/x")).thenReturn(new byte[] {1, 2, 3});
+        when(qrCodeRenderer.toDataUri(any(byte[].class))).thenReturn("data:image/png;base64,AQID");
 
         MFAStatusDTO result = mfaService.setupMFA(userId, role);
 
         assertNotNull(result);
         assertEquals("SECRET123", result.getSecret());
-        assertEquals("http://qrcode.url", result.getQrCodeUrl());
+        assertEquals("data:image/png;base64,AQID", result.getQrCodeUrl());
         assertFalse(result.getMfaEnabled());
         assertNotNull(result.getBackupCodes());
         assertEquals(10, result.getBackupCodes().length); // 10 backup codes generated
@@ -109,11 +116,109 @@ class MFAServiceTest {
         MFASecret savedSecret = captor.getValue();
         
         when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.of(savedSecret));
+        when(mfaSecretRepository.compareAndSetBackupCodes(any(), anyString(), anyString())).thenReturn(true);
         
         boolean isValid = mfaService.validateMFACode(userId, role, validBackupCode);
         assertTrue(isValid);
     }
 
+    @Test
+    void testSetupMFA_BackupCodesStoredHashed() {
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.empty());
+        when(totpGenerator.generateSecret()).thenReturn("SECRET");
+
+        MFAStatusDTO setup = mfaService.setupMFA(userId, role);
+
+        org.mockito.ArgumentCaptor<MFASecret> captor = org.mockito.ArgumentCaptor.forClass(MFASecret.class);
+        verify(mfaSecretRepository).save(captor.capture());
+        String stored = captor.getValue().getBackupCodes();
+        assertTrue(HashedBackupCodes.isHashed(stored));
+        for (String code : setup.getBackupCodes()) {
+            assertFalse(stored.contains(code));
+            assertTrue(HashedBackupCodes.parse(stored).contains(code));
+        }
+    }
+
+    @Test
+    void testValidateMFACode_BackupCode_ConsumedOnce() {
+        String[] codes = {"AAAA1111", "BBBB2222"};
+        String stored = HashedBackupCodes.create(codes).serialize();
+        MFASecret secret = MFASecret.builder().id("mfa-1").secret("SECRET").backupCodes(stored).build();
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.of(secret));
+        org.mockito.ArgumentCaptor<String> remaining = org.mockito.ArgumentCaptor.forClass(String.class);
+        when(mfaSecretRepository.compareAndSetBackupCodes(eq("mfa-1"), eq(stored), remaining.capture())).thenReturn(true);
+
+        assertTrue(mfaService.validateMFACode(userId, role, "AAAA1111"));
+
+        HashedBackupCodes left = HashedBackupCodes.parse(remaining.getValue());
+        assertEquals(1, left.size());
+        assertFalse(left.contains("AAAA1111"));
+        assertTrue(left.contains("BBBB2222"));
+    }
+
+    @Test
+    void testValidateMFACode_BackupCode_LostRace() {
+        String[] codes = {"AAAA1111", "BBBB2222"};
+        HashedBackupCodes hashed = HashedBackupCodes.create(codes);
+        MFASecret before = MFASecret.builder().id("mfa-1").secret("SECRET").backupCodes(hashed.serialize()).build();
+        MFASecret after = MFASecret.builder().id("mfa-1").secret("SECRET")
+            .backupCodes(hashed.without("AAAA1111").serialize()).build();
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role))
+            .thenReturn(Optional.of(before), Optional.of(after));
+        when(mfaSecretRepository.compareAndSetBackupCodes(eq("mfa-1"), anyString(), anyString())).thenReturn(false);
+
+        // Another login consumed the same code first
+        assertFalse(mfaService.validateMFACode(userId, role, "AAAA1111"));
+        verify(mfaSecretRepository, times(1)).compareAndSetBackupCodes(any(), anyString(), anyString());
+    }
+
+    @Test
+    void testValidateMFACode_LegacyEncryptedBackupCode_MigratedToHashes() throws Exception {
+        javax.crypto.KeyGenerator keyGen = javax.crypto.KeyGenerator.getInstance("AES");
+        keyGen.init(256);
+        javax.crypto.SecretKey key = keyGen.generateKey();
+        javax.crypto.Cipher cipher = javax.crypto.Cipher.getInstance("AES");
+        cipher.init(javax.crypto.Cipher.ENCRYPT_MODE, key);
+        String legacy = java.util.Base64.getEncoder().encodeToString(key.getEncoded()) + ":"
+            + java.util.Base64.getEncoder().encodeToString(cipher.doFinal("AAAA1111,BBBB2222".getBytes()));
+
+        MFASecret secret = MFASecret.builder().id("mfa-1").secret("SECRET").backupCodes(legacy).build();
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.of(secret));
+        org.mockito.ArgumentCaptor<String> remaining = org.mockito.ArgumentCaptor.forClass(String.class);
+        when(mfaSecretRepository.compareAndSetBackupCodes(eq("mfa-1"), eq(legacy), remaining.capture())).thenReturn(true);
+
+        assertTrue(mfaService.validateMFACode(userId, role, "BBBB2222"));
+
+        HashedBackupCodes left = HashedBackupCodes.parse(remaining.getValue());
+        assertTrue(left.contains("AAAA1111"));
+        assertFalse(left.contains("BBBB2222"));
+    }
+
+    @Test
+    void testValidateMFACode_SecretCachedBetweenLogins() {
+        MFASecret secret = MFASecret.builder().secret("SECRET123").build();
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.of(secret));
+        when(totpGenerator.validateCode("SECRET123", "123456")).thenReturn(true);
+
+        assertTrue(mfaService.validateMFACode(userId, role, "123456"));
+        assertTrue(mfaService.validateMFACode(userId, role, "123456"));
+
+        verify(mfaSecretRepository, times(1)).findByUserIdAndUserRole(userId, role);
+    }
+
+    @Test
+    void testRegenerateBackupCodes_InvalidatesCache() {
+        MFASecret secret = MFASecret.builder().secret("SECRET").verified(true).build();
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.of(secret));
+
+        mfaService.getMFAStatus(userId, role);
+        mfaService.regenerateBackupCodes(userId, role);
+        mfaService.getMFAStatus(userId, role);
+
+        // status, regenerate (fresh read), status after invalidation
+        verify(mfaSecretRepository, times(3)).findByUserIdAndUserRole(userId, role);
+    }
+
     @Test
     void testValidateMFACode_Failure_InvalidCode() {
         MFASecret secret = MFASecret.builder().secret("SECRET123").backupCodes("key:encrypted").build();
@@ -211,4 +316,38 @@ class MFAServiceTest {
         verify(mfaSecretRepository).save(secret); // Should preserve secret but update backup codes
         assertNotNull(secret.getBackupCodes());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetSetupQRCode_CachedFromSetup() {
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.empty());
+        when(totpGenerator.generateSecret()).thenReturn("SECRET123");
+        when(totpGenerator.generateOtpAuthUri(eq("SECRET123"), anyString())).thenReturn("otpauth://totp/x");
+        byte[] png = new byte[] {1, 2, 3};
+        when(qrCodeRenderer.renderPng("otpauth://totp/x")).thenReturn(png);
+
+        mfaService.setupMFA(userId, role);
+        byte[] result = mfaService.getSetupQRCode(userId, role);
+
+        assertSame(png, result);
+        verify(qrCodeRenderer, times(1)).renderPng(anyString());
+    }
+
+    @Test
+    void testGetSetupQRCode_RerendersPendingSetup() {
+        MFASecret pending = MFASecret.builder().secret("SECRET123").verified(false).build();
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.of(pending));
+        when(totpGenerator.generateOtpAuthUri(eq("SECRET123"), anyString())).thenReturn("otpauth://totp/x");
+        when(qrCodeRenderer.renderPng("otpauth://totp/x")).thenReturn(new byte[] {4, 5});
+
+        assertArrayEquals(new byte[] {4, 5}, mfaService.getSetupQRCode(userId, role));
+    }
+
+    @Test
+    void testGetSetupQRCode_VerifiedSetup_ThrowsException() {
+        MFASecret verified = MFASecret.builder().secret("SECRET123").verified(true).build();
+        when(mfaSecretRepository.findByUserIdAndUserRole(userId, role)).thenReturn(Optional.of(verified));
+
+        assertThrows(UserNotFoundException.class, () -> mfaService.getSetupQRCode(userId, role));
+        verifyNoInteractions(qrCodeRenderer);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for MailDispatcher
+ *
+ * Tests Module: Email Notification Module
+ * Coverage: batching onto one send call, batch size cap, backpressure on a full queue,
+ * partial batch failures, metrics
+ */
+class MailDispatcherTest {
+
+    private JavaMailSender mailSender;
+    private SimpleMeterRegistry meterRegistry;
+    private MailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        meterRegistry = new SimpleMeterRegistry();
+        // Worker not started: batches are taken by the test
+        dispatcher = new MailDispatcher(mailSender, meterRegistry, 3);
+        ReflectionTestUtils.setField(dispatcher, "maxBatchSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "enqueueTimeoutMs", 10L);
+    }
+
+    @Test
+    @DisplayName("Batch - Queued messages go out in one send call, capped at batch-size")
+    void testBatching() throws Exception {
+        MimeMessage first = mock(MimeMessage.class);
+        MimeMessage second = mock(MimeMessage.class);
+        MimeMessage third = mock(MimeMessage.class);
+        dispatcher.enqueue(first);
+        dispatcher.enqueue(second);
+        dispatcher.enqueue(third);
+
+        List<MimeMessage> batch = dispatcher.nextBatch(10, TimeUnit.MILLISECONDS);
+        dispatcher.sendBatch(batch);
+
+        assertEquals(List.of(first, second), batch);
+        verify(mailSender).send(new MimeMessage[] {first, second});
+        assertEquals(1, dispatcher.getQueueDepth());
+        assertEquals(2.0, meterRegistry.counter("mail.sent").count());
+        assertEquals(1, meterRegistry.timer("mail.send.duration").count());
+    }
+
+    @Test
+    @DisplayName("Enqueue - Full queue drops the message after the timeout")
+    void testEnqueue_QueueFull() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(dispatcher.enqueue(mock(MimeMessage.class)));
+        }
+
+        assertFalse(dispatcher.enqueue(mock(MimeMessage.class)));
+        assertEquals(1.0, meterRegistry.counter("mail.rejected").count());
+        assertEquals(3.0, meterRegistry.get("mail.queue_depth").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Send - Only the messages the server refused count as failed")
+    void testSendBatch_PartialFailure() {
+        MimeMessage accepted = mock(MimeMessage.class);
+        MimeMessage refused = mock(MimeMessage.class);
+        doThrow(new MailSendException(Map.<Object, Exception>of(refused, new RuntimeException("550 mailbox unavailable"))))
+                .when(mailSender).send(any(MimeMessage[].class));
+
+        dispatcher.sendBatch(List.of(accepted, refused));
+
+        assertEquals(1.0, meterRegistry.counter("mail.failed").count());
+        assertEquals(1.0, meterRegistry.counter("mail.sent").count());
+    }
+
+    @Test
+    @DisplayName("Send - Connection failure fails the whole batch without throwing")
+    void testSendBatch_ConnectionFailure() {
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+        assertDoesNotThrow(() -> dispatcher.sendBatch(List.of(mock(MimeMessage.class), mock(MimeMessage.class))));
+        assertEquals(2.0, meterRegistry.counter("mail.failed").count());
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.NotificationIntent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for MappedFileNotificationOutbox
+ *
+ * Tests Module: Email Notification Module
+ * Coverage: prepare/commit/abort, due ordering and limits, retry and dead-letter,
+ * dead-letter expiry, recovery after reopening, compaction when the file fills up,
+ * failed compaction
+ */
+class MappedFileNotificationOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    private MappedFileNotificationOutbox outbox;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        outbox = open(64 * 1024);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        outbox.close();
+    }
+
+    @Test
+    @DisplayName("Prepare - Prepared intents are not due until committed")
+    void testPrepareAndCommit() {
+        NotificationIntent intent = outbox.prepare(intent("a@example.com", "REF1"));
+
+        assertNotNull(intent.getId());
+        assertTrue(outbox.due(Long.MAX_VALUE, 10).isEmpty());
+
+        outbox.commit(intent.getId());
+
+        List<NotificationIntent> due = outbox.due(Long.MAX_VALUE, 10);
+        assertEquals(1, due.size());
+        assertEquals("REF1", due.get(0).getReference());
+        assertEquals(NotificationIntent.PENDING, due.get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("Abort - Aborted intents are forgotten")
+    void testAbort() {
+        NotificationIntent intent = outbox.prepare(intent("a@example.com", "REF1"));
+
+        outbox.abort(intent.getId());
+        outbox.commit(intent.getId());
+
+        assertTrue(outbox.due(Long.MAX_VALUE, 10).isEmpty());
+        assertEquals(0, outbox.pendingCount());
+    }
+
+    @Test
+    @DisplayName("Due - Oldest first, capped at max, respects next attempt time")
+    void testDue() {
+        String first = committed("a@example.com", "REF1");
+        String second = committed("b@example.com", "REF2");
+        committed("c@example.com", "REF3");
+        outbox.retry(first, Long.MAX_VALUE, "timeout");
+
+        List<NotificationIntent> due = outbox.due(System.currentTimeMillis(), 1);
+
+        assertEquals(1, due.size());
+        assertEquals(second, due.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Retry/dead-letter - Attempts are counted and dead intents are never due")
+    void testRetryAndDeadLetter() {
+        String id = committed("a@example.com", "REF1");
+
+        outbox.retry(id, 0, "421 try later");
+        NotificationIntent retried = outbox.due(System.currentTimeMillis(), 10).get(0);
+        assertEquals(1, retried.getAttempts());
+        assertEquals("421 try later", retried.getLastError());
+
+        outbox.deadLetter(id, "550 no such user");
+
+        assertTrue(outbox.due(Long.MAX_VALUE, 10).isEmpty());
+        assertEquals(0, outbox.pendingCount());
+        assertEquals(1, outbox.deadCount());
+    }
+
+    @Test
+    @DisplayName("Dead letters - Expired ones are removed and not carried into later generations")
+    void testExpireDeadLetters() throws Exception {
+        String dead = committed("a@example.com", "REF1");
+        String live = committed("b@example.com", "REF2");
+        outbox.deadLetter(dead, "550 no such user");
+
+        assertTrue(outbox.expireDeadLetters(System.currentTimeMillis() - 60_000).isEmpty());
+        List<NotificationIntent> expired = outbox.expireDeadLetters(Long.MAX_VALUE);
+
+        assertEquals(1, expired.size());
+        assertEquals(dead, expired.get(0).getId());
+        assertEquals("550 no such user", expired.get(0).getLastError());
+        assertEquals(0, outbox.deadCount());
+
+        outbox.close();
+        outbox = open(64 * 1024);
+        assertEquals(0, outbox.deadCount());
+        assertEquals(live, outbox.due(Long.MAX_VALUE, 10).get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Unconfirmed - Only PREPARED intents older than the cutoff")
+    void testUnconfirmed() {
+        NotificationIntent prepared = outbox.prepare(intent("a@example.com", "REF1"));
+        committed("b@example.com", "REF2");
+
+        assertTrue(outbox.unconfirmed(prepared.getCreatedAt()).isEmpty());
+        List<NotificationIntent> unconfirmed = outbox.unconfirmed(prepared.getCreatedAt() + 1);
+        assertEquals(1, unconfirmed.size());
+        assertEquals(prepared.getId(), unconfirmed.get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Recovery - Reopening replays the log")
+    void testReopen() throws Exception {
+        String pending = committed("a@example.com", "REF1");
+        NotificationIntent prepared = outbox.prepare(intent("b@example.com", "REF2"));
+        String sent = committed("c@example.com", "REF3");
+        outbox.markSent(sent);
+        outbox.retry(pending, 0, "timeout");
+        outbox.close();
+
+        outbox = open(64 * 1024);
+
+        List<NotificationIntent> due = outbox.due(Long.MAX_VALUE, 10);
+        assertEquals(1, due.size());
+        assertEquals(pending, due.get(0).getId());
+        assertEquals(1, due.get(0).getAttempts());
+        assertEquals(1, outbox.unconfirmed(Long.MAX_VALUE).size());
+        assertEquals(prepared.getId(), outbox.unconfirmed(Long.MAX_VALUE).get(0).getId());
+        assertEquals(1, logFiles().size());
+    }
+
+    @Test
+    @DisplayName("Compaction - A full file is rewritten with only the live intents")
+    void testCompaction() throws Exception {
+        outbox.close();
+        outbox = open(4 * 1024);
+        String kept = committed("kept@example.com", "KEEP");
+
+        // Far more records than fit in 4KB; all but one are removed again
+        for (int i = 0; i < 200; i++) {
+            outbox.markSent(committed("user" + i + "@example.com", "REF" + i));
+        }
+
+        assertEquals(1, outbox.pendingCount());
+        assertEquals(1, logFiles().size());
+
+        outbox.close();
+        outbox = open(4 * 1024);
+        assertEquals(kept, outbox.due(Long.MAX_VALUE, 10).get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Compaction - A rewrite that does not fit leaves the current generation in use")
+    void testCompaction_Failure() throws Exception {
+        outbox.close();
+        outbox = open(4 * 1024);
+        String large = "x".repeat(1500);
+        String first = committed(large + "@a.example.com", "REF1");
+        NotificationIntent second = outbox.prepare(intent(large + "@b.example.com", "REF2"));
+
+        // The longer error no longer fits beside the other intent, even after compaction
+        assertThrows(IllegalStateException.class, () -> outbox.retry(first, 0, "e".repeat(1200)));
+        assertEquals(1, logFiles().size());
+
+        // Still appending to the old generation
+        outbox.abort(second.getId());
+        outbox.close();
+        outbox = open(4 * 1024);
+        assertTrue(outbox.unconfirmed(Long.MAX_VALUE).isEmpty());
+        assertEquals(first, outbox.due(Long.MAX_VALUE, 10).get(0).getId());
+    }
+
+    private MappedFileNotificationOutbox open(int fileSize) throws Exception {
+        MappedFileNotificationOutbox opened = new MappedFileNotificationOutbox(
+                new ObjectMapper(), directory.toString(), fileSize);
+        opened.open();
+        return opened;
+    }
+
+    private String committed(String to, String ref) {
+        String id = outbox.prepare(intent(to, ref)).getId();
+        outbox.commit(id);
+        return id;
+    }
+
+    private NotificationIntent intent(String to, String ref) {
+        return NotificationIntent.builder()
+                .type(NotificationIntent.BOOKING_CONFIRMATION)
+                .recipient(to)
+                .reference(ref)
+                .build();
+    }
+
+    private List<Path> logFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.springboot.service;
+
+import com.example.springboot.model.NotificationIntent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for NotificationOutboxDispatcher
+ *
+ * Tests Module: Email Notification Module
+ * Coverage: batch delivery, retry with backoff, dead-lettering, settling
+ * unconfirmed intents, metrics
+ */
+class NotificationOutboxDispatcherTest {
+
+    private NotificationOutbox outbox;
+    private NotificationService notificationService;
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outbox = mock(NotificationOutbox.class);
+        notificationService = mock(NotificationService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new NotificationOutboxDispatcher(outbox, notificationService, meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoffBaseMs", 1000L);
+        ReflectionTestUtils.setField(dispatcher, "backoffMaxMs", 60_000L);
+        when(outbox.unconfirmed(anyLong())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Dispatch - Sent intents are removed, failed ones retried or dead-lettered")
+    void testDispatch() {
+        NotificationIntent ok = intent("n1", 0);
+        NotificationIntent failing = intent("n2", 0);
+        NotificationIntent lastTry = intent("n3", 2);
+        when(outbox.due(anyLong(), anyInt())).thenReturn(List.of(ok, failing, lastTry));
+        when(notificationService.deliver(anyList()))
+                .thenReturn(Map.of("n2", "421 try later", "n3", "550 no such user"));
+
+        dispatcher.dispatch();
+
+        verify(notificationService).deliver(List.of(ok, failing, lastTry));
+        verify(outbox).markSent("n1");
+        verify(outbox).retry(eq("n2"), anyLong(), eq("421 try later"));
+        verify(outbox).deadLetter("n3", "550 no such user");
+        assertEquals(1.0, meterRegistry.counter("outbox.sent").count());
+        assertEquals(1.0, meterRegistry.counter("outbox.retried").count());
+        assertEquals(1.0, meterRegistry.counter("outbox.dead_lettered").count());
+    }
+
+    @Test
+    @DisplayName("Dispatch - Nothing due, nothing sent")
+    void testDispatch_NothingDue() {
+        when(outbox.due(anyLong(), anyInt())).thenReturn(List.of());
+
+        dispatcher.dispatch();
+
+        verify(notificationService, never()).deliver(anyList());
+    }
+
+    @Test
+    @DisplayName("Dispatch - Disabled dispatcher does not touch the outbox")
+    void testDispatch_Disabled() {
+        ReflectionTestUtils.setField(dispatcher, "enabled", false);
+
+        dispatcher.dispatch();
+
+        verifyNoInteractions(outbox, notificationService);
+    }
+
+    @Test
+    @DisplayName("Unconfirmed - Committed if the booking exists, aborted if not, kept on error")
+    void testResolveUnconfirmed() throws Exception {
+        NotificationIntent saved = intent("n1", 0);
+        NotificationIntent lost = intent("n2", 0);
+        NotificationIntent unknown = intent("n3", 0);
+        when(outbox.unconfirmed(anyLong())).thenReturn(List.of(saved, lost, unknown));
+        when(outbox.due(anyLong(), anyInt())).thenReturn(List.of());
+        when(notificationService.isConfirmed(saved)).thenReturn(true);
+        when(notificationService.isConfirmed(lost)).thenReturn(false);
+        when(notificationService.isConfirmed(unknown)).thenThrow(new RuntimeException("Firestore unavailable"));
+
+        dispatcher.dispatch();
+
+        verify(outbox).commit("n1");
+        verify(outbox).abort("n2");
+        verify(outbox, never()).commit("n3");
+        verify(outbox, never()).abort("n3");
+    }
+
+    @Test
+    @DisplayName("Dead letters - Expired after the retention and counted")
+    void testExpireDeadLetters() {
+        ReflectionTestUtils.setField(dispatcher, "deadLetterRetentionMs", 1000L);
+        when(outbox.due(anyLong(), anyInt())).thenReturn(List.of());
+        when(outbox.expireDeadLetters(anyLong())).thenReturn(List.of(intent("n1", 3)));
+
+        long before = System.currentTimeMillis();
+        dispatcher.dispatch();
+
+        ArgumentCaptor<Long> cutoff = ArgumentCaptor.forClass(Long.class);
+        verify(outbox).expireDeadLetters(cutoff.capture());
+        assertTrue(cutoff.getValue() >= before - 1000L && cutoff.getValue() <= System.currentTimeMillis() - 1000L);
+        assertEquals(1.0, meterRegistry.counter("outbox.expired").count());
+    }
+
+    @Test
+    @DisplayName("Backoff - Grows exponentially with jitter and is capped")
+    void testBackoffDelay() {
+        for (int i = 0; i < 20; i++) {
+            long first = dispatcher.backoffDelay(0);
+            assertTrue(first >= 500 && first <= 1000);
+            long fourth = dispatcher.backoffDelay(3);
+            assertTrue(fourth >= 4000 && fourth <= 8000);
+            long capped = dispatcher.backoffDelay(30);
+            assertTrue(capped >= 30_000 && capped <= 60_000);
+        }
+    }
+
+    @Test
+    @DisplayName("Metrics - Pending and dead gauges read the outbox")
+    void testGauges() {
+        when(outbox.pendingCount()).thenReturn(4);
+        when(outbox.deadCount()).thenReturn(1);
+
+        assertEquals(4.0, meterRegistry.get("outbox.pending").gauge().value());
+        assertEquals(1.0, meterRegistry.get("outbox.dead").gauge().value());
+    }
+
+    private NotificationIntent intent(String id, int attempts) {
+        return NotificationIntent.builder()
+                .id(id)
+                .type(NotificationIntent.BOOKING_CONFIRMATION)
+                .recipient(id + "@example.com")
+                .reference("REF-" + id)
+                .status(NotificationIntent.PENDING)
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -11,6 +11,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
+import com.example.springboot.model.NotificationIntent;
+
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -20,7 +24,8 @@ import static org.mockito.Mockito.*;
  * Test class for NotificationService
  * 
  * Tests Module: Email Notification Module
- * Coverage: Email sending, error handling, message construction
+ * Coverage: Email sending, error handling, message construction, outbox preparation
+ * and batch delivery
  * Target: 90%+ coverage
  */
 @ExtendWith(MockitoExtension.class)
@@ -30,6 +35,9 @@ class NotificationServiceTest {
     @Mock
     private JavaMailSender mailSender;
 
+    @Mock
+    private NotificationOutbox outbox;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -445,4 +453,102 @@ class NotificationServiceTest {
         // Assert - Verify it was called once (the exception was caught)
         verify(mailSender, times(1)).send(any(SimpleMailMessage.class));
     }
-}
\ No newline at end of file
+    // ==================== OUTBOX ====================
+
+    @Test
+    @DisplayName("Should prepare a booking confirmation in the outbox without sending it")
+    void testPrepareBookingSuccessEmail() {
+        // Arrange
+        ArgumentCaptor<NotificationIntent> intentCaptor = ArgumentCaptor.forClass(NotificationIntent.class);
+        when(outbox.prepare(any(NotificationIntent.class))).thenAnswer(inv -> {
+            NotificationIntent intent = inv.getArgument(0);
+            intent.setId("notification-1");
+            return intent;
+        });
+
+        // Act
+        String id = notificationService.prepareBookingSuccessEmail(testEmail, testBookingReference);
+
+        // Assert
+        assertEquals("notification-1", id);
+        verify(outbox).prepare(intentCaptor.capture());
+        assertEquals(NotificationIntent.BOOKING_CONFIRMATION, intentCaptor.getValue().getType());
+        assertEquals(testEmail, intentCaptor.getValue().getRecipient());
+        assertEquals(testBookingReference, intentCaptor.getValue().getReference());
+        verifyNoInteractions(mailSender);
+    }
+
+    @Test
+    @DisplayName("Should return no id instead of failing when the outbox cannot be written")
+    void testPrepareBookingSuccessEmail_OutboxFailure() {
+        // Arrange
+        when(outbox.prepare(any(NotificationIntent.class))).thenThrow(new IllegalStateException("Notification outbox file is full"));
+
+        // Act & Assert
+        assertNull(notificationService.prepareBookingSuccessEmail(testEmail, testBookingReference));
+    }
+
+    @Test
+    @DisplayName("Should not fail the caller when commit or abort cannot be written")
+    void testCommitAndAbort_OutboxFailure() {
+        // Arrange
+        doThrow(new IllegalStateException("disk full")).when(outbox).commit("n1");
+        doThrow(new IllegalStateException("disk full")).when(outbox).abort("n2");
+
+        // Act & Assert
+        assertDoesNotThrow(() -> notificationService.commitNotification("n1"));
+        assertDoesNotThrow(() -> notificationService.abortNotification("n2"));
+    }
+
+    @Test
+    @DisplayName("Should deliver a batch in one send call")
+    void testDeliver_Batch() {
+        // Arrange
+        ArgumentCaptor<SimpleMailMessage[]> batchCaptor = ArgumentCaptor.forClass(SimpleMailMessage[].class);
+
+        // Act
+        Map<String, String> failures = notificationService.deliver(List.of(
+                intent("n1", "a@example.com", "REF1"), intent("n2", "b@example.com", "REF2")));
+
+        // Assert
+        assertTrue(failures.isEmpty());
+        verify(mailSender).send(batchCaptor.capture());
+        assertEquals(2, batchCaptor.getValue().length);
+    }
+
+    @Test
+    @DisplayName("Should report only the messages the server refused")
+    void testDeliver_PartialFailure() {
+        // Arrange
+        doAnswer(inv -> {
+            SimpleMailMessage refused = inv.getArgument(1);
+            throw new MailSendException(Map.<Object, Exception>of(refused, new RuntimeException("550 mailbox unavailable")));
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // Act
+        Map<String, String> failures = notificationService.deliver(List.of(
+                intent("n1", "a@example.com", "REF1"), intent("n2", "b@example.com", "REF2")));
+
+        // Assert
+        assertEquals(Map.of("n2", "550 mailbox unavailable"), failures);
+    }
+
+    @Test
+    @DisplayName("Should fail the whole batch when the connection fails")
+    void testDeliver_ConnectionFailure() {
+        // Arrange
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        // Act
+        Map<String, String> failures = notificationService.deliver(List.of(
+                intent("n1", "a@example.com", "REF1"), intent("n2", "b@example.com", "REF2")));
+
+        // Assert
+        assertEquals(2, failures.size());
+    }
+
+    private NotificationIntent intent(String id, String to, String ref) {
+        return NotificationIntent.builder().id(id).recipient(to).reference(ref)
+                .type(NotificationIntent.BOOKING_CONFIRMATION).status(NotificationIntent.PENDING).build();
+    }
+}
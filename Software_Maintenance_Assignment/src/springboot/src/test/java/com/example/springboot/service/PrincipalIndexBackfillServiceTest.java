@@ -0,0 +1,118 @@
+package com.example.springboot.service;
+
+import com.example.springboot.enums.Role;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for PrincipalIndexBackfillService
+ *
+ * Tests Module: Authentication - email to principal index
+ * Coverage: accounts indexed per collection, marker written on success, skipped once backfilled
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PrincipalIndexBackfillServiceTest {
+
+    @Mock private Firestore firestore;
+    @Mock private PrincipalEmailIndexRepository principalEmailIndexRepository;
+
+    @Mock private CollectionReference collectionReference;
+    @Mock private Query query;
+    @Mock private ApiFuture<QuerySnapshot> queryFuture;
+    @Mock private QuerySnapshot querySnapshot;
+    @Mock private WriteBatch writeBatch;
+    @Mock private ApiFuture<List<WriteResult>> commitFuture;
+
+    @InjectMocks
+    private PrincipalIndexBackfillService backfillService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(firestore.collection(anyString())).thenReturn(collectionReference);
+        when(collectionReference.orderBy(any(FieldPath.class))).thenReturn(query);
+        when(query.select(anyString())).thenReturn(query);
+        when(query.limit(anyInt())).thenReturn(query);
+        when(query.get()).thenReturn(queryFuture);
+        when(queryFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(Collections.emptyList());
+        when(firestore.batch()).thenReturn(writeBatch);
+        when(writeBatch.commit()).thenReturn(commitFuture);
+        when(collectionReference.document(anyString())).thenReturn(mock(DocumentReference.class));
+    }
+
+    @Test
+    @DisplayName("Backfill - Each account written with its normalized email and role")
+    @SuppressWarnings("unchecked")
+    void testBackfill_IndexesAccounts() throws Exception {
+        QueryDocumentSnapshot account = mock(QueryDocumentSnapshot.class);
+        when(account.getId()).thenReturn("staff-1");
+        when(account.getString("email")).thenReturn("Staff@Example.com");
+        when(querySnapshot.getDocuments()).thenReturn(List.of(account));
+
+        int indexed = backfillService.backfill("staff", Role.ADMIN);
+
+        assertEquals(1, indexed);
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(writeBatch).set(any(DocumentReference.class), captor.capture());
+        assertEquals("staff@example.com", captor.getValue().get("email"));
+        assertEquals("ADMIN", captor.getValue().get("role"));
+        assertEquals("staff-1", captor.getValue().get("principalId"));
+        verify(collectionReference).document(PrincipalEmailIndexRepository.documentId("staff@example.com"));
+        verify(writeBatch).commit();
+    }
+
+    @Test
+    @DisplayName("Backfill All - Marker written after every collection is indexed")
+    void testBackfillAll_MarksComplete() {
+        when(principalEmailIndexRepository.isBackfilled()).thenReturn(false);
+
+        backfillService.backfillAll();
+
+        verify(firestore).collection("superadmins");
+        verify(firestore).collection("staff");
+        verify(firestore).collection("customers");
+        verify(principalEmailIndexRepository).markBackfilled();
+    }
+
+    @Test
+    @DisplayName("Backfill All - Skipped once the marker exists")
+    void testBackfillAll_AlreadyDone() {
+        when(principalEmailIndexRepository.isBackfilled()).thenReturn(true);
+
+        backfillService.backfillAll();
+
+        verifyNoInteractions(firestore);
+        verify(principalEmailIndexRepository, never()).markBackfilled();
+    }
+
+    @Test
+    @DisplayName("Backfill All - Failure leaves the marker unset")
+    void testBackfillAll_Failure() throws Exception {
+        when(principalEmailIndexRepository.isBackfilled()).thenReturn(false);
+        when(queryFuture.get()).thenThrow(new RuntimeException("Firestore down"));
+
+        backfillService.backfillAll();
+
+        verify(principalEmailIndexRepository, never()).markBackfilled();
+    }
+}
@@ -10,6 +10,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +27,9 @@ class RegistrationExecutionServiceTest {
     @Mock
     private RegisterStrategy registerStrategy;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private RegistrationExecutionService registrationService;
 
@@ -43,6 +49,7 @@ class RegistrationExecutionServiceTest {
         assertEquals(expectedResponse, actualResponse);
         verify(registerStrategyFactory).getRegisterStrategy(Role.USER);
         verify(registerStrategy).register(request, "token");
+        assertEquals(1, meterRegistry.timer("registration.duration", "outcome", "success").count());
     }
 
     @Test
@@ -52,6 +59,7 @@ class RegistrationExecutionServiceTest {
         when(registerStrategy.register(any(), any())).thenThrow(new RuntimeException("Reg failed"));
 
         assertThrows(RuntimeException.class, () -> registrationService.registerUser(request));
+        assertEquals(1, meterRegistry.timer("registration.duration", "outcome", "failure").count());
     }
 
     @Test
@@ -0,0 +1,108 @@
+package com.example.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for RegistrationStepExecutor
+ *
+ * Tests Module: Registration - parallel pipeline
+ * Coverage: steps run concurrently, shared deadline, step exceptions rethrown, metrics
+ */
+class RegistrationStepExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RegistrationStepExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new RegistrationStepExecutor(meterRegistry, 2, 4, 2000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Submit - Steps overlap instead of running one after another")
+    void testSubmit_RunsConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CompletableFuture<Boolean> first = executor.submit("recaptcha", () -> awaitOther(bothStarted));
+        CompletableFuture<Boolean> second = executor.submit("hash", () -> awaitOther(bothStarted));
+
+        long deadline = executor.newDeadline();
+        assertTrue(executor.await(first, deadline));
+        assertTrue(executor.await(second, deadline));
+        assertEquals(1, meterRegistry.timer("registration.step.duration", "step", "hash").count());
+    }
+
+    @Test
+    @DisplayName("Await - Deadline shared by every step")
+    void testAwait_DeadlinePassed() {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> slow = executor.submit("recaptcha", () -> awaitRelease(release));
+
+        assertThrows(TimeoutException.class, () -> executor.await(slow, System.nanoTime()));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Await - Step exception rethrown to the caller")
+    void testAwait_StepFailure() {
+        CompletableFuture<Boolean> failing = executor.submit("email_check", () -> {
+            throw new IllegalArgumentException("Firestore down");
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> executor.await(failing, executor.newDeadline()));
+    }
+
+    @Test
+    @DisplayName("Cancel - Queued step never runs once cancelled")
+    void testCancel() throws Exception {
+        RegistrationStepExecutor single = new RegistrationStepExecutor(meterRegistry, 1, 4, 2000);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            single.submit("recaptcha", () -> awaitRelease(release));
+            CompletableFuture<String> queued = single.submit("hash", () -> "hashed");
+
+            single.cancel(queued);
+            release.countDown();
+
+            assertTrue(queued.isCancelled());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    // Blocks the step until the test releases it, so later steps stay queued
+    private boolean awaitRelease(CountDownLatch release) {
+        try {
+            return release.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean awaitOther(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
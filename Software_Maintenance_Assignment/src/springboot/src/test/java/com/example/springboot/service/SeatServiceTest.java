@@ -1,6 +1,7 @@
 package com.example.springboot.service;
 
 import com.example.springboot.model.Seat;
+import com.example.springboot.repository.RequestReadMemo;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +14,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -284,6 +286,26 @@ class SeatServiceTest {
         verify(documentReference, times(10)).delete();
     }
 
+    @Test
+    @DisplayName("Should drop memoized seat reads after deleting seats")
+    void testDeleteSeatsForFlight_InvalidatesReadMemo() throws ExecutionException, InterruptedException {
+        setupDeleteMocks(createMockDocuments(2));
+
+        RequestReadMemo memo = RequestReadMemo.open();
+        try {
+            RequestReadMemo.query("seats", "flightId", testFlightId, () -> CompletableFuture.completedFuture(2));
+
+            seatService.deleteSeatsForFlight(testFlightId);
+
+            int reread = RequestReadMemo.query("seats", "flightId", testFlightId,
+                () -> CompletableFuture.completedFuture(0)).join();
+            assertEquals(0, reread);
+            assertEquals(0, memo.hits());
+        } finally {
+            memo.close();
+        }
+    }
+
     @Test
     @DisplayName("Should handle deletion when no seats exist")
     void testDeleteSeatsForFlight_NoSeats() throws ExecutionException, InterruptedException {
@@ -0,0 +1,95 @@
+package com.example.springboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for ThrottledMailSender
+ *
+ * Tests Module: Email Notification Module
+ * Coverage: chunking by burst size, token bucket pacing, partial and total send failures
+ */
+class ThrottledMailSenderTest {
+
+    private JavaMailSender mailSender;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Send - Messages go out in chunks of at most burst")
+    void testSend_Chunks() throws Exception {
+        ThrottledMailSender sender = new ThrottledMailSender(mailSender, meterRegistry, 1000, 2);
+
+        int failures = sender.send(messages(5));
+
+        assertEquals(0, failures);
+        ArgumentCaptor<SimpleMailMessage[]> chunks = ArgumentCaptor.forClass(SimpleMailMessage[].class);
+        verify(mailSender, times(3)).send(chunks.capture());
+        assertEquals(List.of(2, 2, 1), chunks.getAllValues().stream().map(chunk -> chunk.length).toList());
+        assertEquals(5.0, meterRegistry.counter("mail.throttled.sent").count());
+    }
+
+    @Test
+    @DisplayName("Throttle - An empty bucket waits for the refill rate")
+    void testSend_Throttled() throws Exception {
+        // 20 tokens/second, burst 2: the first 2 are free, the next 4 take about 200ms
+        ThrottledMailSender sender = new ThrottledMailSender(mailSender, meterRegistry, 20, 2);
+
+        long startedAt = System.nanoTime();
+        sender.send(messages(6));
+        long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+        assertTrue(elapsedMs >= 150, "expected throttling, took " + elapsedMs + "ms");
+    }
+
+    @Test
+    @DisplayName("Send - Only refused messages count as failed")
+    void testSend_PartialFailure() throws Exception {
+        ThrottledMailSender sender = new ThrottledMailSender(mailSender, meterRegistry, 1000, 10);
+        List<SimpleMailMessage> batch = messages(3);
+        doThrow(new MailSendException(Map.<Object, Exception>of(batch.get(1), new RuntimeException("550"))))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+
+        assertEquals(1, sender.send(batch));
+        assertEquals(2.0, meterRegistry.counter("mail.throttled.sent").count());
+        assertEquals(1.0, meterRegistry.counter("mail.throttled.failed").count());
+    }
+
+    @Test
+    @DisplayName("Send - Connection failure fails the chunk without throwing")
+    void testSend_ConnectionFailure() throws Exception {
+        ThrottledMailSender sender = new ThrottledMailSender(mailSender, meterRegistry, 1000, 10);
+        doThrow(new MailSendException("Connection refused")).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        assertEquals(3, sender.send(messages(3)));
+    }
+
+    private List<SimpleMailMessage> messages(int count) {
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo("user" + i + "@example.com");
+            messages.add(message);
+        }
+        return messages;
+    }
+}
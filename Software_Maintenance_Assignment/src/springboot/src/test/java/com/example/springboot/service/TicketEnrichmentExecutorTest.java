@@ -0,0 +1,84 @@
+package com.example.springboot.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for TicketEnrichmentExecutor
+ *
+ * Tests Module: Booking Management Module - ticket enrichment
+ * Coverage: waits for all items, concurrent execution, single item inline,
+ * fallback to platform threads
+ */
+class TicketEnrichmentExecutorTest {
+
+    private final TicketEnrichmentExecutor executor = new TicketEnrichmentExecutor(4, 4, false);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Runs the task for every item before returning")
+    void testForEach_RunsAll() {
+        Set<Integer> done = ConcurrentHashMap.newKeySet();
+
+        executor.forEach(List.of(1, 2, 3, 4, 5, 6), done::add);
+
+        assertEquals(Set.of(1, 2, 3, 4, 5, 6), done);
+    }
+
+    @Test
+    @DisplayName("Items are processed concurrently")
+    void testForEach_Concurrent() {
+        // Each task waits for the other; sequential execution would time out
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Set<Boolean> results = ConcurrentHashMap.newKeySet();
+
+        executor.forEach(List.of("a", "b"), item -> {
+            bothStarted.countDown();
+            try {
+                results.add(bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals(Set.of(true), results);
+    }
+
+    @Test
+    @DisplayName("A single item runs on the calling thread")
+    void testForEach_SingleItemInline() {
+        Thread caller = Thread.currentThread();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        executor.forEach(List.of("only"), item -> threads.add(Thread.currentThread()));
+
+        assertEquals(Set.of(caller), threads);
+    }
+
+    @Test
+    @DisplayName("Virtual-thread mode runs the tasks on any JVM (platform fallback before Java 21)")
+    void testForEach_VirtualThreadsRequested() {
+        TicketEnrichmentExecutor virtual = new TicketEnrichmentExecutor(2, 2, true);
+        Set<Integer> done = ConcurrentHashMap.newKeySet();
+        try {
+            virtual.forEach(List.of(1, 2, 3), done::add);
+        } finally {
+            virtual.shutdown();
+        }
+
+        assertEquals(Set.of(1, 2, 3), done);
+    }
+}
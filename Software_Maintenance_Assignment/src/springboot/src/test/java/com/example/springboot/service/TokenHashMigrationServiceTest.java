@@ -0,0 +1,119 @@
+package com.example.springboot.service;
+
+import com.example.springboot.repository.EmailVerificationTokenRepository;
+import com.example.springboot.repository.PasswordResetTokenRepository;
+import com.example.springboot.repository.RefreshTokenRepository;
+import com.example.springboot.utils.TokenHashUtil;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for TokenHashMigrationService
+ *
+ * Tests Module: Authentication - token storage migration
+ * Coverage: legacy documents rewritten under hash IDs, legacy lookup switched off on success
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TokenHashMigrationServiceTest {
+
+    @Mock private Firestore firestore;
+    @Mock private RefreshTokenRepository refreshTokenRepository;
+    @Mock private PasswordResetTokenRepository passwordResetTokenRepository;
+    @Mock private EmailVerificationTokenRepository emailVerificationTokenRepository;
+
+    @Mock private CollectionReference collectionReference;
+    @Mock private Query query;
+    @Mock private ApiFuture<QuerySnapshot> queryFuture;
+    @Mock private QuerySnapshot querySnapshot;
+    @Mock private WriteBatch writeBatch;
+    @Mock private ApiFuture<List<WriteResult>> commitFuture;
+
+    @InjectMocks
+    private TokenHashMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(firestore.collection(anyString())).thenReturn(collectionReference);
+        when(collectionReference.orderBy("token")).thenReturn(query);
+        when(query.limit(anyInt())).thenReturn(query);
+        when(query.get()).thenReturn(queryFuture);
+        when(queryFuture.get()).thenReturn(querySnapshot);
+        when(firestore.batch()).thenReturn(writeBatch);
+        when(writeBatch.commit()).thenReturn(commitFuture);
+    }
+
+    @Test
+    @DisplayName("Migrate - Legacy document rewritten under its hash without the raw token")
+    void testMigrate_MovesLegacyDocument() {
+        String hash = TokenHashUtil.sha256Hex("raw-token");
+        DocumentReference hashRef = mock(DocumentReference.class);
+        DocumentReference legacyRef = mock(DocumentReference.class);
+        QueryDocumentSnapshot legacyDoc = mock(QueryDocumentSnapshot.class);
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", "legacy-id");
+        data.put("token", "raw-token");
+        data.put("userId", "u1");
+        when(legacyDoc.getId()).thenReturn("legacy-id");
+        when(legacyDoc.getString("token")).thenReturn("raw-token");
+        when(legacyDoc.getData()).thenReturn(data);
+        when(legacyDoc.getReference()).thenReturn(legacyRef);
+        when(collectionReference.document(hash)).thenReturn(hashRef);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(legacyDoc));
+
+        assertTrue(migrationService.migrate(RefreshTokenRepository.COLLECTION_NAME));
+
+        ArgumentCaptor<Map<String, Object>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(writeBatch).set(eq(hashRef), captor.capture());
+        assertFalse(captor.getValue().containsKey("token"));
+        assertEquals(hash, captor.getValue().get("tokenHash"));
+        assertEquals(hash, captor.getValue().get("id"));
+        assertEquals("u1", captor.getValue().get("userId"));
+        verify(writeBatch).delete(legacyRef);
+        verify(writeBatch).commit();
+    }
+
+    @Test
+    @DisplayName("Migrate All - Legacy lookup disabled when nothing is left to migrate")
+    void testMigrateAll_NothingLeft() {
+        when(querySnapshot.getDocuments()).thenReturn(Collections.emptyList());
+
+        migrationService.migrateAll();
+
+        verify(refreshTokenRepository).disableLegacyLookup();
+        verify(passwordResetTokenRepository).disableLegacyLookup();
+        verify(emailVerificationTokenRepository).disableLegacyLookup();
+        verify(writeBatch, never()).commit();
+    }
+
+    @Test
+    @DisplayName("Migrate All - Failure keeps the legacy lookup")
+    void testMigrateAll_Failure() throws Exception {
+        when(queryFuture.get()).thenThrow(new RuntimeException("Firestore down"));
+
+        migrationService.migrateAll();
+
+        verify(refreshTokenRepository, never()).disableLegacyLookup();
+        verify(passwordResetTokenRepository, never()).disableLegacyLookup();
+        verify(emailVerificationTokenRepository, never()).disableLegacyLookup();
+    }
+}
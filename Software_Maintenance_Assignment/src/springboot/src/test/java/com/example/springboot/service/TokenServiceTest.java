@@ -1,12 +1,28 @@
 package com.example.springboot.service;
 
+import com.example.springboot.dto.response.JWTResponseDTO;
+import com.example.springboot.enums.Role;
+import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.repository.RefreshTokenRepository;
+import com.example.springboot.security.jwt.JwtPrincipal;
+import com.example.springboot.security.jwt.JwtTokenProvider;
+import com.example.springboot.security.jwt.TokenFamilyRegistry;
+import com.example.springboot.security.jwt.TokenRevocationRegistry;
+import com.example.springboot.utils.TokenHashUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -15,6 +31,15 @@ class TokenServiceTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Mock
+    private TokenRevocationRegistry revocationRegistry;
+
+    @Mock
+    private TokenFamilyRegistry tokenFamilyRegistry;
+
     @InjectMocks
     private TokenService tokenService;
 
@@ -41,4 +66,78 @@ class TokenServiceTest {
 
         verify(refreshTokenRepository, times(1)).revokeToken(token);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testRevokeToken_RecordsRevocationUntilExpiry() {
+        String token = "valid_access_token";
+        long expiresAt = System.currentTimeMillis() + 60000;
+        when(jwtTokenProvider.parseToken(token))
+            .thenReturn(Optional.of(new JwtPrincipal("u1", "u1@mail.com", Role.USER, null, expiresAt, 0L, 0)));
+
+        tokenService.revokeToken(token);
+
+        verify(revocationRegistry).revoke(TokenHashUtil.sha256Hex(token), expiresAt);
+        verify(tokenFamilyRegistry).revokeFamily(eq(0L), anyLong());
+        verify(jwtTokenProvider).evictToken(token);
+        verify(refreshTokenRepository).revokeToken(token);
+    }
+
+    @Test
+    void testRevokeToken_InvalidTokenNotRecorded() {
+        String token = "garbage";
+        when(jwtTokenProvider.parseToken(token)).thenReturn(Optional.empty());
+
+        tokenService.revokeToken(token);
+
+        verify(revocationRegistry, never()).revoke(anyString(), anyLong());
+        verify(refreshTokenRepository).revokeToken(token);
+    }
+
+    private JwtPrincipal refreshPrincipal(long familyId, int generation) {
+        return new JwtPrincipal("u1", "u1@mail.com", Role.USER, "refresh",
+            System.currentTimeMillis() + 60000, familyId, generation);
+    }
+
+    @Test
+    void testRefreshTokens_Rotated() {
+        JWTResponseDTO rotated = JWTResponseDTO.builder().accessToken("a2").refreshToken("r2").build();
+        when(jwtTokenProvider.parseToken("r1")).thenReturn(Optional.of(refreshPrincipal(42L, 3)));
+        when(jwtTokenProvider.nextRefreshExpiryMillis()).thenReturn(123L);
+        when(tokenFamilyRegistry.rotate(42L, 3, 123L)).thenReturn(TokenFamilyRegistry.Outcome.ROTATED);
+        when(jwtTokenProvider.generateTokens("u1", "u1@mail.com", Role.USER, 42L, 4)).thenReturn(rotated);
+
+        JWTResponseDTO result = tokenService.refreshTokens("r1");
+
+        assertSame(rotated, result);
+        verify(jwtTokenProvider).evictToken("r1");
+    }
+
+    @Test
+    void testRefreshTokens_ReuseRejected() {
+        when(jwtTokenProvider.parseToken("r1")).thenReturn(Optional.of(refreshPrincipal(42L, 1)));
+        when(tokenFamilyRegistry.rotate(eq(42L), eq(1), anyLong())).thenReturn(TokenFamilyRegistry.Outcome.REUSED);
+
+        assertThrows(InvalidCredentialsException.class, () -> tokenService.refreshTokens("r1"));
+        verify(jwtTokenProvider, never()).generateTokens(anyString(), anyString(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void testRefreshTokens_AccessTokenRejected() {
+        JwtPrincipal access = new JwtPrincipal("u1", "u1@mail.com", Role.USER, null,
+            System.currentTimeMillis() + 60000, 42L, 0);
+        when(jwtTokenProvider.parseToken("a1")).thenReturn(Optional.of(access));
+
+        assertThrows(InvalidCredentialsException.class, () -> tokenService.refreshTokens("a1"));
+        verify(tokenFamilyRegistry, never()).rotate(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    void testRefreshTokens_InvalidOrFamilylessRejected() {
+        when(jwtTokenProvider.parseToken("bad")).thenReturn(Optional.empty());
+        when(jwtTokenProvider.parseToken("legacy")).thenReturn(Optional.of(refreshPrincipal(0L, 0)));
+
+        assertThrows(InvalidCredentialsException.class, () -> tokenService.refreshTokens("bad"));
+        assertThrows(InvalidCredentialsException.class, () -> tokenService.refreshTokens("legacy"));
+        verify(tokenFamilyRegistry, never()).rotate(anyLong(), anyInt(), anyLong());
+    }
+}
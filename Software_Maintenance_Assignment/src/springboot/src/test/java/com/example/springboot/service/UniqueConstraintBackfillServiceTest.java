@@ -0,0 +1,113 @@
+package com.example.springboot.service;
+
+import com.example.springboot.repository.UniqueConstraintRepository;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for UniqueConstraintBackfillService
+ *
+ * Tests Module: Registration / Flight Management - unique value reservations
+ * Coverage: customer and flight values reserved, marker written on success, skipped once backfilled
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UniqueConstraintBackfillServiceTest {
+
+    @Mock private Firestore firestore;
+    @Mock private UniqueConstraintRepository uniqueConstraintRepository;
+
+    @Mock private CollectionReference collectionReference;
+    @Mock private Query query;
+    @Mock private ApiFuture<QuerySnapshot> queryFuture;
+    @Mock private QuerySnapshot querySnapshot;
+
+    @InjectMocks
+    private UniqueConstraintBackfillService backfillService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(firestore.collection(anyString())).thenReturn(collectionReference);
+        when(collectionReference.select(any(String[].class))).thenReturn(query);
+        when(collectionReference.whereEqualTo(anyString(), any())).thenReturn(query);
+        when(query.select(any(String[].class))).thenReturn(query);
+        when(query.orderBy(any(FieldPath.class))).thenReturn(query);
+        when(query.limit(anyInt())).thenReturn(query);
+        when(query.get()).thenReturn(queryFuture);
+        when(queryFuture.get()).thenReturn(querySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(Collections.emptyList());
+    }
+
+    @Test
+    @DisplayName("Backfill - Customer values reserved for the customer, placeholders skipped")
+    void testBackfill_ReservesCustomerValues() throws Exception {
+        QueryDocumentSnapshot customer = mock(QueryDocumentSnapshot.class);
+        when(customer.getId()).thenReturn("cust-1");
+        when(customer.getString("email")).thenReturn("user@example.com");
+        when(customer.getString("phoneNumber")).thenReturn("Not Provided");
+        when(customer.getString("custIcNo")).thenReturn("990101-01-1234");
+        when(querySnapshot.getDocuments()).thenReturn(List.of(customer));
+        when(uniqueConstraintRepository.isBackfilled()).thenReturn(false);
+
+        backfillService.backfillAll();
+
+        verify(uniqueConstraintRepository).reserveExisting("customers/cust-1",
+                Map.of("email", "user@example.com", "custIcNo", "990101-01-1234"));
+        verify(uniqueConstraintRepository).markBackfilled();
+    }
+
+    @Test
+    @DisplayName("Backfill - Only active flights reserve their Flight ID")
+    void testBackfill_ReservesActiveFlights() throws Exception {
+        QueryDocumentSnapshot flight = mock(QueryDocumentSnapshot.class);
+        when(flight.getId()).thenReturn("doc-1");
+        when(flight.getString("flightId")).thenReturn("FL001");
+        when(querySnapshot.getDocuments()).thenReturn(List.of(flight));
+
+        int reserved = backfillService.backfill(query,
+                document -> Map.of("flightId", document.getString("flightId")),
+                FlightService::ownerOf);
+
+        assertEquals(1, reserved);
+        verify(uniqueConstraintRepository).reserveExisting("flights/doc-1", Map.of("flightId", "FL001"));
+    }
+
+    @Test
+    @DisplayName("Backfill All - Skipped once the marker exists")
+    void testBackfillAll_AlreadyDone() {
+        when(uniqueConstraintRepository.isBackfilled()).thenReturn(true);
+
+        backfillService.backfillAll();
+
+        verifyNoInteractions(firestore);
+        verify(uniqueConstraintRepository, never()).markBackfilled();
+    }
+
+    @Test
+    @DisplayName("Backfill All - Failure leaves the marker unset")
+    void testBackfillAll_Failure() throws Exception {
+        when(uniqueConstraintRepository.isBackfilled()).thenReturn(false);
+        when(queryFuture.get()).thenThrow(new RuntimeException("Firestore down"));
+
+        backfillService.backfillAll();
+
+        verify(uniqueConstraintRepository, never()).markBackfilled();
+    }
+}
@@ -6,6 +6,7 @@ import com.example.springboot.dto.response.MessageResponseDTO;
 import com.example.springboot.dto.response.SuperadminProfileDTO;
 import com.example.springboot.dto.response.UserProfileDTO;
 import com.example.springboot.enums.Role;
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.exception.UnauthorizedException;
 import com.example.springboot.exception.UserNotFoundException;
@@ -15,6 +16,7 @@ import com.example.springboot.model.User;
 import com.example.springboot.repository.AdminRepository;
 import com.example.springboot.repository.SuperadminRepository;
 import com.example.springboot.repository.UserRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -53,6 +55,9 @@ class UserManagementServiceTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private PrincipalEmailIndexRepository principalEmailIndexRepository;
+
     @InjectMocks
     private UserManagementService userManagementService;
 
@@ -286,12 +291,28 @@ class UserManagementServiceTest {
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(userRepository.existsByPhoneNumber("222")).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
+        when(userRepository.update(any(User.class))).thenReturn(updatedUser);
 
         UserProfileDTO result = userManagementService.updateUserProfile(userId, "New Name", "222");
 
         assertEquals("New Name", result.getFullName());
         assertEquals("222", result.getPhoneNumber());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void testUpdateUserProfile_PhoneTakenConcurrently() {
+        String userId = "user1";
+        User user = User.builder().custId(userId).phoneNumber("111").build();
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(userRepository.existsByPhoneNumber("222")).thenReturn(false);
+        when(userRepository.update(any(User.class)))
+                .thenThrow(new DuplicateResourceException("User", "phoneNumber", "222"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> userManagementService.updateUserProfile(userId, "Name", "222"));
+        assertEquals("Phone number already in use", ex.getMessage());
     }
 
     @Test
@@ -311,11 +332,14 @@ class UserManagementServiceTest {
         String userId = "user1";
         mockSecurityContext(userId, "ROLE_USER");
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
+        User user = new User();
+        user.setEmail("user1@test.com");
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         userManagementService.deleteUserAccount(userId);
 
         verify(userRepository).deleteById(userId);
+        verify(principalEmailIndexRepository).deleteByEmail("user1@test.com");
     }
 
     @Test
@@ -10,10 +10,13 @@ import com.example.springboot.enums.Role;
 import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.model.User;
 import com.example.springboot.repository.UserRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.security.jwt.JwtTokenProvider;
+import com.google.cloud.firestore.Transaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,6 +25,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,6 +47,9 @@ class FacebookAuthStrategyTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalEmailIndexRepository principalEmailIndexRepository;
+
     @InjectMocks
     private FacebookAuthStrategy facebookAuthStrategy;
 
@@ -75,10 +82,13 @@ class FacebookAuthStrategyTest {
                 .email("fbuser@example.com")
                 .role(Role.USER)
                 .authProvider(AuthProvider.FACEBOOK)
+                .providerId("fb-12345")
                 .accountLocked(false)
                 .build();
         
         lenient().when(userRepository.findByEmail("fbuser@example.com")).thenReturn(Optional.of(existingUser));
+        when(userRepository.findByProviderIdAndAuthProvider("fb-12345", AuthProvider.FACEBOOK))
+            .thenReturn(Optional.of(existingUser));
         
         when(userRepository.save(any(User.class))).thenAnswer(i -> i.getArgument(0));
 
@@ -98,6 +108,7 @@ class FacebookAuthStrategyTest {
         assertTrue(response.getSuccess());
         assertEquals("Facebook login successful", response.getMessage());
         verify(userRepository, atLeastOnce()).save(any(User.class));
+        verify(userRepository, never()).create(any(User.class), any());
     }
 
     @Test
@@ -119,6 +130,12 @@ class FacebookAuthStrategyTest {
                 .accountLocked(false)
                 .build();
         
+        ArgumentCaptor<Consumer<Transaction>> alsoWrite = ArgumentCaptor.forClass(Consumer.class);
+        when(userRepository.create(any(User.class), alsoWrite.capture())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setCustId("U002");
+            return user;
+        });
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
 
         JWTResponseDTO mockTokens = JWTResponseDTO.builder().accessToken("access").build();
@@ -131,6 +148,11 @@ class FacebookAuthStrategyTest {
         // Assert
         assertTrue(response.getSuccess());
         verify(userRepository, atLeastOnce()).save(any(User.class));
+
+        // The index entry goes into the account's transaction
+        Transaction transaction = mock(Transaction.class);
+        alsoWrite.getValue().accept(transaction);
+        verify(principalEmailIndexRepository).save(transaction, "fbuser@example.com", Role.USER, "U002");
     }
 
     @Test
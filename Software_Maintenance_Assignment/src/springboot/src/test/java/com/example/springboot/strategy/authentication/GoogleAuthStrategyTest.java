@@ -10,10 +10,13 @@ import com.example.springboot.enums.Role;
 import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.model.User;
 import com.example.springboot.repository.UserRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.security.jwt.JwtTokenProvider;
+import com.google.cloud.firestore.Transaction;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,6 +25,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,6 +47,9 @@ class GoogleAuthStrategyTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalEmailIndexRepository principalEmailIndexRepository;
+
     @InjectMocks
     private GoogleAuthStrategy googleAuthStrategy;
 
@@ -124,6 +131,12 @@ class GoogleAuthStrategyTest {
                 .build();
         
         // Mock save to return the user
+        ArgumentCaptor<Consumer<Transaction>> alsoWrite = ArgumentCaptor.forClass(Consumer.class);
+        when(userRepository.create(any(User.class), alsoWrite.capture())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setCustId("U002");
+            return user;
+        });
         when(userRepository.save(any(User.class))).thenReturn(savedUser);
 
         JWTResponseDTO mockTokens = JWTResponseDTO.builder().accessToken("access").build();
@@ -140,6 +153,11 @@ class GoogleAuthStrategyTest {
         // Depending on logic, it might be called 1 or 2 times (create + update login). 
         // using atLeastOnce() covers both cases safely.
         verify(userRepository, atLeastOnce()).save(any(User.class));
+
+        // The index entry goes into the account's transaction
+        Transaction transaction = mock(Transaction.class);
+        alsoWrite.getValue().accept(transaction);
+        verify(principalEmailIndexRepository).save(transaction, "googleuser@example.com", Role.USER, "U002");
     }
 
     @Test
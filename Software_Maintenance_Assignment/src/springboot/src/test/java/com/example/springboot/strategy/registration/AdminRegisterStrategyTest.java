@@ -9,11 +9,14 @@ import com.example.springboot.exception.InvalidCredentialsException;
 import com.example.springboot.exception.UnauthorizedException;
 import com.example.springboot.model.Admin;
 import com.example.springboot.repository.AdminRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.service.MFAService;
+import com.google.cloud.firestore.Transaction;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -26,6 +29,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -48,6 +52,9 @@ class AdminRegisterStrategyTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private PrincipalEmailIndexRepository principalEmailIndexRepository;
+
     @InjectMocks
     private AdminRegisterStrategy adminRegisterStrategy;
 
@@ -92,11 +99,12 @@ class AdminRegisterStrategyTest {
         when(adminRepository.existsByEmail(validRequest.getEmail())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPass");
         
-        Admin savedAdmin = Admin.builder()
-                .email(validRequest.getEmail())
-                .role(Role.ADMIN)
-                .build();
-        when(adminRepository.save(any(Admin.class))).thenReturn(savedAdmin);
+        ArgumentCaptor<Consumer<Transaction>> alsoWrite = ArgumentCaptor.forClass(Consumer.class);
+        when(adminRepository.create(any(Admin.class), alsoWrite.capture())).thenAnswer(invocation -> {
+            Admin admin = invocation.getArgument(0);
+            admin.setStaffId("staff-1");
+            return admin;
+        });
 
         // Act
         AuthResponseDTO response = adminRegisterStrategy.register(validRequest, "dummy-token");
@@ -104,7 +112,11 @@ class AdminRegisterStrategyTest {
         // Assert
         assertTrue(response.getSuccess());
         assertEquals("Staff account created successfully.", response.getMessage());
-        verify(adminRepository).save(any(Admin.class));
+        // The index entry goes into the account's transaction
+        Transaction transaction = mock(Transaction.class);
+        alsoWrite.getValue().accept(transaction);
+        verify(principalEmailIndexRepository).save(transaction, validRequest.getEmail(), Role.ADMIN, "staff-1");
+        verify(adminRepository, never()).save(any());
     }
 
     @Test
@@ -114,6 +126,22 @@ class AdminRegisterStrategyTest {
 
     // --- Negative Tests ---
 
+    @Test
+    void testRegister_Fail_IndexWriteFails() {
+        // Arrange: the account and its index entry share a transaction, so both fail together
+        mockSecurityContext("ROLE_SUPERADMIN", "superadmin-id");
+        when(adminRepository.existsByEmail(validRequest.getEmail())).thenReturn(false);
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPass");
+        when(adminRepository.create(any(Admin.class), any())).thenThrow(new RuntimeException("Failed to create staff"));
+
+        // Act & Assert
+        InvalidCredentialsException ex = assertThrows(InvalidCredentialsException.class, () ->
+            adminRegisterStrategy.register(validRequest, "dummy-token")
+        );
+        assertTrue(ex.getMessage().contains("Staff creation failed"));
+        verify(principalEmailIndexRepository, never()).save(anyString(), any(), anyString());
+    }
+
     @Test
     void testRegister_Fail_UnauthorizedCaller() {
         // Arrange: Caller is just a regular ADMIN, not SUPERADMIN
@@ -123,7 +151,7 @@ class AdminRegisterStrategyTest {
         assertThrows(UnauthorizedException.class, () -> 
             adminRegisterStrategy.register(validRequest, "dummy-token")
         );
-        verify(adminRepository, never()).save(any());
+        verify(adminRepository, never()).create(any(), any());
     }
 
     @Test
@@ -5,19 +5,31 @@ import com.example.springboot.adapter.recaptcha.RecaptchaAdapter;
 import com.example.springboot.dto.request.UserRegisterRequestDTO;
 import com.example.springboot.dto.response.AuthResponseDTO;
 import com.example.springboot.enums.Gender;
+import com.example.springboot.enums.Role;
+import com.example.springboot.exception.DuplicateResourceException;
 import com.example.springboot.exception.InvalidCredentialsException;
+import com.example.springboot.model.EmailVerificationToken;
 import com.example.springboot.model.User;
 import com.example.springboot.repository.UserRepository;
+import com.example.springboot.repository.PrincipalEmailIndexRepository;
 import com.example.springboot.service.EmailService;
 import com.example.springboot.service.EmailVerificationTokenService;
+import com.example.springboot.service.RegistrationStepExecutor;
+import com.google.cloud.firestore.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.function.Consumer;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -39,6 +51,12 @@ class EmailRegisterStrategyTest {
     @Mock
     private FirebaseAdapter firebaseAdapter;
 
+    @Mock
+    private PrincipalEmailIndexRepository principalEmailIndexRepository;
+
+    @Spy
+    private RegistrationStepExecutor stepExecutor = new RegistrationStepExecutor(new SimpleMeterRegistry(), 4, 16, 5000);
+
     @InjectMocks
     private EmailRegisterStrategy emailRegisterStrategy;
 
@@ -57,9 +75,15 @@ class EmailRegisterStrategyTest {
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        stepExecutor.shutdown();
+    }
+
     // --- Positive Tests ---
 
     @Test
+    @SuppressWarnings("unchecked")
     void testRegister_Success() throws Exception {
         // Arrange
         when(recaptchaAdapter.validateRecaptcha(anyString())).thenReturn(true);
@@ -72,8 +96,10 @@ class EmailRegisterStrategyTest {
                 .custId("firebase-uid-123")
                 .email(validRequest.getEmail())
                 .build();
-        when(userRepository.save(any(User.class))).thenReturn(savedUser);
-        when(tokenService.createVerificationToken(anyString(), anyString())).thenReturn("verify-token");
+        EmailVerificationToken verificationToken = EmailVerificationToken.builder().token("verify-token").build();
+        when(tokenService.newVerificationToken("firebase-uid-123", validRequest.getEmail())).thenReturn(verificationToken);
+        ArgumentCaptor<Consumer<Transaction>> alsoWrite = ArgumentCaptor.forClass(Consumer.class);
+        when(userRepository.create(any(User.class), alsoWrite.capture())).thenReturn(savedUser);
 
         // Act
         AuthResponseDTO response = emailRegisterStrategy.register(validRequest, "valid-token");
@@ -82,6 +108,30 @@ class EmailRegisterStrategyTest {
         assertTrue(response.getSuccess());
         verify(emailService).sendVerificationEmail(any(User.class), eq("verify-token"));
         verify(firebaseAdapter).createUser(validRequest.getEmail(), validRequest.getPassword(), validRequest.getName());
+
+        // Token and index entry go into the user's transaction
+        Transaction transaction = mock(Transaction.class);
+        alsoWrite.getValue().accept(transaction);
+        verify(tokenService).save(transaction, verificationToken);
+        verify(principalEmailIndexRepository).save(transaction, validRequest.getEmail(), Role.USER, "firebase-uid-123");
+        verify(tokenService, never()).createVerificationToken(anyString(), anyString());
+    }
+
+    @Test
+    void testRegister_Fail_TimeBudgetExceeded() throws Exception {
+        // Arrange: the budget is already spent when a slow reCAPTCHA call is awaited
+        doReturn(System.nanoTime()).when(stepExecutor).newDeadline();
+        lenient().when(recaptchaAdapter.validateRecaptcha(anyString())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return true;
+        });
+
+        // Act & Assert
+        InvalidCredentialsException ex = assertThrows(InvalidCredentialsException.class, () ->
+            emailRegisterStrategy.register(validRequest, "valid-token")
+        );
+        assertEquals("Registration timed out, please try again", ex.getMessage());
+        verify(firebaseAdapter, never()).createUser(anyString(), anyString(), anyString());
     }
 
     // --- Negative Tests ---
@@ -95,7 +145,9 @@ class EmailRegisterStrategyTest {
         assertThrows(InvalidCredentialsException.class, () -> 
             emailRegisterStrategy.register(validRequest, "invalid-token")
         );
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).create(any(), any());
+        // A failed reCAPTCHA costs no BCrypt work
+        verify(passwordEncoder, never()).encode(anyString());
     }
 
     @Test
@@ -125,6 +177,25 @@ class EmailRegisterStrategyTest {
         assertEquals("Phone number already registered", ex.getMessage());
     }
 
+    @Test
+    void testRegister_Fail_IcNumberTakenConcurrently() throws Exception {
+        // Arrange: pre-checks pass, but another registration reserved the IC number first
+        when(recaptchaAdapter.validateRecaptcha(anyString())).thenReturn(true);
+        when(firebaseAdapter.createUser(anyString(), anyString(), anyString())).thenReturn("firebase-uid-123");
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPass");
+        when(tokenService.newVerificationToken(anyString(), anyString()))
+            .thenReturn(EmailVerificationToken.builder().token("verify-token").build());
+        when(userRepository.create(any(User.class), any()))
+            .thenThrow(new DuplicateResourceException("User", "custIcNo", validRequest.getCustIcNo()));
+
+        // Act & Assert
+        InvalidCredentialsException ex = assertThrows(InvalidCredentialsException.class, () ->
+            emailRegisterStrategy.register(validRequest, "valid-token")
+        );
+        assertEquals("IC number already registered", ex.getMessage());
+        verify(emailService, never()).sendVerificationEmail(any(), anyString());
+    }
+
     @Test
     void testRegister_Fail_FirebaseError() throws Exception {
         // Arrange
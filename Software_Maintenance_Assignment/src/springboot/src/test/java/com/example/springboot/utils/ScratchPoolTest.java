@@ -0,0 +1,48 @@
+package com.example.springboot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScratchPoolTest {
+
+    @Test
+    void testBorrow_ReusesReleasedObject() {
+        AtomicInteger created = new AtomicInteger();
+        ScratchPool<StringBuilder> pool = new ScratchPool<>(2, () -> {
+            created.incrementAndGet();
+            return new StringBuilder();
+        });
+
+        StringBuilder first = pool.borrow();
+        pool.release(first);
+
+        assertSame(first, pool.borrow());
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void testBorrow_CreatesWhenNoneIdle() {
+        ScratchPool<StringBuilder> pool = new ScratchPool<>(2, StringBuilder::new);
+
+        assertNotSame(pool.borrow(), pool.borrow());
+    }
+
+    @Test
+    void testRelease_DropsBeyondCapacity() {
+        ScratchPool<StringBuilder> pool = new ScratchPool<>(1, StringBuilder::new);
+
+        pool.release(new StringBuilder());
+        pool.release(new StringBuilder());
+        pool.release(null);
+
+        assertEquals(1, pool.idleCount());
+    }
+
+    @Test
+    void testDefaultCapacity_AtLeastFour() {
+        assertTrue(ScratchPool.defaultCapacity() >= 4);
+    }
+}
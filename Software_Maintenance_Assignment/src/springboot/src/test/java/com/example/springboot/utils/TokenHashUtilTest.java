@@ -0,0 +1,29 @@
+package com.example.springboot.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenHashUtilTest {
+
+    @Test
+    void testSha256Hex_KnownVector() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                TokenHashUtil.sha256Hex("abc"));
+    }
+
+    @Test
+    void testSha256Hex_DifferentTokensDifferentHashes() {
+        String a = TokenHashUtil.sha256Hex("token-a");
+        String b = TokenHashUtil.sha256Hex("token-b");
+
+        assertEquals(64, a.length());
+        assertNotEquals(a, b);
+        assertEquals(a, TokenHashUtil.sha256Hex("token-a"));
+    }
+
+    @Test
+    void testSha256Hex_Null() {
+        assertThrows(IllegalArgumentException.class, () -> TokenHashUtil.sha256Hex(null));
+    }
+}